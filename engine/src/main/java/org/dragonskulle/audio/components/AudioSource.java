@@ -10,6 +10,7 @@ import org.dragonskulle.audio.formats.Sound;
 import org.dragonskulle.components.Component;
 import org.dragonskulle.components.IFixedUpdate;
 import org.dragonskulle.components.ILateFrameUpdate;
+import org.dragonskulle.components.IPoolable;
 import org.dragonskulle.core.Engine;
 import org.dragonskulle.core.Reference;
 import org.dragonskulle.core.Resource;
@@ -27,9 +28,10 @@ import org.lwjgl.openal.AL11;
  */
 @Accessors(prefix = "m")
 @Log
-public class AudioSource extends Component implements IFixedUpdate, ILateFrameUpdate {
+public class AudioSource extends Component
+        implements IFixedUpdate, ILateFrameUpdate, IPoolable {
 
-    private final Reference<AudioSource> mReference = getReference(AudioSource.class);
+    private Reference<AudioSource> mReference = getReference(AudioSource.class);
     @Getter private final Vector3f mPosition = new Vector3f();
 
     @Getter private Sound mSound = null;
@@ -188,6 +190,14 @@ public class AudioSource extends Component implements IFixedUpdate, ILateFrameUp
         mSound = null;
     }
 
+    @Override
+    public void onReturnToPool() {
+        detachSource();
+        mSound = null;
+        mTimeLeft = -1f;
+        mReference = getReference(AudioSource.class);
+    }
+
     @Override
     public void fixedUpdate(float deltaTime) {
         if (Scene.getActiveScene() != Engine.getInstance().getPresentationScene()) {
@@ -6,6 +6,8 @@ import lombok.Setter;
 import lombok.experimental.Accessors;
 import org.dragonskulle.core.Engine;
 import org.dragonskulle.core.GameObject;
+import org.dragonskulle.core.HandleTable;
+import org.dragonskulle.core.NoClone;
 import org.dragonskulle.core.Reference;
 
 /**
@@ -20,6 +22,8 @@ import org.dragonskulle.core.Reference;
 public abstract class Component {
 
     @Getter private Reference<Component> mReference = new Reference<>(this);
+    /** Handle of the component, allocated on first use. Clones get their own. */
+    @NoClone private int mHandle = HandleTable.NULL_HANDLE;
 
     @Getter @Setter protected GameObject mGameObject;
 
@@ -42,6 +46,7 @@ public abstract class Component {
         }
 
         mReference.clear();
+        releaseHandle();
     }
 
     /** Handle component's removal. Called by game object. */
@@ -51,6 +56,8 @@ public abstract class Component {
         }
         mGameObject = null;
         mReference.clear();
+        releaseHandle();
+        afterRemove();
     }
 
     /**
@@ -68,6 +75,15 @@ public abstract class Component {
     /** User-defined destroy method, this is what needs to be overridden instead of destroy. */
     protected abstract void onDestroy();
 
+    /**
+     * Called once the component got removed from its object, and its handle has been released,
+     * whether or not it was awake.
+     *
+     * <p>This is meant for base classes that keep track of their components elsewhere. Game code
+     * should use {@link #onDestroy()}.
+     */
+    protected void afterRemove() {}
+
     /**
      * Getter for mReference.
      *
@@ -81,9 +97,34 @@ public abstract class Component {
         return mReference.cast(type);
     }
 
+    /**
+     * Get the handle of the component.
+     *
+     * <p>The handle is allocated from {@link Engine#getHandles()} on first use, and gets released
+     * whenever the component's reference gets cleared.
+     *
+     * @return handle of the component, or {@link HandleTable#NULL_HANDLE}, if it has been
+     *     destroyed.
+     */
+    public final int getHandle() {
+        if (mHandle == HandleTable.NULL_HANDLE && Reference.isValid(mReference)) {
+            mHandle = Engine.getHandles().allocate(this);
+        }
+        return mHandle;
+    }
+
+    /** Release the handle of the component, if it has one. */
+    private void releaseHandle() {
+        if (mHandle != HandleTable.NULL_HANDLE) {
+            Engine.getHandles().release(mHandle);
+            mHandle = HandleTable.NULL_HANDLE;
+        }
+    }
+
     /** Clear the current reference of the object and create a new one. */
     public final void recreateReference() {
         mReference.clear();
         mReference = new Reference<>(this);
+        releaseHandle();
     }
 }
@@ -0,0 +1,24 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.components;
+
+/**
+ * IParallelFixedUpdate interface.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>One of the optional interfaces for a component. Components implementing it declare their
+ *     fixed update parallel-safe, so they can be updated in batches on multiple threads.
+ */
+public interface IParallelFixedUpdate {
+
+    /**
+     * Parallel fixed update is called at the same rate as {@link IFixedUpdate#fixedUpdate}, after
+     * all regular fixed updates of the scene.
+     *
+     * <p>It may run concurrently with the same method of other components in the scene, and in no
+     * particular order. It should only modify the component's own state, and only read state that
+     * does not change during the update.
+     *
+     * @param deltaTime Approximate time between calls to parallelFixedUpdate
+     */
+    void parallelFixedUpdate(float deltaTime);
+}
@@ -0,0 +1,24 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.components;
+
+/**
+ * IPoolable interface.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>One of the optional interfaces for a component. Objects spawned from a pool get recycled
+ *     instead of destroyed, but only if every component in the object's tree implements this
+ *     interface. The components are not destroyed, nor woken up, or started again when reused.
+ */
+public interface IPoolable {
+
+    /**
+     * Reset the component before its object is put back into the pool.
+     *
+     * <p>This is called instead of the component being destroyed. The component should stop any
+     * ongoing activity, and reset any state that should not carry over to the next spawn. All
+     * references to the object and its components get recreated beforehand, so that any code still
+     * holding the old ones sees them as destroyed. References stored within the component need to
+     * be acquired again here.
+     */
+    void onReturnToPool();
+}
@@ -1,23 +1,25 @@
 /* (C) 2021 DragonSkulle */
 package org.dragonskulle.core;
 
-import com.rits.cloning.Cloner;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import lombok.Getter;
 import lombok.experimental.Accessors;
 import lombok.extern.java.Log;
 import org.dragonskulle.audio.AudioManager;
 import org.dragonskulle.components.Component;
-import org.dragonskulle.components.IFixedUpdate;
 import org.dragonskulle.components.IFrameUpdate;
 import org.dragonskulle.components.ILateFrameUpdate;
 import org.dragonskulle.components.ILateNetworkUpdate;
 import org.dragonskulle.components.INetworkUpdate;
 import org.dragonskulle.components.IOnAwake;
 import org.dragonskulle.components.IOnStart;
+import org.dragonskulle.core.FrameProfiler.Phase;
 import org.dragonskulle.core.futures.Future;
 import org.dragonskulle.input.Bindings;
 import org.dragonskulle.network.UPnP;
@@ -40,29 +42,64 @@ import org.dragonskulle.ui.UIManager;
 public class Engine {
     private static final Engine ENGINE_INSTANCE = new Engine();
 
-    private static final int UPDATES_PER_SECOND = 32; // Target number of fixed updates per second
-    private static final float UPDATE_TIME = 1 / (float) UPDATES_PER_SECOND;
+    /** Default target number of fixed updates per second. */
+    public static final int DEFAULT_UPDATES_PER_SECOND = 32;
+
+    /** Time before a fixed update is due, under which a paced loop spins instead of sleeping. */
+    private static final double SPIN_TIME = 0.002;
 
     private static final int WINDOW_WIDTH = 1600;
     private static final int WINDOW_HEIGHT = 900;
 
+    /** Cloner used to instantiate objects, with fast cloners for every component class. */
     @Accessors(prefix = "s")
     @Getter
-    private static final Cloner sCloner = new Cloner();
+    private static final EngineCloner sCloner = new EngineCloner();
+
+    /** Table of handles of objects, and components that requested one. */
+    @Accessors(prefix = "s")
+    @Getter
+    private static final HandleTable sHandles = new HandleTable();
 
     private boolean mIsRunning = false;
 
+    /** Decides how many fixed, and network updates every frame runs. */
+    @Getter private final FixedTimestep mTimestep = new FixedTimestep(DEFAULT_UPDATES_PER_SECOND);
+
+    /**
+     * How far into the next fixed update the current frame is, from 0 to 1. Late frame updates,
+     * and rendering can use it to interpolate between the previous, and latest fixed update state.
+     */
+    @Getter private float mInterpolationAlpha = 0f;
+
+    /** Whether the engine is running without a window, rendering, and audio. */
+    @Getter private boolean mHeadless = false;
+
     /** Contains list of objects that are to be destroyed at the end of loop iteration. */
-    protected final HashSet<GameObject> mDestroyedObjects = new HashSet<>();
+    protected final Set<GameObject> mDestroyedObjects =
+            Collections.synchronizedSet(new HashSet<>());
+    /**
+     * Destroyed objects, whose components are to be destroyed at the end of loop iteration, after
+     * all objects have been destroyed.
+     */
+    protected final List<GameObject> mObjectsToClear =
+            Collections.synchronizedList(new ArrayList<>());
     /** Contains list of components that are to be destroyed at the end of loop iteration. */
-    protected final HashSet<Component> mDestroyedComponents = new HashSet<>();
+    protected final Set<Component> mDestroyedComponents =
+            Collections.synchronizedSet(new HashSet<>());
     /** Contains a map of objects that are to be enabled/disabled at the end of loop iteration. */
-    protected final HashMap<GameObject, Boolean> mDisabledObjects = new HashMap<>();
+    protected final Map<GameObject, Boolean> mDisabledObjects =
+            Collections.synchronizedMap(new HashMap<>());
 
     private final HashSet<Scene> mScenesToActivate = new HashSet<>();
     private final HashSet<Scene> mScenesToDeactivate = new HashSet<>();
     private final HashSet<Scene> mScenesToUnload = new HashSet<>();
     private Scene mNewPresentationScene = null;
+    /** Lock for scene switch requests, which may come from multiple scenes in parallel. */
+    private final Object mSceneLock = new Object();
+
+    /** Scenes whose root objects got destroyed this frame. */
+    private final ArrayList<Scene> mScenesWithDestroyedRoots = new ArrayList<>();
 
     private final HashSet<Scene> mInactiveScenes = new HashSet<>();
     private final HashSet<Scene> mActiveScenes = new HashSet<>();
@@ -75,12 +112,32 @@ public class Engine {
     private ArrayList<IScheduledEvent> mEndOfLoopEvents = new ArrayList<>();
     private ArrayList<IScheduledEvent> mFixedUpdateEvents = new ArrayList<>();
     private ArrayList<IScheduledEvent> mEventsToConsume = new ArrayList<>();
+    /** Lock for scheduling events, which may happen from multiple scenes in parallel. */
+    private final Object mEventLock = new Object();
+
+    /** Profiler of the main loop, disabled by default. */
+    @Getter private final FrameProfiler mProfiler = new FrameProfiler();
+
+    /** Scheduler that runs the fixed, and network updates of active scenes. */
+    @Getter private SceneScheduler mScheduler = new SceneScheduler(1);
 
     @Getter private float mCurTime = 0f;
     @Getter private float mFrameDeltaTime = 0f;
 
     private final ArrayList<Renderable> mTmpRenderables = new ArrayList<>();
     private final ArrayList<Light> mTmpLights = new ArrayList<>();
+    /** Copy of a scene's component list, so that callbacks are free to modify the scene. */
+    private final ArrayList<Component> mTmpComponents = new ArrayList<>();
+
+    /** How the main loop advances time. */
+    private enum LoopTiming {
+        /** Run iterations back to back, and advance time by the wall clock. */
+        REAL_TIME,
+        /** Advance time by the wall clock, and sleep until the next fixed update is due. */
+        PACED,
+        /** Run exactly one fixed update per iteration, back to back, without a wall clock. */
+        SIMULATED
+    }
 
     /** Interface used for supplying an exit condition to the main game loop. */
     public interface IEngineExitCondition {
@@ -123,11 +180,72 @@ public class Engine {
         UPnP.initialise();
 
         mIsRunning = true;
-        mainLoop(mGLFWState::processEvents, true);
+        mainLoop(mGLFWState::processEvents, true, LoopTiming.REAL_TIME);
 
         cleanup();
     }
 
+    /**
+     * Start the engine without a window, rendering, or audio.
+     *
+     * <p>This is meant for dedicated servers. Only active scenes get updated, and the loop sleeps
+     * between fixed updates, instead of spinning. The engine runs until {@link #stop()} is called.
+     */
+    public void startHeadless() {
+        mHeadless = true;
+        mIsRunning = true;
+        mainLoop(() -> true, false, LoopTiming.PACED);
+
+        cleanup();
+        mHeadless = false;
+    }
+
+    /**
+     * Start the engine without a window, rendering, or audio, and simulate as fast as possible.
+     *
+     * <p>Every iteration of the loop runs exactly one fixed, and network update, and advances the
+     * time by one update time, no matter how long it actually took. This lets games be simulated
+     * much faster than real time, while every update still sees the usual time step. The engine
+     * runs until {@link #stop()} is called.
+     */
+    public void startSimulation() {
+        mHeadless = true;
+        mIsRunning = true;
+        mainLoop(() -> true, false, LoopTiming.SIMULATED);
+
+        cleanup();
+        mHeadless = false;
+    }
+
+    /**
+     * Set the target number of fixed updates per second.
+     *
+     * @param updatesPerSecond number of fixed updates per second.
+     * @throws IllegalArgumentException if the number is not positive.
+     * @see FixedTimestep#setUpdatesPerSecond
+     */
+    public void setUpdatesPerSecond(int updatesPerSecond) {
+        mTimestep.setUpdatesPerSecond(updatesPerSecond);
+    }
+
+    /**
+     * Get the target number of fixed updates per second.
+     *
+     * @return number of fixed updates per second.
+     */
+    public int getUpdatesPerSecond() {
+        return mTimestep.getUpdatesPerSecond();
+    }
+
+    /**
+     * Get the time between fixed updates.
+     *
+     * @return time step of fixed updates, in seconds.
+     */
+    public float getUpdateTime() {
+        return mTimestep.getUpdateTime();
+    }
+
     /**
      * Runs the engine with a list of futures, until they all finish.
      *
@@ -150,7 +268,7 @@ public class Engine {
         }
 
         mIsRunning = true;
-        mainLoop(() -> loadedScenes[0] != 0, false);
+        mainLoop(() -> loadedScenes[0] != 0, false, LoopTiming.REAL_TIME);
 
         cleanup();
     }
@@ -162,10 +280,12 @@ public class Engine {
      * @param active Whether the scene will be active
      */
     public void loadScene(Scene scene, boolean active) {
-        if (active) {
-            mScenesToActivate.add(scene);
-        } else {
-            mScenesToDeactivate.add(scene);
+        synchronized (mSceneLock) {
+            if (active) {
+                mScenesToActivate.add(scene);
+            } else {
+                mScenesToDeactivate.add(scene);
+            }
         }
     }
 
@@ -176,7 +296,9 @@ public class Engine {
      * @param scene Scene to be loaded
      */
     public void activateScene(Scene scene) {
-        mScenesToActivate.add(scene);
+        synchronized (mSceneLock) {
+            mScenesToActivate.add(scene);
+        }
     }
 
     /**
@@ -185,9 +307,11 @@ public class Engine {
      * @param name Name of the scene to activate
      */
     public void activateScene(String name) {
-        for (Scene s : mInactiveScenes) {
-            if (s.getName().equals(name)) {
-                mScenesToActivate.add(s);
+        synchronized (mSceneLock) {
+            for (Scene s : mInactiveScenes) {
+                if (s.getName().equals(name)) {
+                    mScenesToActivate.add(s);
+                }
             }
         }
     }
@@ -199,7 +323,9 @@ public class Engine {
      * @param scene Scene to be loaded
      */
     public void deactivateScene(Scene scene) {
-        mScenesToDeactivate.add(scene);
+        synchronized (mSceneLock) {
+            mScenesToDeactivate.add(scene);
+        }
     }
 
     /**
@@ -208,9 +334,11 @@ public class Engine {
      * @param name Name of the scene to activate
      */
     public void deactivateScene(String name) {
-        for (Scene s : mActiveScenes) {
-            if (s.getName().equals(name)) {
-                mScenesToDeactivate.add(s);
+        synchronized (mSceneLock) {
+            for (Scene s : mActiveScenes) {
+                if (s.getName().equals(name)) {
+                    mScenesToDeactivate.add(s);
+                }
             }
         }
     }
@@ -223,7 +351,9 @@ public class Engine {
      * @param scene Scene to unload
      */
     public void unloadScene(Scene scene) {
-        mScenesToUnload.add(scene);
+        synchronized (mSceneLock) {
+            mScenesToUnload.add(scene);
+        }
     }
 
     /**
@@ -232,8 +362,10 @@ public class Engine {
      * @param scene Scene to be rendered to the user
      */
     public void loadPresentationScene(Scene scene) {
-        mScenesToActivate.add(scene);
-        mNewPresentationScene = scene;
+        synchronized (mSceneLock) {
+            mScenesToActivate.add(scene);
+            mNewPresentationScene = scene;
+        }
     }
 
     /**
@@ -264,7 +396,9 @@ public class Engine {
      * @param event Event to schedule.
      */
     public void scheduleFrameEvent(IScheduledEvent event) {
-        mFrameEvents.add(event);
+        synchronized (mEventLock) {
+            mFrameEvents.add(event);
+        }
     }
 
     /**
@@ -273,7 +407,9 @@ public class Engine {
      * @param event Event to schedule.
      */
     public void scheduleFixedUpdateEvent(IScheduledEvent event) {
-        mFixedUpdateEvents.add(event);
+        synchronized (mEventLock) {
+            mFixedUpdateEvents.add(event);
+        }
     }
 
     /**
@@ -282,7 +418,23 @@ public class Engine {
      * @param event Event to schedule.
      */
     public void scheduleEndOfLoopEvent(IScheduledEvent event) {
-        mEndOfLoopEvents.add(event);
+        synchronized (mEventLock) {
+            mEndOfLoopEvents.add(event);
+        }
+    }
+
+    /**
+     * Set the number of threads active scenes are updated on.
+     *
+     * <p>With more than one thread, fixed and network updates of every active scene run in
+     * parallel, see {@link SceneScheduler}. This should only be enabled when active scenes are
+     * independent of each other, like multiple hosted games in one process.
+     *
+     * @param threads number of threads, 1 to update serially.
+     */
+    public void setParallelism(int threads) {
+        mScheduler.shutdown();
+        mScheduler = new SceneScheduler(threads);
     }
 
     /** Stops the engine when the current frame has finished. */
@@ -294,38 +446,47 @@ public class Engine {
      * Main loop of the engine.
      *
      * @param exitCondition Exit condition that should be checked every iteration.
-     * @param present Whether any rendering should be done or not.
+     * @param present Whether any rendering, and audio should be done or not.
+     * @param timing How the loop advances time.
      */
-    private void mainLoop(IEngineExitCondition exitCondition, boolean present) {
+    private void mainLoop(IEngineExitCondition exitCondition, boolean present, LoopTiming timing) {
 
         double prevTime = Time.getPreciseTimeInSeconds();
 
-        // Basic frame counter
-        double cumulativeTime = 0;
-
         mCurTime = 0;
+        mTimestep.reset();
 
         while (mIsRunning) {
+            mProfiler.beginFrame();
+
             // Calculate time for last frame
             double curTime = Time.getPreciseTimeInSeconds();
-            double deltaTime = curTime - prevTime;
+            double deltaTime =
+                    timing == LoopTiming.SIMULATED ? mTimestep.getUpdateTime() : curTime - prevTime;
             prevTime = curTime;
             double cumulativeDeltaTime = deltaTime;
 
             mFrameDeltaTime = (float) deltaTime;
 
-            cumulativeTime += deltaTime;
-
-            boolean triggerFixedUpdate = cumulativeTime > UPDATE_TIME;
+            int fixedSteps = mTimestep.advance(deltaTime);
+            boolean triggerNetworkUpdate = mTimestep.isNetworkUpdateDue();
+            float updateTime = mTimestep.getUpdateTime();
+            mInterpolationAlpha = mTimestep.getAlpha();
 
             // Update scenes
+            long start = mProfiler.begin();
             switchScenes();
+            mProfiler.end(Phase.SWITCH_SCENES, start);
 
             // Wake up all components that aren't awake (Called on all active scenes)
+            start = mProfiler.begin();
             wakeComponents();
+            mProfiler.end(Phase.WAKE_COMPONENTS, start);
 
             // Start all enabled components (Called on all active scenes)
+            start = mProfiler.begin();
             startEnabledComponents();
+            mProfiler.end(Phase.START_COMPONENTS, start);
 
             mIsRunning = exitCondition.shouldExit();
 
@@ -334,21 +495,31 @@ public class Engine {
                 UIManager.getInstance().uiUpdate(mPresentationScene.getEnabledComponents());
 
                 // Call FrameUpdate on the presentation scene
+                start = mProfiler.begin();
                 frameUpdate((float) deltaTime);
+                mProfiler.end(Phase.FRAME_UPDATE, start);
                 Scene.setActiveScene(null);
             }
 
-            if (triggerFixedUpdate) {
+            if (triggerNetworkUpdate) {
+                start = mProfiler.begin();
                 networkUpdate();
+                mProfiler.end(Phase.NETWORK_UPDATE, start);
+            }
+
+            for (int i = 0; i < fixedSteps; i++) {
+                mCurTime += updateTime;
+                cumulativeDeltaTime -= updateTime;
 
-                do {
-                    cumulativeTime -= UPDATE_TIME;
-                    mCurTime += UPDATE_TIME;
-                    cumulativeDeltaTime -= UPDATE_TIME;
+                start = mProfiler.begin();
+                fixedUpdate(updateTime);
+                mProfiler.end(Phase.FIXED_UPDATE, start);
 
-                    fixedUpdate();
+                if (present) {
+                    start = mProfiler.begin();
                     AudioManager.getInstance().update();
-                } while (cumulativeTime > UPDATE_TIME);
+                    mProfiler.end(Phase.AUDIO, start);
+                }
             }
 
             mCurTime += cumulativeDeltaTime;
@@ -358,25 +529,68 @@ public class Engine {
                 AudioManager.getInstance().updateAudioListener();
 
                 // Call LateFrameUpdate on the presentation scene
+                start = mProfiler.begin();
                 lateFrameUpdate((float) deltaTime);
+                mProfiler.end(Phase.LATE_FRAME_UPDATE, start);
 
+                start = mProfiler.begin();
                 renderFrame();
+                mProfiler.end(Phase.RENDER, start);
                 Scene.setActiveScene(null);
             }
 
-            if (triggerFixedUpdate) {
+            if (triggerNetworkUpdate) {
+                start = mProfiler.begin();
                 lateNetworkUpdate();
+                mProfiler.end(Phase.LATE_NETWORK_UPDATE, start);
             }
 
+            start = mProfiler.begin();
             ArrayList<IScheduledEvent> toConsume = mEndOfLoopEvents;
             mEndOfLoopEvents = mEventsToConsume;
             consumeEvents(toConsume);
+            mProfiler.end(Phase.END_OF_LOOP_EVENTS, start);
 
             // Disable all objects that have been deferred to do so
+            start = mProfiler.begin();
             disableObjects();
+            mProfiler.end(Phase.DISABLE_OBJECTS, start);
 
             // Destroy all objects and components that were destroyed this frame
+            start = mProfiler.begin();
             destroyObjectsAndComponents();
+            mProfiler.end(Phase.DESTROY, start);
+
+            mProfiler.endFrame();
+
+            if (timing == LoopTiming.PACED && mIsRunning) {
+                waitUntil(curTime + mTimestep.getTimeUntilNextStep());
+            }
+        }
+    }
+
+    /**
+     * Wait until a point in time, without burning a core.
+     *
+     * <p>Sleeps for most of the time, and only spins the last {@link #SPIN_TIME} seconds, since
+     * sleeps are not precise.
+     *
+     * @param time target time, as given by {@link Time#getPreciseTimeInSeconds()}.
+     */
+    private static void waitUntil(double time) {
+        double remaining;
+
+        while ((remaining = time - Time.getPreciseTimeInSeconds()) > 0) {
+            if (remaining > SPIN_TIME) {
+                try {
+                    Thread.sleep((long) ((remaining - SPIN_TIME) * 1000));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            } else {
+                Thread.yield();
+            }
         }
     }
 
@@ -387,18 +601,23 @@ public class Engine {
 
             List<Component> list = s.getNotAwakeComponents();
 
-            for (Component component : list) {
+            if (list.isEmpty()) {
+                continue;
+            }
+
+            mTmpComponents.addAll(list);
+
+            for (Component component : mTmpComponents) {
                 if (component instanceof IOnAwake) {
+                    long start = mProfiler.begin();
                     ((IOnAwake) component).onAwake();
+                    mProfiler.endComponent(component, start);
                 }
                 component.setAwake(true);
             }
 
-            if (list.size() > 0) {
-                s.dirtyToStartComponents();
-            }
-
-            list.clear();
+            mTmpComponents.clear();
+            s.dirtyToStartComponents();
         }
         Scene.setActiveScene(null);
     }
@@ -413,18 +632,23 @@ public class Engine {
 
             List<Component> list = s.getEnabledButNotStartedComponents();
 
-            for (Component component : list) {
+            if (list.isEmpty()) {
+                continue;
+            }
+
+            mTmpComponents.addAll(list);
+
+            for (Component component : mTmpComponents) {
                 if (component instanceof IOnStart) {
+                    long start = mProfiler.begin();
                     ((IOnStart) component).onStart();
+                    mProfiler.endComponent(component, start);
                 }
                 component.setStarted(true);
             }
 
-            if (list.size() > 0) {
-                s.dirtyEnabledComponents();
-            }
-
-            list.clear();
+            mTmpComponents.clear();
+            s.dirtyEnabledComponents();
         }
         Scene.setActiveScene(null);
     }
@@ -453,46 +677,51 @@ public class Engine {
         mFrameEvents = mEventsToConsume;
         consumeEvents(toConsume);
 
-        for (IFrameUpdate component : mPresentationScene.getComponentsByIface(IFrameUpdate.class)) {
+        for (IFrameUpdate component : mPresentationScene.getComponentArray(IFrameUpdate.class)) {
+            long start = mProfiler.begin();
             component.frameUpdate(deltaTime);
+            mProfiler.endComponent(component, start);
         }
     }
 
-    /** Do all Fixed Updates on components that implement it. */
-    private void fixedUpdate() {
+    /**
+     * Do all Fixed Updates on components that implement it.
+     *
+     * @param deltaTime time step of the update.
+     */
+    private void fixedUpdate(float deltaTime) {
         ArrayList<IScheduledEvent> toConsume = mFixedUpdateEvents;
         mFixedUpdateEvents = mEventsToConsume;
         consumeEvents(toConsume);
 
-        for (Scene s : mActiveScenes) {
-            Scene.setActiveScene(s);
-            for (IFixedUpdate component : s.getComponentsByIface(IFixedUpdate.class)) {
-                component.fixedUpdate(UPDATE_TIME);
-            }
-        }
-        Scene.setActiveScene(null);
+        mScheduler.fixedUpdate(mActiveScenes, deltaTime);
     }
 
     /** Do all Network Updates on components that implement it. */
     private void networkUpdate() {
-        for (Scene s : mActiveScenes) {
-            Scene.setActiveScene(s);
-            for (INetworkUpdate component : s.getComponentsByIface(INetworkUpdate.class)) {
-                component.networkUpdate();
-            }
-        }
-        Scene.setActiveScene(null);
+        mScheduler.runScenes(
+                mActiveScenes,
+                s -> {
+                    for (INetworkUpdate component : s.getComponentArray(INetworkUpdate.class)) {
+                        long start = mProfiler.begin();
+                        component.networkUpdate();
+                        mProfiler.endComponent(component, start);
+                    }
+                });
     }
 
     /** Do all Late Network Updates on components that implement it. */
     private void lateNetworkUpdate() {
-        for (Scene s : mActiveScenes) {
-            Scene.setActiveScene(s);
-            for (ILateNetworkUpdate component : s.getComponentsByIface(ILateNetworkUpdate.class)) {
-                component.lateNetworkUpdate();
-            }
-        }
-        Scene.setActiveScene(null);
+        mScheduler.runScenes(
+                mActiveScenes,
+                s -> {
+                    for (ILateNetworkUpdate component :
+                            s.getComponentArray(ILateNetworkUpdate.class)) {
+                        long start = mProfiler.begin();
+                        component.lateNetworkUpdate();
+                        mProfiler.endComponent(component, start);
+                    }
+                });
     }
 
     /**
@@ -502,8 +731,10 @@ public class Engine {
      */
     private void lateFrameUpdate(float deltaTime) {
         for (ILateFrameUpdate component :
-                mPresentationScene.getComponentsByIface(ILateFrameUpdate.class)) {
+                mPresentationScene.getComponentArray(ILateFrameUpdate.class)) {
+            long start = mProfiler.begin();
             component.lateFrameUpdate(deltaTime);
+            mProfiler.endComponent(component, start);
         }
     }
 
@@ -513,24 +744,46 @@ public class Engine {
         mDisabledObjects.clear();
     }
 
-    /** Destroy all GameObjects and Components that need to be destroyed. */
+    /**
+     * Destroy all GameObjects and Components that need to be destroyed.
+     *
+     * <p>Destroyed root objects are grouped by their scene, so that every scene removes all of
+     * them in a single pass. Components of destroyed objects are then destroyed object by object,
+     * followed by individually destroyed components.
+     */
     private void destroyObjectsAndComponents() {
         // Destroy all game objects that need to be destroyed
         for (GameObject object : mDestroyedObjects) {
+            if (object.mPool != null && object.mPool.recycle(object)) {
+                continue;
+            }
+
             object.engineDestroy();
 
-            if (object.isRootObject()) {
-                for (Scene s : mActiveScenes) {
-                    s.removeRootObject(object);
-                }
-                for (Scene s : mInactiveScenes) {
-                    s.removeRootObject(object);
-                }
+            Scene scene = object.getScene();
+
+            if (object.mSceneRoot && scene != null && scene.queueDestroyedRootObject(object)) {
+                mScenesWithDestroyedRoots.add(scene);
             }
         }
         mDestroyedObjects.clear();
 
-        // Destroy all components that need to be destroyed
+        for (Scene s : mScenesWithDestroyedRoots) {
+            s.removeDestroyedRootObjects();
+        }
+        mScenesWithDestroyedRoots.clear();
+
+        destroyQueuedComponents();
+    }
+
+    /** Destroy components of destroyed objects, and all individually destroyed components. */
+    private void destroyQueuedComponents() {
+        // Indexed, since components may destroy more objects immediately while being destroyed
+        for (int i = 0; i < mObjectsToClear.size(); i++) {
+            mObjectsToClear.get(i).destroyComponents();
+        }
+        mObjectsToClear.clear();
+
         for (Component component : mDestroyedComponents) {
             component.engineDestroy();
         }
@@ -542,13 +795,8 @@ public class Engine {
         mTmpRenderables.clear();
         mTmpLights.clear();
 
-        for (Renderable component : mPresentationScene.getComponentsByIface(Renderable.class)) {
-            mTmpRenderables.add(component);
-        }
-
-        for (Light component : mPresentationScene.getComponentsByIface(Light.class)) {
-            mTmpLights.add(component);
-        }
+        Collections.addAll(mTmpRenderables, mPresentationScene.getComponentArray(Renderable.class));
+        Collections.addAll(mTmpLights, mPresentationScene.getComponentArray(Light.class));
 
         Camera mainCamera = mPresentationScene.getSingleton(Camera.class);
 
@@ -567,48 +815,52 @@ public class Engine {
      * should be enabled and switching the presentation scene if necessary.
      */
     private void switchScenes() {
+        synchronized (mSceneLock) {
+            // Load the new presentation scene
+            if (mNewPresentationScene != null) {
+                if (mPresentationScene != null) {
 
-        // Load the new presentation scene
-        if (mNewPresentationScene != null) {
-            if (mPresentationScene != null) {
+                    // Deactivate the old presentation scene
+                    mScenesToDeactivate.add(mPresentationScene);
+                }
 
-                // Deactivate the old presentation scene
-                mScenesToDeactivate.add(mPresentationScene);
+                // And then load the new one
+                mActiveScenes.add(mNewPresentationScene);
+                mPresentationScene = mNewPresentationScene;
+                mNewPresentationScene = null;
             }
 
-            // And then load the new one
-            mActiveScenes.add(mNewPresentationScene);
-            mPresentationScene = mNewPresentationScene;
-            mNewPresentationScene = null;
-        }
-
-        // Disable all scenes that need to be disabled
-        for (Scene s : mScenesToDeactivate) {
-            if (s == null) continue;
-            mActiveScenes.remove(s);
-            mInactiveScenes.add(s);
-        }
-
-        // Enable all scenes that need to be enabled
-        for (Scene s : mScenesToActivate) {
-            if (s == null) continue;
-            mInactiveScenes.remove(s);
-            mActiveScenes.add(s);
-        }
+            // Disable all scenes that need to be disabled
+            for (Scene s : mScenesToDeactivate) {
+                if (s == null) continue;
+                mActiveScenes.remove(s);
+                mInactiveScenes.add(s);
+            }
 
-        // Unload all scenes that need to be unloaded and flag all gameobjects for destruction
-        for (Scene s : mScenesToUnload) {
-            if (s == null) continue;
-            mActiveScenes.remove(s);
-            mInactiveScenes.remove(s);
-            if (mPresentationScene != null && mPresentationScene == s) {
-                mPresentationScene = null;
+            // Enable all scenes that need to be enabled
+            for (Scene s : mScenesToActivate) {
+                if (s == null) continue;
+                mInactiveScenes.remove(s);
+                mActiveScenes.add(s);
             }
-            for (GameObject r : s.getGameObjects()) {
-                r.destroy();
+
+            // Unload all scenes that need to be unloaded and flag all gameobjects for destruction
+            for (Scene s : mScenesToUnload) {
+                if (s == null) continue;
+                mActiveScenes.remove(s);
+                mInactiveScenes.remove(s);
+                // Otherwise the scene would be activated again on the next frame
+                mScenesToActivate.remove(s);
+                mScenesToDeactivate.remove(s);
+                if (mPresentationScene != null && mPresentationScene == s) {
+                    mPresentationScene = null;
+                }
+                for (GameObject r : s.getGameObjects()) {
+                    r.destroy();
+                }
             }
+            mScenesToUnload.clear();
         }
-        mScenesToUnload.clear();
     }
 
     /** Destroy all game objects and components in all scenes. Used for cleanup */
@@ -625,9 +877,7 @@ public class Engine {
             }
         }
 
-        for (Component c : mDestroyedComponents) {
-            c.engineDestroy();
-        }
+        destroyQueuedComponents();
     }
 
     /** Cleans up all resources used by the engine on shutdown. */
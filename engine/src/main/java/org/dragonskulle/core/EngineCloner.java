@@ -0,0 +1,142 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.core;
+
+import com.rits.cloning.Cloner;
+import com.rits.cloning.IDeepCloner;
+import com.rits.cloning.IFastCloner;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.dragonskulle.components.Component;
+
+/**
+ * Cloner used to instantiate game objects.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>The first time a component of a class is cloned, a {@link ComponentCloner} is built, and
+ *     registered as the fast cloner of that class, unless the class already registered its own.
+ *     Other objects are cloned reflectively. They also respect the {@link NoClone} annotation, but
+ *     not {@link ShallowClone}, since the reflective cloner can only share fields through cloning
+ *     strategies, which get checked on every field of every cloned object.
+ *     <p>Fast cloners are kept in a concurrent map, so that scenes can instantiate objects in
+ *     parallel.
+ */
+public class EngineCloner extends Cloner {
+    /**
+     * Fast cloners of classes, either their own, or generated ones.
+     *
+     * <p>The base cloner keeps its fast cloners in a plain map, which it reads on every clone, so
+     * registering one while another thread clones is unsafe. This map is used instead, and only
+     * the library's own cloners, registered on construction, are left to the base cloner.
+     */
+    private final Map<Class<?>, IFastCloner> mFastCloners = new ConcurrentHashMap<>();
+    /** Component classes cloned by a generated {@link ComponentCloner}. */
+    private final Set<Class<?>> mGenerated = ConcurrentHashMap.newKeySet();
+
+    /** Cloner given to the fast cloners, for cloning the objects they reference. */
+    private final IDeepCloner mDeepCloner =
+            new IDeepCloner() {
+                @Override
+                public <T> T deepClone(T o, Map<Object, Object> clones) {
+                    return cloneInternal(o, clones);
+                }
+            };
+
+    /** Constructor for {@link EngineCloner}. */
+    public EngineCloner() {
+        nullInsteadOfCloneFieldAnnotation(NoClone.class);
+    }
+
+    @Override
+    public void registerFastCloner(Class<?> type, IFastCloner fastCloner) {
+        if (mFastCloners.putIfAbsent(type, fastCloner) != null) {
+            throw new IllegalArgumentException(type + " already fast-cloned!");
+        }
+    }
+
+    @Override
+    public void unregisterFastCloner(Class<?> type) {
+        mFastCloners.remove(type);
+        mGenerated.remove(type);
+    }
+
+    /**
+     * Check whether a class has a fast cloner registered.
+     *
+     * @param type class to check.
+     * @return {@code true} if instances of the class are cloned by a fast cloner.
+     */
+    public boolean hasFastCloner(Class<?> type) {
+        return mFastCloners.containsKey(type);
+    }
+
+    /**
+     * Check whether a class is cloned by a generated cloner.
+     *
+     * @param type class to check.
+     * @return {@code true} if instances of the class have been cloned by a {@link
+     *     ComponentCloner}.
+     */
+    public boolean hasGeneratedCloner(Class<?> type) {
+        return mGenerated.contains(type);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected <T> T cloneInternal(T o, Map<Object, Object> clones) {
+        if (o == null) {
+            return null;
+        }
+
+        IFastCloner fastCloner = getFastCloner(o);
+
+        if (fastCloner == null) {
+            return super.cloneInternal(o, clones);
+        }
+
+        if (clones != null) {
+            Object cloned = clones.get(o);
+
+            if (cloned != null) {
+                return (T) cloned;
+            }
+        }
+
+        T cloned = (T) fastCloner.clone(o, mDeepCloner, clones);
+
+        if (clones != null) {
+            clones.put(o, cloned);
+        }
+
+        return cloned;
+    }
+
+    /**
+     * Get the fast cloner of an object, generating one for components that have none.
+     *
+     * <p>Classes register their own fast cloners in static initialisers, which have run by the
+     * time any of their instances exist, so those are never replaced. Two threads may generate a
+     * cloner for the same class at once, in which case only the first one registered is used.
+     *
+     * @param o object to get the cloner of.
+     * @return the fast cloner, or {@code null} if the object should be cloned reflectively.
+     */
+    private IFastCloner getFastCloner(Object o) {
+        Class<?> type = o.getClass();
+        IFastCloner fastCloner = mFastCloners.get(type);
+
+        if (fastCloner != null || !(o instanceof Component)) {
+            return fastCloner;
+        }
+
+        ComponentCloner generated = new ComponentCloner(type);
+        fastCloner = mFastCloners.putIfAbsent(type, generated);
+
+        if (fastCloner != null) {
+            return fastCloner;
+        }
+
+        mGenerated.add(type);
+        return generated;
+    }
+}
@@ -0,0 +1,177 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.core;
+
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+/**
+ * Decides how many fixed updates every frame runs.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Frame time gets accumulated, and every whole fixed step of it is consumed by one fixed
+ *     update. After a long hitch, at most {@link #getMaxSubsteps()} updates are run in a single
+ *     frame, and the rest of the backlog is dropped. Otherwise every frame would need more updates
+ *     than the last one, and the game would never catch up.
+ *     <p>Network updates run on frames that have fixed updates, at most once per frame. Their rate
+ *     is counted in fixed updates, so that they always line up with the simulation.
+ */
+@Accessors(prefix = "m")
+public class FixedTimestep {
+    /** Default maximum number of fixed updates per frame. */
+    public static final int DEFAULT_MAX_SUBSTEPS = 8;
+
+    /** Target number of fixed updates per second. */
+    @Getter private int mUpdatesPerSecond;
+    /** Time between fixed updates, in seconds. */
+    @Getter private float mUpdateTime;
+    /** Maximum number of fixed updates per frame. */
+    @Getter private int mMaxSubsteps = DEFAULT_MAX_SUBSTEPS;
+    /** Target number of network updates per second. */
+    @Getter private int mNetworkUpdatesPerSecond;
+    /** Whether the network rate follows the fixed update rate. */
+    private boolean mNetworkRateLinked = true;
+    /** Number of fixed updates between network updates. */
+    @Getter private int mNetworkInterval = 1;
+
+    /** Accumulated time not yet consumed by fixed updates. */
+    private double mAccumulator = 0;
+    /** Number of fixed updates since the last network update. */
+    private int mStepsSinceNetworkUpdate = 0;
+    /** Whether the last frame triggered a network update. */
+    @Getter private boolean mNetworkUpdateDue = false;
+    /** Total number of fixed updates dropped due to the substep limit. */
+    @Getter private long mDroppedSteps = 0;
+
+    /**
+     * Constructor for {@link FixedTimestep}.
+     *
+     * @param updatesPerSecond target number of fixed, and network updates per second.
+     */
+    public FixedTimestep(int updatesPerSecond) {
+        setUpdatesPerSecond(updatesPerSecond);
+    }
+
+    /**
+     * Set the target number of fixed updates per second.
+     *
+     * <p>Unless set explicitly, the network rate follows the fixed update rate. An explicitly set
+     * network rate is kept, but no higher than the new update rate.
+     *
+     * @param updatesPerSecond number of fixed updates per second.
+     * @throws IllegalArgumentException if the number is not positive.
+     */
+    public void setUpdatesPerSecond(int updatesPerSecond) {
+        if (updatesPerSecond <= 0) {
+            throw new IllegalArgumentException("Invalid update rate " + updatesPerSecond);
+        }
+
+        mUpdatesPerSecond = updatesPerSecond;
+        mUpdateTime = 1f / updatesPerSecond;
+
+        applyNetworkRate(
+                mNetworkRateLinked
+                        ? updatesPerSecond
+                        : Math.min(mNetworkUpdatesPerSecond, updatesPerSecond));
+    }
+
+    /**
+     * Set the target number of network updates per second.
+     *
+     * <p>Network updates are run every n-th fixed update, so the rate gets rounded to the closest
+     * whole divisor of the fixed update rate.
+     *
+     * @param networkUpdatesPerSecond number of network updates per second.
+     * @throws IllegalArgumentException if the number is not positive, or is higher than the
+     *     number of fixed updates per second.
+     */
+    public void setNetworkUpdatesPerSecond(int networkUpdatesPerSecond) {
+        if (networkUpdatesPerSecond <= 0 || networkUpdatesPerSecond > mUpdatesPerSecond) {
+            throw new IllegalArgumentException(
+                    "Invalid network update rate " + networkUpdatesPerSecond);
+        }
+
+        mNetworkRateLinked = false;
+        applyNetworkRate(networkUpdatesPerSecond);
+    }
+
+    /**
+     * Set the network rate, and the resulting interval between network updates.
+     *
+     * @param networkUpdatesPerSecond number of network updates per second.
+     */
+    private void applyNetworkRate(int networkUpdatesPerSecond) {
+        mNetworkUpdatesPerSecond = networkUpdatesPerSecond;
+        mNetworkInterval =
+                Math.max(1, Math.round(mUpdatesPerSecond / (float) networkUpdatesPerSecond));
+    }
+
+    /**
+     * Set the maximum number of fixed updates run in a single frame.
+     *
+     * @param maxSubsteps maximum number of fixed updates per frame.
+     * @throws IllegalArgumentException if the number is not positive.
+     */
+    public void setMaxSubsteps(int maxSubsteps) {
+        if (maxSubsteps <= 0) {
+            throw new IllegalArgumentException("Invalid substep limit " + maxSubsteps);
+        }
+
+        mMaxSubsteps = maxSubsteps;
+    }
+
+    /**
+     * Advance the time by a frame.
+     *
+     * @param deltaTime duration of the frame, in seconds.
+     * @return number of fixed updates to run this frame.
+     */
+    public int advance(double deltaTime) {
+        mAccumulator += Math.max(deltaTime, 0);
+
+        int steps = (int) Math.min(Math.floor(mAccumulator / mUpdateTime), Integer.MAX_VALUE);
+
+        if (steps > mMaxSubsteps) {
+            mDroppedSteps += steps - mMaxSubsteps;
+            steps = mMaxSubsteps;
+            // Keep the partial step, so that interpolation stays smooth
+            mAccumulator %= mUpdateTime;
+        } else {
+            mAccumulator -= steps * (double) mUpdateTime;
+        }
+
+        mStepsSinceNetworkUpdate += steps;
+        mNetworkUpdateDue = steps > 0 && mStepsSinceNetworkUpdate >= mNetworkInterval;
+
+        if (mNetworkUpdateDue) {
+            mStepsSinceNetworkUpdate %= mNetworkInterval;
+        }
+
+        return steps;
+    }
+
+    /**
+     * Get how far into the next fixed update the time is.
+     *
+     * @return fraction of the fixed update time accumulated since the last fixed update, from 0
+     *     (inclusive) to 1 (exclusive).
+     */
+    public float getAlpha() {
+        return (float) Math.min(mAccumulator / mUpdateTime, Math.nextDown(1f));
+    }
+
+    /**
+     * Get the time until the next fixed update is due.
+     *
+     * @return time in seconds.
+     */
+    public double getTimeUntilNextStep() {
+        return Math.max(mUpdateTime - mAccumulator, 0);
+    }
+
+    /** Clear any accumulated time, for example when the engine gets restarted. */
+    public void reset() {
+        mAccumulator = 0;
+        mStepsSinceNetworkUpdate = 0;
+        mNetworkUpdateDue = false;
+    }
+}
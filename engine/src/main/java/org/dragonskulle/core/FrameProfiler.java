@@ -0,0 +1,521 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.core;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+/**
+ * Records timings of the phases of every frame, and of every component class.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Timings of the last {@link #HISTORY_FRAMES} frames are kept in ring buffers, along with
+ *     individual phase events, which can be exported in the Chrome trace format, and viewed in
+ *     {@code chrome://tracing}, or Perfetto.
+ *     <p>Enabling, or disabling only takes effect on the next frame, so the profiler state stays
+ *     constant for a whole frame. While disabled, every measurement is a single branch on a plain
+ *     field, and no clock is read.
+ *     <p>Phases are only measured on the thread running the main loop. Components may be measured
+ *     from any thread updating a scene.
+ */
+@Accessors(prefix = "m")
+public class FrameProfiler {
+    /** Number of frames kept in the history. */
+    public static final int HISTORY_FRAMES = 256;
+    /** Number of phase events kept for trace export. */
+    private static final int MAX_EVENTS = HISTORY_FRAMES * 32;
+    /** Number of nanoseconds in a millisecond. */
+    private static final double NANOS_PER_MS = 1e6;
+
+    /** Phases of a frame of the main loop. */
+    public enum Phase {
+        SWITCH_SCENES("switchScenes"),
+        WAKE_COMPONENTS("wakeComponents"),
+        START_COMPONENTS("startEnabledComponents"),
+        FRAME_UPDATE("frameUpdate"),
+        NETWORK_UPDATE("networkUpdate"),
+        FIXED_UPDATE("fixedUpdate"),
+        AUDIO("audio"),
+        LATE_FRAME_UPDATE("lateFrameUpdate"),
+        RENDER("renderFrame"),
+        LATE_NETWORK_UPDATE("lateNetworkUpdate"),
+        END_OF_LOOP_EVENTS("endOfLoopEvents"),
+        DISABLE_OBJECTS("disableObjects"),
+        DESTROY("destroyObjectsAndComponents");
+
+        /** Name of the phase in summaries, and traces. */
+        @Getter private final String mName;
+
+        /**
+         * Constructor for {@link Phase}.
+         *
+         * @param name name of the phase.
+         */
+        Phase(String name) {
+            mName = name;
+        }
+    }
+
+    /** Cached phase values, to avoid copying them on every lookup. */
+    private static final Phase[] PHASES = Phase.values();
+
+    /** Timings of a single component class. */
+    @Accessors(prefix = "m")
+    public static class ComponentTimings {
+        /** Class of the components. */
+        @Getter private final Class<?> mType;
+        /** Time spent in the current frame. */
+        private final LongAdder mFrameNanos = new LongAdder();
+        /** Number of calls in the current frame. */
+        private final LongAdder mFrameCalls = new LongAdder();
+        /** Time spent in each recorded frame. */
+        private final long[] mNanos = new long[HISTORY_FRAMES];
+        /** Number of calls in each recorded frame. */
+        private final long[] mCalls = new long[HISTORY_FRAMES];
+
+        /**
+         * Constructor for {@link ComponentTimings}.
+         *
+         * @param type class of the components.
+         */
+        private ComponentTimings(Class<?> type) {
+            mType = type;
+        }
+    }
+
+    /** Enabled state requested for the next frame. */
+    private volatile boolean mRequestedEnabled = false;
+
+    /**
+     * Whether the current frame is being profiled. Only written by the main loop between frames,
+     * which happens before any scene update tasks of the frame get submitted.
+     */
+    private boolean mEnabled = false;
+
+    /** Time the profiler got enabled, which all trace times are relative to. */
+    private long mEpoch = 0;
+    /** Start time of the current frame. */
+    private long mFrameStart = 0;
+    /** Number of frames recorded since the profiler got enabled. */
+    @Getter private long mFrameCount = 0;
+
+    /** Start times of the recorded frames. */
+    private final long[] mFrameStarts = new long[HISTORY_FRAMES];
+    /** Durations of the recorded frames. */
+    private final long[] mFrameNanos = new long[HISTORY_FRAMES];
+    /** Time spent in each phase of the recorded frames, frame-major. */
+    private final long[] mPhaseNanos = new long[HISTORY_FRAMES * PHASES.length];
+    /** Time spent in each phase of the current frame. */
+    private final long[] mCurPhaseNanos = new long[PHASES.length];
+
+    /** Phases of the recorded events. */
+    private final byte[] mEventPhases = new byte[MAX_EVENTS];
+    /** Start times of the recorded events. */
+    private final long[] mEventStarts = new long[MAX_EVENTS];
+    /** Durations of the recorded events. */
+    private final long[] mEventNanos = new long[MAX_EVENTS];
+    /** Number of events recorded since the profiler got enabled. */
+    private long mEventCount = 0;
+
+    /** Every component class measured so far. */
+    private final List<ComponentTimings> mComponentTimings = new CopyOnWriteArrayList<>();
+
+    /** Timings of component classes, looked up without locking. */
+    private final ClassValue<ComponentTimings> mTimingsByClass =
+            new ClassValue<ComponentTimings>() {
+                @Override
+                protected ComponentTimings computeValue(Class<?> type) {
+                    ComponentTimings timings = new ComponentTimings(type);
+                    mComponentTimings.add(timings);
+                    return timings;
+                }
+            };
+
+    /**
+     * Enable, or disable the profiler, starting from the next frame.
+     *
+     * <p>Enabling the profiler clears all previously recorded timings.
+     *
+     * @param enabled whether to profile frames.
+     */
+    public void setEnabled(boolean enabled) {
+        mRequestedEnabled = enabled;
+    }
+
+    /**
+     * Check whether the profiler is enabled, or will be from the next frame.
+     *
+     * @return {@code true} if frames are being profiled.
+     */
+    public boolean isEnabled() {
+        return mRequestedEnabled;
+    }
+
+    /** Start a new frame. Called by the main loop. */
+    void beginFrame() {
+        boolean enabled = mRequestedEnabled;
+
+        if (enabled && !mEnabled) {
+            clear();
+        }
+
+        mEnabled = enabled;
+
+        if (!enabled) {
+            return;
+        }
+
+        mFrameStart = System.nanoTime();
+
+        if (mEpoch == 0) {
+            mEpoch = mFrameStart;
+        }
+    }
+
+    /** Finish the current frame, and store its timings. Called by the main loop. */
+    void endFrame() {
+        if (!mEnabled) {
+            return;
+        }
+
+        int frame = (int) (mFrameCount % HISTORY_FRAMES);
+        int phaseBase = frame * PHASES.length;
+
+        mFrameStarts[frame] = mFrameStart;
+        mFrameNanos[frame] = System.nanoTime() - mFrameStart;
+
+        for (int i = 0; i < PHASES.length; i++) {
+            mPhaseNanos[phaseBase + i] = mCurPhaseNanos[i];
+            mCurPhaseNanos[i] = 0;
+        }
+
+        for (ComponentTimings timings : mComponentTimings) {
+            timings.mNanos[frame] = timings.mFrameNanos.sumThenReset();
+            timings.mCalls[frame] = timings.mFrameCalls.sumThenReset();
+        }
+
+        mFrameCount++;
+    }
+
+    /**
+     * Start measuring a phase, or a component.
+     *
+     * @return start time to pass to {@link #end}, or {@link #endComponent}. 0 while disabled.
+     */
+    public long begin() {
+        return mEnabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Finish measuring a phase of the main loop.
+     *
+     * <p>A phase may be measured several times in a frame, like fixed updates. Every measurement
+     * gets its own trace event, and the frame total is their sum.
+     *
+     * @param phase phase that was measured.
+     * @param start start time, as returned by {@link #begin()}.
+     */
+    public void end(Phase phase, long start) {
+        if (!mEnabled) {
+            return;
+        }
+
+        long nanos = System.nanoTime() - start;
+        mCurPhaseNanos[phase.ordinal()] += nanos;
+
+        int event = (int) (mEventCount % MAX_EVENTS);
+        mEventPhases[event] = (byte) phase.ordinal();
+        mEventStarts[event] = start;
+        mEventNanos[event] = nanos;
+        mEventCount++;
+    }
+
+    /**
+     * Finish measuring an update of a component.
+     *
+     * @param component component that was updated.
+     * @param start start time, as returned by {@link #begin()}.
+     */
+    public void endComponent(Object component, long start) {
+        if (!mEnabled) {
+            return;
+        }
+
+        long nanos = System.nanoTime() - start;
+        ComponentTimings timings = mTimingsByClass.get(component.getClass());
+        timings.mFrameNanos.add(nanos);
+        timings.mFrameCalls.increment();
+    }
+
+    /** Clear all recorded timings. Must not be called while a frame is being profiled. */
+    public void clear() {
+        mEpoch = 0;
+        mFrameCount = 0;
+        mEventCount = 0;
+
+        for (int i = 0; i < PHASES.length; i++) {
+            mCurPhaseNanos[i] = 0;
+        }
+
+        for (ComponentTimings timings : mComponentTimings) {
+            timings.mFrameNanos.reset();
+            timings.mFrameCalls.reset();
+        }
+    }
+
+    /**
+     * Get the number of frames in the history.
+     *
+     * @return number of recorded frames, at most {@link #HISTORY_FRAMES}.
+     */
+    public int getRecordedFrames() {
+        return (int) Math.min(mFrameCount, HISTORY_FRAMES);
+    }
+
+    /**
+     * Get the average duration of recorded frames.
+     *
+     * @return average frame time, in nanoseconds, or 0 if no frames were recorded.
+     */
+    public double getAverageFrameNanos() {
+        return average(mFrameNanos, 0, 1);
+    }
+
+    /**
+     * Get the average time recorded frames spent in a phase.
+     *
+     * @param phase phase to get the time of.
+     * @return average time per frame, in nanoseconds, or 0 if no frames were recorded.
+     */
+    public double getAveragePhaseNanos(Phase phase) {
+        return average(mPhaseNanos, phase.ordinal(), PHASES.length);
+    }
+
+    /**
+     * Get the average time recorded frames spent updating components of a class.
+     *
+     * @param type class of the components.
+     * @return average time per frame, in nanoseconds, or 0 if the class was never measured.
+     */
+    public double getAverageComponentNanos(Class<?> type) {
+        for (ComponentTimings timings : mComponentTimings) {
+            if (timings.getType() == type) {
+                return average(timings.mNanos, 0, 1);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Average a per frame value over the recorded frames.
+     *
+     * @param values per frame values, indexed like the history.
+     * @param offset index of the value of the first frame.
+     * @param stride distance between the values of consecutive frames.
+     * @return average value, or 0 if no frames were recorded.
+     */
+    private double average(long[] values, int offset, int stride) {
+        int frames = getRecordedFrames();
+
+        if (frames == 0) {
+            return 0;
+        }
+
+        long total = 0;
+        for (int i = 0; i < frames; i++) {
+            total += values[offset + i * stride];
+        }
+        return (double) total / frames;
+    }
+
+    /**
+     * Build a human readable summary of the recorded frames.
+     *
+     * <p>Lists the average time of every phase that took any time, followed by the slowest
+     * component classes.
+     *
+     * @param maxComponents maximum number of component classes to list.
+     * @return multi-line summary.
+     */
+    public String getSummary(int maxComponents) {
+        int frames = getRecordedFrames();
+
+        StringBuilder builder = new StringBuilder();
+        builder.append(
+                String.format(
+                        "Profile (%d frames): %.2f ms\n",
+                        frames, getAverageFrameNanos() / NANOS_PER_MS));
+
+        for (Phase phase : PHASES) {
+            double nanos = getAveragePhaseNanos(phase);
+            if (nanos > 0) {
+                builder.append(
+                        String.format("  %s: %.3f ms\n", phase.getName(), nanos / NANOS_PER_MS));
+            }
+        }
+
+        List<ComponentTimings> slowest = new ArrayList<>(mComponentTimings);
+        double[] averages = new double[slowest.size()];
+        for (int i = 0; i < averages.length; i++) {
+            averages[i] = average(slowest.get(i).mNanos, 0, 1);
+        }
+
+        // Selection of the slowest classes, the list is only a few dozen entries long
+        for (int n = 0; n < maxComponents && n < averages.length; n++) {
+            int max = n;
+            for (int i = n + 1; i < averages.length; i++) {
+                if (averages[i] > averages[max]) {
+                    max = i;
+                }
+            }
+
+            if (averages[max] <= 0) {
+                break;
+            }
+
+            double tmp = averages[n];
+            averages[n] = averages[max];
+            averages[max] = tmp;
+            slowest.set(max, slowest.set(n, slowest.get(max)));
+
+            builder.append(
+                    String.format(
+                            "  %s: %.3f ms (%.1f calls)\n",
+                            slowest.get(n).getType().getSimpleName(),
+                            averages[n] / NANOS_PER_MS,
+                            average(slowest.get(n).mCalls, 0, 1)));
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Export the recorded timings in the Chrome trace event format.
+     *
+     * <p>Frames, and phases are exported as complete events, nested by time. Component classes
+     * are exported as a counter per frame, since individual updates are not recorded.
+     *
+     * @param out writer to write the JSON to.
+     * @throws IOException if writing fails.
+     */
+    public void exportTrace(Writer out) throws IOException {
+        out.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[\n");
+
+        boolean first = true;
+
+        int frames = getRecordedFrames();
+        long firstFrame = mFrameCount - frames;
+
+        for (long f = firstFrame; f < mFrameCount; f++) {
+            int frame = (int) (f % HISTORY_FRAMES);
+
+            first = writeEvent(out, first, "frame", mFrameStarts[frame], mFrameNanos[frame]);
+
+            StringBuilder args = new StringBuilder();
+            for (ComponentTimings timings : mComponentTimings) {
+                if (timings.mNanos[frame] > 0) {
+                    if (args.length() > 0) {
+                        args.append(',');
+                    }
+                    args.append(
+                            String.format(
+                                    Locale.ROOT,
+                                    "\"%s\":%.3f",
+                                    timings.getType().getName(),
+                                    timings.mNanos[frame] / NANOS_PER_MS));
+                }
+            }
+
+            if (args.length() > 0) {
+                out.write(
+                        String.format(
+                                Locale.ROOT,
+                                ",\n{\"name\":\"components (ms)\",\"ph\":\"C\",\"pid\":1,"
+                                        + "\"ts\":%.3f,\"args\":{%s}}",
+                                toMicros(mFrameStarts[frame]), args));
+            }
+        }
+
+        long firstEvent = Math.max(mEventCount - MAX_EVENTS, 0);
+        long oldestFrame = frames > 0 ? mFrameStarts[(int) (firstFrame % HISTORY_FRAMES)] : 0;
+
+        for (long e = firstEvent; e < mEventCount; e++) {
+            int event = (int) (e % MAX_EVENTS);
+
+            // Skip events older than the frames still in the history
+            if (mEventStarts[event] < oldestFrame) {
+                continue;
+            }
+
+            first =
+                    writeEvent(
+                            out,
+                            first,
+                            PHASES[mEventPhases[event]].getName(),
+                            mEventStarts[event],
+                            mEventNanos[event]);
+        }
+
+        out.write("\n]}\n");
+    }
+
+    /**
+     * Export the recorded timings to a Chrome trace file.
+     *
+     * @param path file to write to.
+     * @throws IOException if the file could not be written.
+     * @see #exportTrace(Writer)
+     */
+    public void exportTrace(Path path) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            exportTrace(out);
+        }
+    }
+
+    /**
+     * Write a single complete trace event.
+     *
+     * @param out writer to write to.
+     * @param first whether this is the first event of the trace.
+     * @param name name of the event.
+     * @param start start time, in nanoseconds.
+     * @param nanos duration, in nanoseconds.
+     * @return {@code false}, to be passed as {@code first} of the next event.
+     * @throws IOException if writing fails.
+     */
+    private boolean writeEvent(Writer out, boolean first, String name, long start, long nanos)
+            throws IOException {
+        if (!first) {
+            out.write(",\n");
+        }
+
+        out.write(
+                String.format(
+                        Locale.ROOT,
+                        "{\"name\":\"%s\",\"ph\":\"X\",\"pid\":1,\"tid\":1,\"ts\":%.3f,"
+                                + "\"dur\":%.3f}",
+                        name, toMicros(start), nanos / 1e3));
+
+        return false;
+    }
+
+    /**
+     * Convert an absolute time to trace time.
+     *
+     * @param nanos time, as returned by {@link System#nanoTime()}.
+     * @return microseconds since the profiler got enabled.
+     */
+    private double toMicros(long nanos) {
+        return (nanos - mEpoch) / 1e3;
+    }
+}
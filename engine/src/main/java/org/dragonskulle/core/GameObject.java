@@ -23,6 +23,8 @@ import org.dragonskulle.components.Transform3D;
 public class GameObject {
 
     @Getter private Reference<GameObject> mReference = new Reference<>(this);
+    /** Handle of the object, allocated on first use. */
+    private int mHandle = HandleTable.NULL_HANDLE;
     private final ArrayList<Component> mComponents = new ArrayList<>();
     private final ArrayList<GameObject> mChildren = new ArrayList<>();
 
@@ -37,6 +39,17 @@ public class GameObject {
     /** How much depth is added by the object. */
     @Getter private int mDepthOffset = 1;
 
+    /** Scene the object's components are registered in. */
+    Scene mRegisteredScene;
+    /** Registrations of the object's components within {@link #mRegisteredScene}. */
+    final ArrayList<Scene.Registration> mRegistrations = new ArrayList<>();
+    /** Scene whose queue of dirty objects the object is in. */
+    Scene mQueuedScene;
+    /** Whether the object is one of the root objects of its scene. */
+    boolean mSceneRoot;
+    /** Pool the object gets returned to when destroyed, {@code null} if not pooled. */
+    GameObjectPool mPool;
+
     static {
         Engine.getCloner()
                 .registerFastCloner(
@@ -483,10 +496,91 @@ public class GameObject {
         Engine.getInstance().mDestroyedObjects.add(this);
     }
 
+    /**
+     * Destroy all components of the object at once.
+     *
+     * <p>Components are removed from the end of the list, so that each removal is cheap, and
+     * components removing their siblings while being destroyed are handled.
+     */
+    void destroyComponents() {
+        while (!mComponents.isEmpty()) {
+            Component component = mComponents.remove(mComponents.size() - 1);
+            component.onRemove();
+        }
+
+        dirtyComponentLists();
+    }
+
+    /**
+     * Detach the object from its parent, or scene, so that it can be reused from a pool.
+     *
+     * <p>The object becomes the root of its own tree, not part of any scene.
+     */
+    void detachForPool() {
+        if (mParent != null) {
+            mParent.removeChild(this);
+            mParent = null;
+        } else if (mScene != null) {
+            mScene.removeRootObject(this);
+        }
+
+        mRoot = null;
+        for (GameObject child : mChildren) {
+            child.setRoot(this);
+        }
+
+        setDepth(0);
+    }
+
+    /**
+     * Set the root of this object, and all of its children.
+     *
+     * @param root new root object.
+     */
+    private void setRoot(GameObject root) {
+        mRoot = root;
+        for (GameObject child : mChildren) {
+            child.setRoot(root);
+        }
+    }
+
+    /**
+     * Set the enabled state of an object that is idle in a pool.
+     *
+     * @param enabled new value for mEnabled.
+     */
+    void setEnabledForPool(boolean enabled) {
+        mEnabled = enabled;
+    }
+
+    /**
+     * Get the handle of the object.
+     *
+     * <p>The handle is allocated from {@link Engine#getHandles()} on first use, and gets released
+     * whenever the object's reference gets cleared.
+     *
+     * @return handle of the object, or {@link HandleTable#NULL_HANDLE}, if it has been destroyed.
+     */
+    public int getHandle() {
+        if (mHandle == HandleTable.NULL_HANDLE && Reference.isValid(mReference)) {
+            mHandle = Engine.getHandles().allocate(this);
+        }
+        return mHandle;
+    }
+
+    /** Release the handle of the object, if it has one. */
+    private void releaseHandle() {
+        if (mHandle != HandleTable.NULL_HANDLE) {
+            Engine.getHandles().release(mHandle);
+            mHandle = HandleTable.NULL_HANDLE;
+        }
+    }
+
     /** Recreate all references within the game object. */
     void recreateReferences() {
         mReference.clear();
         mReference = new Reference<>(this);
+        releaseHandle();
         for (Component c : mComponents) {
             c.recreateReference();
         }
@@ -634,6 +728,10 @@ public class GameObject {
      * @param scene target scene.
      */
     void setScene(Scene scene) {
+        if (mRegisteredScene != null && mRegisteredScene != scene) {
+            mRegisteredScene.unregisterObject(this);
+        }
+
         mScene = scene;
         dirtyComponentLists();
 
@@ -642,26 +740,56 @@ public class GameObject {
         }
     }
 
-    /** Dirty the component list of the object's scene. */
+    /** Dirty the component lists of the object within its scene. */
     public void dirtyComponentLists() {
         if (mScene != null) {
-            mScene.dirtyComponentLists();
+            mScene.dirtyObject(this);
         }
     }
 
+    /**
+     * Get the children of the object without copying them.
+     *
+     * @return list of children, which must not be modified.
+     */
+    ArrayList<GameObject> getChildrenInternal() {
+        return mChildren;
+    }
+
+    /**
+     * Check whether the object is within the tree of one of its scene's root objects.
+     *
+     * @return {@code true} if the top-most parent of the object is a root object of the scene.
+     */
+    boolean isInSceneTree() {
+        GameObject obj = this;
+
+        while (obj.mParent != null) {
+            obj = obj.mParent;
+        }
+
+        return obj.mSceneRoot;
+    }
+
     /** Handle the destruction of the object. */
     protected void engineDestroy() {
-        // Create a copy of the list of children this object has
-        ArrayList<GameObject> children = new ArrayList<>(mChildren);
-
-        // Iterate through the children and destroy all of them
-        for (GameObject child : children) {
-            child.engineDestroy();
+        // Destroy all children, and detach them all at once, instead of each one removing itself
+        // from the front of the list
+        if (!mChildren.isEmpty()) {
+            for (GameObject child : mChildren) {
+                child.mParent = null;
+                child.engineDestroy();
+                child.setScene(null);
+                child.setDepth(0);
+            }
+            mChildren.clear();
+            dirtyComponentLists();
         }
 
-        // Add all components to the set of destroyed components.
-        // We do this instead of destroying them here to prevent double-destroys
-        Engine.getInstance().mDestroyedComponents.addAll(mComponents);
+        // Queue the components to be destroyed after all objects of the frame, all at once
+        if (!mComponents.isEmpty()) {
+            Engine.getInstance().mObjectsToClear.add(this);
+        }
 
         // Destroy the transform of this GameObject
         if (mTransform != null) {
@@ -672,6 +800,7 @@ public class GameObject {
         // After we have finished destroying we need to clear our reference so nothing attempts to
         // access this after being destroyed
         mReference.clear();
+        releaseHandle();
 
         // Then remove this GameObject from the parent and remove the link to the parent
         if (mParent != null) {
@@ -0,0 +1,199 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import org.dragonskulle.components.Component;
+import org.dragonskulle.components.IPoolable;
+import org.dragonskulle.components.Transform3D;
+import org.joml.Vector3fc;
+
+/**
+ * Pool of instances of a single template.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Instances are obtained from the pool instead of instantiating the template directly. When
+ *     such instance gets destroyed, the engine hands it back to the pool, instead of tearing it
+ *     down, and the next {@link #obtain()} reuses it without cloning anything.
+ *     <p>Only objects whose every component implements {@link IPoolable}, and whose transforms are
+ *     {@link Transform3D}, get recycled. Anything else is destroyed as usual, so pooling templates
+ *     that do not support it is harmless.
+ */
+@Accessors(prefix = "m")
+public class GameObjectPool {
+    /** Default maximum number of idle instances kept. */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    /** Template instances are cloned from. */
+    @Getter private final GameObject mTemplate;
+    /** Maximum number of idle instances kept. */
+    @Getter private final int mCapacity;
+    /** Whether instances of the template can be recycled at all. */
+    @Getter private final boolean mPoolable;
+
+    /** Instances ready to be reused. */
+    private final ArrayDeque<GameObject> mFree = new ArrayDeque<>();
+
+    /** Number of instances obtained by reusing an idle one. */
+    @Getter private long mHits = 0;
+    /** Number of instances obtained by cloning the template. */
+    @Getter private long mMisses = 0;
+
+    /** Temporary list of components to reset. */
+    private final ArrayList<Component> mTmpComponents = new ArrayList<>();
+
+    /**
+     * Constructor for {@link GameObjectPool}.
+     *
+     * @param template template to instantiate.
+     */
+    public GameObjectPool(GameObject template) {
+        this(template, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor for {@link GameObjectPool}.
+     *
+     * @param template template to instantiate.
+     * @param capacity maximum number of idle instances to keep.
+     */
+    public GameObjectPool(GameObject template, int capacity) {
+        mTemplate = template;
+        mCapacity = capacity;
+        mPoolable = template != null && isPoolable(template, template);
+    }
+
+    /**
+     * Obtain an instance of the template.
+     *
+     * <p>The instance is not part of any scene, and needs to be added to one, just like a freshly
+     * instantiated object.
+     *
+     * @return an idle instance, or a new clone of the template, if there are none.
+     */
+    public GameObject obtain() {
+        GameObject instance = mFree.pollLast();
+
+        if (instance != null) {
+            mHits++;
+            return instance;
+        }
+
+        mMisses++;
+        instance = GameObject.instantiate(mTemplate);
+
+        if (mPoolable) {
+            instance.mPool = this;
+        }
+
+        return instance;
+    }
+
+    /**
+     * Get the number of idle instances.
+     *
+     * @return number of instances ready to be reused.
+     */
+    public int getFreeCount() {
+        return mFree.size();
+    }
+
+    /** Drop all idle instances. */
+    public void clear() {
+        mFree.clear();
+    }
+
+    /**
+     * Try to put a destroyed instance back into the pool.
+     *
+     * <p>On success, the instance gets detached from its parent, or scene, its references are
+     * recreated, and its transforms, and enabled states are reset to those of the template.
+     * Finally, {@link IPoolable#onReturnToPool()} is called on all of its components.
+     *
+     * @param instance instance being destroyed.
+     * @return {@code true} if the instance was recycled, {@code false} if it should be destroyed.
+     */
+    boolean recycle(GameObject instance) {
+        if (mFree.size() >= mCapacity || !isPoolable(instance, mTemplate)) {
+            return false;
+        }
+
+        instance.detachForPool();
+        instance.recreateReferences();
+        reset(instance, mTemplate, true);
+
+        for (Component component : mTmpComponents) {
+            ((IPoolable) component).onReturnToPool();
+        }
+        mTmpComponents.clear();
+
+        mFree.addLast(instance);
+        return true;
+    }
+
+    /**
+     * Reset transforms, and enabled states of an instance tree, and collect its components.
+     *
+     * @param instance instance to reset.
+     * @param template template the instance was cloned from.
+     * @param parentEnabled whether the parent of the instance is enabled.
+     */
+    private void reset(GameObject instance, GameObject template, boolean parentEnabled) {
+        Transform3D src = (Transform3D) template.getTransform();
+        Transform3D dst = (Transform3D) instance.getTransform();
+
+        dst.setPosition(src.getLocalPosition());
+        dst.setRotation(src.getLocalRotation());
+        Vector3fc scale = src.getLocalScale();
+        dst.setScale(scale.x(), scale.y(), scale.z());
+
+        instance.setEnabledForPool(template.isEnabled() && parentEnabled);
+
+        mTmpComponents.addAll(instance.getComponents());
+
+        ArrayList<GameObject> children = instance.getChildrenInternal();
+        ArrayList<GameObject> templateChildren = template.getChildrenInternal();
+
+        for (int i = 0; i < children.size(); i++) {
+            reset(children.get(i), templateChildren.get(i), instance.isEnabled());
+        }
+    }
+
+    /**
+     * Check whether an instance can be recycled.
+     *
+     * @param instance instance to check.
+     * @param template template the instance was cloned from.
+     * @return {@code true} if the instance tree matches the template's, has only {@link
+     *     Transform3D} transforms, and only {@link IPoolable} components.
+     */
+    private static boolean isPoolable(GameObject instance, GameObject template) {
+        if (!(instance.getTransform() instanceof Transform3D)
+                || !(template.getTransform() instanceof Transform3D)) {
+            return false;
+        }
+
+        for (Component component : instance.getComponents()) {
+            if (!(component instanceof IPoolable)) {
+                return false;
+            }
+        }
+
+        ArrayList<GameObject> children = instance.getChildrenInternal();
+        ArrayList<GameObject> templateChildren = template.getChildrenInternal();
+
+        if (children.size() != templateChildren.size()) {
+            return false;
+        }
+
+        for (int i = 0; i < children.size(); i++) {
+            if (!isPoolable(children.get(i), templateChildren.get(i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,134 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * List of handles to objects of a single type.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Handles belong to {@link Engine#getHandles()}, and are stored in a primitive array, 4
+ *     bytes per element. Elements whose objects got destroyed read as {@code null}, just like
+ *     invalid references, and can be dropped with {@link #removeInvalid()}.
+ */
+public class HandleList<T> {
+    /** Class of the objects. */
+    private final Class<T> mType;
+    /** The handles. */
+    private int[] mHandles = new int[4];
+    /** Number of handles in the list. */
+    private int mSize = 0;
+
+    /**
+     * Constructor for {@link HandleList}.
+     *
+     * @param type class of the objects.
+     */
+    public HandleList(Class<T> type) {
+        mType = type;
+    }
+
+    /**
+     * Add a handle to the list.
+     *
+     * @param handle handle to add.
+     */
+    public void add(int handle) {
+        if (mSize == mHandles.length) {
+            mHandles = Arrays.copyOf(mHandles, mSize * 2);
+        }
+        mHandles[mSize++] = handle;
+    }
+
+    /**
+     * Add handles of all objects references refer to.
+     *
+     * @param refs references to {@link GameObject}s, or components.
+     */
+    public void addAll(List<? extends Reference<?>> refs) {
+        for (Reference<?> ref : refs) {
+            add(HandleTable.getHandle(ref));
+        }
+    }
+
+    /**
+     * Get the number of handles in the list, including invalid ones.
+     *
+     * @return number of handles.
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Get a handle.
+     *
+     * @param index index of the handle.
+     * @return the handle.
+     */
+    public int getHandle(int index) {
+        if (index >= mSize) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of " + mSize);
+        }
+        return mHandles[index];
+    }
+
+    /**
+     * Get an object.
+     *
+     * @param index index of the object's handle.
+     * @return the object, or {@code null}, if it is no longer valid.
+     */
+    public T get(int index) {
+        return Engine.getHandles().get(getHandle(index), mType);
+    }
+
+    /**
+     * Check whether an object is still valid.
+     *
+     * @param index index of the object's handle.
+     * @return {@code true} if the object's handle is still valid.
+     */
+    public boolean isValid(int index) {
+        return Engine.getHandles().isValid(getHandle(index));
+    }
+
+    /**
+     * Remove all invalid handles, keeping the order of the rest.
+     *
+     * @return number of handles removed.
+     */
+    public int removeInvalid() {
+        int kept = 0;
+
+        for (int i = 0; i < mSize; i++) {
+            if (Engine.getHandles().isValid(mHandles[i])) {
+                mHandles[kept++] = mHandles[i];
+            }
+        }
+
+        int removed = mSize - kept;
+        mSize = kept;
+        return removed;
+    }
+
+    /** Remove all handles. */
+    public void clear() {
+        mSize = 0;
+    }
+
+    /**
+     * Create a list of references to the objects, for code that still uses references.
+     *
+     * @return list of references, with {@code null} elements in place of invalid handles.
+     */
+    public ArrayList<Reference<T>> toReferences() {
+        ArrayList<Reference<T>> refs = new ArrayList<>(mSize);
+        for (int i = 0; i < mSize; i++) {
+            refs.add(Engine.getHandles().getReference(mHandles[i], mType));
+        }
+        return refs;
+    }
+}
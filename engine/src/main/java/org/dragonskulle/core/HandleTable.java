@@ -0,0 +1,210 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.core;
+
+import java.util.Arrays;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import org.dragonskulle.components.Component;
+
+/**
+ * Table of generational handles to objects.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>A handle is a single {@code int}, packing the index of a slot in the table, and the
+ *     generation of that slot. Releasing a handle bumps the generation of its slot, so any copy of
+ *     the old handle becomes invalid, without touching the copy. Checking a handle is a single
+ *     array lookup, and handles can be stored in primitive arrays, for example in a {@link
+ *     HandleList}, instead of allocating a {@link Reference} per object.
+ *     <p>Released slots are reused in the order they were released, and only once enough of them
+ *     are free, so that generations wrap around as rarely as possible.
+ *     <p>Allocation, and release are synchronized. Lookups are not, but objects only get released
+ *     when they are destroyed, at the end of a frame.
+ */
+@Accessors(prefix = "m")
+public class HandleTable {
+    /** Handle that never refers to any object. */
+    public static final int NULL_HANDLE = 0;
+    /** Number of bits of the handle used for the slot index. */
+    private static final int INDEX_BITS = 20;
+    /** Mask of the slot index bits. */
+    private static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+    /** Largest generation, after which they wrap back to 1. */
+    private static final int MAX_GENERATION = (1 << (Integer.SIZE - INDEX_BITS)) - 1;
+    /** Maximum number of live handles. */
+    public static final int MAX_HANDLES = 1 << INDEX_BITS;
+    /** Number of released slots kept before any of them are reused. */
+    private static final int MIN_FREE_SLOTS = 1024;
+    /** Initial number of slots. */
+    private static final int INITIAL_CAPACITY = 256;
+
+    /** Objects of the slots. */
+    private volatile Object[] mObjects = new Object[INITIAL_CAPACITY];
+    /** Current generations of the slots, 0 for slots that were never used. */
+    private volatile int[] mGenerations = new int[INITIAL_CAPACITY];
+    /** Number of slots that were ever used. */
+    private int mUsedSlots = 0;
+
+    /** Queue of released slot indices. */
+    private int[] mFree = new int[INITIAL_CAPACITY];
+    /** Position of the first released slot in {@link #mFree}. */
+    private int mFreeHead = 0;
+    /** Number of released slots. */
+    private int mFreeCount = 0;
+
+    /** Number of handles currently allocated. */
+    @Getter private int mLiveCount = 0;
+
+    /**
+     * Allocate a handle to an object.
+     *
+     * @param object object to refer to.
+     * @return new valid handle.
+     * @throws IllegalStateException if there are {@link #MAX_HANDLES} live handles.
+     */
+    public synchronized int allocate(Object object) {
+        int index;
+
+        if (mFreeCount > MIN_FREE_SLOTS || (mUsedSlots == MAX_HANDLES && mFreeCount > 0)) {
+            index = mFree[mFreeHead];
+            mFreeHead = (mFreeHead + 1) % mFree.length;
+            mFreeCount--;
+        } else if (mUsedSlots < MAX_HANDLES) {
+            index = mUsedSlots++;
+
+            if (index == mObjects.length) {
+                int capacity = Math.min(mObjects.length * 2, MAX_HANDLES);
+                // Publish the generations last, so a reader never sees a slot without its object
+                mObjects = Arrays.copyOf(mObjects, capacity);
+                mGenerations = Arrays.copyOf(mGenerations, capacity);
+            }
+
+            mGenerations[index] = 1;
+        } else {
+            throw new IllegalStateException("Handle table is full");
+        }
+
+        mObjects[index] = object;
+        mLiveCount++;
+
+        return (mGenerations[index] << INDEX_BITS) | index;
+    }
+
+    /**
+     * Release a handle, invalidating all of its copies.
+     *
+     * @param handle handle to release. Invalid handles are ignored.
+     */
+    public synchronized void release(int handle) {
+        if (!isValid(handle)) {
+            return;
+        }
+
+        int index = handle & INDEX_MASK;
+        int generation = mGenerations[index];
+
+        mObjects[index] = null;
+        mGenerations[index] = generation == MAX_GENERATION ? 1 : generation + 1;
+        mLiveCount--;
+
+        if (mFreeCount == mFree.length) {
+            int[] free = new int[mFree.length * 2];
+            for (int i = 0; i < mFreeCount; i++) {
+                free[i] = mFree[(mFreeHead + i) % mFree.length];
+            }
+            mFree = free;
+            mFreeHead = 0;
+        }
+
+        mFree[(mFreeHead + mFreeCount) % mFree.length] = index;
+        mFreeCount++;
+    }
+
+    /**
+     * Check whether a handle is still valid.
+     *
+     * @param handle handle to check.
+     * @return {@code true} if the handle has not been released.
+     */
+    public boolean isValid(int handle) {
+        int index = handle & INDEX_MASK;
+        int[] generations = mGenerations;
+        return handle != NULL_HANDLE
+                && index < generations.length
+                && generations[index] == handle >>> INDEX_BITS;
+    }
+
+    /**
+     * Get the object a handle refers to.
+     *
+     * @param handle handle of the object.
+     * @return the object, or {@code null}, if the handle is no longer valid.
+     */
+    public Object get(int handle) {
+        if (!isValid(handle)) {
+            return null;
+        }
+
+        Object[] objects = mObjects;
+        int index = handle & INDEX_MASK;
+        return index < objects.length ? objects[index] : null;
+    }
+
+    /**
+     * Get the object a handle refers to, cast to a type.
+     *
+     * @param <T> type of the object.
+     * @param handle handle of the object.
+     * @param type class of type T.
+     * @return the object, or {@code null}, if the handle is no longer valid, or the object is not
+     *     of the type.
+     */
+    public <T> T get(int handle, Class<T> type) {
+        Object object = get(handle);
+        return type.isInstance(object) ? type.cast(object) : null;
+    }
+
+    /**
+     * Get a {@link Reference} to the object a handle refers to.
+     *
+     * <p>This allows code storing handles to interoperate with code using references.
+     *
+     * @param <T> type of the object.
+     * @param handle handle of a {@link GameObject}, or {@link Component}.
+     * @param type class of type T.
+     * @return the object's reference, or {@code null}, if the handle is no longer valid, or the
+     *     object is not of the type.
+     */
+    public <T> Reference<T> getReference(int handle, Class<T> type) {
+        Object object = get(handle);
+
+        if (object instanceof Component) {
+            return ((Component) object).getReference().cast(type);
+        } else if (object instanceof GameObject) {
+            return ((GameObject) object).getReference().cast(type);
+        }
+
+        return null;
+    }
+
+    /**
+     * Get the handle of the object a {@link Reference} refers to.
+     *
+     * @param ref reference to a {@link GameObject}, or {@link Component}.
+     * @return the object's handle, or {@link #NULL_HANDLE}, if the reference is not valid.
+     */
+    public static int getHandle(Reference<?> ref) {
+        if (Reference.isInvalid(ref)) {
+            return NULL_HANDLE;
+        }
+
+        Object object = ref.get();
+
+        if (object instanceof Component) {
+            return ((Component) object).getHandle();
+        } else if (object instanceof GameObject) {
+            return ((GameObject) object).getHandle();
+        }
+
+        return NULL_HANDLE;
+    }
+}
@@ -0,0 +1,19 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.core;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a field that is not copied when its object gets cloned.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Clones are created without running constructors, so the field of the clone is left {@code
+ *     null}, zero, or {@code false}. Use it for caches, and other state that gets lazily rebuilt,
+ *     never for fields initialised in the constructor, and used unconditionally.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface NoClone {}
@@ -17,6 +17,8 @@ import lombok.experimental.Accessors;
  *     main/resources directory). This allows for better memory usage, and easier resource
  *     accessibility. Underlying objects are stored already parsed and loaded to their respective
  *     types.
+ *     <p>Loading, caching and reference counting are synchronized, so resources can be used from
+ *     scenes that are updated in parallel.
  *     <p>example declaring a custom resource:
  *     <pre>{@code
  * static {
@@ -65,6 +67,13 @@ public class ResourceManager {
 
         /** Decrease reference count. Potentially free and unlink the resource */
         public void decrRefCount() {
+            synchronized (ResourceManager.class) {
+                decrRefCountLocked();
+            }
+        }
+
+        /** Decrease reference count, while holding the {@link ResourceManager} lock. */
+        private void decrRefCountLocked() {
             if (--mRefcount == 0) {
                 if (AutoCloseable.class.isInstance(mResource)) {
                     try {
@@ -108,7 +117,9 @@ public class ResourceManager {
          * @return a resource with reference to underlying resource.
          */
         public Resource<T> incRefCount() {
-            mRefcount += 1;
+            synchronized (ResourceManager.class) {
+                mRefcount += 1;
+            }
             return new Resource<T>(this);
         }
 
@@ -173,7 +184,7 @@ public class ResourceManager {
      * @param pathResolver implementation (lambda) of path resolving
      * @param bufferLoader implementation (lambda) of resource loading
      */
-    public static <T, F> void registerResource(
+    public static synchronized <T, F> void registerResource(
             Class<T> type,
             IResourcePathResolver<T, F> pathResolver,
             IResourceBufferLoader<T, F> bufferLoader) {
@@ -209,7 +220,8 @@ public class ResourceManager {
      * @param type type of the resource
      * @param loader loader for the resource
      */
-    public static <T, F> void registerResource(Class<T> type, IResourceLoader<T, F> loader) {
+    public static synchronized <T, F> void registerResource(
+            Class<T> type, IResourceLoader<T, F> loader) {
         sLoaders.put(type, loader);
     }
 
@@ -225,7 +237,8 @@ public class ResourceManager {
      * @return loaded resource object, if it succeeded to load, {@code null} otherwise. In addition,
      *     {@code null} is returned if the object type does not match the input name
      */
-    public static <T, F> Resource<T> getResource(ResourceArguments<T, F> arguments) {
+    public static synchronized <T, F> Resource<T> getResource(
+            ResourceArguments<T, F> arguments) {
         CountedResource<?> inst = sLoadedResources.get(arguments);
 
         if (inst == null) {
@@ -277,7 +290,7 @@ public class ResourceManager {
      *
      * @param args full arguments that were used to load the resource with
      */
-    public static void unlinkResource(ResourceArguments<?, ?> args) {
+    public static synchronized void unlinkResource(ResourceArguments<?, ?> args) {
         CountedResource<?> res = sLoadedResources.remove(args);
         if (res != null) {
             res.mLinked = false;
@@ -310,7 +323,12 @@ public class ResourceManager {
     @SuppressWarnings("unchecked")
     public static <T, F> T loadResource(ResourceArguments<T, F> arguments) {
 
-        IResourceLoader<?, ?> loader = sLoaders.get(arguments.getType());
+        IResourceLoader<?, ?> loader;
+
+        synchronized (ResourceManager.class) {
+            loader = sLoaders.get(arguments.getType());
+        }
+
         if (loader == null) {
             return null;
         }
@@ -1,13 +1,12 @@
 /* (C) 2021 DragonSkulle */
 package org.dragonskulle.core;
 
+import java.lang.reflect.Array;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.stream.Collectors;
-import lombok.AccessLevel;
 import lombok.Getter;
-import lombok.Setter;
 import lombok.experimental.Accessors;
 import org.dragonskulle.components.Component;
 
@@ -21,92 +20,249 @@ import org.dragonskulle.components.Component;
 public class Scene {
     @Getter private final ArrayList<GameObject> mGameObjects = new ArrayList<>();
 
-    /** Contains a cached list of all components on the scene. */
-    private final ArrayList<Component> mComponents = new ArrayList<>();
-    /** Whether mComponents is dirty. */
-    private boolean mComponentListDirty = true;
+    /** Component is not registered in any list. */
+    private static final int STATE_NONE = 0;
+    /** Component is in {@link #mNotAwakeComponents}. */
+    private static final int STATE_NOT_AWAKE = 1;
+    /** Component is in {@link #mToStartComponents}. */
+    private static final int STATE_TO_START = 2;
+    /** Component is in {@link #mEnabledComponents}, and the interface lists. */
+    private static final int STATE_ENABLED = 3;
 
-    /** Contains a cached list of all components that need starting on the scene. */
-    private final ArrayList<Component> mToStartComponents = new ArrayList<>();
-    /** Whether mToStartComponents is dirty. */
-    private boolean mToStartComponentsDirty = false;
+    /** Root objects destroyed this frame, to be removed from {@link #mGameObjects} at once. */
+    private final ArrayList<GameObject> mDestroyedRoots = new ArrayList<>();
 
-    /** Contains a cached list of all components that are not yet awake on the scene. */
-    private final ArrayList<Component> mNotAwakeComponents = new ArrayList<>();
-    /** Whether or not mNotAwakeComponents is dirty. */
-    private boolean mNotAwakeComponentsDirty = false;
+    /** Objects whose components need to be registered, or updated in the lists. */
+    private final ArrayList<GameObject> mDirtyObjects = new ArrayList<>();
 
-    /** Contains a cached list of all enabled and started components on the scene. */
-    private final ArrayList<Component> mEnabledComponents = new ArrayList<>();
-    /** Whether or not mEnabledComponents is dirty. */
-    private boolean mEnabledComponentsDirty = false;
+    /** All components that need starting on the scene. */
+    private final Bucket<Component> mToStartComponents = new Bucket<>();
+
+    /** All components that are not yet awake on the scene. */
+    private final Bucket<Component> mNotAwakeComponents = new Bucket<>();
+
+    /** All enabled and started components on the scene. */
+    private final Bucket<Component> mEnabledComponents = new Bucket<>();
 
     /** List of enabled components by specific class types. */
     private final Map<Class<?>, CompList<?>> mInterfaceComponents = new HashMap<>();
 
+    /**
+     * Which of {@link #mInterfaceComponents} every component class belongs in.
+     *
+     * <p>Computed once per class, and reset whenever a new type of list gets created.
+     */
+    private final Map<Class<?>, CompList<?>[]> mDispatchTables = new HashMap<>();
+
     /** Name used to identify the scene. */
     @Getter private final String mName;
 
     /** Registered singletons on the scene. */
     @Getter private final SingletonStore mSingletons = new SingletonStore();
 
-    /** Per-class component list. */
-    private class CompList<T> {
-        /** Is this list valid. */
-        private boolean mIsValid = false;
-        /** Type contained within the list. */
-        private final Class<T> mType;
+    /** Generation of every registration slot, bumped whenever the slot's component moves. */
+    private int[] mSlotGenerations = new int[64];
+    /** Number of slots ever allocated. */
+    private int mSlotCount = 0;
+    /** Slots that are free for reuse. */
+    private int[] mFreeSlots = new int[64];
+    /** Number of entries in {@link #mFreeSlots}. */
+    private int mFreeSlotCount = 0;
+
+    /** Registration of a component within the scene's lists. */
+    static class Registration {
+        /** The registered component. */
+        final Component mComponent;
+        /** Slot of the registration within the scene. */
+        final int mSlot;
+        /** Which lists the component is in. */
+        int mState = STATE_NONE;
+
+        /**
+         * Create a registration.
+         *
+         * @param component component to register.
+         * @param slot slot allocated for the registration.
+         */
+        Registration(Component component, int slot) {
+            mComponent = component;
+            mSlot = slot;
+        }
+    }
+
+    /**
+     * Ordered list, which supports cheap removal.
+     *
+     * <p>Every entry is stamped with the generation of its registration slot at the time it was
+     * added. Moving a component elsewhere bumps the generation, which turns the entry stale, and
+     * stale entries are only dropped once the list gets accessed, all in a single pass. This way
+     * removing many components costs the same as removing one, and the check only reads dense
+     * integer arrays.
+     */
+    private class Bucket<T> {
         /** The list itself. */
         private final ArrayList<T> mList = new ArrayList<>();
+        /** Registration slot of every entry. */
+        private int[] mSlots = new int[16];
+        /** Slot generation of every entry, at the time it was added. */
+        private int[] mGenerations = new int[16];
+        /** Whether the list may contain stale entries. */
+        private boolean mHasStale = false;
 
         /**
-         * Create a component list.
+         * Add a component to the end of the list.
          *
-         * @param type type of the list.
+         * @param value value to add.
+         * @param reg registration of the value.
          */
-        public CompList(Class<T> type) {
-            mType = type;
+        void add(T value, Registration reg) {
+            add(value, reg.mSlot, mSlotGenerations[reg.mSlot]);
         }
 
         /**
-         * Clear the component list.
+         * Add an entry to the end of the list.
          *
-         * <p>This method will clear the underlying list, and mark it as invalid.
+         * @param value value to add.
+         * @param slot registration slot of the value.
+         * @param generation slot generation of the entry.
          */
-        public void clear() {
-            mIsValid = false;
-            mList.clear();
+        void add(T value, int slot, int generation) {
+            int idx = mList.size();
+
+            if (idx == mSlots.length) {
+                mSlots = Arrays.copyOf(mSlots, idx * 2);
+                mGenerations = Arrays.copyOf(mGenerations, idx * 2);
+            }
+
+            mList.add(value);
+            mSlots[idx] = slot;
+            mGenerations[idx] = generation;
+        }
+
+        /** Mark that a value has left the list. */
+        void onRemoved() {
+            mHasStale = true;
         }
 
         /**
-         * Get the component list.
+         * Get the list.
          *
-         * <p>This method will return cached component list, constructing it if needed.
-         *
-         * @return component list for this type of data.
+         * @return list of values, with all stale entries removed.
          */
-        public ArrayList<T> getList() {
-            if (!mIsValid) {
-                mList.clear();
-
-                for (Component comp : getEnabledComponents()) {
-                    if (mType.isInstance(comp)) {
-                        mList.add(mType.cast(comp));
+        ArrayList<T> getList() {
+            if (mHasStale) {
+                mHasStale = false;
+
+                int size = mList.size();
+                int kept = 0;
+
+                for (int i = 0; i < size; i++) {
+                    if (mSlotGenerations[mSlots[i]] == mGenerations[i]) {
+                        mList.set(kept, mList.get(i));
+                        mSlots[kept] = mSlots[i];
+                        mGenerations[kept] = mGenerations[i];
+                        kept++;
                     }
                 }
 
-                mIsValid = true;
+                mList.subList(kept, size).clear();
             }
 
             return mList;
         }
     }
 
-    /** Currently active scene. */
-    @Accessors(prefix = "s")
-    @Getter
-    @Setter(AccessLevel.PACKAGE)
-    private static Scene sActiveScene = null;
+    /** Per-class component list. */
+    private class CompList<T> extends Bucket<T> {
+        /** Type contained within the list. */
+        private final Class<T> mType;
+        /** Empty array of the type, used to create {@link #mArray}. */
+        private final T[] mEmptyArray;
+        /** Array of the components, or {@code null} if the list changed since it was built. */
+        private T[] mArray;
+
+        /**
+         * Create a component list, filled with all currently enabled components of the type.
+         *
+         * @param type type of the list.
+         */
+        @SuppressWarnings("unchecked")
+        public CompList(Class<T> type) {
+            mType = type;
+            mEmptyArray = (T[]) Array.newInstance(type, 0);
+
+            Bucket<Component> bucket = mEnabledComponents;
+            ArrayList<Component> enabled = bucket.getList();
+
+            for (int i = 0; i < enabled.size(); i++) {
+                Component comp = enabled.get(i);
+
+                if (mType.isInstance(comp)) {
+                    add(mType.cast(comp), bucket.mSlots[i], bucket.mGenerations[i]);
+                }
+            }
+        }
+
+        @Override
+        void add(T value, int slot, int generation) {
+            super.add(value, slot, generation);
+            mArray = null;
+        }
+
+        @Override
+        void onRemoved() {
+            super.onRemoved();
+            mArray = null;
+        }
+
+        /**
+         * Add a component of the list's type.
+         *
+         * @param reg registration of the component that became enabled.
+         */
+        @SuppressWarnings("unchecked")
+        void onEnabled(Registration reg) {
+            add((T) reg.mComponent, reg);
+        }
+
+        /**
+         * Get the components as an array.
+         *
+         * @return array of the components, which is rebuilt only when the list changes.
+         */
+        T[] getArray() {
+            if (mArray == null) {
+                mArray = getList().toArray(mEmptyArray);
+            }
+
+            return mArray;
+        }
+    }
+
+    /**
+     * Currently active scene.
+     *
+     * <p>This is per thread, so that scenes can be updated in parallel by {@link SceneScheduler}.
+     */
+    private static final ThreadLocal<Scene> sActiveScene = new ThreadLocal<>();
+
+    /**
+     * Get the currently active scene of the calling thread.
+     *
+     * @return the active scene, or {@code null} if there is none.
+     */
+    public static Scene getActiveScene() {
+        return sActiveScene.get();
+    }
+
+    /**
+     * Set the currently active scene of the calling thread.
+     *
+     * @param scene new active scene.
+     */
+    static void setActiveScene(Scene scene) {
+        sActiveScene.set(scene);
+    }
 
     /** Allows to temporarily override active scene. */
     public static class SceneOverride implements AutoCloseable {
@@ -120,19 +276,61 @@ public class Scene {
          * @param newScene new scene to set as active scene.
          */
         public SceneOverride(Scene newScene) {
-            mPrevScene = sActiveScene;
-            sActiveScene = newScene;
+            mPrevScene = sActiveScene.get();
+            sActiveScene.set(newScene);
         }
 
         @Override
         public void close() {
-            sActiveScene = mPrevScene;
+            sActiveScene.set(mPrevScene);
         }
     }
 
-    /** Mark the component list on this scene as dirty. */
+    /**
+     * Mark the component lists of every object on this scene as dirty.
+     *
+     * <p>Prefer {@link GameObject#dirtyComponentLists()}, which only updates a single object.
+     */
     public void dirtyComponentLists() {
-        mComponentListDirty = true;
+        for (GameObject root : mGameObjects) {
+            dirtyObjectTree(root);
+        }
+    }
+
+    /**
+     * Mark the component lists of an object as dirty.
+     *
+     * <p>The object's components will be added to, moved between, or removed from the scene's
+     * lists on the next query.
+     *
+     * <p>Objects which are neither registered, nor in the tree of the scene have nothing to update,
+     * and are not queued. Such are clones of templates, whose scene is never queried, and whose
+     * queue would otherwise keep every clone alive.
+     *
+     * @param object object whose components, or their state changed.
+     */
+    void dirtyObject(GameObject object) {
+        if (object.mRegisteredScene != this && !object.isInSceneTree()) {
+            return;
+        }
+
+        if (object.mQueuedScene != this) {
+            object.mQueuedScene = this;
+            mDirtyObjects.add(object);
+        }
+    }
+
+    /**
+     * Mark the component lists of an object and all its children as dirty.
+     *
+     * @param object root of the tree to dirty.
+     */
+    private void dirtyObjectTree(GameObject object) {
+        dirtyObject(object);
+
+        for (GameObject child : object.getChildrenInternal()) {
+            dirtyObjectTree(child);
+        }
     }
 
     /**
@@ -151,8 +349,8 @@ public class Scene {
      */
     public void addRootObject(GameObject object) {
         mGameObjects.add(object);
+        object.mSceneRoot = true;
         object.setScene(this);
-        dirtyComponentLists();
     }
 
     /**
@@ -174,9 +372,53 @@ public class Scene {
      * @param object The GameObject to be removed from the scene
      */
     public void removeRootObject(GameObject object) {
-        mGameObjects.remove(object);
+        if (mGameObjects.remove(object)) {
+            object.mSceneRoot = false;
+        }
         object.setScene(null);
-        dirtyComponentLists();
+    }
+
+    /**
+     * Queue a destroyed root object for removal from the scene.
+     *
+     * <p>The object stops being a root object straight away, but is only removed from the list of
+     * root objects by {@link #removeDestroyedRootObjects()}.
+     *
+     * @param object destroyed root object of this scene.
+     * @return {@code true} if this is the first object queued since the last removal, and the
+     *     scene needs {@link #removeDestroyedRootObjects()} to be called.
+     */
+    boolean queueDestroyedRootObject(GameObject object) {
+        object.mSceneRoot = false;
+        mDestroyedRoots.add(object);
+        return mDestroyedRoots.size() == 1;
+    }
+
+    /**
+     * Remove all root objects queued by {@link #queueDestroyedRootObject}.
+     *
+     * <p>The list of root objects is compacted in a single pass, instead of removing every object
+     * separately, which would take quadratic time when destroying many objects.
+     */
+    void removeDestroyedRootObjects() {
+        int size = mGameObjects.size();
+        int kept = 0;
+
+        for (int i = 0; i < size; i++) {
+            GameObject object = mGameObjects.get(i);
+
+            if (object.mSceneRoot) {
+                mGameObjects.set(kept++, object);
+            }
+        }
+
+        mGameObjects.subList(kept, size).clear();
+
+        for (GameObject object : mDestroyedRoots) {
+            object.setScene(null);
+        }
+
+        mDestroyedRoots.clear();
     }
 
     /**
@@ -188,9 +430,10 @@ public class Scene {
      */
     public void destroyRootObjectImmediate(GameObject object) {
         if (mGameObjects.remove(object)) {
+            object.mSceneRoot = false;
             object.engineDestroy();
+            dirtyObjectTree(object);
         }
-        dirtyComponentLists();
     }
 
     /**
@@ -205,8 +448,6 @@ public class Scene {
             object.recreateReferences();
             object.setScene(target);
         }
-        dirtyComponentLists();
-        target.dirtyComponentLists();
     }
 
     /**
@@ -256,38 +497,257 @@ public class Scene {
         return mSingletons.unregister(type);
     }
 
-    /** Iterates through all GameObjects in the scene and collects their components. */
+    /** Apply all pending changes of dirty objects to the component lists. */
     public void updateComponentsList() {
+        for (int i = 0; i < mDirtyObjects.size(); i++) {
+            GameObject object = mDirtyObjects.get(i);
 
-        if (!mComponentListDirty) return;
+            // The object may have moved on to another scene's queue
+            if (object.mQueuedScene == this) {
+                object.mQueuedScene = null;
+                updateObject(object);
+            }
+        }
 
-        mComponentListDirty = false;
+        mDirtyObjects.clear();
+    }
 
-        mEnabledComponentsDirty = true;
-        mToStartComponentsDirty = true;
-        mNotAwakeComponentsDirty = true;
+    /**
+     * Bring the registrations of an object's components up to date.
+     *
+     * @param object object to update.
+     */
+    private void updateObject(GameObject object) {
+        boolean inScene = object.getScene() == this && object.isInSceneTree();
 
-        mComponents.clear();
+        if (object.mRegisteredScene != this) {
+            if (!inScene) {
+                return;
+            }
 
-        mInterfaceComponents.values().stream().forEach(CompList::clear);
+            if (object.mRegisteredScene != null) {
+                object.mRegisteredScene.unregisterObject(object);
+            }
 
-        for (GameObject root : mGameObjects) {
-            mComponents.addAll(root.getComponents());
+            object.mRegisteredScene = this;
+        } else if (!inScene) {
+            unregisterObject(object);
+            return;
+        }
+
+        ArrayList<Registration> registrations = object.mRegistrations;
+        ArrayList<Component> components = object.getComponents();
+
+        // Drop components that have been removed from the object
+        for (int i = registrations.size() - 1; i >= 0; i--) {
+            Registration reg = registrations.get(i);
 
-            ArrayList<GameObject> children = new ArrayList<>();
-            root.getAllChildren(children);
+            if (!components.contains(reg.mComponent)) {
+                freeSlot(reg);
+                registrations.remove(i);
+            }
+        }
 
-            for (GameObject child : children) {
+        for (int i = 0; i < components.size(); i++) {
+            Component comp = components.get(i);
+            Registration reg = findRegistration(registrations, comp);
 
-                mComponents.addAll(child.getComponents());
+            if (reg == null) {
+                reg = new Registration(comp, allocateSlot());
+                registrations.add(reg);
             }
+
+            setState(reg, computeState(comp));
         }
     }
 
-    /** Dirty the enabled component list. */
+    /**
+     * Remove all components of an object from the lists.
+     *
+     * @param object object to unregister.
+     */
+    void unregisterObject(GameObject object) {
+        if (object.mRegisteredScene != this) {
+            return;
+        }
+
+        for (Registration reg : object.mRegistrations) {
+            freeSlot(reg);
+        }
+
+        object.mRegistrations.clear();
+        object.mRegisteredScene = null;
+    }
+
+    /**
+     * Find the registration of a component.
+     *
+     * @param registrations registrations of the component's object.
+     * @param comp component to find.
+     * @return registration of the component, or {@code null} if it is not registered.
+     */
+    private static Registration findRegistration(
+            ArrayList<Registration> registrations, Component comp) {
+        for (int i = 0; i < registrations.size(); i++) {
+            Registration reg = registrations.get(i);
+            if (reg.mComponent == comp) {
+                return reg;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Calculate which lists a component belongs in.
+     *
+     * @param comp component to check.
+     * @return state of the component.
+     */
+    private static int computeState(Component comp) {
+        GameObject object = comp.getGameObject();
+
+        if (object == null) {
+            return STATE_NONE;
+        } else if (!comp.isAwake()) {
+            return STATE_NOT_AWAKE;
+        } else if (!object.isEnabled()) {
+            return STATE_NONE;
+        } else if (!comp.isStarted()) {
+            return STATE_TO_START;
+        } else if (comp.isEnabled()) {
+            return STATE_ENABLED;
+        } else {
+            return STATE_NONE;
+        }
+    }
+
+    /**
+     * Allocate a registration slot.
+     *
+     * @return index of a free slot.
+     */
+    private int allocateSlot() {
+        if (mFreeSlotCount > 0) {
+            return mFreeSlots[--mFreeSlotCount];
+        }
+
+        if (mSlotCount == mSlotGenerations.length) {
+            mSlotGenerations = Arrays.copyOf(mSlotGenerations, mSlotCount * 2);
+        }
+
+        return mSlotCount++;
+    }
+
+    /**
+     * Remove a component from the lists, and free its slot.
+     *
+     * <p>The slot's generation keeps counting up, so stale entries can never match the slot's next
+     * registration.
+     *
+     * @param reg registration to drop.
+     */
+    private void freeSlot(Registration reg) {
+        setState(reg, STATE_NONE);
+
+        if (mFreeSlotCount == mFreeSlots.length) {
+            mFreeSlots = Arrays.copyOf(mFreeSlots, mFreeSlotCount * 2);
+        }
+
+        mFreeSlots[mFreeSlotCount++] = reg.mSlot;
+    }
+
+    /**
+     * Move a component between the lists.
+     *
+     * @param reg registration of the component.
+     * @param state new state of the component.
+     */
+    private void setState(Registration reg, int state) {
+        if (reg.mState == state) {
+            return;
+        }
+
+        Component comp = reg.mComponent;
+
+        // Turns every entry of the component stale
+        mSlotGenerations[reg.mSlot]++;
+
+        switch (reg.mState) {
+            case STATE_NOT_AWAKE:
+                mNotAwakeComponents.onRemoved();
+                break;
+            case STATE_TO_START:
+                mToStartComponents.onRemoved();
+                break;
+            case STATE_ENABLED:
+                mEnabledComponents.onRemoved();
+                for (CompList<?> list : getDispatchTable(comp.getClass())) {
+                    list.onRemoved();
+                }
+                break;
+            default:
+                break;
+        }
+
+        reg.mState = state;
+
+        switch (state) {
+            case STATE_NOT_AWAKE:
+                mNotAwakeComponents.add(comp, reg);
+                break;
+            case STATE_TO_START:
+                mToStartComponents.add(comp, reg);
+                break;
+            case STATE_ENABLED:
+                mEnabledComponents.add(comp, reg);
+                for (CompList<?> list : getDispatchTable(comp.getClass())) {
+                    list.onEnabled(reg);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Get the component lists a class of components belongs in.
+     *
+     * @param type class of the component.
+     * @return cached array of lists, whose type the class is assignable to.
+     */
+    private CompList<?>[] getDispatchTable(Class<?> type) {
+        CompList<?>[] table = mDispatchTables.get(type);
+
+        if (table == null) {
+            table =
+                    mInterfaceComponents.values().stream()
+                            .filter(list -> list.mType.isAssignableFrom(type))
+                            .toArray(CompList<?>[]::new);
+            mDispatchTables.put(type, table);
+        }
+
+        return table;
+    }
+
+    /**
+     * Re-check the state of every component in a list.
+     *
+     * @param bucket list to check.
+     */
+    private void refreshComponents(Bucket<Component> bucket) {
+        for (Component comp : bucket.getList()) {
+            GameObject object = comp.getGameObject();
+            if (object != null) {
+                dirtyObject(object);
+            }
+        }
+
+        updateComponentsList();
+    }
+
+    /** Dirty the enabled component list, after components in it have been started. */
     public void dirtyEnabledComponents() {
-        mEnabledComponentsDirty = true;
-        mInterfaceComponents.values().stream().forEach(CompList::clear);
+        refreshComponents(mToStartComponents);
     }
 
     /**
@@ -297,20 +757,7 @@ public class Scene {
      */
     protected ArrayList<Component> getEnabledComponents() {
         updateComponentsList();
-
-        if (mEnabledComponentsDirty) {
-            mEnabledComponents.clear();
-            mComponents.stream()
-                    .filter(component -> component.getGameObject() != null)
-                    .filter(component -> component.getGameObject().isEnabled())
-                    .filter(component -> component.isAwake())
-                    .filter(component -> component.isStarted())
-                    .filter(Component::isEnabled)
-                    .collect(Collectors.toCollection(() -> mEnabledComponents));
-            mEnabledComponentsDirty = false;
-        }
-
-        return mEnabledComponents;
+        return mEnabledComponents.getList();
     }
 
     /**
@@ -320,37 +767,59 @@ public class Scene {
      * @param type class of type T.
      * @return {@link ArrayList} with components of a given type.
      */
-    @SuppressWarnings("unchecked")
     protected <T> ArrayList<T> getComponentsByIface(Class<T> type) {
         updateComponentsList();
-        return (ArrayList<T>) mInterfaceComponents.computeIfAbsent(type, CompList::new).getList();
+        return getCompList(type).getList();
     }
 
     /**
-     * Get a list of all components that aren't awake yet.
+     * Get an array of enabled components by their class.
      *
-     * @return An ArrayList containing all of the non awake components
+     * <p>The array is shared, and only rebuilt when the components change, so iterating it needs
+     * no type checks, and is not affected by changes made to the scene during iteration.
+     *
+     * @param <T> type of the component.
+     * @param type class of type T.
+     * @return array of enabled components of a given type. It must not be modified.
      */
-    protected ArrayList<Component> getNotAwakeComponents() {
+    protected <T> T[] getComponentArray(Class<T> type) {
         updateComponentsList();
+        return getCompList(type).getArray();
+    }
 
-        if (mNotAwakeComponentsDirty) {
-
-            mNotAwakeComponents.clear();
-            mComponents.stream()
-                    .filter(component -> component.getGameObject() != null)
-                    .filter(component -> !component.isAwake())
-                    .collect(Collectors.toCollection(() -> mNotAwakeComponents));
+    /**
+     * Get the component list of a class, creating it if it does not exist.
+     *
+     * @param <T> type of the component.
+     * @param type class of type T.
+     * @return the list.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> CompList<T> getCompList(Class<T> type) {
+        CompList<T> list = (CompList<T>) mInterfaceComponents.get(type);
 
-            mNotAwakeComponentsDirty = false;
+        if (list == null) {
+            list = new CompList<>(type);
+            mInterfaceComponents.put(type, list);
+            mDispatchTables.clear();
         }
 
-        return mNotAwakeComponents;
+        return list;
+    }
+
+    /**
+     * Get a list of all components that aren't awake yet.
+     *
+     * @return An ArrayList containing all of the non awake components
+     */
+    protected ArrayList<Component> getNotAwakeComponents() {
+        updateComponentsList();
+        return mNotAwakeComponents.getList();
     }
 
-    /** Dirty the list of components that need to be started. */
+    /** Dirty the list of components that need to be started, after components have woken up. */
     void dirtyToStartComponents() {
-        mToStartComponentsDirty = true;
+        refreshComponents(mNotAwakeComponents);
     }
 
     /**
@@ -360,19 +829,7 @@ public class Scene {
      */
     protected ArrayList<Component> getEnabledButNotStartedComponents() {
         updateComponentsList();
-
-        if (mToStartComponentsDirty) {
-            mToStartComponents.clear();
-            mComponents.stream()
-                    .filter(component -> component.getGameObject() != null)
-                    .filter(component -> component.getGameObject().isEnabled())
-                    .filter(component -> component.isAwake())
-                    .filter(component -> !component.isStarted())
-                    .collect(Collectors.toCollection(() -> mToStartComponents));
-            mToStartComponentsDirty = false;
-        }
-
-        return mToStartComponents;
+        return mToStartComponents.getList();
     }
 
     @Override
@@ -0,0 +1,201 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import org.dragonskulle.components.IFixedUpdate;
+import org.dragonskulle.components.IParallelFixedUpdate;
+
+/**
+ * Runs per scene updates, either serially, or in parallel.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>In parallel mode every scene gets updated on a worker of a fork-join pool, with the
+ *     scene set as the worker's active scene. Components of a scene are still updated in the same
+ *     order, by a single thread, so the results of each scene stay deterministic. Only {@link
+ *     IParallelFixedUpdate} components are split into batches within a scene.
+ *     <p>Scenes updated in parallel must not modify each other, or share unsynchronized state.
+ *     Static state reached from scene updates has to be thread-safe. The handle table, {@link
+ *     ResourceManager}, {@link EngineCloner}, and the game's shared AI planner are synchronized.
+ *     Input, UI and renderer state is only safe to use on the main thread, outside of scene
+ *     updates.
+ *     <p>The engine targets Java 8, so the workers are regular platform threads of a {@link
+ *     ForkJoinPool}. Scene updates are CPU bound, so a pool sized to the cores suits them.
+ */
+@Accessors(prefix = "m")
+public class SceneScheduler {
+    /** Minimum number of parallel-safe components to update per task. */
+    private static final int MIN_BATCH_SIZE = 256;
+
+    /** Number of threads used for updating, 1 for serial updates. */
+    @Getter private final int mParallelism;
+
+    /** Pool updates run on, {@code null} for serial updates. */
+    private final ForkJoinPool mPool;
+
+    /** Tasks of the current update, reused between calls. */
+    private final List<ForkJoinTask<?>> mTasks = new ArrayList<>();
+
+    /**
+     * Constructor for {@link SceneScheduler}.
+     *
+     * @param parallelism number of threads to update scenes on. 1 or less updates serially on the
+     *     calling thread.
+     */
+    public SceneScheduler(int parallelism) {
+        mParallelism = Math.max(parallelism, 1);
+        mPool = mParallelism > 1 ? new ForkJoinPool(mParallelism) : null;
+    }
+
+    /**
+     * Check whether scenes get updated in parallel.
+     *
+     * @return {@code true} if the scheduler uses multiple threads.
+     */
+    public boolean isParallel() {
+        return mPool != null;
+    }
+
+    /**
+     * Run an update on every scene.
+     *
+     * <p>Each scene is set as the active scene while it is being updated. This call returns once
+     * all scenes have been updated, and rethrows any exception thrown by an update.
+     *
+     * @param scenes scenes to update.
+     * @param update update to run on each scene.
+     */
+    public void runScenes(Collection<Scene> scenes, Consumer<Scene> update) {
+        if (mPool == null || scenes.size() <= 1) {
+            for (Scene scene : scenes) {
+                runOnScene(scene, update);
+            }
+            return;
+        }
+
+        try {
+            for (Scene scene : scenes) {
+                mTasks.add(ForkJoinTask.adapt(() -> runOnScene(scene, update)));
+            }
+
+            invokeAll(mTasks);
+        } finally {
+            mTasks.clear();
+        }
+    }
+
+    /**
+     * Run fixed updates of every scene.
+     *
+     * <p>{@link IFixedUpdate} components are updated first, in order, followed by all {@link
+     * IParallelFixedUpdate} components of the scene.
+     *
+     * @param scenes scenes to update.
+     * @param deltaTime time step of the update.
+     */
+    public void fixedUpdate(Collection<Scene> scenes, float deltaTime) {
+        FrameProfiler profiler = Engine.getInstance().getProfiler();
+
+        runScenes(
+                scenes,
+                s -> {
+                    for (IFixedUpdate component : s.getComponentArray(IFixedUpdate.class)) {
+                        long start = profiler.begin();
+                        component.fixedUpdate(deltaTime);
+                        profiler.endComponent(component, start);
+                    }
+
+                    runBatched(
+                            s,
+                            s.getComponentArray(IParallelFixedUpdate.class),
+                            c -> {
+                                long start = profiler.begin();
+                                c.parallelFixedUpdate(deltaTime);
+                                profiler.endComponent(c, start);
+                            });
+                });
+    }
+
+    /**
+     * Run an update on every component of an array, splitting it into batches when in parallel.
+     *
+     * @param <T> type of the components.
+     * @param scene scene the components are on.
+     * @param components components to update.
+     * @param update update to run on each component.
+     */
+    private <T> void runBatched(Scene scene, T[] components, Consumer<T> update) {
+        int batches = Math.min(mParallelism, components.length / MIN_BATCH_SIZE);
+
+        if (mPool == null || batches <= 1) {
+            for (T component : components) {
+                update.accept(component);
+            }
+            return;
+        }
+
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(batches);
+
+        for (int b = 0; b < batches; b++) {
+            int start = components.length * b / batches;
+            int end = components.length * (b + 1) / batches;
+
+            tasks.add(
+                    ForkJoinTask.adapt(
+                            () -> {
+                                Scene prev = Scene.getActiveScene();
+                                Scene.setActiveScene(scene);
+                                try {
+                                    for (int i = start; i < end; i++) {
+                                        update.accept(components[i]);
+                                    }
+                                } finally {
+                                    Scene.setActiveScene(prev);
+                                }
+                            }));
+        }
+
+        invokeAll(tasks);
+    }
+
+    /**
+     * Run tasks on the pool, and wait for them to finish.
+     *
+     * @param tasks tasks to run.
+     */
+    private void invokeAll(List<ForkJoinTask<?>> tasks) {
+        if (ForkJoinTask.getPool() == mPool) {
+            ForkJoinTask.invokeAll(tasks);
+        } else {
+            mPool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+        }
+    }
+
+    /**
+     * Run an update on a scene, with the scene active.
+     *
+     * @param scene scene to update.
+     * @param update update to run.
+     */
+    private static void runOnScene(Scene scene, Consumer<Scene> update) {
+        Scene.setActiveScene(scene);
+        try {
+            update.accept(scene);
+        } finally {
+            Scene.setActiveScene(null);
+        }
+    }
+
+    /** Stop the worker threads. The scheduler must not be used afterwards. */
+    public void shutdown() {
+        if (mPool != null) {
+            mPool.shutdown();
+        }
+    }
+}
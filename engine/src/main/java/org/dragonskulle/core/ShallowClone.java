@@ -0,0 +1,20 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.core;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a field whose value is shared with clones, instead of being deep cloned.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Use it for data that is never modified per instance, such as shared resources, and
+ *     configuration. Anything mutated through the field will be seen by the original, and all of
+ *     its clones.
+ *     <p>Only fields of components are supported, other objects still deep clone the field.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface ShallowClone {}
@@ -3,6 +3,7 @@ package org.dragonskulle.core;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import lombok.experimental.Accessors;
@@ -11,26 +12,64 @@ import lombok.experimental.Accessors;
  * Spawnable template manager.
  *
  * @author Aurimas Blažulionis
- *     <p>This class acts as a collection of spawnable object templates.
+ *     <p>This class acts as a collection of spawnable object templates. Every template is
+ *     instantiated through its own {@link GameObjectPool}, so templates whose components support
+ *     pooling get their destroyed instances reused.
+ *     <p>Objects that are not networked, but spawned often, can be pooled through {@link
+ *     #getPool(GameObject)}. The pools belong to the manager, which is not shared between network
+ *     managers, so instances never cross scenes, or threads.
  */
 @Accessors(prefix = "m")
 public class TemplateManager {
     private final List<GameObject> mTemplates = new ArrayList<>();
     private final Map<String, Integer> mNameToIndex = new HashMap<>();
+    /** Pools of every template, at the same indices as the templates. */
+    private final List<GameObjectPool> mPools = new ArrayList<>();
+    /** Pools of templates that are not part of the manager. */
+    private final Map<GameObject, GameObjectPool> mExtraPools = new IdentityHashMap<>();
 
     /**
      * Instantiate a template by ID.
      *
      * @param id index of the object in the manager
-     * @return a clone of the template. {@code null} if invalid ID was passed.
+     * @return a recycled instance, or a clone of the template. {@code null} if invalid ID was
+     *     passed.
      */
     public GameObject instantiate(int id) {
+        GameObjectPool pool = getPool(id);
+        return pool != null ? pool.obtain() : null;
+    }
 
-        if (id < 0 || id >= mTemplates.size()) {
+    /**
+     * Get the pool of a template.
+     *
+     * @param id index of the object in the manager
+     * @return pool of the template. {@code null} if invalid ID was passed.
+     */
+    public GameObjectPool getPool(int id) {
+        if (id < 0 || id >= mPools.size()) {
             return null;
         }
 
-        return GameObject.instantiate(mTemplates.get(id));
+        return mPools.get(id);
+    }
+
+    /**
+     * Get the pool of any template, including those not added to the manager.
+     *
+     * <p>The pool gets created on first use, and is kept for the lifetime of the manager.
+     *
+     * @param template template to get the pool of.
+     * @return pool of the template.
+     */
+    public GameObjectPool getPool(GameObject template) {
+        Integer id = find(template.getName());
+
+        if (id != null && mTemplates.get(id) == template) {
+            return mPools.get(id);
+        }
+
+        return mExtraPools.computeIfAbsent(template, GameObjectPool::new);
     }
 
     /**
@@ -56,6 +95,7 @@ public class TemplateManager {
         int idx = mTemplates.size();
         mNameToIndex.put(object.getName(), idx);
         mTemplates.add(object);
+        mPools.add(new GameObjectPool(object));
         return idx;
     }
 
@@ -10,13 +10,40 @@ package org.dragonskulle.core;
 public class Time {
     private static final float NS_PER_S = 1000000000.f;
 
+    /** Source of the current time. */
+    public interface IClock {
+        /**
+         * Get the current time.
+         *
+         * @return current time in seconds
+         */
+        double getPreciseTimeInSeconds();
+    }
+
+    /** Clock reading the system's monotonic timer. */
+    private static final IClock SYSTEM_CLOCK = () -> ((double) System.nanoTime()) / NS_PER_S;
+
+    /** Clock all time is read from. */
+    private static volatile IClock sClock = SYSTEM_CLOCK;
+
+    /**
+     * Replace the source of time.
+     *
+     * <p>This is meant for tests, which need to control how much time passes between frames.
+     *
+     * @param clock clock to read the time from, {@code null} to use the system clock.
+     */
+    public static void setClock(IClock clock) {
+        sClock = clock != null ? clock : SYSTEM_CLOCK;
+    }
+
     /**
      * Get the current system time in seconds.
      *
      * @return The current time in seconds
      */
     public static double getPreciseTimeInSeconds() {
-        return ((double) System.nanoTime()) / NS_PER_S;
+        return sClock.getPreciseTimeInSeconds();
     }
 
     /**
@@ -1,15 +1,20 @@
 /* (C) 2021 DragonSkulle */
 package org.dragonskulle.devtools;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
+import lombok.extern.java.Log;
 import org.dragonskulle.components.Component;
 import org.dragonskulle.components.IFrameUpdate;
 import org.dragonskulle.components.IOnAwake;
 import org.dragonskulle.components.Transform;
 import org.dragonskulle.components.TransformHex;
 import org.dragonskulle.core.Engine;
+import org.dragonskulle.core.FrameProfiler;
 import org.dragonskulle.core.Reference;
 import org.dragonskulle.core.Scene;
 import org.dragonskulle.input.Action;
@@ -29,16 +34,32 @@ import org.joml.Vector3f;
  * @author Aurimas Blažulionis
  */
 @Accessors(prefix = "m")
+@Log
 public class RenderDebug extends Component implements IOnAwake, IFrameUpdate {
 
     public static final Action DEBUG_ACTION = new Action();
 
+    /** Action toggling the frame profiler, whose summary gets shown in the overlay. */
+    public static final Action PROFILE_ACTION = new Action();
+
+    /** Action exporting the recorded profile to a Chrome trace file. */
+    public static final Action EXPORT_PROFILE_ACTION = new Action();
+
+    /** Number of slowest component classes listed in the profile summary. */
+    private static final int PROFILE_COMPONENTS = 5;
+
     private Reference<UIText> mText;
 
     @Getter @Setter private Reference<Transform> mTrackTransform;
 
     private boolean mLastPressed = false;
 
+    /** Whether the profile action was pressed last frame. */
+    private boolean mLastProfilePressed = false;
+
+    /** Whether the export action was pressed last frame. */
+    private boolean mLastExportPressed = false;
+
     private float mLastTime = 0f;
 
     @Override
@@ -59,6 +80,20 @@ public class RenderDebug extends Component implements IOnAwake, IFrameUpdate {
     public void frameUpdate(float deltaTime) {
         boolean debugPressed = DEBUG_ACTION.isActivated();
 
+        FrameProfiler profiler = Engine.getInstance().getProfiler();
+
+        boolean profilePressed = PROFILE_ACTION.isActivated();
+        if (profilePressed && !mLastProfilePressed) {
+            profiler.setEnabled(!profiler.isEnabled());
+        }
+        mLastProfilePressed = profilePressed;
+
+        boolean exportPressed = EXPORT_PROFILE_ACTION.isActivated();
+        if (exportPressed && !mLastExportPressed) {
+            exportProfile(profiler);
+        }
+        mLastExportPressed = exportPressed;
+
         if (Engine.getInstance().getCurTime() - mLastTime < 0.016f) {
             return;
         }
@@ -128,7 +163,26 @@ public class RenderDebug extends Component implements IOnAwake, IFrameUpdate {
                             rend.getVertexBufferSize(),
                             rend.getIndexBufferSize());
 
-            mText.get().setText(fps + cameraText + cursorText + rendererText);
+            String profileText =
+                    profiler.isEnabled() ? profiler.getSummary(PROFILE_COMPONENTS) : "";
+
+            mText.get().setText(fps + cameraText + cursorText + rendererText + profileText);
+        }
+    }
+
+    /**
+     * Export the recorded profile to a trace file in the working directory.
+     *
+     * @param profiler profiler to export.
+     */
+    private static void exportProfile(FrameProfiler profiler) {
+        Path path = Paths.get(String.format("profile_%d.json", System.currentTimeMillis()));
+
+        try {
+            profiler.exportTrace(path);
+            log.info("Exported profile to " + path.toAbsolutePath());
+        } catch (IOException e) {
+            log.warning("Failed to export profile: " + e);
         }
     }
 
@@ -0,0 +1,70 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.network;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses batches of messages going to a single client.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>A compressed block is written in place of a message length, as {@link
+ *     NetworkConfig#COMPRESSED_BLOCK}, followed by the compressed and uncompressed sizes, and the
+ *     compressed data. The uncompressed data is a sequence of regular length prefixed messages.
+ *     <p>The deflate stream is kept open for the whole connection, and every block is sync
+ *     flushed. This way each block gets compressed against everything sent before it, which works
+ *     as a dictionary that is built up from the connection's own traffic. The receiving {@link
+ *     BatchInflater} must therefore see every block, in order.
+ */
+class BatchDeflater {
+    /** Size of the block header: compressed and uncompressed sizes. */
+    static final int HEADER_SIZE = 2 + 4 + 4;
+
+    /** Deflater that lives for the whole connection. */
+    private final Deflater mDeflater = new Deflater(Deflater.BEST_SPEED, true);
+    /** Scratch buffer for compressed data. */
+    private byte[] mOutput = new byte[1 << 12];
+
+    /**
+     * Compress data, and write it out as a block.
+     *
+     * @param data array containing the messages
+     * @param offset start of the messages in the array
+     * @param length size of the messages
+     * @param out stream to write the block into
+     * @return number of bytes written, including the header
+     * @throws IOException if writing fails
+     */
+    int writeBlock(byte[] data, int offset, int length, DataOutputStream out)
+            throws IOException {
+        mDeflater.setInput(data, offset, length);
+
+        int size = 0;
+
+        while (true) {
+            int written =
+                    mDeflater.deflate(mOutput, size, mOutput.length - size, Deflater.SYNC_FLUSH);
+            size += written;
+
+            if (size < mOutput.length) {
+                break;
+            }
+
+            mOutput = Arrays.copyOf(mOutput, mOutput.length * 2);
+        }
+
+        out.writeShort(NetworkConfig.COMPRESSED_BLOCK);
+        out.writeInt(size);
+        out.writeInt(length);
+        out.write(mOutput, 0, size);
+
+        return HEADER_SIZE + size;
+    }
+
+    /** Release the native resources of the deflater. */
+    void end() {
+        mDeflater.end();
+    }
+}
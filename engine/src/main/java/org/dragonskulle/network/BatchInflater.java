@@ -0,0 +1,92 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.network;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+/**
+ * Decompresses blocks written by {@link BatchDeflater}.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Like the deflater, the inflater lives for the whole connection, and must be given every
+ *     block, in the order they were received.
+ */
+@Accessors(prefix = "m")
+class BatchInflater {
+    /** Inflater that lives for the whole connection. */
+    private final Inflater mInflater = new Inflater(true);
+    /** Scratch buffer for compressed data. */
+    private byte[] mInput = new byte[1 << 12];
+    /** Output buffer used to check that nothing is left after a block. */
+    private final byte[] mSpare = new byte[1];
+    /** Size of the last block on the wire, including the header. */
+    @Getter private int mLastBlockSize = 0;
+
+    /**
+     * Read the rest of a block, after the {@link NetworkConfig#COMPRESSED_BLOCK} marker.
+     *
+     * @param in stream to read the block from
+     * @return the decompressed messages, still length prefixed
+     * @throws IOException if reading fails, or the block is malformed
+     */
+    byte[] readBlock(DataInput in) throws IOException {
+        int compressedSize = in.readInt();
+        int rawSize = in.readInt();
+
+        if (compressedSize < 0
+                || rawSize < 0
+                || compressedSize > NetworkConfig.MAX_COMPRESSED_BATCH
+                || rawSize > NetworkConfig.MAX_COMPRESSED_BATCH) {
+            throw new IOException("Invalid compressed block size!");
+        }
+
+        if (mInput.length < compressedSize) {
+            mInput = new byte[compressedSize];
+        }
+
+        in.readFully(mInput, 0, compressedSize);
+        mLastBlockSize = BatchDeflater.HEADER_SIZE + compressedSize;
+        mInflater.setInput(mInput, 0, compressedSize);
+
+        byte[] output = new byte[rawSize];
+        int size = 0;
+
+        try {
+            while (size < rawSize) {
+                int read = mInflater.inflate(output, size, rawSize - size);
+
+                if (read == 0 && (mInflater.needsInput() || mInflater.finished())) {
+                    throw new IOException("Compressed block is truncated!");
+                }
+
+                size += read;
+            }
+
+            // Consume the trailing sync flush marker, so no input is lost before the next block
+            while (!mInflater.needsInput()) {
+                int remaining = mInflater.getRemaining();
+
+                if (mInflater.inflate(mSpare) != 0) {
+                    throw new IOException("Compressed block is larger than declared!");
+                }
+
+                if (mInflater.getRemaining() == remaining) {
+                    throw new IOException("Compressed block has trailing data!");
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Compressed block is corrupted!", e);
+        }
+
+        return output;
+    }
+
+    /** Release the native resources of the inflater. */
+    void end() {
+        mInflater.end();
+    }
+}
@@ -0,0 +1,130 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.network;
+
+import java.io.DataInput;
+import java.io.IOException;
+
+/**
+ * Reads values written by {@link BitWriter} from a {@link DataInput}.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Bytes are only read from the stream when needed. Call {@link #align} once done, so that
+ *     the padding of the last partial byte is skipped.
+ */
+public class BitReader {
+    /** Reader of each thread, reused by {@link #of}. */
+    private static final ThreadLocal<BitReader> sReaders =
+            ThreadLocal.withInitial(() -> new BitReader(null));
+
+    /** Stream to read bytes from. */
+    private DataInput mIn;
+    /** Bits that have been read, but not consumed yet. */
+    private long mBuffer;
+    /** Number of bits held in {@link #mBuffer}. */
+    private int mBitCount;
+
+    /**
+     * Constructor for {@link BitReader}.
+     *
+     * @param in stream to read from
+     */
+    public BitReader(DataInput in) {
+        mIn = in;
+    }
+
+    /**
+     * Get this thread's reader, switched to a stream.
+     *
+     * <p>Unlike creating a new reader, this does not allocate anything. Any bits left over from
+     * the previous stream are discarded.
+     *
+     * @param in stream to read from
+     * @return the reused reader
+     */
+    public static BitReader of(DataInput in) {
+        return sReaders.get().reset(in);
+    }
+
+    /**
+     * Align, and switch to a different stream.
+     *
+     * @param in new stream to read from
+     * @return this reader
+     */
+    public BitReader reset(DataInput in) {
+        align();
+        mIn = in;
+        return this;
+    }
+
+    /**
+     * Read a number of bits.
+     *
+     * @param count number of bits to read, between 0 and 32
+     * @return the bits, in the lowest bits of the value
+     * @throws IOException if reading from the stream fails
+     */
+    public int readBits(int count) throws IOException {
+        if (count < 0 || count > 32) {
+            throw new IllegalArgumentException("Invalid bit count " + count);
+        }
+
+        while (mBitCount < count) {
+            mBuffer |= (long) mIn.readUnsignedByte() << mBitCount;
+            mBitCount += 8;
+        }
+
+        int value = (int) (mBuffer & ((1L << count) - 1));
+        mBuffer >>>= count;
+        mBitCount -= count;
+        return value;
+    }
+
+    /**
+     * Read a single bit.
+     *
+     * @return the bit
+     * @throws IOException if reading from the stream fails
+     */
+    public boolean readBool() throws IOException {
+        return readBits(1) != 0;
+    }
+
+    /**
+     * Read an unsigned variable length integer.
+     *
+     * @return the value
+     * @throws IOException if reading from the stream fails, or the value is malformed
+     */
+    public int readVarUInt() throws IOException {
+        int value = 0;
+
+        for (int shift = 0; shift < 35; shift += 7) {
+            int group = readBits(8);
+            value |= (group & 0x7f) << shift;
+
+            if ((group & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("Malformed variable length integer");
+    }
+
+    /**
+     * Read a signed, zigzag encoded variable length integer.
+     *
+     * @return the value
+     * @throws IOException if reading from the stream fails, or the value is malformed
+     */
+    public int readVarInt() throws IOException {
+        int value = readVarUInt();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /** Discard the remaining bits of the current byte. */
+    public void align() {
+        mBuffer = 0;
+        mBitCount = 0;
+    }
+}
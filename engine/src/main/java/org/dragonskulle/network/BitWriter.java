@@ -0,0 +1,137 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.network;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Writes values bit by bit into a {@link DataOutput}.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Bits are packed least significant first, and whole bytes are written out as soon as they
+ *     fill up. Call {@link #flush} once done, so that the last partial byte gets written, and the
+ *     underlying stream is byte aligned again.
+ */
+public class BitWriter {
+    /** Writer of each thread, reused by {@link #of}. */
+    private static final ThreadLocal<BitWriter> sWriters =
+            ThreadLocal.withInitial(() -> new BitWriter(null));
+
+    /** Stream to write bytes into. */
+    private DataOutput mOut;
+    /** Bits that have not been written out yet. */
+    private long mBuffer;
+    /** Number of bits held in {@link #mBuffer}. */
+    private int mBitCount;
+
+    /**
+     * Constructor for {@link BitWriter}.
+     *
+     * @param out stream to write into
+     */
+    public BitWriter(DataOutput out) {
+        mOut = out;
+    }
+
+    /**
+     * Get this thread's writer, switched to a stream.
+     *
+     * <p>Unlike creating a new writer, this does not allocate anything. The writer must be
+     * flushed before the next call on the same thread.
+     *
+     * @param out stream to write into
+     * @return the reused writer
+     * @throws IOException if flushing to the previous stream fails
+     */
+    public static BitWriter of(DataOutput out) throws IOException {
+        return sWriters.get().reset(out);
+    }
+
+    /**
+     * Flush, and switch to a different stream.
+     *
+     * @param out new stream to write into
+     * @return this writer
+     * @throws IOException if flushing to the old stream fails
+     */
+    public BitWriter reset(DataOutput out) throws IOException {
+        flush();
+        mOut = out;
+        return this;
+    }
+
+    /**
+     * Write the lowest bits of a value.
+     *
+     * @param value value to write
+     * @param count number of bits to write, between 0 and 32
+     * @throws IOException if writing to the stream fails
+     */
+    public void writeBits(int value, int count) throws IOException {
+        if (count < 0 || count > 32) {
+            throw new IllegalArgumentException("Invalid bit count " + count);
+        }
+
+        mBuffer |= (value & ((1L << count) - 1)) << mBitCount;
+        mBitCount += count;
+
+        while (mBitCount >= 8) {
+            mOut.writeByte((int) mBuffer);
+            mBuffer >>>= 8;
+            mBitCount -= 8;
+        }
+    }
+
+    /**
+     * Write a single bit.
+     *
+     * @param value value to write
+     * @throws IOException if writing to the stream fails
+     */
+    public void writeBool(boolean value) throws IOException {
+        writeBits(value ? 1 : 0, 1);
+    }
+
+    /**
+     * Write an unsigned variable length integer.
+     *
+     * <p>The value is split into groups of 7 bits, each prefixed with a continuation bit, so small
+     * values take up fewer bits.
+     *
+     * @param value value to write, treated as unsigned
+     * @throws IOException if writing to the stream fails
+     */
+    public void writeVarUInt(int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            writeBits((value & 0x7f) | 0x80, 8);
+            value >>>= 7;
+        }
+        writeBits(value, 8);
+    }
+
+    /**
+     * Write a signed variable length integer.
+     *
+     * <p>The value is zigzag encoded, so that small negative values are small too.
+     *
+     * @param value value to write
+     * @throws IOException if writing to the stream fails
+     */
+    public void writeVarInt(int value) throws IOException {
+        writeVarUInt((value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * Write out any remaining bits, padding the last byte with zeroes.
+     *
+     * @throws IOException if writing to the stream fails
+     */
+    public void flush() throws IOException {
+        if (mBitCount > 0) {
+            mOut.writeByte((int) mBuffer);
+        }
+
+        mBuffer = 0;
+        mBitCount = 0;
+    }
+}
@@ -0,0 +1,100 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.network;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+/**
+ * Thread safe pool of equally sized direct {@link ByteBuffer}s.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Direct buffers are expensive to allocate and are only freed by the garbage collector, so
+ *     network code should acquire them from here, and release them once the data has been written
+ *     out.
+ */
+@Accessors(prefix = "m")
+public class ByteBufferPool {
+    /** Size of every buffer in the pool. */
+    @Getter private final int mBufferSize;
+    /** Maximum number of idle buffers kept around. */
+    private final int mMaxPooled;
+    /** Idle buffers. */
+    private final ConcurrentLinkedQueue<ByteBuffer> mBuffers = new ConcurrentLinkedQueue<>();
+    /** Number of buffers inside {@link #mBuffers}. */
+    private final AtomicInteger mPooledCount = new AtomicInteger(0);
+    /** Total number of bytes ever allocated by this pool. */
+    private final AtomicLong mAllocatedBytes = new AtomicLong(0);
+
+    /**
+     * Constructor for {@link ByteBufferPool}.
+     *
+     * @param bufferSize size of individual buffers.
+     * @param maxPooled maximum number of idle buffers to keep.
+     */
+    public ByteBufferPool(int bufferSize, int maxPooled) {
+        mBufferSize = bufferSize;
+        mMaxPooled = maxPooled;
+    }
+
+    /**
+     * Acquire a cleared buffer.
+     *
+     * @return buffer of {@link #getBufferSize()} capacity. Either a recycled one, or a newly
+     *     allocated one, if the pool is empty.
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = mBuffers.poll();
+
+        if (buffer == null) {
+            mAllocatedBytes.addAndGet(mBufferSize);
+            return ByteBuffer.allocateDirect(mBufferSize);
+        }
+
+        mPooledCount.decrementAndGet();
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Return a buffer to the pool.
+     *
+     * <p>The buffer must not be used by the caller afterwards. Buffers that were not created by
+     * this pool are ignored.
+     *
+     * @param buffer buffer to release.
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect() || buffer.capacity() != mBufferSize) {
+            return;
+        }
+
+        if (mPooledCount.incrementAndGet() > mMaxPooled) {
+            mPooledCount.decrementAndGet();
+            return;
+        }
+
+        mBuffers.add(buffer);
+    }
+
+    /**
+     * Get the number of idle buffers in the pool.
+     *
+     * @return number of buffers that can be acquired without allocating.
+     */
+    public int getPooledCount() {
+        return mPooledCount.get();
+    }
+
+    /**
+     * Get the total amount of memory the pool has allocated.
+     *
+     * @return number of bytes allocated over the lifetime of the pool.
+     */
+    public long getAllocatedBytes() {
+        return mAllocatedBytes.get();
+    }
+}
@@ -49,6 +49,16 @@ public interface IServerListener {
      */
     void clientDisconnected(ServerClient client);
 
+    /**
+     * Client removed event.
+     *
+     * <p>This is called after a disconnected client was removed from the client list on the main
+     * thread. Its network ID may be given to a new client from then on. Does nothing by default.
+     *
+     * @param client the client
+     */
+    default void clientRemoved(ServerClient client) {}
+
     /**
      * Client component request.
      *
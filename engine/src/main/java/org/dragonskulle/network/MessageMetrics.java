@@ -0,0 +1,153 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.network;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts network traffic per message type.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Message sizes include their length prefix. Batch sizes are counted separately, as the
+ *     bytes messages took up before, and after compression, so the effect of compression can be
+ *     seen next to the message types that make up the traffic. All counters are thread safe.
+ */
+public class MessageMetrics {
+    /** Number of possible message types. */
+    private static final int TYPE_COUNT = 256;
+    /** Names of the message types in {@link NetworkConfig.Codes}, indexed by unsigned type. */
+    private static final String[] TYPE_NAMES = new String[TYPE_COUNT];
+
+    static {
+        for (Field field : NetworkConfig.Codes.class.getDeclaredFields()) {
+            if (field.getType() == byte.class && Modifier.isStatic(field.getModifiers())) {
+                try {
+                    TYPE_NAMES[field.getByte(null) & 0xff] = field.getName();
+                } catch (IllegalAccessException ignored) {
+                }
+            }
+        }
+    }
+
+    /** Number of messages, per type. */
+    private final AtomicLongArray mMessageCounts = new AtomicLongArray(TYPE_COUNT);
+    /** Number of message bytes, per type. */
+    private final AtomicLongArray mMessageBytes = new AtomicLongArray(TYPE_COUNT);
+    /** Number of message bytes in written out batches. */
+    private final AtomicLong mRawBytes = new AtomicLong();
+    /** Number of bytes the batches took up on the wire. */
+    private final AtomicLong mWireBytes = new AtomicLong();
+
+    /**
+     * Record a message.
+     *
+     * @param type type of the message, its first byte
+     * @param size size of the message, including its length prefix
+     */
+    public void recordMessage(byte type, int size) {
+        mMessageCounts.incrementAndGet(type & 0xff);
+        mMessageBytes.addAndGet(type & 0xff, size);
+    }
+
+    /**
+     * Record a batch of messages that went on the wire.
+     *
+     * @param rawBytes size of the messages in the batch
+     * @param wireBytes number of bytes written for the batch
+     */
+    public void recordBatch(int rawBytes, int wireBytes) {
+        mRawBytes.addAndGet(rawBytes);
+        mWireBytes.addAndGet(wireBytes);
+    }
+
+    /**
+     * Get the number of messages of a type.
+     *
+     * @param type type of the message
+     * @return number of recorded messages
+     */
+    public long getMessageCount(byte type) {
+        return mMessageCounts.get(type & 0xff);
+    }
+
+    /**
+     * Get the total size of messages of a type.
+     *
+     * @param type type of the message
+     * @return number of recorded bytes, including length prefixes
+     */
+    public long getMessageBytes(byte type) {
+        return mMessageBytes.get(type & 0xff);
+    }
+
+    /**
+     * Get the size of all batches, before compression.
+     *
+     * @return number of bytes
+     */
+    public long getRawBytes() {
+        return mRawBytes.get();
+    }
+
+    /**
+     * Get the size of all batches on the wire.
+     *
+     * @return number of bytes
+     */
+    public long getWireBytes() {
+        return mWireBytes.get();
+    }
+
+    /** Reset all counters. */
+    public void reset() {
+        for (int i = 0; i < TYPE_COUNT; i++) {
+            mMessageCounts.set(i, 0);
+            mMessageBytes.set(i, 0);
+        }
+
+        mRawBytes.set(0);
+        mWireBytes.set(0);
+    }
+
+    /**
+     * Build a human readable report of the counters.
+     *
+     * @return multi-line report, with a line per message type that has been recorded
+     */
+    public String report() {
+        StringBuilder builder = new StringBuilder();
+
+        long raw = getRawBytes();
+        long wire = getWireBytes();
+
+        builder.append(
+                String.format(
+                        "%d bytes of messages, %d bytes on the wire (%.1f%%)",
+                        raw, wire, raw == 0 ? 100.0 : 100.0 * wire / raw));
+
+        for (int i = 0; i < TYPE_COUNT; i++) {
+            long count = mMessageCounts.get(i);
+
+            if (count == 0) {
+                continue;
+            }
+
+            String name = TYPE_NAMES[i] != null ? TYPE_NAMES[i] : Integer.toString((byte) i);
+            long bytes = mMessageBytes.get(i);
+
+            builder.append(
+                    String.format(
+                            "%n  %-24s %8d messages %10d bytes %8.1f avg",
+                            name, count, bytes, bytes / (double) count));
+        }
+
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return report();
+    }
+}
@@ -61,6 +61,9 @@ public class NetworkClient {
     /** Simulated network latency. */
     @Getter @Setter private float mSimLatency = 0f;
 
+    /** Traffic received from the server, per message type. */
+    @Getter private final MessageMetrics mMetrics = new MessageMetrics();
+
     /**
      * Get the output data stream for sending messages.
      *
@@ -192,6 +195,8 @@ public class NetworkClient {
     private class ClientRunner implements Runnable {
         private String mIP;
         private int mPort;
+        /** Decompressor of received batches. {@code null} if compression is off. */
+        private BatchInflater mInflater;
 
         @Override
         public void run() {
@@ -212,21 +217,32 @@ public class NetworkClient {
 
                     int serverTime = input.readInt();
 
-                    mDataOut.writeByte(NetworkConfig.CLIENT_HANDSHAKE_BYTE);
-                    mDataOut.writeInt(serverTime + NetworkConfig.CLIENT_HANDSHAKE_BYTE);
+                    byte clientByte =
+                            NetworkConfig.USE_COMPRESSION
+                                    ? NetworkConfig.CLIENT_COMPRESSED_HANDSHAKE_BYTE
+                                    : NetworkConfig.CLIENT_HANDSHAKE_BYTE;
+
+                    mDataOut.writeByte(clientByte);
+                    mDataOut.writeInt(serverTime + clientByte);
                     mDataOut.flush();
 
-                    byte netID = input.readByte();
+                    int netID = input.readInt();
+
+                    if (NetworkConfig.USE_COMPRESSION && input.readBoolean()) {
+                        mInflater = new BatchInflater();
+                    }
+
                     mClientListener.connectedToServer(netID);
 
                     while (mOpen && mSocket.isConnected()) {
                         try {
                             short len = input.readShort();
-                            byte[] bytes = IOUtils.readNBytes(input, len);
-                            if (mSimLatency <= 0f) {
-                                queueRequest(bytes);
+
+                            if (len == NetworkConfig.COMPRESSED_BLOCK && mInflater != null) {
+                                receiveBlock(input);
                             } else {
-                                mDelayedRequests.add(new TimestampedRequest(bytes));
+                                receive(IOUtils.readNBytes(input, len));
+                                mMetrics.recordBatch(len + 2, len + 2);
                             }
                         } catch (IOException e) {
                             break;
@@ -241,6 +257,11 @@ public class NetworkClient {
                 mClientListener.couldNotConnect();
             }
 
+            if (mInflater != null) {
+                mInflater.end();
+                mInflater = null;
+            }
+
             if (mClientListener != null) {
                 mClientListener.disconnected();
             }
@@ -248,6 +269,46 @@ public class NetworkClient {
             dispose();
             log.fine("cancelled successfully");
         }
+
+        /**
+         * Read a compressed block, and receive all messages inside it.
+         *
+         * @param input stream to read the rest of the block from
+         * @throws IOException if reading fails, or the block is malformed
+         */
+        private void receiveBlock(DataInputStream input) throws IOException {
+            byte[] batch = mInflater.readBlock(input);
+            DataInputStream batchInput = new DataInputStream(new ByteArrayInputStream(batch));
+
+            while (batchInput.available() > 0) {
+                short len = batchInput.readShort();
+
+                if (len < 0) {
+                    throw new IOException("Invalid message length in compressed block!");
+                }
+
+                receive(IOUtils.readNBytes(batchInput, len));
+            }
+
+            mMetrics.recordBatch(batch.length, mInflater.getLastBlockSize());
+        }
+
+        /**
+         * Receive a single message.
+         *
+         * @param bytes body of the message
+         */
+        private void receive(byte[] bytes) {
+            if (bytes.length > 0) {
+                mMetrics.recordMessage(bytes[0], bytes.length + 2);
+            }
+
+            if (mSimLatency <= 0f) {
+                queueRequest(bytes);
+            } else {
+                mDelayedRequests.add(new TimestampedRequest(bytes));
+            }
+        }
     }
 
     /**
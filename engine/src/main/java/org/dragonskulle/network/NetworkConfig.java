@@ -1,6 +1,8 @@
 /* (C) 2021 DragonSkulle */
 package org.dragonskulle.network;
 
+import static org.dragonskulle.utils.Env.envBool;
+
 /**
  * The Network config, more configuration can be moved here.
  *
@@ -35,8 +37,54 @@ public class NetworkConfig {
     /** How many client requests can we process in a given tick (per client). */
     public static final int MAX_CLIENT_REQUESTS = 32;
 
+    /**
+     * Whether servers should serve all clients from a single selector thread. Can be enabled with
+     * {@code SELECTOR_SERVER} environment variable.
+     */
+    public static final boolean USE_SELECTOR_SERVER = envBool("SELECTOR_SERVER", false);
+
+    /** Size of pooled direct buffers used by the selector server. */
+    static final int SELECTOR_BUFFER_SIZE = 1 << 13;
+
+    /** Maximum number of idle buffers the selector server keeps around. */
+    static final int SELECTOR_MAX_POOLED = 256;
+
+    /** Maximum number of bytes that can be queued up for a single client before it is dropped. */
+    static final int MAX_PENDING_OUTPUT = 1 << 22;
+
+    /**
+     * Whether object updates that are identical for all clients should be encoded once per tick,
+     * and shared between clients. Can be disabled with {@code SHARED_ENCODING} environment
+     * variable.
+     */
+    public static final boolean USE_SHARED_ENCODING = envBool("SHARED_ENCODING", true);
+
+    /**
+     * Whether batches sent to clients should be compressed. Clients request it during the
+     * handshake, and the server only turns it on if both sides have it enabled. Can be disabled
+     * with {@code NET_COMPRESSION} environment variable.
+     */
+    public static final boolean USE_COMPRESSION = envBool("NET_COMPRESSION", true);
+
+    /**
+     * Smallest batch that gets compressed. Smaller batches are sent as they are, so that single
+     * small messages do not pay for compression.
+     */
+    static final int COMPRESSION_THRESHOLD = 128;
+
+    /** Largest compressed block a client accepts, both before, and after decompression. */
+    static final int MAX_COMPRESSED_BATCH = 1 << 24;
+
+    /** Value in place of a message length that marks a compressed block. */
+    static final short COMPRESSED_BLOCK = -1;
+
     /** Specific challenge bytes server will send. */
     public static final byte SERVER_HANDSHAKE_BYTE = 42;
     /** Specific challenge bytes client will send. */
     public static final byte CLIENT_HANDSHAKE_BYTE = 0x42;
+    /**
+     * Challenge byte sent by clients that can receive compressed batches. The server follows the
+     * network ID with a byte telling whether compression is on.
+     */
+    public static final byte CLIENT_COMPRESSED_HANDSHAKE_BYTE = 0x43;
 }
@@ -4,55 +4,322 @@ package org.dragonskulle.network;
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import lombok.Getter;
 import lombok.experimental.Accessors;
 
 /**
  * Describes a wrapped output stream that adds message size at the start of the stream (as short).
  *
  * @author Aurimas Blažulionis
+ *     <p>The stream can be reused for any number of messages. Every message reserves space for its
+ *     length, which gets filled in place once the message is closed. Closed messages are kept in
+ *     the same buffer, and are written out to the real output stream together, either straight
+ *     away, or at the end of a batch.
+ *     <p>If a {@link BatchDeflater} is set, written out batches that are large enough get
+ *     compressed as a whole, instead of every message on its own.
  */
 @Accessors(prefix = "m")
 public class NetworkMessageStream extends DataOutputStream {
-    /** Temporary byte output stream. */
-    private final ByteArrayOutputStream mRawStream;
+    /**
+     * Maximum size of a single message body. The length prefix is a signed short, and negative
+     * values are reserved for {@link NetworkConfig#COMPRESSED_BLOCK}.
+     */
+    private static final int MAX_MESSAGE_SIZE = Short.MAX_VALUE;
+
+    /** Byte buffer with length prefix patching. */
+    private static class MessageBuffer extends ByteArrayOutputStream {
+        /**
+         * Write a big endian short at the given position.
+         *
+         * @param pos position to write at.
+         * @param value value to write.
+         */
+        void putShort(int pos, short value) {
+            buf[pos] = (byte) (value >>> 8);
+            buf[pos + 1] = (byte) value;
+        }
+
+        /**
+         * Get the underlying array, without copying it.
+         *
+         * @return backing array of the buffer. Only the first {@link #size()} bytes are valid.
+         */
+        byte[] array() {
+            return buf;
+        }
+
+        /**
+         * Drop all bytes after the given size.
+         *
+         * @param size new size of the buffer.
+         */
+        void truncate(int size) {
+            count = size;
+        }
+    }
+
+    /** Buffer holding all messages that were not yet written out. */
+    private final MessageBuffer mBuffer;
     /** Real output stream. */
-    private final DataOutputStream mRealOutputStream;
+    private DataOutputStream mRealOutputStream;
+    /** Start of the length prefix of the open message. Negative if no message is open. */
+    private int mMessageStart = -1;
+    /** Number of nested batches currently open. */
+    private int mBatchDepth = 0;
+    /** Number of times the real output stream has been flushed. */
+    @Getter private int mFlushCount = 0;
+    /** Compressor of written out batches. {@code null} if compression is off. */
+    private BatchDeflater mDeflater;
+    /** Metrics to record messages and batches in. Can be {@code null}. */
+    private MessageMetrics mMetrics;
 
     /**
-     * Construct a {@link NetworkMessageStream}.
+     * Construct a {@link NetworkMessageStream}, and begin the first message.
      *
-     * @param rawStream byte stream to wrap.
      * @param realOutputStream real data output stream to write into on close.
      */
-    public NetworkMessageStream(
-            ByteArrayOutputStream rawStream, DataOutputStream realOutputStream) {
-        super(rawStream);
-        mRawStream = rawStream;
+    public NetworkMessageStream(DataOutputStream realOutputStream) {
+        this(new MessageBuffer(), realOutputStream);
+        beginMessage();
+    }
+
+    /**
+     * Construct a reusable {@link NetworkMessageStream}.
+     *
+     * <p>No message is open. {@link #beginMessage()} needs to be called before writing.
+     *
+     * @param buffer buffer to write messages into.
+     * @param realOutputStream real data output stream to write into on flush.
+     */
+    private NetworkMessageStream(MessageBuffer buffer, DataOutputStream realOutputStream) {
+        super(buffer);
+        mBuffer = buffer;
         mRealOutputStream = realOutputStream;
     }
 
     /**
-     * Construct a {@link NetworkMessageStream}.
+     * Create a reusable stream with no message open.
      *
-     * @param realOutputStream real data output stream to write into on close.
+     * @param realOutputStream real data output stream to write into on flush. Can be set later.
+     * @return new message stream.
      */
-    public NetworkMessageStream(DataOutputStream realOutputStream) {
-        this(new ByteArrayOutputStream(), realOutputStream);
+    static NetworkMessageStream createReusable(DataOutputStream realOutputStream) {
+        return new NetworkMessageStream(new MessageBuffer(), realOutputStream);
+    }
+
+    /**
+     * Set the stream messages are written out to.
+     *
+     * @param realOutputStream real data output stream to write into on flush.
+     */
+    synchronized void setRealOutputStream(DataOutputStream realOutputStream) {
+        mRealOutputStream = realOutputStream;
+    }
+
+    /**
+     * Set the compressor of written out batches. The previous compressor gets released.
+     *
+     * @param deflater compressor to use, or {@code null} to send batches as they are.
+     */
+    synchronized void setDeflater(BatchDeflater deflater) {
+        if (mDeflater != null) {
+            mDeflater.end();
+        }
+
+        mDeflater = deflater;
+    }
+
+    /**
+     * Set the metrics messages and batches are recorded in.
+     *
+     * @param metrics metrics to record into, or {@code null} to not record anything.
+     */
+    synchronized void setMetrics(MessageMetrics metrics) {
+        mMetrics = metrics;
+    }
+
+    /**
+     * Begin a new message. It will be finished once the stream gets closed.
+     *
+     * @return this stream.
+     * @throws IllegalStateException if another message is still open.
+     */
+    public synchronized NetworkMessageStream beginMessage() {
+        if (mMessageStart >= 0) {
+            throw new IllegalStateException("Previous message has not been closed!");
+        }
+
+        mMessageStart = mBuffer.size();
+        mBuffer.write(0);
+        mBuffer.write(0);
+        return this;
+    }
+
+    /**
+     * Check whether a message is currently open.
+     *
+     * @return {@code true} if {@link #beginMessage()} was called, and the message was not closed.
+     */
+    public synchronized boolean isMessageOpen() {
+        return mMessageStart >= 0;
+    }
+
+    /**
+     * Drop the open message, if there is one. Closing the stream afterwards does nothing.
+     *
+     * <p>Messages that were already closed are kept.
+     */
+    public synchronized void abortMessage() {
+        if (mMessageStart < 0) {
+            return;
+        }
+
+        mBuffer.truncate(mMessageStart);
+        mMessageStart = -1;
+    }
+
+    /**
+     * Append an already built message.
+     *
+     * @param message body of the message.
+     * @throws IOException if the message is too big, or writing out fails.
+     * @throws IllegalStateException if another message is still open.
+     */
+    public void writeMessage(byte[] message) throws IOException {
+        writeMessage(message, 0, message.length);
+    }
+
+    /**
+     * Append an already built message.
+     *
+     * @param message array containing the body of the message.
+     * @param offset start of the body in the array.
+     * @param length length of the body.
+     * @throws IOException if the message is too big, or writing out fails.
+     * @throws IllegalStateException if another message is still open.
+     */
+    public synchronized void writeMessage(byte[] message, int offset, int length)
+            throws IOException {
+        if (mMessageStart >= 0) {
+            throw new IllegalStateException("Previous message has not been closed!");
+        }
+
+        if (length > MAX_MESSAGE_SIZE) {
+            throw new IOException("Message size exceeds limit!");
+        }
+
+        mBuffer.write((byte) (length >>> 8));
+        mBuffer.write((byte) length);
+        mBuffer.write(message, offset, length);
+
+        if (mMetrics != null && length > 0) {
+            mMetrics.recordMessage(message[offset], length + 2);
+        }
+
+        if (mBatchDepth == 0) {
+            flushMessages();
+        }
+    }
+
+    /**
+     * Begin a batch. Messages will not be written out until the matching {@link #endBatch()} call.
+     */
+    public synchronized void beginBatch() {
+        mBatchDepth++;
+    }
+
+    /**
+     * End a batch, and write out all messages, if this was the outermost batch.
+     *
+     * @throws IOException if writing out fails.
+     */
+    public synchronized void endBatch() throws IOException {
+        if (mBatchDepth > 0 && --mBatchDepth == 0) {
+            flushMessages();
+        }
+    }
+
+    /**
+     * Write out all closed messages, and flush the real output stream.
+     *
+     * <p>An open message will stay in the buffer.
+     *
+     * @throws IOException if writing out fails.
+     */
+    public synchronized void flushMessages() throws IOException {
+        int end = mMessageStart >= 0 ? mMessageStart : mBuffer.size();
+
+        if (end == 0) {
+            return;
+        }
+
+        if (mRealOutputStream == null) {
+            throw new IOException("Output stream is not connected!");
+        }
+
+        try {
+            int written = end;
+
+            if (mDeflater != null && end >= NetworkConfig.COMPRESSION_THRESHOLD) {
+                written = mDeflater.writeBlock(mBuffer.array(), 0, end, mRealOutputStream);
+            } else {
+                mRealOutputStream.write(mBuffer.array(), 0, end);
+            }
+
+            mRealOutputStream.flush();
+            mFlushCount++;
+
+            if (mMetrics != null) {
+                mMetrics.recordBatch(end, written);
+            }
+        } finally {
+            discard(end);
+        }
     }
 
     @Override
-    public void close() throws IOException {
-        super.close();
-        mRawStream.close();
+    public synchronized void close() throws IOException {
+        if (mMessageStart < 0) {
+            return;
+        }
 
-        byte[] bytes = mRawStream.toByteArray();
+        int start = mMessageStart;
+        int size = mBuffer.size() - start - 2;
+        mMessageStart = -1;
 
-        if (bytes.length > 1 << 15) {
+        if (size > MAX_MESSAGE_SIZE) {
+            mBuffer.truncate(start);
             throw new IOException("Message size exceeds limit!");
         }
 
-        mRealOutputStream.writeShort((short) bytes.length);
-        mRealOutputStream.write(bytes);
-        mRealOutputStream.flush();
+        mBuffer.putShort(start, (short) size);
+
+        if (mMetrics != null && size > 0) {
+            mMetrics.recordMessage(mBuffer.array()[start + 2], size + 2);
+        }
+
+        if (mBatchDepth == 0) {
+            flushMessages();
+        }
+    }
+
+    /**
+     * Remove bytes from the start of the buffer.
+     *
+     * @param cnt number of bytes to remove.
+     */
+    private void discard(int cnt) {
+        int remaining = mBuffer.size() - cnt;
+
+        if (remaining > 0) {
+            byte[] data = mBuffer.array();
+            System.arraycopy(data, cnt, data, 0, remaining);
+        }
+
+        mBuffer.truncate(remaining);
+
+        if (mMessageStart >= 0) {
+            mMessageStart -= cnt;
+        }
     }
 }
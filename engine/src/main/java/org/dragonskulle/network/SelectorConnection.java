@@ -0,0 +1,284 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.network;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+/**
+ * Non-blocking socket state of a {@link ServerClient} driven by {@link ServerSelector}.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Incoming bytes are reassembled into the same short-length-prefixed messages {@link
+ *     ServerClient} reads in its blocking loop. Outgoing bytes are appended to pooled direct
+ *     buffers, and are written out on flush, or by the selector thread when the socket becomes
+ *     writeable again.
+ */
+@Accessors(prefix = "m")
+class SelectorConnection {
+    /** Size of the client's handshake response: handshake byte, and challenge integer. */
+    private static final int HANDSHAKE_SIZE = 5;
+
+    /** Underlying non-blocking channel. */
+    @Getter private final SocketChannel mChannel;
+    /** Selector this connection is registered on. */
+    private final ServerSelector mSelector;
+    /** Client that owns this connection. */
+    @Getter private final ServerClient mClient;
+    /** Selection key of the channel. Set by the selector thread upon registration. */
+    @Getter(AccessLevel.PACKAGE)
+    @Setter(AccessLevel.PACKAGE)
+    private SelectionKey mKey;
+
+    /** Client handshake bytes read so far. */
+    private final byte[] mHandshake = new byte[HANDSHAKE_SIZE];
+    /** Number of handshake bytes read. */
+    private int mHandshakeRead = 0;
+    /** Partially read message length. */
+    private int mHeader = 0;
+    /** Number of message length bytes read. */
+    private int mHeaderRead = 0;
+    /** Message that is currently being read. */
+    private byte[] mFrame;
+    /** Number of bytes read into {@link #mFrame}. */
+    private int mFrameRead = 0;
+
+    /** Buffers that are ready to be written to the channel, in order. */
+    private final ArrayDeque<ByteBuffer> mPending = new ArrayDeque<>();
+    /** Buffer that is currently being filled. */
+    private ByteBuffer mCurrent;
+    /** Number of bytes inside {@link #mPending}, that have not yet been written. */
+    private int mPendingBytes = 0;
+    /** Whether the connection was closed. */
+    private boolean mClosed = false;
+
+    /** Stream that appends into the outgoing buffers. */
+    @Getter
+    private final OutputStream mOutputStream =
+            new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    synchronized (SelectorConnection.this) {
+                        reserve().put((byte) b);
+                    }
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    synchronized (SelectorConnection.this) {
+                        while (len > 0) {
+                            ByteBuffer buffer = reserve();
+                            int cnt = Math.min(len, buffer.remaining());
+                            buffer.put(b, off, cnt);
+                            off += cnt;
+                            len -= cnt;
+                        }
+                    }
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    SelectorConnection.this.flush();
+                }
+            };
+
+    /**
+     * Constructor for {@link SelectorConnection}.
+     *
+     * @param channel non-blocking channel of the connection.
+     * @param selector selector that will drive the connection.
+     * @param client client that owns the connection.
+     */
+    SelectorConnection(SocketChannel channel, ServerSelector selector, ServerClient client) {
+        mChannel = channel;
+        mSelector = selector;
+        mClient = client;
+    }
+
+    /**
+     * Write out all buffered data.
+     *
+     * <p>This attempts to write the data straight away. Whatever the socket does not accept is
+     * handed over to the selector thread.
+     *
+     * @throws IOException if the connection is closed, or the write fails.
+     */
+    synchronized void flush() throws IOException {
+        if (mClosed) {
+            throw new IOException("Connection closed!");
+        }
+
+        if (mCurrent != null && mCurrent.position() > 0) {
+            mCurrent.flip();
+            mPendingBytes += mCurrent.remaining();
+            mPending.add(mCurrent);
+            mCurrent = null;
+        }
+
+        if (!drain()) {
+            mSelector.requestWrite(this);
+        }
+    }
+
+    /**
+     * Called by the selector thread when the channel becomes writeable.
+     *
+     * @return {@code true} if all pending data got written out.
+     * @throws IOException if the write fails.
+     */
+    synchronized boolean onWriteable() throws IOException {
+        return mClosed || drain();
+    }
+
+    /**
+     * Called by the selector thread when the channel has data to read.
+     *
+     * @param buffer scratch buffer to read the data into.
+     * @return {@code false} if the connection has ended, or is in invalid state.
+     * @throws IOException if the read fails.
+     */
+    boolean onReadable(ByteBuffer buffer) throws IOException {
+        buffer.clear();
+
+        if (mChannel.read(buffer) < 0) {
+            return false;
+        }
+
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            if (mHandshakeRead < HANDSHAKE_SIZE) {
+                int cnt = Math.min(buffer.remaining(), HANDSHAKE_SIZE - mHandshakeRead);
+                buffer.get(mHandshake, mHandshakeRead, cnt);
+                mHandshakeRead += cnt;
+
+                if (mHandshakeRead == HANDSHAKE_SIZE) {
+                    int challenge =
+                            ((mHandshake[1] & 0xff) << 24)
+                                    | ((mHandshake[2] & 0xff) << 16)
+                                    | ((mHandshake[3] & 0xff) << 8)
+                                    | (mHandshake[4] & 0xff);
+
+                    if (!mClient.acceptHandshake(mHandshake[0], challenge)) {
+                        return false;
+                    }
+                }
+                continue;
+            }
+
+            if (mFrame == null) {
+                mHeader = (mHeader << 8) | (buffer.get() & 0xff);
+
+                if (++mHeaderRead < 2) {
+                    continue;
+                }
+
+                short len = (short) mHeader;
+                mHeader = 0;
+                mHeaderRead = 0;
+
+                if (len < 0) {
+                    return false;
+                }
+
+                mFrame = new byte[len];
+                mFrameRead = 0;
+            }
+
+            int cnt = Math.min(buffer.remaining(), mFrame.length - mFrameRead);
+            buffer.get(mFrame, mFrameRead, cnt);
+            mFrameRead += cnt;
+
+            if (mFrameRead == mFrame.length) {
+                mClient.queueRequest(mFrame);
+                mFrame = null;
+            }
+        }
+
+        return true;
+    }
+
+    /** Close the channel, and return all buffers to the pool. */
+    synchronized void close() {
+        if (mClosed) {
+            return;
+        }
+
+        mClosed = true;
+
+        try {
+            mChannel.close();
+        } catch (IOException ignored) {
+        }
+
+        ByteBufferPool pool = mSelector.getBufferPool();
+
+        pool.release(mCurrent);
+        mCurrent = null;
+
+        ByteBuffer buffer;
+        while ((buffer = mPending.poll()) != null) {
+            pool.release(buffer);
+        }
+
+        mPendingBytes = 0;
+    }
+
+    /**
+     * Get a buffer with free space to append data to.
+     *
+     * @return current output buffer with at least one free byte.
+     * @throws IOException if the connection is closed, or too much data is queued up.
+     */
+    private ByteBuffer reserve() throws IOException {
+        if (mClosed) {
+            throw new IOException("Connection closed!");
+        }
+
+        if (mCurrent != null && !mCurrent.hasRemaining()) {
+            mCurrent.flip();
+            mPendingBytes += mCurrent.remaining();
+            mPending.add(mCurrent);
+            mCurrent = null;
+        }
+
+        if (mPendingBytes > NetworkConfig.MAX_PENDING_OUTPUT) {
+            throw new IOException("Client output backlog exceeds limit!");
+        }
+
+        if (mCurrent == null) {
+            mCurrent = mSelector.getBufferPool().acquire();
+        }
+
+        return mCurrent;
+    }
+
+    /**
+     * Write as much pending data as the socket accepts.
+     *
+     * @return {@code true} if there is no more pending data.
+     * @throws IOException if the write fails.
+     */
+    private boolean drain() throws IOException {
+        ByteBuffer buffer;
+
+        while ((buffer = mPending.peek()) != null) {
+            mPendingBytes -= mChannel.write(buffer);
+
+            if (buffer.hasRemaining()) {
+                return false;
+            }
+
+            mSelector.getBufferPool().release(mPending.poll());
+        }
+
+        return true;
+    }
+}
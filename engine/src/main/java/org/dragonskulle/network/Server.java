@@ -6,13 +6,16 @@ package org.dragonskulle.network;
 
 import java.io.IOException;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.util.Collection;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.TreeMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
+import lombok.Getter;
 import lombok.experimental.Accessors;
 import lombok.extern.java.Log;
 
@@ -23,17 +26,21 @@ import lombok.extern.java.Log;
  * @author Aurimas Blažulionis
  *     <p>This is the main Server Class, it handles setup and stores all client connections. It can
  *     broadcast messages to every client and receive from individual clients.
+ *     <p>By default every client runs its own blocking input thread. Alternatively, all sockets
+ *     can be driven by a single {@link ServerSelector}, which is what large hosts should use.
  */
 @Log
 @Accessors(prefix = "m")
 public class Server {
     private static final int MAX_CLIENTS = 128;
+    /** Client limit when running on {@link ServerSelector}. */
+    private static final int MAX_SELECTOR_CLIENTS = 8192;
 
     /** The timeout for accepting a client. */
     private static final int SO_TIMEOUT = 400;
 
     /** The Port. */
-    private int mPort;
+    @Getter private int mPort;
     /** The Server listener. */
     private final IServerListener mServerListener;
 
@@ -42,6 +49,12 @@ public class Server {
     private final Thread mServerThread;
     /** The Server runner. */
     private ServerRunner mServerRunner;
+    /** Selector that drives all clients. {@code null} when running a thread per client. */
+    private ServerSelector mSelector;
+    /** Maximum number of clients that can be connected at once. */
+    private final int mMaxClients;
+    /** Traffic sent to all clients, per message type. */
+    @Getter private final MessageMetrics mMetrics = new MessageMetrics();
 
     /** Array of clients. Indexed by their network ID */
     private final Map<Integer, ServerClient> mClients = new TreeMap<>();
@@ -57,6 +70,11 @@ public class Server {
     private int mClientCount = 0;
     /** Network client ID counter. This is so as to ensure that every client has unique ID */
     private final AtomicInteger mClientIDCounter = new AtomicInteger(0);
+    /**
+     * IDs of removed clients, which are handed out again before the counter grows, so IDs stay
+     * below the number of clients that are connected at once.
+     */
+    private final PriorityQueue<Integer> mFreeClientIDs = new PriorityQueue<>();
     /**
      * Pending clients. Sockets for these clients have already been set up, they just need to be
      * linked up by the main thread
@@ -70,29 +88,70 @@ public class Server {
     private final ConcurrentLinkedQueue<ServerClient> mPendingDisconnectedClients =
             new ConcurrentLinkedQueue<>();
 
+    /**
+     * Instantiates a server which does not listen on any socket.
+     *
+     * <p>No client can ever connect to it, so it only runs the server side of a game, where all
+     * players are owned by the server, like matches of AI players being simulated.
+     *
+     * @param listener the listener
+     */
+    public Server(IServerListener listener) {
+        mServerListener = listener;
+        mServerSocket = null;
+        mServerThread = null;
+        mMaxClients = 0;
+    }
+
     /**
      * Instantiates a new Server. Scene linking is required once the scene is created.
      *
+     * <p>The transport is picked by {@link NetworkConfig#USE_SELECTOR_SERVER}.
+     *
      * @param port the port
      * @param listener the listener
      */
     public Server(int port, IServerListener listener) throws IOException {
+        this(port, listener, NetworkConfig.USE_SELECTOR_SERVER);
+    }
+
+    /**
+     * Instantiates a new Server. Scene linking is required once the scene is created.
+     *
+     * @param port the port
+     * @param listener the listener
+     * @param useSelector if {@code true}, all clients will be served by a single selector thread,
+     *     instead of a thread per client.
+     */
+    public Server(int port, IServerListener listener, boolean useSelector) throws IOException {
         log.fine("[S] Setting up server");
         mServerListener = listener;
 
-        mServerSocket =
-                new ServerSocket(
-                        port,
-                        0,
-                        InetAddress.getByAddress(
-                                new byte[] {0x00, 0x00, 0x00, 0x00})); // sets up on localhost
-        mServerSocket.setSoTimeout(SO_TIMEOUT);
+        InetAddress address =
+                InetAddress.getByAddress(
+                        new byte[] {0x00, 0x00, 0x00, 0x00}); // sets up on localhost
+
+        if (useSelector) {
+            mSelector = new ServerSelector(new InetSocketAddress(address, port), mPendingClients);
+            mServerSocket = mSelector.getServerSocket();
+            mMaxClients = MAX_SELECTOR_CLIENTS;
+        } else {
+            mServerSocket = new ServerSocket(port, 0, address);
+            mServerSocket.setSoTimeout(SO_TIMEOUT);
+            mMaxClients = MAX_CLIENTS;
+        }
 
         if (this.mPort == 0) {
             this.mPort = mServerSocket.getLocalPort();
         } else {
             this.mPort = port;
         }
+
+        if (mSelector != null) {
+            mServerThread = null;
+            return;
+        }
+
         mServerRunner = new ServerRunner();
         mServerThread = new Thread(this.mServerRunner);
         mServerThread.setDaemon(true);
@@ -120,6 +179,15 @@ public class Server {
         return mClients.values();
     }
 
+    /**
+     * Get the buffer pool of the selector transport.
+     *
+     * @return pool of output buffers, or {@code null} if running a thread per client.
+     */
+    ByteBufferPool getSelectorBufferPool() {
+        return mSelector == null ? null : mSelector.getBufferPool();
+    }
+
     /**
      * Update client lists
      *
@@ -140,8 +208,16 @@ public class Server {
 
         // Now accept new socket connections
         Socket s;
-        while (mClientCount < MAX_CLIENTS && (s = mPendingClients.poll()) != null) {
-            new ServerClient(s, mServerListener).startThread();
+        while (mClientCount < mMaxClients && (s = mPendingClients.poll()) != null) {
+            if (mSelector != null) {
+                ServerClient client = new ServerClient(s.getChannel(), mSelector, mServerListener);
+                client.setMetrics(mMetrics);
+                mSelector.register(client);
+            } else {
+                ServerClient client = new ServerClient(s, mServerListener);
+                client.setMetrics(mMetrics);
+                client.startThread();
+            }
             mClientCount++;
         }
     }
@@ -171,11 +247,23 @@ public class Server {
      * pending list that will be processed on the next network update. And then, the client will be
      * fully spawned in.
      *
+     * <p>IDs of clients that have been removed are given out again first. Clients can only join
+     * in the lobby, so no objects of a player in game ever end up owned by a new client.
+     *
      * @param client client to connect
      * @return its allocated network client ID
      */
     public int addConnectedClient(ServerClient client) {
-        int id = mClientIDCounter.getAndIncrement();
+        Integer id;
+
+        synchronized (mFreeClientIDs) {
+            id = mFreeClientIDs.poll();
+        }
+
+        if (id == null) {
+            id = mClientIDCounter.getAndIncrement();
+        }
+
         client.setNetworkID(id);
         mPendingConnectedClients.add(client);
         return id;
@@ -205,6 +293,12 @@ public class Server {
             mapClient.closeSocket();
             mapClient.joinThread();
             mClientCount--;
+
+            synchronized (mFreeClientIDs) {
+                mFreeClientIDs.add(c.getNetworkID());
+            }
+
+            mServerListener.clientRemoved(c);
             return true;
         }
 
@@ -230,6 +324,11 @@ public class Server {
             mServerRunner = null;
         }
 
+        if (mSelector != null) {
+            mSelector.close();
+            mSelector = null;
+        }
+
         if (mServerSocket != null) {
             try {
                 mServerSocket.close();
@@ -259,6 +358,8 @@ public class Server {
         if (mClientCount != 0) {
             log.severe("Client count non-zero on disposal! Current count: " + mClientCount);
         }
+
+        log.fine("Server traffic: " + mMetrics.report());
     }
 
     /**
@@ -11,6 +11,7 @@ import java.io.EOFException;
 import java.io.IOException;
 import java.net.Socket;
 import java.net.SocketException;
+import java.nio.channels.SocketChannel;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import lombok.AccessLevel;
 import lombok.Getter;
@@ -29,6 +30,9 @@ import org.dragonskulle.utils.IOUtils;
 @Log
 @Accessors(prefix = "m")
 public class ServerClient {
+    /** Message sent to the client upon disconnecting it. */
+    private static final byte[] DISCONNECT_MESSAGE = {NetworkConfig.Codes.MESSAGE_DISCONNECT};
+
     /**
      * Network ID. All networked clients will have a non-negative ID. Negative IDs indicate either
      * invalid IDs, or server owned objects.
@@ -41,6 +45,12 @@ public class ServerClient {
 
     /** Underlying {@link Socket}. */
     private final Socket mSocket;
+    /**
+     * Non-blocking connection state, if the client is driven by {@link ServerSelector}. {@code
+     * null} if the client runs its own input thread.
+     */
+    @Getter(AccessLevel.PACKAGE)
+    private final SelectorConnection mConnection;
     /** Is the client loop running, and supposed to be running. */
     @Getter private boolean mRunning;
     /** Reference to the server event listener. */
@@ -49,6 +59,10 @@ public class ServerClient {
     private Thread mThread;
     /** Output stream for the socket. */
     private DataOutputStream mDataOut;
+    /** Reusable stream all outgoing messages are built and batched in. */
+    private final NetworkMessageStream mMessageStream = NetworkMessageStream.createReusable(null);
+    /** Challenge time sent to the client during handshake. */
+    private int mStartSeconds;
 
     /** The scheduled requests to be processed. */
     private final ConcurrentLinkedQueue<byte[]> mRequests = new ConcurrentLinkedQueue<>();
@@ -66,16 +80,75 @@ public class ServerClient {
      */
     ServerClient(Socket socket, IServerListener serverListener) {
         mSocket = socket;
+        mConnection = null;
+        mServerListener = serverListener;
+    }
+
+    /**
+     * Constructor for {@link ServerClient} driven by a {@link ServerSelector}.
+     *
+     * <p>The client needs to be registered on the selector afterwards.
+     *
+     * @param channel non-blocking channel for this connection
+     * @param selector selector that will drive the connection
+     * @param serverListener reference to the server listener
+     */
+    ServerClient(SocketChannel channel, ServerSelector selector, IServerListener serverListener) {
+        mSocket = channel.socket();
+        mConnection = new SelectorConnection(channel, selector, this);
         mServerListener = serverListener;
+        mDataOut = new DataOutputStream(mConnection.getOutputStream());
+        mMessageStream.setRealOutputStream(mDataOut);
     }
 
     /**
-     * Creates a new NetworkMessageStream from the outputstream on the server socket.
+     * Set the metrics the client's outgoing traffic is recorded in.
      *
-     * @return the new stream
+     * @param metrics metrics to record into
+     */
+    void setMetrics(MessageMetrics metrics) {
+        mMessageStream.setMetrics(metrics);
+    }
+
+    /**
+     * Begins a new message on the client's reusable message stream.
+     *
+     * <p>The message is finished when the stream is closed. Only one message can be open at a time.
+     *
+     * @return the message stream
      */
     public DataOutputStream getDataOut() {
-        return new NetworkMessageStream(mDataOut);
+        return mMessageStream.beginMessage();
+    }
+
+    /**
+     * Start batching messages. Until the matching {@link #endBatch()} call, messages are kept in
+     * memory, and are then written out with a single flush.
+     */
+    public void beginBatch() {
+        mMessageStream.beginBatch();
+    }
+
+    /**
+     * Stop batching messages, and write out everything that has been batched. If writing fails,
+     * the client gets disconnected.
+     */
+    public void endBatch() {
+        try {
+            mMessageStream.endBatch();
+        } catch (IOException e) {
+            log.fine("Failed to flush message batch");
+            closeSocket();
+        }
+    }
+
+    /**
+     * Get the number of times messages have been flushed to the socket.
+     *
+     * @return number of flushes so far
+     */
+    public int getFlushCount() {
+        return mMessageStream.getFlushCount();
     }
 
     /**
@@ -116,17 +189,43 @@ public class ServerClient {
      * @param message message to send
      */
     public void sendBytes(byte[] message) throws IOException {
-        mDataOut.writeShort((short) message.length);
-        mDataOut.write(message);
-        mDataOut.flush();
+        mMessageStream.writeMessage(message);
+    }
+
+    /**
+     * Send a slice of a byte array as a message to the client.
+     *
+     * @param message array containing the message
+     * @param offset start of the message in the array
+     * @param length length of the message
+     */
+    public void sendBytes(byte[] message, int offset, int length) throws IOException {
+        mMessageStream.writeMessage(message, offset, length);
     }
 
     /** Close the socket, tell the thread to stop. */
     public void closeSocket() {
-        try (DataOutputStream dataOut = getDataOut()) {
-            dataOut.writeByte(NetworkConfig.Codes.MESSAGE_DISCONNECT);
-        } catch (Exception ignored) {
+        synchronized (mMessageStream) {
+            // A half written message would corrupt the stream, and block the disconnect message
+            if (mMessageStream.isMessageOpen()) {
+                log.warning("Dropping unfinished message of client " + mNetworkID);
+                mMessageStream.abortMessage();
+            }
 
+            try {
+                mMessageStream.writeMessage(DISCONNECT_MESSAGE);
+                mMessageStream.flushMessages();
+            } catch (IOException ignored) {
+                // The socket may already be gone
+            }
+        }
+
+        mMessageStream.setDeflater(null);
+
+        if (mConnection != null) {
+            triggerDisconnect();
+            mConnection.close();
+            return;
         }
 
         try {
@@ -139,6 +238,10 @@ public class ServerClient {
 
     /** Join the underlying thread. */
     void joinThread() {
+        if (mThread == null) {
+            return;
+        }
+
         try {
             mThread.join();
         } catch (InterruptedException e) {
@@ -154,6 +257,94 @@ public class ServerClient {
         mThread.start();
     }
 
+    /** Called by {@link ServerSelector} once the connection is registered. */
+    void onRegistered() {
+        mRunning = true;
+
+        try {
+            sendHandshake();
+        } catch (IOException e) {
+            onConnectionLost();
+        }
+    }
+
+    /** Called by {@link ServerSelector} when the connection ends, or fails. */
+    void onConnectionLost() {
+        closeSocket();
+    }
+
+    /**
+     * Queue a received request for processing on the main thread.
+     *
+     * @param bytes data of the request
+     */
+    void queueRequest(byte[] bytes) {
+        if (mSimLatency <= 0f) {
+            mRequests.add(bytes);
+        } else {
+            mDelayedRequests.add(new TimestampedRequest(bytes));
+        }
+    }
+
+    /**
+     * Send the server side of the handshake.
+     *
+     * @throws IOException if writing fails
+     */
+    private void sendHandshake() throws IOException {
+        mStartSeconds = (int) Time.getTimeInSeconds();
+
+        mDataOut.writeByte(NetworkConfig.SERVER_HANDSHAKE_BYTE);
+        mDataOut.writeInt(mStartSeconds);
+        mDataOut.flush();
+    }
+
+    /**
+     * Verify the client's handshake response, and let the client know its network ID.
+     *
+     * <p>If the client asked for compression, it is also told whether compression is on.
+     *
+     * @param clientByte handshake byte sent by the client
+     * @param clientChallenge challenge response sent by the client
+     * @return {@code true} if the client got accepted, {@code false} if it should be disconnected
+     * @throws IOException if writing fails
+     */
+    boolean acceptHandshake(byte clientByte, int clientChallenge) throws IOException {
+        boolean wantsCompression = clientByte == NetworkConfig.CLIENT_COMPRESSED_HANDSHAKE_BYTE;
+
+        if (clientByte != NetworkConfig.CLIENT_HANDSHAKE_BYTE && !wantsCompression) {
+            return false;
+        }
+
+        if (clientChallenge != mStartSeconds + clientByte) {
+            return false;
+        }
+
+        // The listener hands the client to the main thread, which may send the first message
+        // straight away. Holding the stream until the ID is written keeps that message behind it.
+        synchronized (mMessageStream) {
+            mServerListener.clientConnected(this);
+
+            if (mNetworkID == -1) {
+                return false;
+            }
+
+            // Not flushed on purpose. The ID goes out together with the first message sent after
+            // the main thread has added this client to the client list.
+            mDataOut.writeInt(mNetworkID);
+
+            if (wantsCompression) {
+                mDataOut.writeBoolean(NetworkConfig.USE_COMPRESSION);
+
+                if (NetworkConfig.USE_COMPRESSION) {
+                    mMessageStream.setDeflater(new BatchDeflater());
+                }
+            }
+        }
+
+        return true;
+    }
+
     /** Queue any delayed requests that have built up. */
     private void queueDelayedRequests() {
         TimestampedRequest r;
@@ -179,47 +370,25 @@ public class ServerClient {
             BufferedInputStream bIn = new BufferedInputStream(mSocket.getInputStream());
             DataInput input = new DataInputStream(bIn);
             mDataOut = new DataOutputStream(new BufferedOutputStream(mSocket.getOutputStream()));
-
-            int startSeconds = (int) Time.getTimeInSeconds();
+            mMessageStream.setRealOutputStream(mDataOut);
 
             // Attempt handshake
-            mDataOut.writeByte(NetworkConfig.SERVER_HANDSHAKE_BYTE);
-            mDataOut.writeInt(startSeconds);
-            mDataOut.flush();
+            sendHandshake();
 
             byte clientByte = input.readByte();
-
-            if (clientByte != NetworkConfig.CLIENT_HANDSHAKE_BYTE) {
-                closeSocket();
-                return;
-            }
-
             int clientChallenge = input.readInt();
 
-            if (clientChallenge != startSeconds + clientByte) {
+            if (!acceptHandshake(clientByte, clientChallenge)) {
                 closeSocket();
                 return;
             }
 
-            mServerListener.clientConnected(this);
-
-            if (mNetworkID == -1) {
-                closeSocket();
-                return;
-            }
-
-            mDataOut.writeByte((byte) mNetworkID);
-
             started = true;
 
             while (mRunning && mSocket.isConnected() && !mSocket.isClosed()) {
                 short len = input.readShort();
                 byte[] bytes = IOUtils.readNBytes(input, len);
-                if (mSimLatency <= 0f) {
-                    mRequests.add(bytes);
-                } else {
-                    mDelayedRequests.add(new TimestampedRequest(bytes));
-                }
+                queueRequest(bytes);
             }
         } catch (EOFException | SocketException ignored) {
         } catch (Exception exception) {
@@ -253,7 +422,9 @@ public class ServerClient {
         switch (messageType) {
             case NetworkConfig.Codes.MESSAGE_DISCONNECT:
                 triggerDisconnect();
-                mThread.interrupt();
+                if (mThread != null) {
+                    mThread.interrupt();
+                }
                 break;
             case NetworkConfig.Codes.MESSAGE_CLIENT_REQUEST:
                 handleClientRequest(stream);
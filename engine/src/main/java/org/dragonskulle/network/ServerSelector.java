@@ -0,0 +1,224 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.network;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import lombok.extern.java.Log;
+
+/**
+ * Event driven transport for {@link Server}.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>A single thread accepts new connections, reads incoming messages and writes out any
+ *     pending data for all clients, instead of each {@link ServerClient} running its own blocking
+ *     thread. Accepted sockets are placed in the same pending queue the blocking transport uses,
+ *     so the main thread still decides when a client gets set up.
+ */
+@Log
+@Accessors(prefix = "m")
+class ServerSelector implements Runnable {
+    /** Underlying selector. */
+    private final Selector mSelector;
+    /** Listening channel. */
+    private final ServerSocketChannel mServerChannel;
+    /** Queue of accepted, but not yet set up sockets. Owned by {@link Server}. */
+    private final Queue<Socket> mAccepted;
+    /** Clients that need to be registered on the selector thread. */
+    private final ConcurrentLinkedQueue<ServerClient> mRegistrations =
+            new ConcurrentLinkedQueue<>();
+    /** Connections that have data that could not be written straight away. */
+    private final ConcurrentLinkedQueue<SelectorConnection> mWriteRequests =
+            new ConcurrentLinkedQueue<>();
+    /** Pool of output buffers shared by all connections. */
+    @Getter private final ByteBufferPool mBufferPool;
+    /** Scratch buffer all reads go through. Only used on the selector thread. */
+    private final ByteBuffer mReadBuffer;
+    /** The selector thread. */
+    private final Thread mThread;
+    /** True if the selector is running. */
+    private volatile boolean mOpen = true;
+
+    /**
+     * Constructor for {@link ServerSelector}. This binds the port, and starts the selector thread.
+     *
+     * @param address address to listen on.
+     * @param accepted queue to place accepted sockets into.
+     * @throws IOException if the port could not be bound.
+     */
+    ServerSelector(InetSocketAddress address, Queue<Socket> accepted) throws IOException {
+        mAccepted = accepted;
+        mBufferPool =
+                new ByteBufferPool(
+                        NetworkConfig.SELECTOR_BUFFER_SIZE, NetworkConfig.SELECTOR_MAX_POOLED);
+        mReadBuffer = mBufferPool.acquire();
+
+        mSelector = Selector.open();
+        mServerChannel = ServerSocketChannel.open();
+        mServerChannel.configureBlocking(false);
+        mServerChannel.socket().bind(address);
+        mServerChannel.register(mSelector, SelectionKey.OP_ACCEPT);
+
+        mThread = new Thread(this);
+        mThread.setDaemon(true);
+        mThread.setName("Server Selector");
+        mThread.start();
+    }
+
+    /**
+     * Get the listening socket.
+     *
+     * @return server socket of the listening channel.
+     */
+    ServerSocket getServerSocket() {
+        return mServerChannel.socket();
+    }
+
+    /**
+     * Register a client on the selector. The handshake will be initiated from the selector thread.
+     *
+     * @param client client whose connection to register.
+     */
+    void register(ServerClient client) {
+        mRegistrations.add(client);
+        mSelector.wakeup();
+    }
+
+    /**
+     * Ask the selector thread to write out the connection's remaining data once it's possible.
+     *
+     * @param connection connection with pending data.
+     */
+    void requestWrite(SelectorConnection connection) {
+        mWriteRequests.add(connection);
+        mSelector.wakeup();
+    }
+
+    /** Stop the selector thread, and close the listening channel. */
+    void close() {
+        mOpen = false;
+        mSelector.wakeup();
+
+        try {
+            mThread.join();
+        } catch (InterruptedException e) {
+            log.warning("Selector thread was interrupted!");
+            e.printStackTrace();
+        }
+
+        try {
+            mServerChannel.close();
+        } catch (IOException ignored) {
+        }
+
+        try {
+            mSelector.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    @Override
+    public void run() {
+        while (mOpen && !Thread.currentThread().isInterrupted()) {
+            try {
+                mSelector.select();
+            } catch (IOException e) {
+                e.printStackTrace();
+                break;
+            }
+
+            registerClients();
+            processWriteRequests();
+
+            Iterator<SelectionKey> iter = mSelector.selectedKeys().iterator();
+
+            while (iter.hasNext()) {
+                SelectionKey key = iter.next();
+                iter.remove();
+
+                if (!key.isValid()) {
+                    continue;
+                }
+
+                if (key.isAcceptable()) {
+                    acceptClients();
+                    continue;
+                }
+
+                SelectorConnection connection = (SelectorConnection) key.attachment();
+
+                try {
+                    if (key.isReadable() && !connection.onReadable(mReadBuffer)) {
+                        connection.getClient().onConnectionLost();
+                        continue;
+                    }
+
+                    if (key.isValid() && key.isWritable() && connection.onWriteable()) {
+                        key.interestOps(SelectionKey.OP_READ);
+                    }
+                } catch (IOException | CancelledKeyException e) {
+                    connection.getClient().onConnectionLost();
+                }
+            }
+        }
+    }
+
+    /** Accept all incoming connections into the pending queue. */
+    private void acceptClients() {
+        try {
+            SocketChannel channel;
+            while ((channel = mServerChannel.accept()) != null) {
+                channel.configureBlocking(false);
+                mAccepted.add(channel.socket());
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /** Register newly set up clients, and start their handshakes. */
+    private void registerClients() {
+        ServerClient client;
+        while ((client = mRegistrations.poll()) != null) {
+            SelectorConnection connection = client.getConnection();
+            try {
+                connection.setKey(
+                        connection
+                                .getChannel()
+                                .register(mSelector, SelectionKey.OP_READ, connection));
+                client.onRegistered();
+            } catch (IOException e) {
+                client.onConnectionLost();
+            }
+        }
+    }
+
+    /** Start listening for write readiness on connections that have pending data. */
+    private void processWriteRequests() {
+        SelectorConnection connection;
+        while ((connection = mWriteRequests.poll()) != null) {
+            SelectionKey key = connection.getKey();
+
+            if (key == null || !key.isValid()) {
+                continue;
+            }
+
+            try {
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            } catch (CancelledKeyException ignored) {
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.network.components;
+
+import org.dragonskulle.network.ServerClient;
+
+/**
+ * Decides which network objects are relevant to which clients.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Objects outside of a client's interest still get spawned on that client, but their
+ *     updates are held back. Once an object comes back into interest, the client receives its full
+ *     current state, which includes every change it missed in the meantime.
+ */
+public interface IInterestPolicy {
+    /**
+     * Called before the objects get checked against a client.
+     *
+     * <p>This allows the policy to look up any per-client state once per tick, instead of once
+     * per object.
+     *
+     * @param client client that is about to be updated
+     */
+    default void beginUpdate(ServerClient client) {}
+
+    /**
+     * Look up what the policy needs to know about an object.
+     *
+     * <p>This is called once per object, the first time it gets checked, and the result is then
+     * passed to every {@link #isInterested} call of that object.
+     *
+     * @param object object to look up
+     * @return data of the object, or {@code null} if there is none
+     */
+    default Object describe(NetworkObject object) {
+        return null;
+    }
+
+    /**
+     * Check whether a client should receive updates of an object.
+     *
+     * @param client client to update
+     * @param object object to check
+     * @param data data of the object, as returned by {@link #describe}
+     * @return {@code true} if updates should be sent, {@code false} to hold them back
+     */
+    boolean isInterested(ServerClient client, NetworkObject object, Object data);
+}
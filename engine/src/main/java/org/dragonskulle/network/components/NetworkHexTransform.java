@@ -6,6 +6,7 @@ import lombok.Setter;
 import lombok.experimental.Accessors;
 import org.dragonskulle.components.IFixedUpdate;
 import org.dragonskulle.components.TransformHex;
+import org.dragonskulle.network.components.sync.SyncQuantizedVector3;
 import org.dragonskulle.network.components.sync.SyncVector3;
 import org.joml.Vector3f;
 import org.joml.Vector3fc;
@@ -17,8 +18,22 @@ import org.joml.Vector3fc;
  */
 @Accessors(prefix = "m")
 public class NetworkHexTransform extends NetworkableComponent implements IFixedUpdate {
+    /** Number of bits each component of the axial coordinate is sent with. */
+    private static final int AXIAL_BITS = 16;
+    /** Smallest coordinate that can be synchronized. */
+    private static final float AXIAL_MIN = -128f;
+    /**
+     * Largest coordinate that can be synchronized.
+     *
+     * <p>Picked so that the steps are exactly 1/256 apart, and whole tile coordinates are sent
+     * without any error.
+     */
+    private static final float AXIAL_MAX = AXIAL_MIN + ((1 << AXIAL_BITS) - 1) / 256f;
+
     /** Synchronized axial coordinate. */
-    @Getter private SyncVector3 mAxialCoordinate = new SyncVector3(new Vector3f(0, 0, 0));
+    @Getter
+    private SyncVector3 mAxialCoordinate =
+            new SyncQuantizedVector3(AXIAL_MIN, AXIAL_MAX, AXIAL_BITS, new Vector3f(0, 0, 0));
     /** Internal transform reference. */
     private TransformHex mHexTransform;
 
@@ -131,8 +131,7 @@ public class NetworkManager extends Component implements INetworkUpdate, ILateNe
     }
 
     /** Registered spawnable templates. */
-    @Getter(AccessLevel.PACKAGE)
-    protected final TemplateManager mSpawnableTemplates;
+    @Getter protected final TemplateManager mSpawnableTemplates;
     /** Target game scene. */
     @Getter private Scene mGameScene;
 
@@ -251,6 +250,25 @@ public class NetworkManager extends Component implements INetworkUpdate, ILateNe
         return false;
     }
 
+    /**
+     * Create a network server, which does not accept any clients.
+     *
+     * <p>This runs a game locally, without opening any sockets, where all players are owned by the
+     * server.
+     *
+     * @param startEventHandler callback that gets called when the game starts.
+     * @param endEventHandler callback that gets called when the game ends.
+     * @return {@code true} if the server creation was successfull. {@code false} otherwise.
+     */
+    public boolean createOfflineServer(
+            IGameStartEvent startEventHandler, IGameEndEvent endEventHandler) {
+        if (mClientManager == null && mServerManager == null) {
+            mServerManager = new ServerNetworkManager(this, startEventHandler, endEventHandler);
+            return true;
+        }
+        return false;
+    }
+
     /**
      * Find template index by name.
      *
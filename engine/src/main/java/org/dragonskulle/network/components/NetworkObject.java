@@ -6,11 +6,11 @@ import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Objects;
-import java.util.stream.Collectors;
 import lombok.Getter;
 import lombok.experimental.Accessors;
 import lombok.extern.java.Log;
 import org.dragonskulle.components.Component;
+import org.dragonskulle.core.HandleList;
 import org.dragonskulle.core.Reference;
 import org.dragonskulle.network.NetworkConfig;
 import org.dragonskulle.network.NetworkMessage;
@@ -22,7 +22,6 @@ import org.dragonskulle.network.components.requests.ServerEvent.EventRecipients;
 import org.dragonskulle.network.components.requests.ServerEvent.EventTimeframe;
 import org.dragonskulle.network.components.sync.ISyncVar;
 import org.dragonskulle.network.components.sync.SyncInt;
-import org.dragonskulle.utils.IOUtils;
 
 /**
  * The type Network object.
@@ -40,17 +39,30 @@ public class NetworkObject extends Component {
 
     @Getter private final NetworkManager mNetworkManager;
 
-    @Getter
-    private final ArrayList<Reference<NetworkableComponent>> mNetworkableComponents =
-            new ArrayList<>();
+    /** Handles of the networkable components of the object, in serialization order. */
+    private final HandleList<NetworkableComponent> mNetworkableComponents =
+            new HandleList<>(NetworkableComponent.class);
 
     @Getter private final ArrayList<ClientRequest<?>> mClientRequests = new ArrayList<>();
     @Getter private final ArrayList<ServerEvent<?>> mServerEvents = new ArrayList<>();
 
     private boolean mDestroyed = false;
 
-    private final ArrayList<Boolean> mTmpMask = new ArrayList<>();
-    private final ArrayList<ISyncVar> mTmpVar = new ArrayList<>();
+    /** Syncvars of all valid networkable components, in serialization order. */
+    private ISyncVar[] mSyncVars = new ISyncVar[0];
+    /** Whether a networkable component was added, or removed since {@link #mSyncVars} was built. */
+    private boolean mSyncVarsDirty = true;
+    /** Whether all syncvars are encoded the same way for every client. */
+    private boolean mClientIndependent = true;
+    /** Reusable update mask. */
+    private byte[] mTmpMask = new byte[0];
+
+    /** Tick of the shared buffer that {@link #mSharedOffset} refers to. */
+    private int mSharedTick = -1;
+    /** Start of this object's shared update in the shared buffer. */
+    private int mSharedOffset = 0;
+    /** Length of this object's shared update. Zero if there is nothing to send this tick. */
+    private int mSharedLength = 0;
 
     private final ServerEvent<NoneData> mDestroyEvent =
             new ServerEvent<>(
@@ -126,9 +138,10 @@ public class NetworkObject extends Component {
      */
     private void checkedOwnerIdSet(int newOwnerId) {
         if (newOwnerId != mOwnerId) {
-            for (Reference<NetworkableComponent> netComp : mNetworkableComponents) {
-                if (Reference.isValid(netComp)) {
-                    netComp.get().onOwnerIdChange(newOwnerId);
+            for (int c = 0; c < mNetworkableComponents.size(); c++) {
+                NetworkableComponent netComp = mNetworkableComponents.get(c);
+                if (netComp != null) {
+                    netComp.onOwnerIdChange(newOwnerId);
                 }
             }
 
@@ -154,13 +167,16 @@ public class NetworkObject extends Component {
      * requests to be ready for updates.
      */
     void networkInitialize() {
-        getGameObject().getComponents(NetworkableComponent.class, mNetworkableComponents);
+        ArrayList<Reference<NetworkableComponent>> components = new ArrayList<>();
+        getGameObject().getComponents(NetworkableComponent.class, components);
+        mNetworkableComponents.addAll(components);
+        mSyncVarsDirty = true;
 
         mServerEvents.add(mDestroyEvent);
         mServerEvents.add(mOwnerIdChangeEvent);
 
-        for (Reference<NetworkableComponent> comp : mNetworkableComponents) {
-            NetworkableComponent nc = comp.get();
+        for (int c = 0; c < mNetworkableComponents.size(); c++) {
+            NetworkableComponent nc = mNetworkableComponents.get(c);
             nc.initialise(this, mClientRequests, mServerEvents);
         }
 
@@ -182,11 +198,11 @@ public class NetworkObject extends Component {
      * netowkrable components on the object.
      */
     void beforeNetSerialize() {
-        for (Reference<NetworkableComponent> comp : mNetworkableComponents) {
-            if (!Reference.isValid(comp)) {
+        for (int c = 0; c < mNetworkableComponents.size(); c++) {
+            NetworkableComponent nc = mNetworkableComponents.get(c);
+            if (nc == null) {
                 continue;
             }
-            NetworkableComponent nc = comp.get();
             nc.beforeNetSerialize();
         }
     }
@@ -208,6 +224,16 @@ public class NetworkObject extends Component {
         return Objects.hash(mNetworkObjectId);
     }
 
+    /**
+     * Get references to the networkable components of the object.
+     *
+     * @return new list of references, in serialization order, with {@code null} in place of
+     *     destroyed components.
+     */
+    public ArrayList<Reference<NetworkableComponent>> getNetworkableComponents() {
+        return mNetworkableComponents.toReferences();
+    }
+
     @Override
     public String toString() {
         return "(NetworkObject{"
@@ -286,30 +312,25 @@ public class NetworkObject extends Component {
     public void updateFromBytes(DataInput stream) throws IOException {
         int maskLength = stream.readByte();
 
-        byte[] mask = IOUtils.readNBytes(stream, maskLength);
-
-        boolean[] masks = NetworkMessage.getMaskFromBytes(mask);
-
-        mTmpVar.clear();
+        ensureMaskSize(maskLength);
+        stream.readFully(mTmpMask, 0, maskLength);
 
-        mNetworkableComponents.stream()
-                .filter(Reference::isValid)
-                .map(Reference::get)
-                .flatMap(NetworkableComponent::getSyncVars)
-                .collect(Collectors.toCollection(() -> mTmpVar));
-
-        int sz = mTmpVar.size();
+        ISyncVar[] syncVars = getSyncVars();
+        int sz = Math.min(syncVars.length, maskLength * 8);
 
         for (int i = 0; i < sz; i++) {
-            mTmpVar.get(i).setIsClientDirty(masks[i]);
-            if (!masks[i]) continue;
-            mTmpVar.get(i).deserialize(stream);
+            boolean dirty = isMaskSet(i);
+            syncVars[i].setIsClientDirty(dirty);
+            if (!dirty) continue;
+            syncVars[i].deserialize(stream);
         }
 
-        mNetworkableComponents.stream()
-                .filter(Reference::isValid)
-                .map(Reference::get)
-                .forEach(NetworkableComponent::afterNetUpdate);
+        for (int c = 0; c < mNetworkableComponents.size(); c++) {
+            NetworkableComponent comp = mNetworkableComponents.get(c);
+            if (comp != null) {
+                comp.afterNetUpdate();
+            }
+        }
     }
 
     /**
@@ -327,11 +348,32 @@ public class NetworkObject extends Component {
      * <p>Called after all clients got their updates sent.
      */
     public void resetUpdateMask() {
-        mNetworkableComponents.stream()
-                .filter(Reference::isValid)
-                .map(Reference::get)
-                .flatMap(NetworkableComponent::getSyncVars)
-                .forEach(ISyncVar::resetDirtyFlag);
+        for (ISyncVar syncVar : getSyncVars()) {
+            syncVar.resetDirtyFlag();
+        }
+    }
+
+    /**
+     * Get the number of syncvars on this object.
+     *
+     * @return number of syncvars across all valid networkable components
+     */
+    public int getSyncVarCount() {
+        return getSyncVars().length;
+    }
+
+    /**
+     * Get a syncvar by its index.
+     *
+     * <p>Syncvars are indexed in component order, and then in field declaration order. This does
+     * not allocate, unless one of the networkable components has been destroyed since the last
+     * call.
+     *
+     * @param index index of the syncvar, less than {@link #getSyncVarCount()}
+     * @return the syncvar
+     */
+    public ISyncVar getSyncVar(int index) {
+        return getSyncVars()[index];
     }
 
     /**
@@ -344,44 +386,198 @@ public class NetworkObject extends Component {
     public void sendUpdate(ServerClient client, boolean forceUpdate) {
         int netId = client.getNetworkID();
 
-        mTmpVar.clear();
-
-        mNetworkableComponents.stream()
-                .filter(Reference::isValid)
-                .map(Reference::get)
-                .flatMap(NetworkableComponent::getSyncVars)
-                .collect(Collectors.toCollection(() -> mTmpVar));
-
-        mTmpMask.clear();
+        if (!prepareUpdate(netId, forceUpdate)) {
+            return;
+        }
 
-        mTmpVar.stream()
-                .map(s -> forceUpdate || s.isDirty(netId))
-                .collect(Collectors.toCollection(() -> mTmpMask));
+        try (DataOutputStream stream = client.getDataOut()) {
+            writeUpdate(stream, netId);
+        } catch (IOException e) {
+            log.warning("Failed to serialize data!");
+            e.printStackTrace();
+        }
+    }
 
-        boolean shouldBroadcast = mTmpMask.contains(true);
+    /**
+     * Send updates to the client, sharing the encoding with other clients if possible.
+     *
+     * <p>If every syncvar of the object is client independent, and the update is not forced, the
+     * update is encoded into {@code shared} once per tick, and the same bytes are sent to every
+     * client. Otherwise, this falls back to {@link #sendUpdate(ServerClient, boolean)}.
+     *
+     * @param client client to update the values for
+     * @param forceUpdate whether or not forcefully update all syncvars
+     * @param shared buffer of this tick's shared updates, or {@code null} to not share updates
+     */
+    void sendUpdate(ServerClient client, boolean forceUpdate, SharedUpdateBuffer shared) {
+        getSyncVars();
 
-        if (!shouldBroadcast) {
+        if (shared == null || forceUpdate || !mClientIndependent) {
+            sendUpdate(client, forceUpdate);
             return;
         }
 
-        byte[] mask = NetworkMessage.convertCollectionMaskToBytes(mTmpMask);
+        int netId = client.getNetworkID();
 
-        try (DataOutputStream stream = client.getDataOut()) {
-            stream.writeByte(NetworkConfig.Codes.MESSAGE_UPDATE_OBJECT);
-            stream.writeInt(getNetworkObjectId());
-            stream.writeByte((byte) mask.length);
-            stream.write(mask);
+        try {
+            if (mSharedTick != shared.getTick()) {
+                mSharedTick = shared.getTick();
+                mSharedOffset = shared.size();
+                mSharedLength = 0;
 
-            int sz = mTmpVar.size();
+                if (prepareUpdate(netId, false)) {
+                    writeUpdate(shared.getStream(), netId);
+                    mSharedLength = shared.size() - mSharedOffset;
+                }
+            }
 
-            for (int i = 0; i < sz; i++) {
-                if (!mTmpMask.get(i)) continue;
-                mTmpVar.get(i).serialize(stream, netId);
-                mTmpVar.get(i).resetDirtyFlag(netId);
+            if (mSharedLength > 0) {
+                client.sendBytes(shared.array(), mSharedOffset, mSharedLength);
             }
         } catch (IOException e) {
             log.warning("Failed to serialize data!");
             e.printStackTrace();
         }
     }
+
+    /**
+     * Build the update mask for a client.
+     *
+     * @param netId network ID of the client
+     * @param forceUpdate whether or not forcefully update all syncvars
+     * @return {@code true} if there is anything to send to the client
+     */
+    boolean prepareUpdate(int netId, boolean forceUpdate) {
+        ISyncVar[] syncVars = getSyncVars();
+        int maskLength = NetworkMessage.maskSizeInBytes(syncVars.length);
+
+        ensureMaskSize(maskLength);
+
+        boolean shouldBroadcast = false;
+
+        for (int i = 0; i < maskLength; i++) {
+            mTmpMask[i] = 0;
+        }
+
+        for (int i = 0; i < syncVars.length; i++) {
+            if (forceUpdate || syncVars[i].isDirty(netId)) {
+                mTmpMask[i / 8] |= 1 << (i % 8);
+                shouldBroadcast = true;
+            }
+        }
+
+        return shouldBroadcast;
+    }
+
+    /**
+     * Write the update message prepared by {@link #prepareUpdate}, and reset the client's dirty
+     * flags of the written syncvars.
+     *
+     * @param stream stream to write the message into
+     * @param netId network ID of the client
+     * @throws IOException if writing fails
+     */
+    void writeUpdate(DataOutputStream stream, int netId) throws IOException {
+        ISyncVar[] syncVars = mSyncVars;
+        int maskLength = NetworkMessage.maskSizeInBytes(syncVars.length);
+
+        stream.writeByte(NetworkConfig.Codes.MESSAGE_UPDATE_OBJECT);
+        stream.writeInt(getNetworkObjectId());
+        stream.writeByte((byte) maskLength);
+        stream.write(mTmpMask, 0, maskLength);
+
+        for (int i = 0; i < syncVars.length; i++) {
+            if (!isMaskSet(i)) continue;
+            syncVars[i].serialize(stream, netId);
+            syncVars[i].resetDirtyFlag(netId);
+        }
+    }
+
+    /**
+     * Forget the state syncvars keep for a client that has been removed from the server.
+     *
+     * @param netId network ID of the removed client
+     */
+    void removeClient(int netId) {
+        for (ISyncVar syncVar : getSyncVars()) {
+            syncVar.removeClient(netId);
+        }
+    }
+
+    /**
+     * Mark the syncvars to be rebuilt, because a networkable component got removed.
+     *
+     * <p>Called by {@link NetworkableComponent} once its handle has been released.
+     */
+    void onNetworkableComponentRemoved() {
+        mSyncVarsDirty = true;
+    }
+
+    /**
+     * Get syncvars of all valid networkable components.
+     *
+     * <p>The array is only rebuilt after a networkable component has been added, or removed.
+     *
+     * @return flat array of syncvars
+     */
+    private ISyncVar[] getSyncVars() {
+        if (!mSyncVarsDirty) {
+            return mSyncVars;
+        }
+
+        int syncVarCount = 0;
+
+        for (int c = 0; c < mNetworkableComponents.size(); c++) {
+            NetworkableComponent comp = mNetworkableComponents.get(c);
+            if (comp != null) {
+                syncVarCount += comp.getSyncVarCount();
+            }
+        }
+
+        ISyncVar[] syncVars = new ISyncVar[syncVarCount];
+        int idx = 0;
+        boolean clientIndependent = true;
+
+        for (int c = 0; c < mNetworkableComponents.size(); c++) {
+            NetworkableComponent nc = mNetworkableComponents.get(c);
+            if (nc == null) {
+                continue;
+            }
+
+            int cnt = nc.getSyncVarCount();
+
+            for (int i = 0; i < cnt; i++) {
+                ISyncVar syncVar = nc.getSyncVar(i);
+                clientIndependent &= syncVar.isClientIndependent();
+                syncVars[idx++] = syncVar;
+            }
+        }
+
+        mSyncVars = syncVars;
+        mClientIndependent = clientIndependent;
+        mSyncVarsDirty = false;
+
+        return syncVars;
+    }
+
+    /**
+     * Make sure the update mask can hold the given number of bytes.
+     *
+     * @param maskLength required mask size in bytes
+     */
+    private void ensureMaskSize(int maskLength) {
+        if (mTmpMask.length < maskLength) {
+            mTmpMask = new byte[maskLength];
+        }
+    }
+
+    /**
+     * Check whether a syncvar is set in the update mask.
+     *
+     * @param index index of the syncvar
+     * @return {@code true} if the bit is set
+     */
+    private boolean isMaskSet(int index) {
+        return (mTmpMask[index / 8] & (1 << (index % 8))) != 0;
+    }
 }
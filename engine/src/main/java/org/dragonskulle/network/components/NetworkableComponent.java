@@ -2,9 +2,7 @@
 package org.dragonskulle.network.components;
 
 import java.lang.reflect.Field;
-import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Stream;
 import lombok.Getter;
 import lombok.experimental.Accessors;
 import org.dragonskulle.components.Component;
@@ -26,8 +24,11 @@ public abstract class NetworkableComponent extends Component {
     /** Instantiates a new Networkable component. */
     public NetworkableComponent() {}
 
-    /** The Fields. */
-    private Field[] mFields;
+    /**
+     * Sync vars of this component, captured upon initialisation. Syncvar fields must not be
+     * reassigned afterwards.
+     */
+    private ISyncVar[] mSyncVars = new ISyncVar[0];
 
     /**
      * Init fields.
@@ -45,38 +46,22 @@ public abstract class NetworkableComponent extends Component {
 
         onNetworkInitialise();
 
-        mFields =
-                Arrays.stream(this.getClass().getDeclaredFields())
-                        .filter(field -> ISyncVar.class.isAssignableFrom(field.getType()))
-                        .toArray(Field[]::new);
+        SyncLayout layout = SyncLayout.get(getClass());
 
-        for (Field f : mFields) {
-            f.setAccessible(true);
-        }
+        try {
+            Field[] syncFields = layout.getSyncFields();
+            mSyncVars = new ISyncVar[syncFields.length];
 
-        Field[] requestFields =
-                Arrays.stream(this.getClass().getDeclaredFields())
-                        .filter(field -> ClientRequest.class.isAssignableFrom(field.getType()))
-                        .toArray(Field[]::new);
+            for (int i = 0; i < syncFields.length; i++) {
+                mSyncVars[i] = (ISyncVar) syncFields[i].get(this);
+            }
 
-        try {
-            for (Field f : requestFields) {
-                f.setAccessible(true);
+            for (Field f : layout.getRequestFields()) {
                 ClientRequest<?> req = (ClientRequest<?>) f.get(this);
                 outRequests.add(req);
             }
-        } catch (IllegalAccessException e) {
-            e.printStackTrace();
-        }
 
-        Field[] eventFields =
-                Arrays.stream(this.getClass().getDeclaredFields())
-                        .filter(field -> ServerEvent.class.isAssignableFrom(field.getType()))
-                        .toArray(Field[]::new);
-
-        try {
-            for (Field f : eventFields) {
-                f.setAccessible(true);
+            for (Field f : layout.getEventFields()) {
                 ServerEvent<?> req = (ServerEvent<?>) f.get(this);
                 outEvents.add(req);
             }
@@ -87,6 +72,13 @@ public abstract class NetworkableComponent extends Component {
         onConnectedSyncvars();
     }
 
+    @Override
+    protected final void afterRemove() {
+        if (mNetworkObject != null) {
+            mNetworkObject.onNetworkableComponentRemoved();
+        }
+    }
+
     /** Event called whenever object is spawned and is being initialised by the network manager. */
     protected void onNetworkInitialise() {}
 
@@ -107,31 +99,31 @@ public abstract class NetworkableComponent extends Component {
     protected void onOwnerIdChange(int newId) {}
 
     /**
-     * Get stream of syncvars.
+     * Get the number of syncvars on this component.
      *
-     * @return stream of syncvars on this component
+     * @return number of syncvars
      */
-    Stream<ISyncVar> getSyncVars() {
-        return Arrays.stream(mFields)
-                .map(
-                        f -> {
-                            try {
-                                return (ISyncVar) f.get(this);
-                            } catch (IllegalAccessException e) {
-                                return null;
-                            }
-                        });
+    int getSyncVarCount() {
+        return mSyncVars.length;
+    }
+
+    /**
+     * Get a syncvar by its index.
+     *
+     * <p>Syncvars are indexed in the order their fields are declared in.
+     *
+     * @param index index of the syncvar, less than {@link #getSyncVarCount()}
+     * @return the syncvar
+     */
+    ISyncVar getSyncVar(int index) {
+        return mSyncVars[index];
     }
 
     @Override
     public String toString() {
         StringBuilder fieldsString = new StringBuilder("Field{\n");
-        for (Field field : mFields) {
-            try {
-                fieldsString.append(field.get(this).toString());
-            } catch (IllegalAccessException e) {
-                e.printStackTrace();
-            }
+        for (ISyncVar syncVar : mSyncVars) {
+            fieldsString.append(syncVar);
         }
         fieldsString.append("\n}");
 
@@ -14,6 +14,7 @@ import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 import lombok.Getter;
+import lombok.Setter;
 import lombok.experimental.Accessors;
 import lombok.extern.java.Log;
 import org.dragonskulle.core.Engine;
@@ -100,6 +101,13 @@ public class ServerNetworkManager {
             mServer.onClientDisconnect(client);
         }
 
+        @Override
+        public void clientRemoved(ServerClient client) {
+            for (ServerObjectEntry entry : mNetworkObjects.values()) {
+                entry.removeClient(client);
+            }
+        }
+
         @Override
         public void clientComponentRequest(
                 ServerClient client, int objectID, int requestID, DataInput stream)
@@ -157,6 +165,12 @@ public class ServerNetworkManager {
         @Getter private final int mTemplateId;
         /** Which clients have had this object spawn. */
         @Getter private final Set<ServerClient> mSpawnedFor;
+        /** Which clients have had updates of this object held back by the interest policy. */
+        private final Set<ServerClient> mSuppressedFor = new HashSet<>();
+        /** Policy that {@link #mInterestData} was looked up with. */
+        private IInterestPolicy mInterestDataPolicy;
+        /** Data of the object, as described by {@link #mInterestDataPolicy}. */
+        private Object mInterestData;
         /**
          * Was this object waken up.
          *
@@ -183,6 +197,17 @@ public class ServerNetworkManager {
          * @param client networked client to update.
          */
         public void updateClient(ServerClient client) {
+            updateClient(client, null, null);
+        }
+
+        /**
+         * Update a specific network client.
+         *
+         * @param client networked client to update.
+         * @param shared buffer of this tick's shared updates, or {@code null} to not share them.
+         * @param policy interest policy to filter updates with, or {@code null} to send all.
+         */
+        void updateClient(ServerClient client, SharedUpdateBuffer shared, IInterestPolicy policy) {
 
             NetworkObject obj = mNetworkObject.get();
 
@@ -209,14 +234,57 @@ public class ServerNetworkManager {
                     e.printStackTrace();
                     client.closeSocket();
                 }
+            } else if (policy != null && !policy.isInterested(client, obj, getData(policy, obj))) {
+                mSuppressedFor.add(client);
+                return;
+            } else if (mSuppressedFor.remove(client)) {
+                // Deltas have been reset while suppressed, so send everything
+                forceUpdate = true;
             }
 
-            obj.sendUpdate(client, forceUpdate);
+            obj.sendUpdate(client, forceUpdate, shared);
+        }
+
+        /**
+         * Forget a client that has been removed from the server.
+         *
+         * @param client client to forget.
+         */
+        void removeClient(ServerClient client) {
+            mSpawnedFor.remove(client);
+            mSuppressedFor.remove(client);
+
+            NetworkObject obj = mNetworkObject.get();
+
+            if (obj != null) {
+                obj.removeClient(client.getNetworkID());
+            }
+        }
+
+        /**
+         * Get the data the interest policy needs about the object, looking it up only once.
+         *
+         * @param policy current interest policy.
+         * @param obj the network object of this entry.
+         * @return data described by the policy.
+         */
+        private Object getData(IInterestPolicy policy, NetworkObject obj) {
+            if (mInterestDataPolicy != policy) {
+                mInterestData = policy.describe(obj);
+                mInterestDataPolicy = policy;
+            }
+
+            return mInterestData;
         }
     }
 
     /** Server event listener. */
     private final Listener mListener = new Listener();
+    /** Filters which objects get updated on which clients. {@code null} updates everything. */
+    @Getter @Setter private IInterestPolicy mInterestPolicy;
+    /** Object updates shared between all clients, or {@code null} if sharing is disabled. */
+    private final SharedUpdateBuffer mSharedUpdates =
+            NetworkConfig.USE_SHARED_ENCODING ? new SharedUpdateBuffer() : null;
     /** Underlying server instance. */
     private Server mServer;
     /** Back reference to {@link NetworkManager}. */
@@ -275,6 +343,29 @@ public class ServerNetworkManager {
         mGameEndEventHandler = gameEndEventHandler;
     }
 
+    /**
+     * Constructor for an offline {@link ServerNetworkManager}.
+     *
+     * <p>It does not open any sockets, and no clients can join it. The game only has objects
+     * owned by the server.
+     *
+     * @param manager back reference to {@link NetworkManager}.
+     * @param gameStartEventHandler callback for when the game starts.
+     * @param gameEndEventHandler callback for game end event.
+     */
+    public ServerNetworkManager(
+            NetworkManager manager,
+            NetworkManager.IGameStartEvent gameStartEventHandler,
+            NetworkManager.IGameEndEvent gameEndEventHandler) {
+        mManager = manager;
+        mServer = new Server(mListener);
+        mClientConnectionAttemptEvent = null;
+        mClientConnectedEvent = null;
+        mClientLoadedEvent = null;
+        mGameStartEventHandler = gameStartEventHandler;
+        mGameEndEventHandler = gameEndEventHandler;
+    }
+
     /**
      * Start the networked game.
      *
@@ -515,12 +606,26 @@ public class ServerNetworkManager {
             mManager.onServerDestroy();
         } else {
             try (SceneOverride __ = new SceneOverride(mManager.getGameScene())) {
+                if (mSharedUpdates != null) {
+                    mSharedUpdates.nextTick();
+                }
+
                 for (ServerClient c : mServer.getClients()) {
                     if (!c.isInGame()) {
                         continue;
                     }
-                    for (ServerObjectEntry entry : mNetworkObjects.values()) {
-                        entry.updateClient(c);
+                    // All updates of this tick go out with a single flush
+                    c.beginBatch();
+                    try {
+                        if (mInterestPolicy != null) {
+                            mInterestPolicy.beginUpdate(c);
+                        }
+
+                        for (ServerObjectEntry entry : mNetworkObjects.values()) {
+                            entry.updateClient(c, mSharedUpdates, mInterestPolicy);
+                        }
+                    } finally {
+                        c.endBatch();
                     }
                 }
                 mNetworkObjects
@@ -0,0 +1,40 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.network.components;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+/**
+ * Buffer of object updates encoded once per tick, and shared between all clients.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Objects append their client independent updates here the first time a client asks for
+ *     them during a tick, and remember the slice they occupy. Following clients get the same slice
+ *     instead of serializing the object again.
+ */
+@Accessors(prefix = "m")
+class SharedUpdateBuffer extends ByteArrayOutputStream {
+    /** Data stream writing into this buffer. */
+    @Getter private final DataOutputStream mStream = new DataOutputStream(this);
+    /** Current tick. Slices recorded on other ticks are no longer valid. */
+    @Getter private int mTick = 0;
+
+    /** Drop all encoded updates, and start a new tick. */
+    void nextTick() {
+        reset();
+        mTick++;
+    }
+
+    /**
+     * Get the underlying array, without copying it.
+     *
+     * <p>The array may change as the buffer grows, so it should not be kept around.
+     *
+     * @return backing array of the buffer.
+     */
+    byte[] array() {
+        return buf;
+    }
+}
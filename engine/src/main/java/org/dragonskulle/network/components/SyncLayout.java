@@ -0,0 +1,75 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.network.components;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import org.dragonskulle.network.components.requests.ClientRequest;
+import org.dragonskulle.network.components.requests.ServerEvent;
+import org.dragonskulle.network.components.sync.ISyncVar;
+
+/**
+ * Networked field layout of a {@link NetworkableComponent} class.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Declared fields are looked up through reflection once per class, and the result is shared
+ *     by all instances of it.
+ */
+@Accessors(prefix = "m")
+class SyncLayout {
+    /** Layouts of all classes that have been initialised so far. */
+    private static final Map<Class<?>, SyncLayout> sLayouts = new ConcurrentHashMap<>();
+
+    /** Fields holding {@link ISyncVar}s, in declaration order. */
+    @Getter private final Field[] mSyncFields;
+    /** Fields holding {@link ClientRequest}s, in declaration order. */
+    @Getter private final Field[] mRequestFields;
+    /** Fields holding {@link ServerEvent}s, in declaration order. */
+    @Getter private final Field[] mEventFields;
+
+    /**
+     * Constructor for {@link SyncLayout}.
+     *
+     * @param type component class to resolve the layout of.
+     */
+    private SyncLayout(Class<?> type) {
+        Field[] fields = type.getDeclaredFields();
+
+        mSyncFields = filterFields(fields, ISyncVar.class);
+        mRequestFields = filterFields(fields, ClientRequest.class);
+        mEventFields = filterFields(fields, ServerEvent.class);
+    }
+
+    /**
+     * Get the layout of a component class.
+     *
+     * @param type component class.
+     * @return cached layout of the class.
+     */
+    static SyncLayout get(Class<? extends NetworkableComponent> type) {
+        return sLayouts.computeIfAbsent(type, SyncLayout::new);
+    }
+
+    /**
+     * Select fields of given type, and make them accessible.
+     *
+     * @param fields fields to filter.
+     * @param type type the fields have to be assignable to.
+     * @return accessible fields of the type.
+     */
+    private static Field[] filterFields(Field[] fields, Class<?> type) {
+        Field[] ret =
+                Arrays.stream(fields)
+                        .filter(field -> type.isAssignableFrom(field.getType()))
+                        .toArray(Field[]::new);
+
+        for (Field f : ret) {
+            f.setAccessible(true);
+        }
+
+        return ret;
+    }
+}
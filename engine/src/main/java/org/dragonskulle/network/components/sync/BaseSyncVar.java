@@ -28,6 +28,11 @@ public abstract class BaseSyncVar implements ISyncVar {
         return mDirty;
     }
 
+    @Override
+    public boolean isClientIndependent() {
+        return true;
+    }
+
     @Override
     public void resetDirtyFlag() {
         mDirty = false;
@@ -15,6 +15,18 @@ public interface ISyncVar extends INetSerializable {
      */
     boolean isDirty(int clientId);
 
+    /**
+     * Check whether the syncvar is encoded the same way for every client.
+     *
+     * <p>If it is, {@link #isDirty} and {@link #serialize} must not depend on the client ID, and
+     * the encoded update may be shared between all clients.
+     *
+     * @return {@code true} if the encoding does not depend on the client
+     */
+    default boolean isClientIndependent() {
+        return false;
+    }
+
     /** Resets the global dirty flag. */
     default void resetDirtyFlag() {}
 
@@ -25,6 +37,15 @@ public interface ISyncVar extends INetSerializable {
      */
     default void resetDirtyFlag(int clientId) {}
 
+    /**
+     * Forget any state kept for a client that has left.
+     *
+     * <p>Client IDs get reused, so a later client with the same ID must start off fresh.
+     *
+     * @param clientId id of the removed client
+     */
+    default void removeClient(int clientId) {}
+
     /**
      * Sets is a flag on the client that the variable is dirty.
      *
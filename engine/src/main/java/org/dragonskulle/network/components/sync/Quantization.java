@@ -0,0 +1,96 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.network.components.sync;
+
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+/**
+ * Maps floats in a fixed range onto a fixed number of bits.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>The range is split into {@code 2^bits - 1} equal steps, and both ends are exactly
+ *     representable. Values outside the range are clamped.
+ */
+@Accessors(prefix = "m")
+class Quantization {
+    /** Largest supported bit count, floats can not represent more steps exactly. */
+    static final int MAX_BITS = 24;
+
+    /** Lower end of the range. */
+    @Getter private final float mMin;
+    /** Upper end of the range. */
+    @Getter private final float mMax;
+    /** Number of bits per value. */
+    @Getter private final int mBits;
+    /** Largest quantized value. */
+    private final int mSteps;
+
+    /**
+     * Constructor for {@link Quantization}.
+     *
+     * @param min lower end of the range
+     * @param max upper end of the range
+     * @param bits number of bits per value, between 1 and {@link #MAX_BITS}
+     */
+    Quantization(float min, float max, int bits) {
+        if (!(min < max)) {
+            throw new IllegalArgumentException("Invalid range " + min + ".." + max);
+        }
+
+        if (bits < 1 || bits > MAX_BITS) {
+            throw new IllegalArgumentException("Invalid bit count " + bits);
+        }
+
+        mMin = min;
+        mMax = max;
+        mBits = bits;
+        mSteps = (1 << bits) - 1;
+    }
+
+    /**
+     * Quantize a value.
+     *
+     * @param value value to quantize
+     * @return index of the closest step
+     */
+    int quantize(float value) {
+        if (!(value > mMin)) {
+            return 0;
+        }
+
+        if (value >= mMax) {
+            return mSteps;
+        }
+
+        return (int) Math.round((value - (double) mMin) / ((double) mMax - mMin) * mSteps);
+    }
+
+    /**
+     * Get the value of a step.
+     *
+     * @param step index of the step
+     * @return the value
+     */
+    float dequantize(int step) {
+        return (float) (mMin + ((double) mMax - mMin) * step / mSteps);
+    }
+
+    /**
+     * Round a value to the closest representable one.
+     *
+     * @param value value to round
+     * @return the value, as it would be received
+     */
+    float round(float value) {
+        return dequantize(quantize(value));
+    }
+
+    /**
+     * Get the distance between two neighbouring steps.
+     *
+     * @return the step size
+     */
+    float getPrecision() {
+        return (float) (((double) mMax - mMin) / mSteps);
+    }
+}
@@ -0,0 +1,110 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.network.components.sync;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import org.dragonskulle.network.BitReader;
+import org.dragonskulle.network.BitWriter;
+
+/**
+ * Integer syncvar that sends the change since the value a client last received.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>The server keeps a baseline per client, and writes the difference as a variable length
+ *     integer, so slowly changing counters take up a single byte per update. It is only dirty for
+ *     clients whose baseline differs from the current value.
+ *     <p>Every client starts off with the initial value as its baseline. The value must therefore
+ *     only be changed on the server, since clients apply the received differences on top of their
+ *     own value.
+ *     <p>A difference the client never applies leaves its value wrong until the object is spawned
+ *     again, and the per client baselines make the owning object encode separately for every
+ *     client. Only use it for values where the saved bytes outweigh both.
+ */
+public class SyncDeltaInt extends SyncInt {
+    /** Value clients start with. */
+    private final int mInitialValue;
+    /** Last value sent to each client, indexed by client ID. */
+    private int[] mBaselines = new int[0];
+
+    /**
+     * Instantiates a new delta encoded int.
+     *
+     * @param initialValue initial value
+     */
+    public SyncDeltaInt(int initialValue) {
+        super(initialValue);
+        mInitialValue = initialValue;
+    }
+
+    /** Instantiates a new delta encoded int. */
+    public SyncDeltaInt() {
+        this(0);
+    }
+
+    @Override
+    public boolean isDirty(int clientId) {
+        return mData != getBaseline(clientId);
+    }
+
+    @Override
+    public boolean isClientIndependent() {
+        return false;
+    }
+
+    @Override
+    public void serialize(DataOutput out, int clientId) throws IOException {
+        int baseline = getBaseline(clientId);
+        BitWriter writer = BitWriter.of(out);
+        writer.writeVarInt(mData - baseline);
+        writer.flush();
+        mBaselines[clientId] = mData;
+    }
+
+    @Override
+    public void removeClient(int clientId) {
+        if (clientId >= mBaselines.length) {
+            return;
+        }
+
+        mBaselines[clientId] = mInitialValue;
+
+        // Clients at the initial value need no baseline, so trailing ones can be dropped
+        int length = mBaselines.length;
+
+        while (length > 0 && mBaselines[length - 1] == mInitialValue) {
+            length--;
+        }
+
+        if (length < mBaselines.length) {
+            mBaselines = Arrays.copyOf(mBaselines, length);
+        }
+    }
+
+    @Override
+    public void deserialize(DataInput in) throws IOException {
+        mData += BitReader.of(in).readVarInt();
+    }
+
+    /**
+     * Get the last value sent to a client.
+     *
+     * @param clientId ID of the client
+     * @return the baseline of the client
+     */
+    private int getBaseline(int clientId) {
+        if (clientId >= mBaselines.length) {
+            int oldLength = mBaselines.length;
+            mBaselines = Arrays.copyOf(mBaselines, Math.max(clientId + 1, oldLength * 2));
+            Arrays.fill(mBaselines, oldLength, mBaselines.length, mInitialValue);
+        }
+
+        return mBaselines[clientId];
+    }
+
+    @Override
+    public String toString() {
+        return "SyncDeltaInt{" + "data=" + mData + '}';
+    }
+}
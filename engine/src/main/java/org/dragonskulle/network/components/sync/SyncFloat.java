@@ -13,7 +13,7 @@ import java.util.Objects;
  */
 public class SyncFloat extends BaseSyncVar {
 
-    private float mData;
+    protected float mData;
 
     /**
      * Instantiates a new Sync float.
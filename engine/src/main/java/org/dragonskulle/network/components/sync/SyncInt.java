@@ -13,7 +13,7 @@ import java.io.IOException;
  */
 public class SyncInt extends BaseSyncVar {
     /** The Data. */
-    private int mData;
+    protected int mData;
 
     /**
      * Instantiates a new Sync int.
@@ -0,0 +1,87 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.network.components.sync;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import org.dragonskulle.network.BitReader;
+import org.dragonskulle.network.BitWriter;
+
+/**
+ * Float syncvar that is sent with a fixed number of bits.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>The value is kept in {@code [min, max]}, and rounded to the closest of {@code 2^bits}
+ *     evenly spaced steps whenever it is set. This way the server keeps exactly the value the
+ *     clients receive, and small changes that round to the same value do not cause updates.
+ */
+public class SyncQuantizedFloat extends SyncFloat {
+    /** Quantization of the value. */
+    private final Quantization mQuantization;
+
+    /**
+     * Instantiates a new quantized float.
+     *
+     * @param min lower end of the range
+     * @param max upper end of the range
+     * @param bits number of bits to send, between 1 and 24
+     * @param initialValue initial value
+     */
+    public SyncQuantizedFloat(float min, float max, int bits, float initialValue) {
+        mQuantization = new Quantization(min, max, bits);
+        mData = mQuantization.round(initialValue);
+    }
+
+    /**
+     * Instantiates a new quantized float, starting at the lower end of the range.
+     *
+     * @param min lower end of the range
+     * @param max upper end of the range
+     * @param bits number of bits to send, between 1 and 24
+     */
+    public SyncQuantizedFloat(float min, float max, int bits) {
+        this(min, max, bits, min);
+    }
+
+    /**
+     * Set the value, rounded to the closest representable one.
+     *
+     * <p>The syncvar only becomes dirty if the rounded value differs from the current one.
+     *
+     * @param data the data
+     */
+    @Override
+    public void set(float data) {
+        float rounded = mQuantization.round(data);
+
+        if (rounded != mData) {
+            super.set(rounded);
+        }
+    }
+
+    /**
+     * Get the distance between two neighbouring representable values.
+     *
+     * @return the precision of the value
+     */
+    public float getPrecision() {
+        return mQuantization.getPrecision();
+    }
+
+    @Override
+    public void serialize(DataOutput out, int clientId) throws IOException {
+        BitWriter writer = BitWriter.of(out);
+        writer.writeBits(mQuantization.quantize(mData), mQuantization.getBits());
+        writer.flush();
+    }
+
+    @Override
+    public void deserialize(DataInput in) throws IOException {
+        mData = mQuantization.dequantize(BitReader.of(in).readBits(mQuantization.getBits()));
+    }
+
+    @Override
+    public String toString() {
+        return "SyncQuantizedFloat{" + "data=" + mData + '}';
+    }
+}
@@ -0,0 +1,99 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.network.components.sync;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import org.dragonskulle.network.BitReader;
+import org.dragonskulle.network.BitWriter;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+
+/**
+ * Vector syncvar that is sent with a fixed number of bits per component.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>All components share the same range and precision, and are packed together, so a vector
+ *     with 10 bits per component takes up 4 bytes instead of 12. Like {@link SyncQuantizedFloat},
+ *     the value gets rounded whenever it is set.
+ */
+public class SyncQuantizedVector3 extends SyncVector3 {
+    /** Quantization of every component. */
+    private final Quantization mQuantization;
+
+    /**
+     * Instantiates a new quantized vector.
+     *
+     * @param min lower end of the range of each component
+     * @param max upper end of the range of each component
+     * @param bits number of bits to send per component, between 1 and 24
+     * @param initialValue initial value
+     */
+    public SyncQuantizedVector3(float min, float max, int bits, Vector3fc initialValue) {
+        super(new Vector3f());
+        mQuantization = new Quantization(min, max, bits);
+        mData.set(
+                mQuantization.round(initialValue.x()),
+                mQuantization.round(initialValue.y()),
+                mQuantization.round(initialValue.z()));
+    }
+
+    /**
+     * Instantiates a new quantized vector, starting at the closest value to zero.
+     *
+     * @param min lower end of the range of each component
+     * @param max upper end of the range of each component
+     * @param bits number of bits to send per component, between 1 and 24
+     */
+    public SyncQuantizedVector3(float min, float max, int bits) {
+        this(min, max, bits, new Vector3f());
+    }
+
+    /**
+     * Set the value, rounded to the closest representable one.
+     *
+     * <p>The syncvar only becomes dirty if the rounded value differs from the current one.
+     *
+     * @param data the data
+     */
+    @Override
+    public void set(Vector3fc data) {
+        float x = mQuantization.round(data.x());
+        float y = mQuantization.round(data.y());
+        float z = mQuantization.round(data.z());
+
+        if (x != mData.x || y != mData.y || z != mData.z) {
+            mDirty = true;
+            mData.set(x, y, z);
+        }
+    }
+
+    /**
+     * Get the distance between two neighbouring representable values of a component.
+     *
+     * @return the precision of the components
+     */
+    public float getPrecision() {
+        return mQuantization.getPrecision();
+    }
+
+    @Override
+    public void serialize(DataOutput out, int clientId) throws IOException {
+        int bits = mQuantization.getBits();
+        BitWriter writer = BitWriter.of(out);
+        writer.writeBits(mQuantization.quantize(mData.x), bits);
+        writer.writeBits(mQuantization.quantize(mData.y), bits);
+        writer.writeBits(mQuantization.quantize(mData.z), bits);
+        writer.flush();
+    }
+
+    @Override
+    public void deserialize(DataInput stream) throws IOException {
+        int bits = mQuantization.getBits();
+        BitReader reader = BitReader.of(stream);
+        mData.set(
+                mQuantization.dequantize(reader.readBits(bits)),
+                mQuantization.dequantize(reader.readBits(bits)),
+                mQuantization.dequantize(reader.readBits(bits)));
+    }
+}
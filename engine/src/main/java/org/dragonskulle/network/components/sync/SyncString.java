@@ -54,7 +54,6 @@ public class SyncString extends BaseSyncVar {
     @Override
     public void serialize(DataOutput out, int clientId) throws IOException {
         out.writeUTF(this.mData);
-        mDirty = false;
     }
 
     /**
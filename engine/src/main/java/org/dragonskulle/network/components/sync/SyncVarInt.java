@@ -0,0 +1,41 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.network.components.sync;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import org.dragonskulle.network.BitReader;
+import org.dragonskulle.network.BitWriter;
+
+/**
+ * Integer syncvar that is sent as a variable length integer.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Values between -64 and 63 take up a single byte, and only very large values take up more
+ *     than the 4 bytes of {@link SyncInt}. Useful for levels, counters and the like.
+ */
+public class SyncVarInt extends SyncInt {
+    /**
+     * Instantiates a new variable length int.
+     *
+     * @param initialValue initial value
+     */
+    public SyncVarInt(int initialValue) {
+        super(initialValue);
+    }
+
+    /** Instantiates a new variable length int. */
+    public SyncVarInt() {}
+
+    @Override
+    public void serialize(DataOutput out, int clientId) throws IOException {
+        BitWriter writer = BitWriter.of(out);
+        writer.writeVarInt(mData);
+        writer.flush();
+    }
+
+    @Override
+    public void deserialize(DataInput in) throws IOException {
+        mData = BitReader.of(in).readVarInt();
+    }
+}
@@ -13,7 +13,7 @@ import org.joml.Vector3fc;
  * @author Oscar L
  */
 public class SyncVector3 extends BaseSyncVar {
-    private Vector3f mData = new Vector3f();
+    protected Vector3f mData = new Vector3f();
 
     /**
      * Serialize the SyncVector3.
@@ -27,7 +27,6 @@ public class SyncVector3 extends BaseSyncVar {
         out.writeFloat(mData.x);
         out.writeFloat(mData.y);
         out.writeFloat(mData.z);
-        mDirty = false;
     }
 
     /**
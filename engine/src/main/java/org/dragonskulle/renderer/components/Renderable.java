@@ -7,6 +7,7 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
 import org.dragonskulle.components.Component;
+import org.dragonskulle.components.IPoolable;
 import org.dragonskulle.core.Engine;
 import org.dragonskulle.renderer.Mesh;
 import org.dragonskulle.renderer.materials.IMaterial;
@@ -22,7 +23,7 @@ import org.joml.Vector3fc;
  * @author Aurimas Blažulionis
  */
 @Accessors(prefix = "m")
-public class Renderable extends Component {
+public class Renderable extends Component implements IPoolable {
     /** Mesh of the object. */
     @Getter private Mesh mMesh = Mesh.HEXAGON;
     /** Material of the object. */
@@ -154,6 +155,14 @@ public class Renderable extends Component {
         return intersection.testAab(mAABBMin, mAABBMax);
     }
 
+    /**
+     * Keep the mesh, and material as they are.
+     *
+     * <p>Code that modifies the material of a pooled object needs to restore it on its own.
+     */
+    @Override
+    public void onReturnToPool() {}
+
     /** Free the underlying resources. */
     @Override
     public void onDestroy() {
@@ -0,0 +1,219 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.dragonskulle.components.Component;
+import org.dragonskulle.components.Transform3D;
+import org.joml.Vector3f;
+import org.junit.Test;
+
+/**
+ * Tests for {@link EngineCloner}.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Parity of the generated cloners against the reflective cloner, on the game's templates, is
+ *     tested by the game.
+ */
+public class EngineClonerTest {
+
+    /** Shared data of components. */
+    private static class SharedData {
+        int mValue = 0;
+    }
+
+    /** Object that is not a component. */
+    private static class PlainObject {
+        @NoClone Vector3f mCache = null;
+        @ShallowClone SharedData mShared = null;
+    }
+
+    /** Component with one field of every kind of cloning. */
+    private static class FieldsComponent extends Component {
+        int mInt = 0;
+        float mFloat = 0f;
+        String mName = null;
+        Thread.State mState = null;
+        final Vector3f mVector = new Vector3f();
+        List<Integer> mList = new ArrayList<>();
+        Reference<FieldsComponent> mSibling = null;
+        @NoClone Vector3f mCache = null;
+        @ShallowClone SharedData mShared = null;
+
+        @Override
+        protected void onDestroy() {}
+    }
+
+    /** Component extending another one, to check inherited fields. */
+    private static class DerivedComponent extends FieldsComponent {
+        long mLong = 0;
+    }
+
+    /** Component with its own fast cloner, that marks its clones. */
+    private static class CustomComponent extends Component {
+        boolean mCustomCloned = false;
+
+        static {
+            Engine.getCloner()
+                    .registerFastCloner(
+                            CustomComponent.class,
+                            (t, cloner, clones) -> {
+                                CustomComponent cloned = new CustomComponent();
+                                cloned.mCustomCloned = true;
+                                clones.put(t, cloned);
+                                cloned.mGameObject =
+                                        cloner.deepClone(((CustomComponent) t).mGameObject, clones);
+                                return cloned;
+                            });
+        }
+
+        @Override
+        protected void onDestroy() {}
+    }
+
+    /** Test that fields get cloned according to their types, and annotations. */
+    @Test
+    public void testFields() {
+        SharedData shared = new SharedData();
+
+        FieldsComponent first = new DerivedComponent();
+        FieldsComponent second = new FieldsComponent();
+
+        first.mInt = 5;
+        first.mFloat = 2.5f;
+        first.mName = "first";
+        first.mState = Thread.State.RUNNABLE;
+        first.mVector.set(1, 2, 3);
+        first.mList.add(7);
+        first.mSibling = second.getReference(FieldsComponent.class);
+        first.mCache = new Vector3f(4);
+        first.mShared = shared;
+        ((DerivedComponent) first).mLong = 9;
+
+        GameObject object = new GameObject("object", new Transform3D(1, 2, 3));
+        object.addComponent(first);
+        object.addComponent(second);
+
+        GameObject cloned = Engine.getCloner().deepClone(object);
+
+        assertTrue(Engine.getCloner().hasGeneratedCloner(DerivedComponent.class));
+        assertTrue(Engine.getCloner().hasGeneratedCloner(FieldsComponent.class));
+
+        DerivedComponent clone = cloned.getComponent(DerivedComponent.class).get();
+        FieldsComponent secondClone = (FieldsComponent) cloned.getComponents().get(1);
+
+        assertNotSame(first, clone);
+        assertSame(cloned, clone.getGameObject());
+        assertEquals(5, clone.mInt);
+        assertEquals(2.5f, clone.mFloat, 0f);
+        assertEquals("first", clone.mName);
+        assertSame(Thread.State.RUNNABLE, clone.mState);
+        assertEquals(9, clone.mLong);
+
+        assertNotSame(first.mVector, clone.mVector);
+        assertEquals(first.mVector, clone.mVector);
+        assertNotSame(first.mList, clone.mList);
+        assertEquals(first.mList, clone.mList);
+
+        assertNotSame(first.getReference(), clone.getReference());
+        assertSame(clone, clone.getReference().get());
+        assertSame(secondClone, clone.mSibling.get());
+
+        assertNull(clone.mCache);
+        assertSame(shared, clone.mShared);
+    }
+
+    /** Test that objects without a generated cloner skip fields, but do not share them. */
+    @Test
+    public void testPlainObjects() {
+        PlainObject object = new PlainObject();
+        object.mCache = new Vector3f();
+        object.mShared = new SharedData();
+        object.mShared.mValue = 3;
+
+        PlainObject cloned = Engine.getCloner().deepClone(object);
+
+        assertFalse(Engine.getCloner().hasFastCloner(PlainObject.class));
+        assertNull(cloned.mCache);
+        assertNotSame(object.mShared, cloned.mShared);
+        assertEquals(3, cloned.mShared.mValue);
+    }
+
+    /** Test that hand-written fast cloners are not replaced. */
+    @Test
+    public void testCustomCloner() {
+        GameObject object = new GameObject("object");
+        object.addComponent(new CustomComponent());
+
+        assertTrue(Engine.getCloner().hasFastCloner(CustomComponent.class));
+
+        GameObject cloned = Engine.getCloner().deepClone(object);
+        CustomComponent clone = cloned.getComponent(CustomComponent.class).get();
+
+        assertFalse(Engine.getCloner().hasGeneratedCloner(CustomComponent.class));
+        assertTrue(clone.mCustomCloned);
+        assertSame(cloned, clone.getGameObject());
+        assertFalse(object.getComponent(CustomComponent.class).get().mCustomCloned);
+    }
+
+    /** Test that threads generating cloners for the same classes all clone correctly. */
+    @Test
+    public void testConcurrentClones() throws InterruptedException {
+        EngineCloner cloner = new EngineCloner();
+
+        FieldsComponent first = new DerivedComponent();
+        first.mInt = 5;
+        first.mVector.set(1, 2, 3);
+        FieldsComponent second = new FieldsComponent();
+        second.mSibling = first.getReference(FieldsComponent.class);
+
+        List<FieldsComponent> components = new ArrayList<>();
+        components.add(first);
+        components.add(second);
+
+        Thread[] threads = new Thread[8];
+        Throwable[] errors = new Throwable[threads.length];
+        CountDownLatch start = new CountDownLatch(1);
+
+        for (int i = 0; i < threads.length; i++) {
+            final int idx = i;
+            threads[i] =
+                    new Thread(
+                            () -> {
+                                try {
+                                    start.await();
+
+                                    for (int j = 0; j < 100; j++) {
+                                        List<FieldsComponent> cloned =
+                                                cloner.deepClone(components);
+                                        assertEquals(5, cloned.get(0).mInt);
+                                        assertEquals(first.mVector, cloned.get(0).mVector);
+                                        assertNotSame(first.mVector, cloned.get(0).mVector);
+                                        assertSame(cloned.get(0), cloned.get(1).mSibling.get());
+                                    }
+                                } catch (Throwable e) {
+                                    errors[idx] = e;
+                                }
+                            });
+            threads[i].start();
+        }
+
+        start.countDown();
+
+        for (int i = 0; i < threads.length; i++) {
+            threads[i].join();
+            assertNull(errors[i]);
+        }
+
+        assertTrue(cloner.hasGeneratedCloner(DerivedComponent.class));
+        assertTrue(cloner.hasGeneratedCloner(FieldsComponent.class));
+    }
+}
@@ -0,0 +1,244 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.dragonskulle.components.Component;
+import org.dragonskulle.components.IFixedUpdate;
+import org.dragonskulle.components.INetworkUpdate;
+import org.dragonskulle.core.futures.Future;
+import org.junit.Test;
+
+/**
+ * Tests for {@link FixedTimestep}, and the engine loop driven by it.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>The engine tests replace the system clock with a fake one, which advances by a scripted
+ *     amount every frame, so the number of updates per frame is exact.
+ */
+public class FixedTimestepTest {
+    /** Time step of a 32Hz update, exactly representable in binary. */
+    private static final double STEP = 1 / 32.0;
+    /** Number of regular frames before, and after the hitch. */
+    private static final int NORMAL_FRAMES = 16;
+
+    /** Component counting its updates. */
+    private static class CountingComponent extends Component
+            implements IFixedUpdate, INetworkUpdate {
+        int mFixedUpdates = 0;
+        int mNetworkUpdates = 0;
+
+        @Override
+        public void fixedUpdate(float deltaTime) {
+            assertEquals(STEP, deltaTime, 0);
+            mFixedUpdates++;
+        }
+
+        @Override
+        public void networkUpdate() {
+            mNetworkUpdates++;
+        }
+
+        @Override
+        protected void onDestroy() {}
+    }
+
+    /** Clock advancing by a set amount on every read. */
+    private static class FakeClock implements Time.IClock {
+        double mTime = 100;
+        double mStep = STEP;
+
+        @Override
+        public double getPreciseTimeInSeconds() {
+            mTime += mStep;
+            return mTime;
+        }
+    }
+
+    /** Test that whole steps are consumed, and the remainder is kept. */
+    @Test
+    public void testAccumulates() {
+        FixedTimestep timestep = new FixedTimestep(32);
+
+        assertEquals(0, timestep.advance(STEP / 2));
+        assertEquals(0.5f, timestep.getAlpha(), 1e-6f);
+        assertEquals(STEP / 2, timestep.getTimeUntilNextStep(), 1e-9);
+
+        assertEquals(1, timestep.advance(STEP * 0.75));
+        assertEquals(0.25f, timestep.getAlpha(), 1e-6f);
+
+        assertEquals(3, timestep.advance(STEP * 2.75));
+        assertEquals(0f, timestep.getAlpha(), 1e-6f);
+        assertEquals(0, timestep.getDroppedSteps());
+    }
+
+    /** Test that a long frame runs at most the maximum number of steps. */
+    @Test
+    public void testSubstepLimit() {
+        FixedTimestep timestep = new FixedTimestep(32);
+        timestep.setMaxSubsteps(4);
+
+        assertEquals(4, timestep.advance(STEP * 10.5));
+        assertEquals(6, timestep.getDroppedSteps());
+        assertEquals(0.5f, timestep.getAlpha(), 1e-6f);
+
+        // No backlog is carried over
+        assertEquals(1, timestep.advance(STEP / 2));
+    }
+
+    /** Test that network updates run every n-th step. */
+    @Test
+    public void testNetworkInterval() {
+        FixedTimestep timestep = new FixedTimestep(32);
+        assertEquals(1, timestep.getNetworkInterval());
+
+        timestep.setNetworkUpdatesPerSecond(16);
+        assertEquals(2, timestep.getNetworkInterval());
+
+        timestep.advance(STEP);
+        assertFalse(timestep.isNetworkUpdateDue());
+        timestep.advance(STEP);
+        assertTrue(timestep.isNetworkUpdateDue());
+
+        // Several steps in a frame still only send once
+        timestep.advance(STEP * 5);
+        assertTrue(timestep.isNetworkUpdateDue());
+        timestep.advance(STEP);
+        assertTrue(timestep.isNetworkUpdateDue());
+
+        // Frames without steps never send
+        timestep.advance(STEP / 4);
+        assertFalse(timestep.isNetworkUpdateDue());
+
+        // Rates are rounded to a whole number of steps
+        timestep.setNetworkUpdatesPerSecond(10);
+        assertEquals(3, timestep.getNetworkInterval());
+    }
+
+    /** Test that the network rate follows the update rate, until it is set explicitly. */
+    @Test
+    public void testNetworkRateLinking() {
+        FixedTimestep timestep = new FixedTimestep(32);
+
+        timestep.setUpdatesPerSecond(20);
+        assertEquals(20, timestep.getNetworkUpdatesPerSecond());
+
+        timestep.setNetworkUpdatesPerSecond(10);
+        timestep.setUpdatesPerSecond(60);
+        assertEquals(10, timestep.getNetworkUpdatesPerSecond());
+        assertEquals(6, timestep.getNetworkInterval());
+
+        timestep.setUpdatesPerSecond(5);
+        assertEquals(5, timestep.getNetworkUpdatesPerSecond());
+    }
+
+    /** Test that invalid rates are rejected. */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNetworkRateAboveUpdateRate() {
+        new FixedTimestep(32).setNetworkUpdatesPerSecond(64);
+    }
+
+    /** Test that a headless engine paces its fixed updates, and runs until stopped. */
+    @Test
+    public void testHeadless() {
+        final int ticks = 8;
+        Engine engine = Engine.getInstance();
+        Scene scene = new Scene("headless");
+        CountingComponent counter =
+                new CountingComponent() {
+                    @Override
+                    public void fixedUpdate(float deltaTime) {
+                        super.fixedUpdate(deltaTime);
+
+                        if (mFixedUpdates == ticks) {
+                            Engine.getInstance().stop();
+                        }
+                    }
+                };
+
+        GameObject obj = new GameObject("counter");
+        obj.addComponent(counter);
+        scene.addRootObject(obj);
+
+        engine.setUpdatesPerSecond(32);
+        engine.loadScene(scene, true);
+
+        long start = System.nanoTime();
+
+        try {
+            engine.startHeadless();
+        } finally {
+            engine.unloadScene(scene);
+            engine.setUpdatesPerSecond(Engine.DEFAULT_UPDATES_PER_SECOND);
+        }
+
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        assertEquals(ticks, counter.mFixedUpdates);
+        assertTrue(counter.mNetworkUpdates > 0);
+        // Paced to the tick rate, instead of running the updates back to back
+        assertTrue("took " + elapsed + "s", elapsed >= (ticks - 2) * STEP);
+    }
+
+    /** Test that the engine does not spiral after a hitch, and sends at the network rate. */
+    @Test
+    public void testEngineHitch() {
+        Engine engine = Engine.getInstance();
+        FixedTimestep timestep = engine.getTimestep();
+        FakeClock clock = new FakeClock();
+
+        CountingComponent counter = new CountingComponent();
+        // Total fixed, and network updates at the end of every frame the counter was running
+        List<int[]> frames = new ArrayList<>();
+
+        Time.setClock(clock);
+        engine.setUpdatesPerSecond(32);
+        timestep.setNetworkUpdatesPerSecond(16);
+        timestep.setMaxSubsteps(4);
+
+        try {
+            engine.startWithFutures(
+                    new Future()
+                            .then(
+                                    (scene) -> {
+                                        GameObject obj = new GameObject("counter");
+                                        obj.addComponent(counter);
+                                        scene.addRootObject(obj);
+                                    })
+                            .awaitUntil(
+                                    (scene) -> {
+                                        frames.add(
+                                                new int[] {
+                                                    counter.mFixedUpdates, counter.mNetworkUpdates
+                                                });
+
+                                        clock.mStep =
+                                                frames.size() == NORMAL_FRAMES ? 10.0 : STEP;
+
+                                        return frames.size() > NORMAL_FRAMES * 2;
+                                    }));
+        } finally {
+            Time.setClock(null);
+            engine.setUpdatesPerSecond(Engine.DEFAULT_UPDATES_PER_SECOND);
+            timestep.setNetworkUpdatesPerSecond(Engine.DEFAULT_UPDATES_PER_SECOND);
+            timestep.setMaxSubsteps(FixedTimestep.DEFAULT_MAX_SUBSTEPS);
+        }
+
+        int networkUpdates = 0;
+
+        for (int i = 2; i < frames.size(); i++) {
+            int fixed = frames.get(i)[0] - frames.get(i - 1)[0];
+            networkUpdates += frames.get(i)[1] - frames.get(i - 1)[1];
+
+            // The hitch frame runs the maximum number of steps, every other one runs a single step
+            assertEquals("frame " + i, i == NORMAL_FRAMES ? 4 : 1, fixed);
+        }
+
+        int steps = frames.get(frames.size() - 1)[0] - frames.get(1)[0];
+        assertEquals(steps / 2, networkUpdates, 1);
+    }
+}
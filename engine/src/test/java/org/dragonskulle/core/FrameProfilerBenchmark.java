@@ -0,0 +1,41 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.core;
+
+import lombok.extern.java.Log;
+import org.junit.Test;
+
+/**
+ * Benchmark of the {@link FrameProfiler} overhead.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Only run with the {@code benchmark} profile.
+ */
+@Log
+public class FrameProfilerBenchmark {
+    /** Number of measurements in the overhead benchmark. */
+    private static final int BENCHMARK_CALLS = 10_000_000;
+
+    /** Measure the cost of a component measurement, with the profiler enabled, and disabled. */
+    @Test
+    public void benchmarkOverhead() {
+        FrameProfiler profiler = new FrameProfiler();
+
+        for (boolean enabled : new boolean[] {false, true, false}) {
+            profiler.setEnabled(enabled);
+            profiler.beginFrame();
+
+            long start = System.nanoTime();
+            for (int i = 0; i < BENCHMARK_CALLS; i++) {
+                profiler.endComponent(this, profiler.begin());
+            }
+            long nanos = System.nanoTime() - start;
+
+            profiler.endFrame();
+
+            log.info(
+                    String.format(
+                            "Profiler %s: %.2f ns per component",
+                            enabled ? "enabled" : "disabled", (double) nanos / BENCHMARK_CALLS));
+        }
+    }
+}
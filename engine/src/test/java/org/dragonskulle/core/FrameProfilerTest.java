@@ -0,0 +1,143 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import lombok.extern.java.Log;
+import org.dragonskulle.components.Component;
+import org.dragonskulle.components.IFixedUpdate;
+import org.dragonskulle.core.FrameProfiler.Phase;
+import org.dragonskulle.core.futures.Future;
+import org.junit.Test;
+
+/**
+ * Tests for {@link FrameProfiler}.
+ *
+ * @author Aurimas Blažulionis
+ */
+@Log
+public class FrameProfilerTest {
+    /** Component that spends some time in every fixed update. */
+    private static class SlowComponent extends Component implements IFixedUpdate {
+        int mUpdates = 0;
+
+        @Override
+        public void fixedUpdate(float deltaTime) {
+            long end = System.nanoTime() + 200_000;
+            while (System.nanoTime() < end) {
+                Thread.yield();
+            }
+            mUpdates++;
+        }
+
+        @Override
+        protected void onDestroy() {}
+    }
+
+    /** Test that nothing is recorded while disabled, and enabling starts on the next frame. */
+    @Test
+    public void testDisabled() {
+        FrameProfiler profiler = new FrameProfiler();
+
+        profiler.beginFrame();
+        assertEquals(0, profiler.begin());
+        profiler.end(Phase.FIXED_UPDATE, 0);
+        profiler.endComponent(this, 0);
+        profiler.endFrame();
+
+        assertEquals(0, profiler.getFrameCount());
+        assertEquals(0, profiler.getAveragePhaseNanos(Phase.FIXED_UPDATE), 0);
+        assertEquals(0, profiler.getAverageComponentNanos(FrameProfilerTest.class), 0);
+
+        profiler.setEnabled(true);
+        assertEquals(0, profiler.begin());
+
+        profiler.beginFrame();
+        assertTrue(profiler.begin() != 0);
+        profiler.endFrame();
+
+        assertEquals(1, profiler.getFrameCount());
+    }
+
+    /** Test that the ring buffers keep only the last frames, and events. */
+    @Test
+    public void testHistory() throws IOException {
+        FrameProfiler profiler = new FrameProfiler();
+        profiler.setEnabled(true);
+
+        int frames = FrameProfiler.HISTORY_FRAMES * 3 + 7;
+
+        for (int i = 0; i < frames; i++) {
+            profiler.beginFrame();
+            for (int j = 0; j < 40; j++) {
+                profiler.end(Phase.DESTROY, profiler.begin());
+            }
+            profiler.endComponent(this, profiler.begin());
+            profiler.endFrame();
+        }
+
+        assertEquals(frames, profiler.getFrameCount());
+        assertEquals(FrameProfiler.HISTORY_FRAMES, profiler.getRecordedFrames());
+        assertTrue(profiler.getAverageFrameNanos() > 0);
+
+        StringWriter trace = new StringWriter();
+        profiler.exportTrace(trace);
+        String json = trace.toString();
+
+        assertTrue(json.startsWith("{"));
+        assertTrue(json.trim().endsWith("]}"));
+        assertTrue(json.contains("\"name\":\"destroyObjectsAndComponents\""));
+        assertTrue(json.contains(FrameProfilerTest.class.getName()));
+
+        // Re-enabling clears the history
+        profiler.setEnabled(false);
+        profiler.beginFrame();
+        profiler.endFrame();
+        profiler.setEnabled(true);
+        profiler.beginFrame();
+        assertEquals(0, profiler.getFrameCount());
+    }
+
+    /** Test that the engine records phases, and components while running. */
+    @Test
+    public void testEngineProfile() throws IOException {
+        FrameProfiler profiler = Engine.getInstance().getProfiler();
+        SlowComponent component = new SlowComponent();
+        GameObject object = new GameObject("slow", (go) -> go.addComponent(component));
+
+        profiler.setEnabled(true);
+
+        try {
+            Engine.getInstance()
+                    .startWithFutures(
+                            new Future()
+                                    .then((scene) -> scene.addRootObject(object))
+                                    .awaitUntil((scene) -> component.mUpdates >= 5));
+        } finally {
+            profiler.setEnabled(false);
+        }
+
+        double componentNanos = profiler.getAverageComponentNanos(SlowComponent.class);
+        double fixedNanos = profiler.getAveragePhaseNanos(Phase.FIXED_UPDATE);
+
+        assertTrue(profiler.getRecordedFrames() > 0);
+        assertTrue(componentNanos > 0);
+        assertTrue(fixedNanos >= componentNanos);
+        assertEquals(0, profiler.getAveragePhaseNanos(Phase.RENDER), 0);
+
+        String summary = profiler.getSummary(3);
+        assertTrue(summary.contains("fixedUpdate"));
+        assertTrue(summary.contains("SlowComponent"));
+        assertFalse(summary.contains("renderFrame"));
+
+        StringWriter trace = new StringWriter();
+        profiler.exportTrace(trace);
+        assertTrue(trace.toString().contains("\"name\":\"fixedUpdate\""));
+
+        log.info(summary);
+    }
+}
@@ -0,0 +1,200 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.dragonskulle.components.Component;
+import org.dragonskulle.components.IPoolable;
+import org.dragonskulle.components.Transform3D;
+import org.dragonskulle.core.futures.Future;
+import org.junit.Test;
+
+/**
+ * Tests for {@link GameObjectPool}.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Objects are destroyed through the engine, since that is where they get recycled.
+ */
+public class GameObjectPoolTest {
+
+    /** Component that supports pooling. */
+    private static class PooledComponent extends Component implements IPoolable {
+        int mValue = 0;
+        int mResets = 0;
+        int mDestroys = 0;
+
+        @Override
+        public void onReturnToPool() {
+            mValue = 0;
+            mResets++;
+        }
+
+        @Override
+        protected void onDestroy() {
+            mDestroys++;
+        }
+    }
+
+    /** Component that does not support pooling. */
+    private static class PlainComponent extends Component {
+        @Override
+        protected void onDestroy() {}
+    }
+
+    /**
+     * Build a template with a poolable component on it, and its child.
+     *
+     * @return the template.
+     */
+    private static GameObject buildTemplate() {
+        return new GameObject(
+                "template",
+                new Transform3D(1, 2, 3),
+                (root) -> {
+                    root.addComponent(new PooledComponent());
+                    root.buildChild(
+                            "child",
+                            false,
+                            (child) -> child.addComponent(new PooledComponent()));
+                });
+    }
+
+    /** Test that destroyed instances are reset, and reused. */
+    @Test
+    public void testRecycle() {
+        GameObjectPool pool = new GameObjectPool(buildTemplate());
+        assertTrue(pool.isPoolable());
+
+        GameObject[] spawned = new GameObject[2];
+        Reference<?>[] oldRef = new Reference<?>[1];
+
+        Engine.getInstance()
+                .startWithFutures(
+                        new Future()
+                                .then(
+                                        (scene) -> {
+                                            GameObject parent = new GameObject("parent");
+                                            scene.addRootObject(parent);
+
+                                            spawned[0] = pool.obtain();
+                                            parent.addChild(spawned[0]);
+                                        })
+                                .then(
+                                        (scene) -> {
+                                            GameObject obj = spawned[0];
+                                            oldRef[0] = obj.getComponent(PooledComponent.class);
+                                            obj.getComponent(PooledComponent.class).get().mValue =
+                                                    5;
+                                            obj.getTransform(Transform3D.class)
+                                                    .setPosition(7, 7, 7);
+                                            obj.destroy();
+                                        })
+                                .then(
+                                        (scene) -> {
+                                            assertEquals(1, pool.getFreeCount());
+                                            spawned[1] = pool.obtain();
+                                            checkRecycled(spawned[1], oldRef[0]);
+                                            scene.addRootObject(spawned[1]);
+                                        }));
+
+        assertSame(spawned[0], spawned[1]);
+    }
+
+    /**
+     * Check that a recycled instance got reset.
+     *
+     * @param obj recycled instance.
+     * @param oldRef reference to its component from before it was destroyed.
+     */
+    private static void checkRecycled(GameObject obj, Reference<?> oldRef) {
+        GameObjectPool pool = obj.mPool;
+        assertEquals(1, pool.getHits());
+        assertEquals(1, pool.getMisses());
+        assertFalse(Reference.isValid(oldRef));
+
+        PooledComponent comp = obj.getComponent(PooledComponent.class).get();
+        assertEquals(0, comp.mValue);
+        assertEquals(1, comp.mResets);
+        assertEquals(0, comp.mDestroys);
+
+        assertNull(obj.getParent());
+        assertEquals(0, obj.getDepth());
+        assertEquals(1f, obj.getTransform(Transform3D.class).getLocalPosition().x(), 0f);
+        assertTrue(obj.isEnabled());
+
+        GameObject child = obj.getChildren().get(0);
+        assertSame(obj, child.getRoot());
+        assertFalse(child.isEnabled());
+        assertEquals(1, child.getComponent(PooledComponent.class).get().mResets);
+    }
+
+    /** Test that instances with components not supporting pooling get destroyed. */
+    @Test
+    public void testNotPoolable() {
+        GameObject template = buildTemplate();
+        template.addComponent(new PlainComponent());
+
+        GameObjectPool pool = new GameObjectPool(template);
+        assertFalse(pool.isPoolable());
+
+        GameObject[] spawned = new GameObject[1];
+
+        Engine.getInstance()
+                .startWithFutures(
+                        new Future()
+                                .then(
+                                        (scene) -> {
+                                            spawned[0] = pool.obtain();
+                                            scene.addRootObject(spawned[0]);
+                                        })
+                                .then((scene) -> spawned[0].destroy())
+                                .then((scene) -> assertEquals(0, pool.getFreeCount())));
+
+        assertNull(spawned[0].mPool);
+        assertFalse(Reference.isValid(spawned[0].getReference()));
+    }
+
+    /** Test that instances that gained a component that does not support pooling are destroyed. */
+    @Test
+    public void testModifiedInstance() {
+        GameObjectPool pool = new GameObjectPool(buildTemplate());
+
+        GameObject[] spawned = new GameObject[1];
+
+        Engine.getInstance()
+                .startWithFutures(
+                        new Future()
+                                .then(
+                                        (scene) -> {
+                                            spawned[0] = pool.obtain();
+                                            spawned[0].addComponent(new PlainComponent());
+                                            scene.addRootObject(spawned[0]);
+                                        })
+                                .then((scene) -> spawned[0].destroy())
+                                .then((scene) -> assertEquals(0, pool.getFreeCount())));
+
+        assertNotNull(spawned[0].mPool);
+        assertFalse(Reference.isValid(spawned[0].getReference()));
+    }
+
+    /** Test that template managers keep their own pools, also of templates they do not hold. */
+    @Test
+    public void testManagerPools() {
+        GameObject added = buildTemplate();
+        GameObject extra = new GameObject("template", new Transform3D(), (root) -> {});
+
+        TemplateManager first = new TemplateManager();
+        TemplateManager second = new TemplateManager();
+        first.addObject(added);
+
+        assertSame(first.getPool(first.find("template")), first.getPool(added));
+        assertSame(first.getPool(extra), first.getPool(extra));
+        assertSame(extra, first.getPool(extra).getTemplate());
+        assertFalse(first.getPool(extra) == second.getPool(extra));
+    }
+}
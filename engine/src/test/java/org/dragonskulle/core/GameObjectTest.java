@@ -7,10 +7,12 @@ import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.List;
 import org.dragonskulle.audio.components.AudioListener;
 import org.dragonskulle.components.Component;
 import org.dragonskulle.components.Transform;
 import org.dragonskulle.components.Transform3D;
+import org.dragonskulle.core.futures.Future;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -22,6 +24,25 @@ public class GameObjectTest {
         protected void onDestroy() {}
     }
 
+    /** Component that counts destructions, and removes a sibling when destroyed. */
+    private static class DestroyCountComponent extends Component {
+        private final int[] mDestroyed;
+        private final Component mSibling;
+
+        DestroyCountComponent(int[] destroyed, Component sibling) {
+            mDestroyed = destroyed;
+            mSibling = sibling;
+        }
+
+        @Override
+        protected void onDestroy() {
+            mDestroyed[0]++;
+            if (mSibling != null && mSibling.getGameObject() != null) {
+                mSibling.getGameObject().removeComponent(mSibling);
+            }
+        }
+    }
+
     /** Test that an instantiated GameObject is setup correctly */
     @Test
     public void instantiatePerformedCorrectly() {
@@ -325,4 +346,68 @@ public class GameObjectTest {
         assertNull(gameObject.getRoot());
         assertNull(gameObject.getReference().get());
     }
+
+    /** Test that destroying roots of several scenes removes exactly them, keeping the order. */
+    @Test
+    public void destroyRootsOfManyScenes() {
+        Scene first = new Scene("first");
+        Scene second = new Scene("second");
+        List<GameObject> kept = new ArrayList<>();
+        List<GameObject> destroyed = new ArrayList<>();
+        int[] destroyedComponents = {0};
+
+        for (Scene scene : new Scene[] {first, second}) {
+            for (int i = 0; i < 6; i++) {
+                GameObject root =
+                        new GameObject(
+                                "root" + i,
+                                (go) -> {
+                                    DestroyCountComponent sibling =
+                                            new DestroyCountComponent(destroyedComponents, null);
+                                    go.addComponent(sibling);
+                                    go.addComponent(
+                                            new DestroyCountComponent(
+                                                    destroyedComponents, sibling));
+                                    go.buildChild(
+                                            "child",
+                                            (child) ->
+                                                    child.addComponent(
+                                                            new DestroyCountComponent(
+                                                                    destroyedComponents, null)));
+                                });
+                scene.addRootObject(root);
+                (i % 2 == 0 ? destroyed : kept).add(root);
+            }
+        }
+
+        Engine.getInstance()
+                .startWithFutures(
+                        new Future()
+                                .then(
+                                        (__) -> {
+                                            Engine.getInstance().activateScene(first);
+                                            Engine.getInstance().activateScene(second);
+                                        })
+                                .then((__) -> destroyed.forEach(GameObject::destroy))
+                                .then(
+                                        (__) -> {
+                                            List<GameObject> roots = new ArrayList<>();
+                                            roots.addAll(first.getGameObjects());
+                                            roots.addAll(second.getGameObjects());
+                                            assertEquals(kept, roots);
+                                            Engine.getInstance().unloadScene(first);
+                                            Engine.getInstance().unloadScene(second);
+                                        }));
+
+        for (GameObject root : destroyed) {
+            assertNull(root.getReference().get());
+            assertNull(root.getScene());
+            assertTrue(root.getChildren().isEmpty());
+        }
+
+        // Unloading the scenes destroyed the rest
+        assertTrue(first.getGameObjects().isEmpty());
+        assertTrue(second.getGameObjects().isEmpty());
+        assertEquals((destroyed.size() + kept.size()) * 3, destroyedComponents[0]);
+    }
 }
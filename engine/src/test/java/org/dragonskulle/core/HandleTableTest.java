@@ -0,0 +1,164 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.dragonskulle.components.Component;
+import org.dragonskulle.core.futures.Future;
+import org.junit.Test;
+
+/**
+ * Tests for {@link HandleTable}, and {@link HandleList}.
+ *
+ * @author Aurimas Blažulionis
+ */
+public class HandleTableTest {
+
+    /** Empty component. */
+    private static class TestComponent extends Component {
+        @Override
+        protected void onDestroy() {}
+    }
+
+    /** Test that released handles, and all their copies, become invalid. */
+    @Test
+    public void testRelease() {
+        HandleTable table = new HandleTable();
+        Object object = new Object();
+
+        int handle = table.allocate(object);
+        int copy = handle;
+
+        assertTrue(table.isValid(handle));
+        assertSame(object, table.get(copy));
+        assertSame(object, table.get(copy, Object.class));
+        assertNull(table.get(copy, String.class));
+        assertEquals(1, table.getLiveCount());
+
+        table.release(handle);
+
+        assertFalse(table.isValid(copy));
+        assertNull(table.get(copy));
+        assertEquals(0, table.getLiveCount());
+
+        // Releasing twice is harmless
+        table.release(copy);
+        assertEquals(0, table.getLiveCount());
+
+        assertFalse(table.isValid(HandleTable.NULL_HANDLE));
+        assertNull(table.get(HandleTable.NULL_HANDLE));
+    }
+
+    /** Test that reused slots get a new generation, so old handles stay invalid. */
+    @Test
+    public void testReuse() {
+        HandleTable table = new HandleTable();
+        int count = 5000;
+
+        int first = table.allocate("first");
+        table.release(first);
+
+        Set<Integer> handles = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            int handle = table.allocate(i);
+            assertTrue(handles.add(handle));
+            assertNotEquals(first, handle);
+            table.release(handle);
+        }
+
+        assertFalse(table.isValid(first));
+        assertEquals(0, table.getLiveCount());
+
+        // Slots only get reused once enough were released, so the table stays small
+        int live = table.allocate("live");
+        assertTrue(table.isValid(live));
+        assertEquals("live", table.get(live));
+    }
+
+    /** Test handles of components, and their interoperation with references. */
+    @Test
+    public void testComponentHandles() {
+        HandleTable table = Engine.getHandles();
+        TestComponent component = new TestComponent();
+        GameObject object = new GameObject("object", (go) -> go.addComponent(component));
+
+        int handle = component.getHandle();
+        int objectHandle = object.getHandle();
+
+        assertEquals(handle, component.getHandle());
+        assertEquals(handle, HandleTable.getHandle(component.getReference()));
+        assertEquals(objectHandle, HandleTable.getHandle(object.getReference()));
+        assertSame(component, table.get(handle, TestComponent.class));
+        assertSame(
+                component.getReference(TestComponent.class),
+                table.getReference(handle, TestComponent.class));
+        assertSame(object.getReference(), table.getReference(objectHandle, GameObject.class));
+
+        // Clones get their own handles
+        GameObject clone = GameObject.instantiate(object);
+        TestComponent cloneComponent = clone.getComponent(TestComponent.class).get();
+        assertNotEquals(handle, cloneComponent.getHandle());
+        assertNotEquals(objectHandle, clone.getHandle());
+
+        // Moving the object recreates references, and handles
+        object.recreateReferences();
+        assertFalse(table.isValid(handle));
+        assertFalse(table.isValid(objectHandle));
+        handle = component.getHandle();
+        objectHandle = object.getHandle();
+        assertTrue(table.isValid(handle));
+
+        int[] handles = {handle, objectHandle};
+
+        Engine.getInstance()
+                .startWithFutures(
+                        new Future()
+                                .then((scene) -> scene.addRootObject(object))
+                                .then((scene) -> object.destroy())
+                                .then(
+                                        (scene) -> {
+                                            assertFalse(table.isValid(handles[0]));
+                                            assertFalse(table.isValid(handles[1]));
+                                        }));
+
+        assertEquals(HandleTable.NULL_HANDLE, component.getHandle());
+        assertEquals(HandleTable.NULL_HANDLE, HandleTable.getHandle(component.getReference()));
+    }
+
+    /** Test that handle lists skip, and drop destroyed objects. */
+    @Test
+    public void testHandleList() {
+        HandleList<TestComponent> list = new HandleList<>(TestComponent.class);
+        TestComponent[] components = new TestComponent[10];
+
+        for (int i = 0; i < components.length; i++) {
+            components[i] = new TestComponent();
+            list.add(components[i].getHandle());
+        }
+
+        for (int i = 0; i < components.length; i += 2) {
+            components[i].onRemove();
+        }
+
+        assertEquals(components.length, list.size());
+        assertNull(list.get(0));
+        assertFalse(list.isValid(0));
+        assertSame(components[1], list.get(1));
+        assertNull(list.toReferences().get(0));
+        assertSame(components[1], list.toReferences().get(1).get());
+
+        assertEquals(components.length / 2, list.removeInvalid());
+        assertEquals(components.length / 2, list.size());
+
+        for (int i = 0; i < list.size(); i++) {
+            assertSame(components[i * 2 + 1], list.get(i));
+        }
+    }
+}
@@ -0,0 +1,306 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.core;
+
+import static org.dragonskulle.core.SceneComponentRegistryTest.referenceEnabledOfType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import lombok.extern.java.Log;
+import org.dragonskulle.components.Component;
+import org.dragonskulle.components.IFixedUpdate;
+import org.dragonskulle.components.IFrameUpdate;
+import org.dragonskulle.components.ILateNetworkUpdate;
+import org.dragonskulle.components.INetworkUpdate;
+import org.dragonskulle.core.SceneComponentRegistryTest.BothComponent;
+import org.dragonskulle.core.SceneComponentRegistryTest.DerivedUpdateComponent;
+import org.dragonskulle.core.SceneComponentRegistryTest.FirstComponent;
+import org.dragonskulle.core.SceneComponentRegistryTest.IFirst;
+import org.dragonskulle.core.SceneComponentRegistryTest.ISecond;
+import org.dragonskulle.core.SceneComponentRegistryTest.NetworkComponent;
+import org.dragonskulle.core.SceneComponentRegistryTest.PlainComponent;
+import org.dragonskulle.core.SceneComponentRegistryTest.SimulationComponent;
+import org.dragonskulle.core.SceneComponentRegistryTest.UpdateComponent;
+import org.junit.Test;
+
+/**
+ * Benchmarks of the incremental component lists of {@link Scene}.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>The benchmarks compare the lists against collecting, and filtering every component of the
+ *     scene by type whenever anything changes, which is how the scene worked before. Only run with
+ *     the {@code benchmark} profile.
+ */
+@Log
+public class SceneComponentRegistryBenchmark {
+    /** Number of objects in the benchmark scene. */
+    private static final int OBJECT_COUNT = 10000;
+    /** Number of components on every object. */
+    private static final int COMPONENTS_PER_OBJECT = 5;
+    /** Objects spawned, and destroyed every frame, 1000 per second at 60 frames per second. */
+    private static final int CHURN_PER_FRAME = 17;
+    /** Number of warmup frames. */
+    private static final int WARMUP_FRAMES = 100;
+    /** Number of measured frames. */
+    private static final int FRAMES = 200;
+    /** Lifecycle interfaces dispatched in the benchmark. */
+    private static final Class<?>[] LIFECYCLE_IFACES = {
+        IFixedUpdate.class, IFrameUpdate.class, INetworkUpdate.class, ILateNetworkUpdate.class
+    };
+
+    /** Measure a frame of spawning, and destroying objects in a large scene. */
+    @Test
+    public void benchmarkChurn() {
+        Random rand = new Random(42);
+        Scene scene = new Scene("benchmark");
+        List<GameObject> roots = new ArrayList<>();
+
+        for (int i = 0; i < OBJECT_COUNT; i++) {
+            GameObject obj = createBenchmarkObject(i);
+            roots.add(obj);
+            scene.addRootObject(obj);
+        }
+
+        TestScenes.wake(scene);
+        TestScenes.start(scene);
+
+        int count = 0;
+
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            count += referenceFrame(scene, roots, rand);
+            count += incrementalFrame(scene, roots, rand);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < FRAMES; i++) {
+            count += referenceFrame(scene, roots, rand);
+        }
+        long reference = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < FRAMES; i++) {
+            count += incrementalFrame(scene, roots, rand);
+        }
+        long incremental = System.nanoTime() - start;
+
+        log.info(
+                String.format(
+                        "%d components, %d objects spawned and destroyed per frame: %.1f us full"
+                                + " rebuild, %.1f us incremental [%d]",
+                        OBJECT_COUNT * COMPONENTS_PER_OBJECT,
+                        CHURN_PER_FRAME,
+                        reference / 1000.0 / FRAMES,
+                        incremental / 1000.0 / FRAMES,
+                        count));
+    }
+
+    /** Measure lifecycle dispatch in a scene of many different components, spawned every frame. */
+    @Test
+    public void benchmarkDispatch() {
+        Random rand = new Random(42);
+        Scene scene = new Scene("benchmark");
+        List<GameObject> roots = new ArrayList<>();
+
+        for (int i = 0; i < OBJECT_COUNT; i++) {
+            GameObject obj = createDispatchObject(i);
+            roots.add(obj);
+            scene.addRootObject(obj);
+        }
+
+        TestScenes.wake(scene);
+        TestScenes.start(scene);
+
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            referenceDispatchFrame(scene, roots, rand);
+            dispatchFrame(scene, roots, rand);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < FRAMES; i++) {
+            referenceDispatchFrame(scene, roots, rand);
+        }
+        long reference = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < FRAMES; i++) {
+            dispatchFrame(scene, roots, rand);
+        }
+        long cached = System.nanoTime() - start;
+
+        log.info(
+                String.format(
+                        "%d components, %d lifecycle interfaces: %.1f us filtering by type, %.1f"
+                                + " us cached dispatch tables [%d]",
+                        OBJECT_COUNT * COMPONENTS_PER_OBJECT,
+                        LIFECYCLE_IFACES.length,
+                        reference / 1000.0 / FRAMES,
+                        cached / 1000.0 / FRAMES,
+                        SceneComponentRegistryTest.sCalls));
+    }
+
+    /**
+     * Run a frame that spawns, and destroys objects, then dispatches every lifecycle interface
+     * from the component arrays, the way {@link Engine} does.
+     *
+     * @param scene scene to run the frame on.
+     * @param roots root objects of the scene, oldest first.
+     * @param rand random number generator.
+     */
+    private static void dispatchFrame(Scene scene, List<GameObject> roots, Random rand) {
+        churnDispatch(scene, roots, rand);
+
+        for (IFixedUpdate comp : scene.getComponentArray(IFixedUpdate.class)) {
+            comp.fixedUpdate(0);
+        }
+        for (IFrameUpdate comp : scene.getComponentArray(IFrameUpdate.class)) {
+            comp.frameUpdate(0);
+        }
+        for (INetworkUpdate comp : scene.getComponentArray(INetworkUpdate.class)) {
+            comp.networkUpdate();
+        }
+        for (ILateNetworkUpdate comp : scene.getComponentArray(ILateNetworkUpdate.class)) {
+            comp.lateNetworkUpdate();
+        }
+    }
+
+    /**
+     * Run the same frame as {@link #dispatchFrame}, filtering the enabled components of every
+     * interface by type, which the scene did whenever its lists were dirtied.
+     *
+     * @param scene scene to run the frame on.
+     * @param roots root objects of the scene, oldest first.
+     * @param rand random number generator.
+     */
+    private static void referenceDispatchFrame(Scene scene, List<GameObject> roots, Random rand) {
+        churnDispatch(scene, roots, rand);
+
+        List<Component> enabled = scene.getEnabledComponents();
+        List<List<Object>> lists = new ArrayList<>();
+
+        for (Class<?> iface : LIFECYCLE_IFACES) {
+            List<Object> list = new ArrayList<>();
+
+            for (Component c : enabled) {
+                if (iface.isInstance(c)) {
+                    list.add(c);
+                }
+            }
+
+            lists.add(list);
+        }
+
+        for (Object comp : lists.get(0)) {
+            ((IFixedUpdate) comp).fixedUpdate(0);
+        }
+        for (Object comp : lists.get(1)) {
+            ((IFrameUpdate) comp).frameUpdate(0);
+        }
+        for (Object comp : lists.get(2)) {
+            ((INetworkUpdate) comp).networkUpdate();
+        }
+        for (Object comp : lists.get(3)) {
+            ((ILateNetworkUpdate) comp).lateNetworkUpdate();
+        }
+    }
+
+    /**
+     * Replace the oldest root objects with new dispatch benchmark objects, and start them.
+     *
+     * @param scene scene to change.
+     * @param roots root objects of the scene, oldest first.
+     * @param rand random number generator.
+     */
+    private static void churnDispatch(Scene scene, List<GameObject> roots, Random rand) {
+        for (int i = 0; i < CHURN_PER_FRAME; i++) {
+            scene.removeRootObject(roots.remove(0));
+            GameObject obj = createDispatchObject(rand.nextInt());
+            roots.add(obj);
+            scene.addRootObject(obj);
+        }
+
+        TestScenes.wake(scene);
+        TestScenes.start(scene);
+    }
+
+    /**
+     * Run a frame that spawns, and destroys objects, then queries the lists.
+     *
+     * @param scene scene to run the frame on.
+     * @param roots root objects of the scene, oldest first.
+     * @param rand random number generator.
+     * @return number of queried components.
+     */
+    private static int incrementalFrame(Scene scene, List<GameObject> roots, Random rand) {
+        churn(scene, roots, rand);
+        TestScenes.wake(scene);
+        TestScenes.start(scene);
+
+        return scene.getComponentsByIface(IFirst.class).size()
+                + scene.getComponentsByIface(ISecond.class).size();
+    }
+
+    /**
+     * Run the same frame as {@link #incrementalFrame}, rebuilding the lists from scratch.
+     *
+     * @param scene scene to run the frame on.
+     * @param roots root objects of the scene, oldest first.
+     * @param rand random number generator.
+     * @return number of queried components.
+     */
+    private static int referenceFrame(Scene scene, List<GameObject> roots, Random rand) {
+        churn(scene, roots, rand);
+        TestScenes.wake(scene);
+        TestScenes.start(scene);
+
+        return referenceEnabledOfType(scene, IFirst.class).size()
+                + referenceEnabledOfType(scene, ISecond.class).size();
+    }
+
+    /**
+     * Replace the oldest root objects with new ones.
+     *
+     * @param scene scene to change.
+     * @param roots root objects of the scene, oldest first.
+     * @param rand random number generator.
+     */
+    private static void churn(Scene scene, List<GameObject> roots, Random rand) {
+        for (int i = 0; i < CHURN_PER_FRAME; i++) {
+            scene.removeRootObject(roots.remove(0));
+            GameObject obj = createBenchmarkObject(rand.nextInt());
+            roots.add(obj);
+            scene.addRootObject(obj);
+        }
+    }
+
+    /**
+     * Create an object for the dispatch benchmark.
+     *
+     * @param id identifier used in the name.
+     * @return object with {@link #COMPONENTS_PER_OBJECT} components of different classes.
+     */
+    private static GameObject createDispatchObject(int id) {
+        GameObject obj = new GameObject("obj " + id);
+        obj.addComponent(new PlainComponent());
+        obj.addComponent(new UpdateComponent());
+        obj.addComponent(new NetworkComponent());
+        obj.addComponent(new SimulationComponent());
+        obj.addComponent(new DerivedUpdateComponent());
+        return obj;
+    }
+
+    /**
+     * Create an object for the benchmark.
+     *
+     * @param id identifier used in the name.
+     * @return object with {@link #COMPONENTS_PER_OBJECT} components.
+     */
+    private static GameObject createBenchmarkObject(int id) {
+        GameObject obj = new GameObject("obj " + id);
+        obj.addComponent(new PlainComponent());
+        obj.addComponent(new PlainComponent());
+        obj.addComponent(new FirstComponent());
+        obj.addComponent(new FirstComponent());
+        obj.addComponent(new BothComponent());
+        return obj;
+    }
+}
@@ -0,0 +1,361 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.dragonskulle.components.Component;
+import org.dragonskulle.components.IFixedUpdate;
+import org.dragonskulle.components.IFrameUpdate;
+import org.dragonskulle.components.ILateNetworkUpdate;
+import org.dragonskulle.components.INetworkUpdate;
+import org.junit.Test;
+
+/**
+ * Tests for the incremental component lists of {@link Scene}.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>The lists are checked against collecting, and filtering every component of the scene by
+ *     type, which is how the scene worked before, reimplemented here for reference.
+ */
+public class SceneComponentRegistryTest {
+    /** Number of lifecycle calls made by the update components. */
+    static int sCalls = 0;
+
+    /** First test interface. */
+    interface IFirst {}
+
+    /** Second test interface. */
+    interface ISecond {}
+
+    /** Component implementing no interfaces. */
+    static class PlainComponent extends Component {
+        @Override
+        protected void onDestroy() {}
+    }
+
+    /** Component implementing the first interface. */
+    static class FirstComponent extends Component implements IFirst {
+        @Override
+        protected void onDestroy() {}
+    }
+
+    /** Component implementing both interfaces. */
+    static class BothComponent extends Component implements IFirst, ISecond {
+        @Override
+        protected void onDestroy() {}
+    }
+
+    /** Component implementing fixed, and frame updates. */
+    static class UpdateComponent extends Component implements IFixedUpdate, IFrameUpdate {
+        @Override
+        public void fixedUpdate(float deltaTime) {
+            sCalls++;
+        }
+
+        @Override
+        public void frameUpdate(float deltaTime) {
+            sCalls++;
+        }
+
+        @Override
+        protected void onDestroy() {}
+    }
+
+    /** Component implementing both network updates. */
+    static class NetworkComponent extends Component
+            implements INetworkUpdate, ILateNetworkUpdate {
+        @Override
+        public void networkUpdate() {
+            sCalls++;
+        }
+
+        @Override
+        public void lateNetworkUpdate() {
+            sCalls++;
+        }
+
+        @Override
+        protected void onDestroy() {}
+    }
+
+    /** Component implementing fixed, and network updates. */
+    static class SimulationComponent extends Component
+            implements IFixedUpdate, INetworkUpdate {
+        @Override
+        public void fixedUpdate(float deltaTime) {
+            sCalls++;
+        }
+
+        @Override
+        public void networkUpdate() {
+            sCalls++;
+        }
+
+        @Override
+        protected void onDestroy() {}
+    }
+
+    /** Subclass of a lifecycle component, with a class of its own. */
+    static class DerivedUpdateComponent extends UpdateComponent {}
+
+    /** Test that components go through the not awake, to start, and enabled lists. */
+    @Test
+    public void testLifecycle() {
+        Scene scene = new Scene("registry");
+        GameObject obj = new GameObject("obj");
+        BothComponent comp = new BothComponent();
+        obj.addComponent(comp);
+        scene.addRootObject(obj);
+
+        assertTrue(scene.getNotAwakeComponents().contains(comp));
+        assertFalse(scene.getComponentsByIface(IFirst.class).contains(comp));
+
+        TestScenes.wake(scene);
+        assertFalse(scene.getNotAwakeComponents().contains(comp));
+        assertTrue(scene.getEnabledButNotStartedComponents().contains(comp));
+
+        TestScenes.start(scene);
+        assertFalse(scene.getEnabledButNotStartedComponents().contains(comp));
+        assertTrue(scene.getComponentsByIface(IFirst.class).contains(comp));
+        assertTrue(scene.getComponentsByIface(ISecond.class).contains(comp));
+
+        comp.setEnabled(false);
+        assertFalse(scene.getComponentsByIface(IFirst.class).contains(comp));
+        assertFalse(scene.getEnabledComponents().contains(comp));
+
+        comp.setEnabled(true);
+        obj.setEnabledImmediate(false);
+        assertFalse(scene.getComponentsByIface(IFirst.class).contains(comp));
+
+        obj.setEnabledImmediate(true);
+        assertTrue(scene.getComponentsByIface(IFirst.class).contains(comp));
+
+        scene.removeRootObject(obj);
+        assertFalse(scene.getComponentsByIface(IFirst.class).contains(comp));
+        assertFalse(scene.getEnabledComponents().contains(comp));
+    }
+
+    /** Test that moving an object to another scene moves its components too. */
+    @Test
+    public void testMoveBetweenScenes() {
+        Scene from = new Scene("from");
+        Scene to = new Scene("to");
+        GameObject obj = new GameObject("obj");
+        GameObject child = new GameObject("child");
+        FirstComponent comp = new FirstComponent();
+        child.addComponent(comp);
+        obj.addChild(child);
+        from.addRootObject(obj);
+
+        TestScenes.wake(from);
+        TestScenes.start(from);
+        assertTrue(from.getComponentsByIface(IFirst.class).contains(comp));
+
+        from.moveRootObjectToScene(obj, to);
+
+        assertFalse(from.getComponentsByIface(IFirst.class).contains(comp));
+        assertTrue(to.getComponentsByIface(IFirst.class).contains(comp));
+    }
+
+    /** Test that lists match a full rebuild after random changes to the scene. */
+    @Test
+    public void testMatchesRebuild() {
+        Scene scene = new Scene("registry");
+        Random rand = new Random(1337);
+        List<GameObject> objects = new ArrayList<>();
+
+        for (int i = 0; i < 50; i++) {
+            GameObject obj = createObject(rand, i);
+            objects.add(obj);
+            scene.addRootObject(obj);
+        }
+
+        for (int i = 0; i < 2000; i++) {
+            GameObject target = objects.get(rand.nextInt(objects.size()));
+
+            switch (rand.nextInt(8)) {
+                case 0:
+                    GameObject obj = createObject(rand, i);
+                    objects.add(obj);
+                    scene.addRootObject(obj);
+                    break;
+                case 1:
+                    if (target.isRootObject()) {
+                        scene.removeRootObject(target);
+                        objects.remove(target);
+                    }
+                    break;
+                case 2:
+                    GameObject child = createObject(rand, i);
+                    objects.add(child);
+                    target.addChild(child);
+                    break;
+                case 3:
+                    if (!target.isRootObject()) {
+                        target.getParent().removeChild(target);
+                        objects.remove(target);
+                    }
+                    break;
+                case 4:
+                    List<Component> comps = target.getComponents();
+                    if (!comps.isEmpty()) {
+                        target.removeComponent(comps.get(rand.nextInt(comps.size())));
+                    }
+                    break;
+                case 5:
+                    target.addComponent(createComponent(rand));
+                    break;
+                case 6:
+                    for (Component c : target.getComponents()) {
+                        c.setEnabled(rand.nextBoolean());
+                    }
+                    break;
+                default:
+                    target.setEnabledImmediate(!target.isEnabled());
+                    break;
+            }
+
+            if (rand.nextInt(4) == 0) {
+                TestScenes.wake(scene);
+                TestScenes.start(scene);
+            }
+
+            assertSameComponents(
+                    referenceEnabledOfType(scene, IFirst.class),
+                    scene.getComponentsByIface(IFirst.class));
+            assertSameComponents(
+                    referenceEnabledOfType(scene, ISecond.class),
+                    scene.getComponentsByIface(ISecond.class));
+            assertSameComponents(
+                    referenceEnabledOfType(scene, Component.class), scene.getEnabledComponents());
+            assertEquals(
+                    scene.getComponentsByIface(IFirst.class),
+                    Arrays.asList(scene.getComponentArray(IFirst.class)));
+        }
+    }
+
+    /** Test that lists created after components were enabled still receive, and drop them. */
+    @Test
+    public void testLateListCreation() {
+        Scene scene = new Scene("registry");
+        GameObject obj = new GameObject("obj");
+        DerivedUpdateComponent comp = new DerivedUpdateComponent();
+        obj.addComponent(comp);
+        scene.addRootObject(obj);
+        TestScenes.wake(scene);
+        TestScenes.start(scene);
+
+        // Build the dispatch table of the class before the list exists
+        assertEquals(0, scene.getComponentArray(INetworkUpdate.class).length);
+        assertArrayEquals(new Object[] {comp}, scene.getComponentArray(IFixedUpdate.class));
+
+        comp.setEnabled(false);
+        assertEquals(0, scene.getComponentArray(IFixedUpdate.class).length);
+
+        comp.setEnabled(true);
+        assertArrayEquals(new Object[] {comp}, scene.getComponentArray(IFixedUpdate.class));
+        assertArrayEquals(new Object[] {comp}, scene.getComponentArray(IFrameUpdate.class));
+    }
+
+    /**
+     * Collect enabled components of a type the way {@link Scene} did before tracking them
+     * incrementally.
+     *
+     * @param <T> type of the components.
+     * @param scene scene to collect from.
+     * @param type class of the components.
+     * @return newly allocated list of components.
+     */
+    static <T> List<T> referenceEnabledOfType(Scene scene, Class<T> type) {
+        ArrayList<Component> components = new ArrayList<>();
+
+        for (GameObject root : scene.getGameObjects()) {
+            components.addAll(root.getComponents());
+
+            ArrayList<GameObject> children = new ArrayList<>();
+            root.getAllChildren(children);
+
+            for (GameObject child : children) {
+                components.addAll(child.getComponents());
+            }
+        }
+
+        List<T> ret = new ArrayList<>();
+
+        for (Component c : components) {
+            GameObject obj = c.getGameObject();
+
+            if (obj != null
+                    && obj.isEnabled()
+                    && c.isAwake()
+                    && c.isStarted()
+                    && c.isEnabled()
+                    && type.isInstance(c)) {
+                ret.add(type.cast(c));
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Assert that two lists hold the same components, in any order.
+     *
+     * @param expected expected components.
+     * @param actual actual components.
+     */
+    private static void assertSameComponents(List<?> expected, List<?> actual) {
+        Set<Object> expectedSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<Object> actualSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        expectedSet.addAll(expected);
+        actualSet.addAll(actual);
+
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expectedSet, actualSet);
+    }
+
+    /**
+     * Create an object with a few random components.
+     *
+     * @param rand random number generator.
+     * @param id identifier used in the name.
+     * @return the object.
+     */
+    private static GameObject createObject(Random rand, int id) {
+        GameObject obj = new GameObject("obj " + id, rand.nextInt(5) != 0);
+        int count = rand.nextInt(4);
+
+        for (int i = 0; i < count; i++) {
+            obj.addComponent(createComponent(rand));
+        }
+
+        return obj;
+    }
+
+    /**
+     * Create a random component.
+     *
+     * @param rand random number generator.
+     * @return the component.
+     */
+    private static Component createComponent(Random rand) {
+        switch (rand.nextInt(3)) {
+            case 0:
+                return new PlainComponent();
+            case 1:
+                return new FirstComponent();
+            default:
+                return new BothComponent();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.core;
+
+import static org.dragonskulle.core.SceneSchedulerTest.SCENE_COUNT;
+import static org.dragonskulle.core.SceneSchedulerTest.THREADS;
+import static org.dragonskulle.core.SceneSchedulerTest.TICKS;
+
+import lombok.extern.java.Log;
+import org.junit.Test;
+
+/**
+ * Benchmark of serial, and parallel scene updates of {@link SceneScheduler}.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Simulates the scenes of {@link SceneSchedulerTest}. Only run with the {@code benchmark}
+ *     profile.
+ */
+@Log
+public class SceneSchedulerBenchmark {
+    /** Compare the time of serial, and parallel updates. */
+    @Test
+    public void benchmarkParallel() {
+        SceneScheduler serialScheduler = new SceneScheduler(1);
+        SceneScheduler parallelScheduler = new SceneScheduler(THREADS);
+
+        try {
+            long serialTime =
+                    SceneSchedulerTest.simulate(serialScheduler, SceneSchedulerTest.createScenes());
+            long parallelTime =
+                    SceneSchedulerTest.simulate(
+                            parallelScheduler, SceneSchedulerTest.createScenes());
+
+            log.info(
+                    String.format(
+                            "%d scenes, %d ticks: %.1f ms serial, %.1f ms on %d threads",
+                            SCENE_COUNT,
+                            TICKS,
+                            serialTime / 1e6,
+                            parallelTime / 1e6,
+                            THREADS));
+        } finally {
+            parallelScheduler.shutdown();
+        }
+    }
+}
@@ -0,0 +1,244 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.dragonskulle.components.Component;
+import org.dragonskulle.components.IFixedUpdate;
+import org.dragonskulle.components.IParallelFixedUpdate;
+import org.junit.Test;
+
+/**
+ * Tests for {@link SceneScheduler}.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>The determinism test simulates the same set of scenes serially, and in parallel, and
+ *     compares the results. Regular fixed updates of the simulation depend on the order they run
+ *     in, so any reordering within a scene would show up.
+ */
+public class SceneSchedulerTest {
+    /** Number of scenes to simulate. */
+    static final int SCENE_COUNT = 8;
+    /** Number of order dependent components per scene. */
+    private static final int ORDERED_COUNT = 300;
+    /** Number of parallel-safe components per scene. */
+    private static final int PARALLEL_COUNT = 2000;
+    /** Number of simulated ticks. */
+    static final int TICKS = 60;
+    /** Number of threads used for parallel updates. */
+    static final int THREADS = 4;
+
+    /** Set whenever a component gets updated while its scene is not active. */
+    private static final AtomicBoolean sWrongScene = new AtomicBoolean();
+
+    /** State shared by all order dependent components of a scene. */
+    private static class SceneState {
+        long mHash = 17;
+    }
+
+    /** Component whose fixed update depends on the order of updates. */
+    private static class OrderedComponent extends Component implements IFixedUpdate {
+        private final SceneState mState;
+        private final int mId;
+
+        OrderedComponent(SceneState state, int id) {
+            mState = state;
+            mId = id;
+        }
+
+        @Override
+        public void fixedUpdate(float deltaTime) {
+            checkScene(this);
+            mState.mHash = mix(mState.mHash * 31 + mId);
+        }
+
+        @Override
+        protected void onDestroy() {}
+    }
+
+    /** Component that only updates its own state. */
+    private static class ParallelComponent extends Component implements IParallelFixedUpdate {
+        long mValue;
+
+        ParallelComponent(long seed) {
+            mValue = seed;
+        }
+
+        @Override
+        public void parallelFixedUpdate(float deltaTime) {
+            checkScene(this);
+            for (int i = 0; i < 50; i++) {
+                mValue = mix(mValue);
+            }
+        }
+
+        @Override
+        protected void onDestroy() {}
+    }
+
+    /** Component that throws in its fixed update. */
+    private static class ThrowingComponent extends Component implements IFixedUpdate {
+        @Override
+        public void fixedUpdate(float deltaTime) {
+            throw new IllegalStateException("fixed update failed");
+        }
+
+        @Override
+        protected void onDestroy() {}
+    }
+
+    /** A simulated scene, and the results of its components. */
+    static class SimulatedScene {
+        final Scene mScene;
+        final SceneState mState = new SceneState();
+        final List<ParallelComponent> mParallel = new ArrayList<>();
+
+        SimulatedScene(int seed) {
+            mScene = new Scene("scene " + seed);
+
+            for (int i = 0; i < ORDERED_COUNT; i++) {
+                GameObject obj = new GameObject("ordered " + i);
+                obj.addComponent(new OrderedComponent(mState, seed * ORDERED_COUNT + i));
+                mScene.addRootObject(obj);
+            }
+
+            GameObject parallel = new GameObject("parallel");
+            for (int i = 0; i < PARALLEL_COUNT; i++) {
+                ParallelComponent comp = new ParallelComponent(seed * 7919L + i);
+                mParallel.add(comp);
+                parallel.addComponent(comp);
+            }
+            mScene.addRootObject(parallel);
+
+            TestScenes.wake(mScene);
+            TestScenes.start(mScene);
+        }
+
+        /**
+         * Get the results of the simulation.
+         *
+         * @return hash of the ordered components, followed by every parallel value.
+         */
+        long[] getResults() {
+            long[] ret = new long[mParallel.size() + 1];
+            ret[0] = mState.mHash;
+            for (int i = 0; i < mParallel.size(); i++) {
+                ret[i + 1] = mParallel.get(i).mValue;
+            }
+            return ret;
+        }
+    }
+
+    /** Test that parallel updates give the same results as serial ones. */
+    @Test
+    public void testParallelIsDeterministic() {
+        sWrongScene.set(false);
+
+        List<SimulatedScene> serial = createScenes();
+        List<SimulatedScene> parallel = createScenes();
+
+        SceneScheduler serialScheduler = new SceneScheduler(1);
+        SceneScheduler parallelScheduler = new SceneScheduler(THREADS);
+
+        try {
+            simulate(serialScheduler, serial);
+            simulate(parallelScheduler, parallel);
+
+            for (int i = 0; i < SCENE_COUNT; i++) {
+                assertArrayEquals(serial.get(i).getResults(), parallel.get(i).getResults());
+            }
+        } finally {
+            parallelScheduler.shutdown();
+        }
+
+        assertFalse(sWrongScene.get());
+        assertNull(Scene.getActiveScene());
+    }
+
+    /** Test that exceptions thrown by updates reach the caller. */
+    @Test(expected = IllegalStateException.class)
+    public void testExceptionsPropagate() {
+        List<Scene> scenes = new ArrayList<>();
+
+        for (int i = 0; i < 3; i++) {
+            Scene scene = new Scene("scene " + i);
+            GameObject obj = new GameObject("obj");
+            obj.addComponent(new ThrowingComponent());
+            scene.addRootObject(obj);
+            TestScenes.wake(scene);
+            TestScenes.start(scene);
+            scenes.add(scene);
+        }
+
+        SceneScheduler scheduler = new SceneScheduler(THREADS);
+
+        try {
+            scheduler.fixedUpdate(scenes, 0);
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    /**
+     * Simulate scenes for {@link #TICKS} fixed updates.
+     *
+     * @param scheduler scheduler to update with.
+     * @param scenes scenes to simulate.
+     * @return time taken in nanoseconds.
+     */
+    static long simulate(SceneScheduler scheduler, List<SimulatedScene> scenes) {
+        List<Scene> list = new ArrayList<>();
+        scenes.forEach(s -> list.add(s.mScene));
+        // Scene order should not matter
+        Collections.reverse(list);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < TICKS; i++) {
+            scheduler.fixedUpdate(list, 1 / 32f);
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Create the simulated scenes.
+     *
+     * @return list of {@link #SCENE_COUNT} scenes.
+     */
+    static List<SimulatedScene> createScenes() {
+        List<SimulatedScene> scenes = new ArrayList<>();
+        for (int i = 0; i < SCENE_COUNT; i++) {
+            scenes.add(new SimulatedScene(i));
+        }
+        return scenes;
+    }
+
+    /**
+     * Check that the scene of a component is the active one.
+     *
+     * @param component component being updated.
+     */
+    private static void checkScene(Component component) {
+        if (Scene.getActiveScene() != component.getGameObject().getScene()) {
+            sWrongScene.set(true);
+        }
+    }
+
+    /**
+     * Mix bits of a value.
+     *
+     * @param value value to mix.
+     * @return mixed value.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,41 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.dragonskulle.components.Component;
+
+/**
+ * Helpers for driving scenes in tests, without running the engine.
+ *
+ * @author Aurimas Blažulionis
+ */
+public class TestScenes {
+    /**
+     * Wake components the way {@link Engine} does.
+     *
+     * @param scene scene to wake components on.
+     */
+    public static void wake(Scene scene) {
+        List<Component> list = new ArrayList<>(scene.getNotAwakeComponents());
+
+        if (!list.isEmpty()) {
+            list.forEach(c -> c.setAwake(true));
+            scene.dirtyToStartComponents();
+        }
+    }
+
+    /**
+     * Start components the way {@link Engine} does.
+     *
+     * @param scene scene to start components on.
+     */
+    public static void start(Scene scene) {
+        List<Component> list = new ArrayList<>(scene.getEnabledButNotStartedComponents());
+
+        if (!list.isEmpty()) {
+            list.forEach(c -> c.setStarted(true));
+            scene.dirtyEnabledComponents();
+        }
+    }
+}
@@ -0,0 +1,307 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.network;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import lombok.extern.java.Log;
+import org.junit.Test;
+
+/**
+ * Tests for compression of message batches, and a report of its effect on typical traffic.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>The report sends the fog of a 51x51 map lifting in chunks, mixed with ticks of object
+ *     updates, the way a client sees the start of a match, and logs the per type metrics.
+ */
+@Log
+public class BatchCompressionTest {
+    /** Size of the simulated map. */
+    private static final int MAP_SIZE = 51;
+    /** Number of objects updated every tick. */
+    private static final int OBJECT_COUNT = 200;
+    /** Number of simulated ticks. */
+    private static final int TICKS = 100;
+
+    /** Test that compressed batches decode to the same messages, across many batches. */
+    @Test
+    public void testCompressedRoundTrip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        NetworkMessageStream stream = createStream(bytes, true, null);
+        List<byte[]> sent = new ArrayList<>();
+        Random rand = new Random(7);
+
+        for (int t = 0; t < 20; t++) {
+            stream.beginBatch();
+            for (int o = 0; o < 50; o++) {
+                sent.add(sendObjectUpdate(stream, o, rand.nextInt(4)));
+            }
+            stream.endBatch();
+
+            // A single small message in between ticks
+            byte[] small = {NetworkConfig.Codes.MESSAGE_SERVER_EVENT, (byte) t};
+            stream.writeMessage(small);
+            sent.add(small);
+        }
+
+        List<byte[]> received = readMessages(bytes.toByteArray(), new BatchInflater());
+
+        assertEquals(sent.size(), received.size());
+
+        for (int i = 0; i < sent.size(); i++) {
+            assertArrayEquals(sent.get(i), received.get(i));
+        }
+
+        assertTrue(bytes.size() < totalSize(sent));
+    }
+
+    /** Test that batches below the threshold are sent exactly as they would be uncompressed. */
+    @Test
+    public void testSmallBatchesNotCompressed() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        NetworkMessageStream compressedStream = createStream(compressed, true, null);
+        NetworkMessageStream plainStream = createStream(plain, false, null);
+
+        for (int i = 0; i < 10; i++) {
+            byte[] message = {NetworkConfig.Codes.MESSAGE_SERVER_EVENT, (byte) i, 1, 2, 3};
+            compressedStream.writeMessage(message);
+            plainStream.writeMessage(message);
+        }
+
+        assertArrayEquals(plain.toByteArray(), compressed.toByteArray());
+    }
+
+    /** Test that a corrupted block is rejected. */
+    @Test(expected = IOException.class)
+    public void testCorruptedBlockRejected() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        NetworkMessageStream stream = createStream(bytes, true, null);
+
+        stream.beginBatch();
+        for (int o = 0; o < 50; o++) {
+            sendObjectUpdate(stream, o, 0);
+        }
+        stream.endBatch();
+
+        byte[] data = bytes.toByteArray();
+        data[BatchDeflater.HEADER_SIZE] ^= 0x7f;
+        data[BatchDeflater.HEADER_SIZE + 1] ^= 0x55;
+
+        readMessages(data, new BatchInflater());
+    }
+
+    /** Test that messages and batches are recorded per type. */
+    @Test
+    public void testMetricsPerType() throws IOException {
+        MessageMetrics metrics = new MessageMetrics();
+        NetworkMessageStream stream = createStream(new ByteArrayOutputStream(), true, metrics);
+
+        stream.beginBatch();
+        for (int o = 0; o < 10; o++) {
+            sendObjectUpdate(stream, o, 0);
+        }
+        stream.writeMessage(new byte[] {NetworkConfig.Codes.MESSAGE_SPAWN_OBJECT, 1, 2});
+        stream.endBatch();
+
+        assertEquals(10, metrics.getMessageCount(NetworkConfig.Codes.MESSAGE_UPDATE_OBJECT));
+        assertEquals(10 * 21, metrics.getMessageBytes(NetworkConfig.Codes.MESSAGE_UPDATE_OBJECT));
+        assertEquals(1, metrics.getMessageCount(NetworkConfig.Codes.MESSAGE_SPAWN_OBJECT));
+        assertEquals(5, metrics.getMessageBytes(NetworkConfig.Codes.MESSAGE_SPAWN_OBJECT));
+        assertEquals(10 * 21 + 5, metrics.getRawBytes());
+        assertTrue(metrics.getWireBytes() < metrics.getRawBytes());
+        assertTrue(metrics.report().contains("MESSAGE_UPDATE_OBJECT"));
+    }
+
+    /** Report the effect of compression on the start of a match. */
+    @Test
+    public void testMatchStartReport() throws IOException {
+        MessageMetrics plain = runMatchStart(false);
+        MessageMetrics compressed = runMatchStart(true);
+
+        log.info("Uncompressed: " + plain.report());
+        log.info("Compressed: " + compressed.report());
+
+        assertEquals(plain.getRawBytes(), compressed.getRawBytes());
+        assertTrue(compressed.getWireBytes() < plain.getWireBytes());
+    }
+
+    /**
+     * Send the start of a match to a single client.
+     *
+     * @param compress whether to compress batches.
+     * @return traffic metrics of the client.
+     */
+    private static MessageMetrics runMatchStart(boolean compress) throws IOException {
+        MessageMetrics metrics = new MessageMetrics();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        NetworkMessageStream stream = createStream(bytes, compress, metrics);
+        Random rand = new Random(51);
+
+        int rowsLifted = 0;
+
+        for (int t = 0; t < TICKS; t++) {
+            stream.beginBatch();
+
+            for (int o = 0; o < OBJECT_COUNT; o++) {
+                if (rand.nextInt(4) == 0) {
+                    sendObjectUpdate(stream, o, rand.nextInt(8));
+                }
+            }
+
+            // Fog lifts a few rows of tiles at a time
+            if (t % 10 == 0 && rowsLifted < MAP_SIZE) {
+                int rows = Math.min(5, MAP_SIZE - rowsLifted);
+                sendTiles(stream, rowsLifted, rows, rand);
+                rowsLifted += rows;
+            }
+
+            stream.endBatch();
+        }
+
+        if (compress) {
+            List<byte[]> received = readMessages(bytes.toByteArray(), new BatchInflater());
+            assertEquals(
+                    metrics.getRawBytes(),
+                    received.stream().mapToLong(m -> m.length + 2).sum());
+        }
+
+        return metrics;
+    }
+
+    /**
+     * Send a tile store update, the way {@code HexagonTileStore} serializes it.
+     *
+     * @param stream stream to send into.
+     * @param firstRow first row of tiles to send.
+     * @param rows number of rows of tiles to send.
+     * @param rand random number generator for tile data.
+     */
+    private static void sendTiles(NetworkMessageStream stream, int firstRow, int rows, Random rand)
+            throws IOException {
+        int maskSize = NetworkMessage.maskSizeInBytes(MAP_SIZE);
+        boolean[] rowMask = new boolean[MAP_SIZE];
+        boolean[] tileMask = new boolean[MAP_SIZE];
+
+        for (int q = firstRow; q < firstRow + rows; q++) {
+            rowMask[q] = true;
+        }
+
+        for (int r = 0; r < MAP_SIZE; r++) {
+            tileMask[r] = true;
+        }
+
+        try (DataOutputStream out = stream.beginMessage()) {
+            out.writeByte(NetworkConfig.Codes.MESSAGE_UPDATE_OBJECT);
+            out.writeInt(-1);
+            out.writeByte(1);
+            out.writeByte(1);
+            out.write(NetworkMessage.convertBoolArrayToBytes(rowMask), 0, maskSize);
+
+            for (int q = firstRow; q < firstRow + rows; q++) {
+                out.write(NetworkMessage.convertBoolArrayToBytes(tileMask), 0, maskSize);
+
+                for (int r = 0; r < MAP_SIZE; r++) {
+                    out.writeFloat(rand.nextInt(8) * 0.25f);
+                    out.writeByte(rand.nextInt(3));
+                    out.writeInt(rand.nextInt(50) == 0 ? rand.nextInt(OBJECT_COUNT) : -1);
+                    out.writeInt(rand.nextInt(10) == 0 ? rand.nextInt(8) : -1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Send an object update, of a transform with all fields dirty.
+     *
+     * @param stream stream to send into.
+     * @param objectId ID of the object.
+     * @param step how far the object has moved.
+     * @return body of the sent message.
+     */
+    private static byte[] sendObjectUpdate(NetworkMessageStream stream, int objectId, int step)
+            throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        try (DataOutputStream out = new DataOutputStream(body)) {
+            out.writeByte(NetworkConfig.Codes.MESSAGE_UPDATE_OBJECT);
+            out.writeInt(objectId);
+            out.writeByte(1);
+            out.writeByte(0b111);
+            out.writeFloat(objectId + step);
+            out.writeFloat(objectId * 0.5f);
+            out.writeFloat(step * 0.25f);
+        }
+
+        byte[] message = body.toByteArray();
+        stream.writeMessage(message);
+        return message;
+    }
+
+    /**
+     * Create a reusable message stream.
+     *
+     * @param bytes stream to write into.
+     * @param compress whether to compress batches.
+     * @param metrics metrics to record into, or {@code null}.
+     * @return the stream.
+     */
+    private static NetworkMessageStream createStream(
+            ByteArrayOutputStream bytes, boolean compress, MessageMetrics metrics) {
+        NetworkMessageStream stream =
+                NetworkMessageStream.createReusable(new DataOutputStream(bytes));
+        stream.setMetrics(metrics);
+
+        if (compress) {
+            stream.setDeflater(new BatchDeflater());
+        }
+
+        return stream;
+    }
+
+    /**
+     * Read all messages the way {@link NetworkClient} does.
+     *
+     * @param data received bytes.
+     * @param inflater decompressor of the connection.
+     * @return list of message bodies.
+     */
+    private static List<byte[]> readMessages(byte[] data, BatchInflater inflater)
+            throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        List<byte[]> messages = new ArrayList<>();
+
+        while (in.available() > 0) {
+            short len = in.readShort();
+
+            if (len == NetworkConfig.COMPRESSED_BLOCK) {
+                messages.addAll(readMessages(inflater.readBlock(in), null));
+            } else {
+                byte[] message = new byte[len];
+                in.readFully(message);
+                messages.add(message);
+            }
+        }
+
+        return messages;
+    }
+
+    /**
+     * Get the total size of messages, including their length prefixes.
+     *
+     * @param messages message bodies.
+     * @return total size in bytes.
+     */
+    private static long totalSize(List<byte[]> messages) {
+        return messages.stream().mapToLong(m -> m.length + 2).sum();
+    }
+}
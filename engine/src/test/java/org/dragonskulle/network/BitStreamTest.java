@@ -0,0 +1,111 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.network;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import org.junit.Test;
+
+/**
+ * Tests for {@link BitWriter} and {@link BitReader}.
+ *
+ * @author Aurimas Blažulionis
+ */
+public class BitStreamTest {
+    /** Values used for variable length integer tests. */
+    private static final int[] VAR_INTS = {
+        0, 1, -1, 63, -64, 64, -65, 8191, -8192, 1 << 20, Integer.MAX_VALUE, Integer.MIN_VALUE
+    };
+
+    /** Test that bits are packed together, and read back the same. */
+    @Test
+    public void testBitsRoundTrip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BitWriter writer = new BitWriter(new DataOutputStream(bytes));
+
+        writer.writeBits(5, 3);
+        writer.writeBool(true);
+        writer.writeBits(0x3ff, 10);
+        writer.writeBits(-1, 32);
+        writer.writeBits(0, 0);
+        writer.flush();
+
+        // 3 + 1 + 10 + 32 bits round up to 6 bytes
+        assertEquals(6, bytes.size());
+
+        BitReader reader =
+                new BitReader(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(5, reader.readBits(3));
+        assertEquals(true, reader.readBool());
+        assertEquals(0x3ff, reader.readBits(10));
+        assertEquals(-1, reader.readBits(32));
+        assertEquals(0, reader.readBits(0));
+    }
+
+    /** Test that flushing pads to a whole byte, and the stream can continue byte aligned. */
+    @Test
+    public void testFlushAligns() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        BitWriter writer = new BitWriter(out);
+
+        writer.writeBits(1, 1);
+        writer.flush();
+        out.writeShort(0x1234);
+        writer.writeBits(3, 2);
+        writer.flush();
+
+        assertEquals(4, bytes.size());
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        BitReader reader = new BitReader(in);
+
+        assertEquals(1, reader.readBits(1));
+        reader.align();
+        assertEquals(0x1234, in.readShort());
+        assertEquals(3, reader.readBits(2));
+    }
+
+    /** Test variable length integers, and their sizes. */
+    @Test
+    public void testVarIntRoundTrip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BitWriter writer = new BitWriter(new DataOutputStream(bytes));
+
+        for (int value : VAR_INTS) {
+            writer.writeVarInt(value);
+        }
+        writer.flush();
+
+        BitReader reader =
+                new BitReader(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        for (int value : VAR_INTS) {
+            assertEquals(value, reader.readVarInt());
+        }
+
+        assertEquals(1, varIntSize(-64));
+        assertEquals(1, varIntSize(63));
+        assertEquals(2, varIntSize(64));
+        assertEquals(5, varIntSize(Integer.MIN_VALUE));
+    }
+
+    /**
+     * Get the encoded size of a variable length integer.
+     *
+     * @param value value to encode.
+     * @return size in bytes.
+     */
+    private static int varIntSize(int value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BitWriter writer = new BitWriter(new DataOutputStream(bytes));
+        writer.writeVarInt(value);
+        writer.flush();
+        return bytes.size();
+    }
+}
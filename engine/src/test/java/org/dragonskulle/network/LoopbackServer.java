@@ -0,0 +1,198 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.network;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+/**
+ * Runs a {@link Server} on the loopback interface, and connects raw socket clients to it.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>A background thread stands in for the engine's main thread, and updates the server's
+ *     client list. Clients go through the handshake, and loading by hand.
+ */
+@Accessors(prefix = "m")
+class LoopbackServer implements AutoCloseable {
+    /** Socket read timeout of test clients, in milliseconds. */
+    static final int READ_TIMEOUT = 5000;
+
+    /** Listener that accepts every client, and counts loaded ones. */
+    private static class Listener implements IServerListener {
+        Server mServer;
+        final AtomicInteger mLoaded = new AtomicInteger(0);
+
+        @Override
+        public int clientConnected(ServerClient client) {
+            return mServer.addConnectedClient(client);
+        }
+
+        @Override
+        public void clientFullyConnected(ServerClient client) {
+            // Like the network manager, send the state right away. This also flushes the ID.
+            try {
+                client.sendBytes(new byte[] {NetworkConfig.Codes.MESSAGE_UPDATE_STATE});
+            } catch (IOException e) {
+                client.closeSocket();
+            }
+        }
+
+        @Override
+        public void clientLoaded(ServerClient client) {
+            mLoaded.incrementAndGet();
+        }
+
+        @Override
+        public void clientDisconnected(ServerClient client) {
+            mServer.onClientDisconnect(client);
+        }
+
+        @Override
+        public void clientComponentRequest(
+                ServerClient client, int objectID, int requestID, DataInput stream) {}
+    }
+
+    /** The server. */
+    @Getter private final Server mServer;
+    /** Listener of the server. */
+    private final Listener mListener = new Listener();
+    /** Thread standing in for the engine's main thread. */
+    private final Thread mMainThread;
+    /** Sockets of the connected clients, in the order they connected. */
+    private final List<Socket> mSockets = new ArrayList<>();
+
+    /**
+     * Start a server.
+     *
+     * @param useSelector which server transport to use.
+     * @throws IOException if the server can not be opened.
+     */
+    LoopbackServer(boolean useSelector) throws IOException {
+        mServer = new Server(0, mListener, useSelector);
+        mListener.mServer = mServer;
+
+        mMainThread =
+                new Thread(
+                        () -> {
+                            while (!Thread.currentThread().isInterrupted()) {
+                                synchronized (mServer) {
+                                    mServer.updateClientList();
+                                    mServer.processClientRequests(
+                                            NetworkConfig.MAX_CLIENT_REQUESTS);
+                                }
+                                try {
+                                    Thread.sleep(1);
+                                } catch (InterruptedException e) {
+                                    break;
+                                }
+                            }
+                        });
+        mMainThread.setDaemon(true);
+        mMainThread.start();
+    }
+
+    /**
+     * Connect a client, and take it through the handshake and loading.
+     *
+     * @return network ID the server gave the client.
+     * @throws IOException if the connection fails.
+     */
+    int connect() throws IOException {
+        Socket socket = new Socket("127.0.0.1", mServer.getPort());
+        socket.setSoTimeout(READ_TIMEOUT);
+        mSockets.add(socket);
+
+        DataInputStream input = new DataInputStream(socket.getInputStream());
+        DataOutputStream output = new DataOutputStream(socket.getOutputStream());
+
+        assertEquals(NetworkConfig.SERVER_HANDSHAKE_BYTE, input.readByte());
+        int serverTime = input.readInt();
+
+        output.writeByte(NetworkConfig.CLIENT_HANDSHAKE_BYTE);
+        output.writeInt(serverTime + NetworkConfig.CLIENT_HANDSHAKE_BYTE);
+        output.flush();
+
+        int networkID = input.readInt();
+
+        assertEquals(1, input.readShort());
+        assertEquals(NetworkConfig.Codes.MESSAGE_UPDATE_STATE, input.readByte());
+
+        output.writeShort(1);
+        output.writeByte(NetworkConfig.Codes.MESSAGE_CLIENT_LOADED);
+        output.flush();
+
+        return networkID;
+    }
+
+    /**
+     * Close the socket of a client.
+     *
+     * @param index index of the client, in the order they connected.
+     * @throws IOException if closing fails.
+     */
+    void disconnect(int index) throws IOException {
+        mSockets.get(index).close();
+    }
+
+    /**
+     * Wait until a number of clients is in the server's client list.
+     *
+     * @param count number of clients to wait for.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    void awaitClients(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + READ_TIMEOUT;
+        while (getClientCount() != count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(count, getClientCount());
+    }
+
+    /**
+     * Wait until a number of clients has loaded.
+     *
+     * @param count number of clients to wait for.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    void awaitLoaded(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + READ_TIMEOUT;
+        while (mListener.mLoaded.get() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(count, mListener.mLoaded.get());
+    }
+
+    /**
+     * Get the number of clients in the server's client list.
+     *
+     * @return number of clients.
+     */
+    int getClientCount() {
+        synchronized (mServer) {
+            return mServer.getClients().size();
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        mMainThread.interrupt();
+        mMainThread.join();
+
+        for (Socket s : mSockets) {
+            s.close();
+        }
+
+        mServer.dispose();
+    }
+}
@@ -0,0 +1,192 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.network;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import lombok.extern.java.Log;
+import org.junit.Assume;
+import org.junit.Test;
+
+/**
+ * Benchmark of the outbound message path of {@link NetworkMessageStream}.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>The benchmark mimics a network tick of 500 objects sent to 8 clients, and compares a new
+ *     stream per message, flushed straight away, against a reused stream flushed once per tick.
+ *     <p>Only run with the {@code benchmark} profile.
+ */
+@Log
+public class NetworkMessageStreamBenchmark {
+    /** Number of objects updated every tick. */
+    private static final int OBJECT_COUNT = 500;
+    /** Number of connected clients. */
+    private static final int CLIENT_COUNT = 8;
+    /** Number of ticks to warm up for. */
+    private static final int WARMUP_TICKS = 200;
+    /** Number of measured ticks. */
+    private static final int TICKS = 200;
+
+    /** Socket stand-in that counts the writes that would reach the OS. */
+    private static class CountingOutputStream extends OutputStream {
+        long mWrites;
+        long mBytes;
+
+        @Override
+        public void write(int b) {
+            mWrites++;
+            mBytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            mWrites++;
+            mBytes += len;
+        }
+    }
+
+    /** Results of a benchmark run. */
+    private static class TickResult {
+        long mAllocatedBytes;
+        long mWrites;
+        long mBytes;
+    }
+
+    /** Compare allocations and socket writes of both outbound message paths. */
+    @Test
+    public void benchmarkTick() throws IOException {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+
+        TickResult perMessage = runTicks(threads, false);
+        TickResult batched = runTicks(threads, true);
+
+        report("stream per message", perMessage);
+        report("reused batched stream", batched);
+
+        assertEquals(perMessage.mBytes, batched.mBytes);
+        assertEquals((long) CLIENT_COUNT * TICKS, batched.mWrites);
+        assertTrue(batched.mAllocatedBytes < perMessage.mAllocatedBytes);
+    }
+
+    /**
+     * Log the results of a benchmark run.
+     *
+     * @param name name of the path.
+     * @param result results of the run.
+     */
+    private static void report(String name, TickResult result) {
+        log.info(
+                String.format(
+                        "%s: %d objects, %d clients: %.1f bytes allocated per tick, %.1f socket"
+                                + " writes per tick, %.1f bytes sent per tick",
+                        name,
+                        OBJECT_COUNT,
+                        CLIENT_COUNT,
+                        result.mAllocatedBytes / (double) TICKS,
+                        result.mWrites / (double) TICKS,
+                        result.mBytes / (double) TICKS));
+    }
+
+    /**
+     * Send object updates to all clients for a number of ticks.
+     *
+     * @param threads thread bean to measure allocations with.
+     * @param batched whether to use reused, batched streams, or a new stream per message.
+     * @return measurements of the run.
+     */
+    private static TickResult runTicks(com.sun.management.ThreadMXBean threads, boolean batched)
+            throws IOException {
+        CountingOutputStream[] sockets = new CountingOutputStream[CLIENT_COUNT];
+        DataOutputStream[] outputs = new DataOutputStream[CLIENT_COUNT];
+        NetworkMessageStream[] streams = new NetworkMessageStream[CLIENT_COUNT];
+
+        for (int i = 0; i < CLIENT_COUNT; i++) {
+            sockets[i] = new CountingOutputStream();
+            // Same stream setup as the thread per client transport
+            outputs[i] = new DataOutputStream(new BufferedOutputStream(sockets[i]));
+            streams[i] = NetworkMessageStream.createReusable(outputs[i]);
+        }
+
+        for (int i = 0; i < WARMUP_TICKS; i++) {
+            tick(outputs, streams, batched);
+        }
+
+        for (CountingOutputStream socket : sockets) {
+            socket.mWrites = 0;
+            socket.mBytes = 0;
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long startAlloc = threads.getThreadAllocatedBytes(threadId);
+
+        for (int i = 0; i < TICKS; i++) {
+            tick(outputs, streams, batched);
+        }
+
+        TickResult result = new TickResult();
+        result.mAllocatedBytes = threads.getThreadAllocatedBytes(threadId) - startAlloc;
+
+        for (CountingOutputStream socket : sockets) {
+            result.mWrites += socket.mWrites;
+            result.mBytes += socket.mBytes;
+        }
+
+        return result;
+    }
+
+    /**
+     * Run a single network tick.
+     *
+     * @param outputs socket output streams of the clients.
+     * @param streams reusable message streams of the clients.
+     * @param batched whether to use reused, batched streams, or a new stream per message.
+     */
+    private static void tick(
+            DataOutputStream[] outputs, NetworkMessageStream[] streams, boolean batched)
+            throws IOException {
+        for (int c = 0; c < CLIENT_COUNT; c++) {
+            if (batched) {
+                streams[c].beginBatch();
+            }
+
+            for (int o = 0; o < OBJECT_COUNT; o++) {
+                DataOutputStream stream =
+                        batched ? streams[c].beginMessage() : new NetworkMessageStream(outputs[c]);
+
+                try (DataOutputStream out = stream) {
+                    writeObjectUpdate(out, o);
+                }
+            }
+
+            if (batched) {
+                streams[c].endBatch();
+            }
+        }
+    }
+
+    /**
+     * Write a typical object update, a transform with all fields dirty.
+     *
+     * @param stream stream to write into.
+     * @param objectId ID of the object.
+     */
+    private static void writeObjectUpdate(DataOutputStream stream, int objectId)
+            throws IOException {
+        stream.writeByte(NetworkConfig.Codes.MESSAGE_UPDATE_OBJECT);
+        stream.writeInt(objectId);
+        stream.writeByte(1);
+        stream.writeByte(0b111);
+        stream.writeFloat(objectId);
+        stream.writeFloat(objectId * 0.5f);
+        stream.writeFloat(objectId * 0.25f);
+    }
+}
@@ -0,0 +1,141 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.network;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import org.junit.Test;
+
+/**
+ * Tests for {@link NetworkMessageStream}.
+ *
+ * @author Aurimas Blažulionis
+ */
+public class NetworkMessageStreamTest {
+    /** Test that messages are length prefixed, and written in order. */
+    @Test
+    public void testMessagesArePrefixed() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        NetworkMessageStream stream =
+                NetworkMessageStream.createReusable(new DataOutputStream(bytes));
+
+        try (DataOutputStream out = stream.beginMessage()) {
+            out.writeInt(42);
+        }
+
+        stream.writeMessage(new byte[] {1, 2, 3});
+
+        try (DataOutputStream out = stream.beginMessage()) {
+            out.writeByte(7);
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+
+        assertEquals(4, in.readShort());
+        assertEquals(42, in.readInt());
+        assertEquals(3, in.readShort());
+        assertEquals(1, in.readByte());
+        assertEquals(2, in.readByte());
+        assertEquals(3, in.readByte());
+        assertEquals(1, in.readShort());
+        assertEquals(7, in.readByte());
+        assertEquals(0, in.available());
+        assertEquals(3, stream.getFlushCount());
+    }
+
+    /** Test that a batch is only written out at its end, with a single flush. */
+    @Test
+    public void testBatchFlushesOnce() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        NetworkMessageStream stream =
+                NetworkMessageStream.createReusable(new DataOutputStream(bytes));
+
+        stream.beginBatch();
+
+        for (int i = 0; i < 10; i++) {
+            try (DataOutputStream out = stream.beginMessage()) {
+                out.writeInt(i);
+            }
+        }
+
+        assertEquals(0, bytes.size());
+
+        stream.endBatch();
+
+        assertEquals(10 * 6, bytes.size());
+        assertEquals(1, stream.getFlushCount());
+    }
+
+    /** Test that an oversized message is rejected, without corrupting the following ones. */
+    @Test
+    public void testOversizedMessageDropped() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        NetworkMessageStream stream =
+                NetworkMessageStream.createReusable(new DataOutputStream(bytes));
+
+        stream.beginBatch();
+
+        boolean rejected = false;
+
+        try (DataOutputStream out = stream.beginMessage()) {
+            out.write(new byte[(1 << 15) + 1]);
+        } catch (IOException e) {
+            rejected = true;
+        }
+
+        assertTrue("Oversized message should not be accepted", rejected);
+
+        try (DataOutputStream out = stream.beginMessage()) {
+            out.writeByte(5);
+        }
+
+        stream.endBatch();
+
+        assertArrayEquals(new byte[] {0, 1, 5}, bytes.toByteArray());
+    }
+
+    /** Test that only one message can be open at a time. */
+    @Test(expected = IllegalStateException.class)
+    public void testNestedMessageRejected() throws IOException {
+        NetworkMessageStream stream =
+                NetworkMessageStream.createReusable(
+                        new DataOutputStream(new ByteArrayOutputStream()));
+
+        try (DataOutputStream out = stream.beginMessage()) {
+            stream.beginMessage();
+        }
+    }
+
+    /** Test that an aborted message is dropped, while earlier messages are kept. */
+    @Test
+    public void testAbortMessage() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        NetworkMessageStream stream =
+                NetworkMessageStream.createReusable(new DataOutputStream(bytes));
+
+        stream.beginBatch();
+        stream.writeMessage(new byte[] {1});
+
+        DataOutputStream out = stream.beginMessage();
+        out.writeInt(42);
+
+        assertTrue(stream.isMessageOpen());
+        stream.abortMessage();
+        assertFalse(stream.isMessageOpen());
+
+        // Closing the aborted message does nothing
+        out.close();
+
+        stream.writeMessage(new byte[] {2});
+        stream.endBatch();
+
+        assertArrayEquals(new byte[] {0, 1, 1, 0, 1, 2}, bytes.toByteArray());
+    }
+}
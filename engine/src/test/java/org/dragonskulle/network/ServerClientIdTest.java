@@ -0,0 +1,34 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.network;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests for the network IDs the {@link Server} hands out to clients.
+ *
+ * @author Aurimas Blažulionis
+ */
+public class ServerClientIdTest {
+
+    /** Test that IDs of clients that left are given to the next clients. */
+    @Test
+    public void testReuseIds() throws Exception {
+        for (boolean useSelector : new boolean[] {false, true}) {
+            try (LoopbackServer server = new LoopbackServer(useSelector)) {
+                assertEquals(0, server.connect());
+                assertEquals(1, server.connect());
+                assertEquals(2, server.connect());
+                server.awaitClients(3);
+
+                server.disconnect(1);
+                server.awaitClients(2);
+
+                assertEquals(1, server.connect());
+                assertEquals(3, server.connect());
+                server.awaitClients(4);
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.network;
+
+import static org.dragonskulle.utils.Env.envInt;
+import static org.junit.Assert.assertTrue;
+
+import lombok.extern.java.Log;
+import org.junit.Test;
+
+/**
+ * Connects a large number of loopback clients to both server transports, and compares their
+ * resource usage.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>This opens thousands of sockets, so it is only run with the {@code benchmark} profile,
+ *     {@code mvn test -Pbenchmark}.
+ *     <p>Number of clients can be changed with {@code SERVER_LOAD_CLIENTS} environment variable.
+ */
+@Log
+public class ServerLoadBenchmark {
+    /** Number of clients to connect to the selector server. */
+    private static final int CLIENT_COUNT = envInt("SERVER_LOAD_CLIENTS", 2000);
+    /** Thread per client server can not take more clients than this. */
+    private static final int BLOCKING_CLIENT_COUNT = 128;
+
+    /** Results of a single load run. */
+    private static class LoadResult {
+        int mClients;
+        int mThreads;
+        long mHeapBytes;
+        long mDirectBytes;
+    }
+
+    /** Test that the selector server can take thousands of clients without extra threads. */
+    @Test
+    public void testSelectorServerLoad() throws Exception {
+        LoadResult blocking = runLoad(false, BLOCKING_CLIENT_COUNT);
+        LoadResult selector = runLoad(true, CLIENT_COUNT);
+
+        report("thread per client", blocking);
+        report("selector", selector);
+
+        assertTrue(
+                "Blocking server should use a thread per client",
+                blocking.mThreads >= blocking.mClients);
+        assertTrue(
+                "Selector server should not use a thread per client", selector.mThreads <= 2);
+    }
+
+    /**
+     * Log the results of a load run.
+     *
+     * @param name name of the transport.
+     * @param result results of the run.
+     */
+    private static void report(String name, LoadResult result) {
+        log.info(
+                String.format(
+                        "%s: %d clients, %d threads (%.3f per client), %d KiB heap (%.2f KiB per"
+                                + " client), %d KiB direct buffers",
+                        name,
+                        result.mClients,
+                        result.mThreads,
+                        result.mThreads / (float) result.mClients,
+                        result.mHeapBytes / 1024,
+                        result.mHeapBytes / 1024f / result.mClients,
+                        result.mDirectBytes / 1024));
+    }
+
+    /**
+     * Connect clients to a server, and measure how many resources they use.
+     *
+     * @param useSelector which server transport to use.
+     * @param clientCount number of clients to connect.
+     * @return resource usage with all clients connected.
+     */
+    private static LoadResult runLoad(boolean useSelector, int clientCount) throws Exception {
+        System.gc();
+        int startThreads = Thread.activeCount();
+        long startHeap = usedHeap();
+
+        LoadResult result = new LoadResult();
+
+        try (LoopbackServer server = new LoopbackServer(useSelector)) {
+            for (int i = 0; i < clientCount; i++) {
+                server.connect();
+            }
+
+            server.awaitLoaded(clientCount);
+            server.awaitClients(clientCount);
+
+            System.gc();
+            result.mClients = clientCount;
+            // Exclude the stand-in main thread
+            result.mThreads = Thread.activeCount() - startThreads - 1;
+            result.mHeapBytes = usedHeap() - startHeap;
+            // Thread per client server uses heap buffers only
+            result.mDirectBytes = 0;
+
+            if (useSelector) {
+                result.mDirectBytes =
+                        server.getServer().getSelectorBufferPool().getAllocatedBytes();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Get the amount of heap memory currently in use.
+     *
+     * @return used heap memory in bytes.
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,237 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.network;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Creates {@link ServerClient}s that are backed by in-memory sockets.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Allows tests outside of this package to drive the server side of message encoding. The
+ *     clients go through the regular socket path, and handshake, so everything sent after the
+ *     handshake ends up in the given stream.
+ */
+public class TestServerClients {
+    /** Size of the server's handshake, a byte, and the challenge. */
+    private static final int SERVER_HANDSHAKE_SIZE = 5;
+    /** Size of everything the server sends before messages, the handshake, and the client ID. */
+    private static final int HANDSHAKE_SIZE = SERVER_HANDSHAKE_SIZE + 4;
+
+    /** Listener that gives out a fixed network ID, and ignores everything else. */
+    private static class Listener implements IServerListener {
+        private final int mNetworkID;
+
+        Listener(int networkID) {
+            mNetworkID = networkID;
+        }
+
+        @Override
+        public int clientConnected(ServerClient client) {
+            client.setNetworkID(mNetworkID);
+            return mNetworkID;
+        }
+
+        @Override
+        public void clientFullyConnected(ServerClient client) {}
+
+        @Override
+        public void clientLoaded(ServerClient client) {}
+
+        @Override
+        public void clientDisconnected(ServerClient client) {}
+
+        @Override
+        public void clientComponentRequest(
+                ServerClient client, int objectID, int requestID, DataInput stream) {}
+    }
+
+    /** Socket that answers the server's handshake, and passes all later output to a stream. */
+    private static class LocalSocket extends Socket {
+        /** Stream receiving everything after the handshake. */
+        private final OutputStream mOutput;
+        /** Handshake bytes sent by the server. */
+        private final byte[] mHandshake = new byte[SERVER_HANDSHAKE_SIZE];
+        /** Number of handshake bytes received so far. */
+        private int mHandshakeWritten = 0;
+        /** Handshake response of the client, built once the server's handshake is in. */
+        private ByteArrayInputStream mResponse;
+
+        /** Released once the server has sent its handshake. */
+        private final CountDownLatch mHandshakeSent = new CountDownLatch(1);
+        /** Released once the server is waiting for the first message after the handshake. */
+        private final CountDownLatch mHandshakeDone = new CountDownLatch(1);
+        /** Released once the socket gets closed. */
+        private final CountDownLatch mClosed = new CountDownLatch(1);
+
+        /** Output of the server. */
+        private final OutputStream mOutputStream =
+                new OutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        if (mHandshakeWritten >= HANDSHAKE_SIZE) {
+                            mOutput.write(b);
+                            return;
+                        }
+
+                        if (mHandshakeWritten < SERVER_HANDSHAKE_SIZE) {
+                            mHandshake[mHandshakeWritten] = (byte) b;
+                        }
+
+                        if (++mHandshakeWritten == SERVER_HANDSHAKE_SIZE) {
+                            mHandshakeSent.countDown();
+                        }
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        for (; len > 0 && mHandshakeWritten < HANDSHAKE_SIZE; off++, len--) {
+                            write(b[off]);
+                        }
+
+                        if (len > 0) {
+                            mOutput.write(b, off, len);
+                        }
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        mOutput.flush();
+                    }
+                };
+
+        /** Input of the server. Ends once the socket is closed. */
+        private final InputStream mInputStream =
+                new InputStream() {
+                    @Override
+                    public int read() throws IOException {
+                        byte[] b = new byte[1];
+                        return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+                    }
+
+                    @Override
+                    public int read(byte[] b, int off, int len) throws IOException {
+                        if (mResponse == null) {
+                            await(mHandshakeSent);
+                            mResponse = new ByteArrayInputStream(buildResponse());
+                        }
+
+                        if (mResponse.available() > 0) {
+                            return mResponse.read(b, off, len);
+                        }
+
+                        mHandshakeDone.countDown();
+                        await(mClosed);
+                        return -1;
+                    }
+                };
+
+        /**
+         * Constructor for {@link LocalSocket}.
+         *
+         * @param output stream to write everything after the handshake into.
+         */
+        LocalSocket(OutputStream output) {
+            mOutput = output;
+        }
+
+        /**
+         * Build the client's response to the server's handshake.
+         *
+         * @return handshake byte of the client, followed by the solved challenge.
+         */
+        private byte[] buildResponse() {
+            int challenge = 0;
+
+            for (int i = 1; i < SERVER_HANDSHAKE_SIZE; i++) {
+                challenge = (challenge << 8) | (mHandshake[i] & 0xff);
+            }
+
+            challenge += NetworkConfig.CLIENT_HANDSHAKE_BYTE;
+
+            return new byte[] {
+                NetworkConfig.CLIENT_HANDSHAKE_BYTE,
+                (byte) (challenge >>> 24),
+                (byte) (challenge >>> 16),
+                (byte) (challenge >>> 8),
+                (byte) challenge
+            };
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return mInputStream;
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return mOutputStream;
+        }
+
+        @Override
+        public InetAddress getInetAddress() {
+            return InetAddress.getLoopbackAddress();
+        }
+
+        @Override
+        public boolean isConnected() {
+            return true;
+        }
+
+        @Override
+        public boolean isClosed() {
+            return mClosed.getCount() == 0;
+        }
+
+        @Override
+        public void shutdownOutput() {}
+
+        @Override
+        public void close() {
+            mClosed.countDown();
+        }
+    }
+
+    /**
+     * Create an in game client that writes all its messages into a stream.
+     *
+     * @param networkID network ID of the client.
+     * @param output stream to write messages into.
+     * @return the client.
+     */
+    public static ServerClient create(int networkID, OutputStream output) {
+        LocalSocket socket = new LocalSocket(output);
+        ServerClient client = new ServerClient(socket, new Listener(networkID));
+        client.startThread();
+
+        try {
+            await(socket.mHandshakeDone);
+        } catch (InterruptedIOException e) {
+            throw new IllegalStateException("Interrupted during handshake", e);
+        }
+
+        client.setInGame(true);
+        return client;
+    }
+
+    /**
+     * Wait for a latch to be released.
+     *
+     * @param latch latch to wait for.
+     * @throws InterruptedIOException if the thread gets interrupted.
+     */
+    private static void await(CountDownLatch latch) throws InterruptedIOException {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.network.components;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.dragonskulle.core.GameObject;
+import org.dragonskulle.network.NetworkConfig;
+import org.dragonskulle.network.ServerClient;
+import org.dragonskulle.network.TestServerClients;
+import org.dragonskulle.network.components.NetworkObjectSerializeTest.SerializeTestComponent;
+import org.dragonskulle.network.components.ServerNetworkManager.ServerObjectEntry;
+import org.junit.Test;
+
+/**
+ * Tests for {@link IInterestPolicy} filtering of object updates.
+ *
+ * @author Aurimas Blažulionis
+ */
+public class InterestPolicyTest {
+    /** Policy with a togglable answer. */
+    private static class TogglePolicy implements IInterestPolicy {
+        boolean mInterested = true;
+        int mDescribeCalls = 0;
+
+        @Override
+        public Object describe(NetworkObject object) {
+            mDescribeCalls++;
+            return object;
+        }
+
+        @Override
+        public boolean isInterested(ServerClient client, NetworkObject object, Object data) {
+            assertSame(object, data);
+            return mInterested;
+        }
+    }
+
+    /** Test that suppressed updates are caught up with a full update. */
+    @Test
+    public void testSuppressedObjectCatchesUp() throws IOException {
+        GameObject go = new GameObject("interest_test");
+        NetworkObject obj = new NetworkObject(7, -1, true, null);
+        SerializeTestComponent comp = new SerializeTestComponent();
+        go.addComponent(obj);
+        go.addComponent(comp);
+        obj.networkInitialize();
+
+        ServerObjectEntry entry = new ServerObjectEntry(obj.getReference(NetworkObject.class), 0);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ServerClient client = TestServerClients.create(1, out);
+        TogglePolicy policy = new TogglePolicy();
+
+        // Spawned, and fully updated
+        entry.updateClient(client, null, policy);
+        obj.resetUpdateMask();
+        List<byte[]> messages = readMessages(out);
+        assertEquals(2, messages.size());
+        assertEquals(NetworkConfig.Codes.MESSAGE_SPAWN_OBJECT, messages.get(0)[0]);
+        assertEquals(NetworkConfig.Codes.MESSAGE_UPDATE_OBJECT, messages.get(1)[0]);
+
+        // Out of interest, the change is held back
+        policy.mInterested = false;
+        comp.mHealth.set(5);
+        entry.updateClient(client, null, policy);
+        obj.resetUpdateMask();
+        assertEquals(0, readMessages(out).size());
+
+        // Back in interest, everything gets sent, although nothing is dirty
+        policy.mInterested = true;
+        entry.updateClient(client, null, policy);
+        obj.resetUpdateMask();
+        messages = readMessages(out);
+        assertEquals(1, messages.size());
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(messages.get(0)));
+        assertEquals(NetworkConfig.Codes.MESSAGE_UPDATE_OBJECT, in.readByte());
+        assertEquals(7, in.readInt());
+        assertEquals(1, in.readByte());
+        assertEquals(0b111111, in.readByte());
+        assertEquals(5, in.readInt());
+
+        // Caught up, nothing else to send
+        entry.updateClient(client, null, policy);
+        obj.resetUpdateMask();
+        assertEquals(0, readMessages(out).size());
+    }
+
+    /** Test that objects get described once, and that removed clients are forgotten. */
+    @Test
+    public void testDescribedOnceAndClientRemoved() throws IOException {
+        GameObject go = new GameObject("interest_test");
+        NetworkObject obj = new NetworkObject(8, -1, true, null);
+        go.addComponent(obj);
+        go.addComponent(new SerializeTestComponent());
+        obj.networkInitialize();
+
+        ServerObjectEntry entry = new ServerObjectEntry(obj.getReference(NetworkObject.class), 0);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ServerClient client = TestServerClients.create(1, out);
+        TogglePolicy policy = new TogglePolicy();
+        policy.mInterested = false;
+
+        for (int i = 0; i < 3; i++) {
+            entry.updateClient(client, null, policy);
+            obj.resetUpdateMask();
+        }
+
+        assertEquals(1, policy.mDescribeCalls);
+        assertEquals(1, entry.getSpawnedFor().size());
+        readMessages(out);
+
+        // A removed client is no longer spawned, nor suppressed
+        entry.removeClient(client);
+        assertEquals(0, entry.getSpawnedFor().size());
+
+        entry.updateClient(client, null, policy);
+        List<byte[]> messages = readMessages(out);
+        assertEquals(NetworkConfig.Codes.MESSAGE_SPAWN_OBJECT, messages.get(0)[0]);
+    }
+
+    /**
+     * Read and clear all messages written to the stream.
+     *
+     * @param out stream the client wrote to.
+     * @return list of message bodies.
+     */
+    private static List<byte[]> readMessages(ByteArrayOutputStream out) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+        out.reset();
+
+        List<byte[]> messages = new ArrayList<>();
+
+        while (in.available() > 0) {
+            byte[] message = new byte[in.readShort()];
+            in.readFully(message);
+            messages.add(message);
+        }
+
+        return messages;
+    }
+}
@@ -0,0 +1,114 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.network.components;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import lombok.extern.java.Log;
+import org.junit.Assume;
+import org.junit.Test;
+
+/**
+ * Benchmark of {@link NetworkObject} serialization.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Compares the cached sync layout against the reflective stream path it replaced, from
+ *     {@link NetworkObjectSerializeTest}. Only run with the {@code benchmark} profile.
+ */
+@Log
+public class NetworkObjectSerializeBenchmark {
+    /** Number of objects serialized per iteration. */
+    private static final int OBJECT_COUNT = 500;
+    /** Number of warmup iterations. */
+    private static final int WARMUP_ITERATIONS = 2000;
+    /** Number of measured iterations. */
+    private static final int ITERATIONS = 2000;
+
+    /** Results of a benchmark run. */
+    private static class SerializeResult {
+        long mNanos;
+        long mAllocatedBytes;
+        byte[] mOutput;
+    }
+
+    /** Compare per-object serialization cost of the cached layout against reflective streams. */
+    @Test
+    public void benchmarkSerialize() throws IOException {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+
+        NetworkObject[] objects = new NetworkObject[OBJECT_COUNT];
+
+        for (int i = 0; i < OBJECT_COUNT; i++) {
+            objects[i] = NetworkObjectSerializeTest.createObject(i);
+        }
+
+        SerializeResult reflective = runSerialize(threads, objects, false);
+        SerializeResult cached = runSerialize(threads, objects, true);
+
+        report("reflective streams", reflective);
+        report("cached layout", cached);
+
+        assertArrayEquals(reflective.mOutput, cached.mOutput);
+        assertTrue(cached.mAllocatedBytes < reflective.mAllocatedBytes);
+    }
+
+    /**
+     * Log the results of a benchmark run.
+     *
+     * @param name name of the path.
+     * @param result results of the run.
+     */
+    private static void report(String name, SerializeResult result) {
+        long serialized = (long) OBJECT_COUNT * ITERATIONS;
+
+        log.info(
+                String.format(
+                        "%s: %.1f ns per object, %.1f bytes allocated per object",
+                        name,
+                        result.mNanos / (double) serialized,
+                        result.mAllocatedBytes / (double) serialized));
+    }
+
+    /**
+     * Serialize all objects a number of times.
+     *
+     * @param threads thread bean to measure allocations with.
+     * @param objects objects to serialize.
+     * @param cached whether to use the cached layout, or reflective streams.
+     * @return measurements of the run, and output of the last iteration.
+     */
+    private static SerializeResult runSerialize(
+            com.sun.management.ThreadMXBean threads, NetworkObject[] objects, boolean cached)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream stream = new DataOutputStream(bytes);
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            bytes.reset();
+            NetworkObjectSerializeTest.serializeAll(stream, objects, cached);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long startAlloc = threads.getThreadAllocatedBytes(threadId);
+        long startTime = System.nanoTime();
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            bytes.reset();
+            NetworkObjectSerializeTest.serializeAll(stream, objects, cached);
+        }
+
+        SerializeResult result = new SerializeResult();
+        result.mNanos = System.nanoTime() - startTime;
+        result.mAllocatedBytes = threads.getThreadAllocatedBytes(threadId) - startAlloc;
+        result.mOutput = bytes.toByteArray();
+        return result;
+    }
+}
@@ -0,0 +1,235 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.network.components;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.dragonskulle.core.GameObject;
+import org.dragonskulle.core.Reference;
+import org.dragonskulle.network.NetworkConfig;
+import org.dragonskulle.network.NetworkMessage;
+import org.dragonskulle.network.components.sync.ISyncVar;
+import org.dragonskulle.network.components.sync.SyncBool;
+import org.dragonskulle.network.components.sync.SyncFloat;
+import org.dragonskulle.network.components.sync.SyncInt;
+import org.dragonskulle.network.components.sync.SyncVector3;
+import org.joml.Vector3f;
+import org.junit.Test;
+
+/**
+ * Tests for {@link NetworkObject} serialization.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>The reflective stream path the cached sync layout replaced is reimplemented here for
+ *     reference.
+ */
+public class NetworkObjectSerializeTest {
+    /** Component with a typical mix of syncvars. */
+    public static class SerializeTestComponent extends NetworkableComponent {
+        final SyncInt mHealth = new SyncInt(100);
+        final SyncInt mLevel = new SyncInt(1);
+        final SyncFloat mSpeed = new SyncFloat(1.5f);
+        final SyncFloat mAngle = new SyncFloat(0.25f);
+        final SyncVector3 mPosition = new SyncVector3(new Vector3f(1, 2, 3));
+        final SyncBool mActive = new SyncBool(true);
+
+        @Override
+        protected void onDestroy() {}
+    }
+
+    /** Test that the flat sync layout preserves component and declaration order. */
+    @Test
+    public void testSyncVarOrder() {
+        NetworkObject obj = createObject(0);
+
+        assertEquals(12, obj.getSyncVarCount());
+
+        int idx = 0;
+        for (NetworkableComponent nc : components(obj)) {
+            for (int i = 0; i < nc.getSyncVarCount(); i++) {
+                assertTrue(obj.getSyncVar(idx++) == nc.getSyncVar(i));
+            }
+        }
+    }
+
+    /** Test that the sync layout drops the syncvars of removed components. */
+    @Test
+    public void testSyncVarsRebuiltOnRemove() {
+        NetworkObject obj = createObject(0);
+        NetworkableComponent[] comps = components(obj);
+
+        assertEquals(12, obj.getSyncVarCount());
+
+        obj.getGameObject().removeComponent(comps[0]);
+
+        assertEquals(6, obj.getSyncVarCount());
+
+        for (int i = 0; i < comps[1].getSyncVarCount(); i++) {
+            assertTrue(obj.getSyncVar(i) == comps[1].getSyncVar(i));
+        }
+    }
+
+    /** Test that an update written on the server is applied on the client. */
+    @Test
+    public void testRoundTrip() throws IOException {
+        NetworkObject server = createObject(0);
+        NetworkObject client = createObject(0);
+
+        SerializeTestComponent comp = (SerializeTestComponent) components(server)[1];
+        comp.mHealth.set(42);
+        comp.mPosition.set(new Vector3f(4, 5, 6));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        assertTrue(server.prepareUpdate(0, false));
+        server.writeUpdate(new DataOutputStream(bytes), 0);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(NetworkConfig.Codes.MESSAGE_UPDATE_OBJECT, in.readByte());
+        assertEquals(0, in.readInt());
+        client.updateFromBytes(in);
+
+        assertEquals(0, in.available());
+
+        SerializeTestComponent clientComp = (SerializeTestComponent) components(client)[1];
+        assertEquals(42, clientComp.mHealth.get());
+        assertEquals(new Vector3f(4, 5, 6), clientComp.mPosition.get());
+    }
+
+    /** Test that the cached layout writes the same bytes as the reflective stream path. */
+    @Test
+    public void testMatchesReflectivePath() throws IOException {
+        NetworkObject[] objects = new NetworkObject[4];
+
+        for (int i = 0; i < objects.length; i++) {
+            objects[i] = createObject(i);
+        }
+
+        ByteArrayOutputStream reflective = new ByteArrayOutputStream();
+        serializeAll(new DataOutputStream(reflective), objects, false);
+
+        ByteArrayOutputStream cached = new ByteArrayOutputStream();
+        serializeAll(new DataOutputStream(cached), objects, true);
+
+        assertArrayEquals(reflective.toByteArray(), cached.toByteArray());
+    }
+
+    /**
+     * Write full updates of all objects.
+     *
+     * @param stream stream to write into.
+     * @param objects objects to serialize.
+     * @param cached whether to use the cached layout, or reflective streams.
+     */
+    static void serializeAll(
+            DataOutputStream stream, NetworkObject[] objects, boolean cached) throws IOException {
+        for (NetworkObject obj : objects) {
+            if (cached) {
+                if (obj.prepareUpdate(0, true)) {
+                    obj.writeUpdate(stream, 0);
+                }
+            } else {
+                writeReflective(stream, obj, 0, true);
+            }
+        }
+    }
+
+    /**
+     * Write an update the way {@link NetworkObject} did before caching its sync layout.
+     *
+     * @param stream stream to write into.
+     * @param obj object to serialize.
+     * @param netId network ID of the client.
+     * @param forceUpdate whether or not forcefully update all syncvars.
+     */
+    private static void writeReflective(
+            DataOutputStream stream, NetworkObject obj, int netId, boolean forceUpdate)
+            throws IOException {
+        ArrayList<ISyncVar> vars =
+                obj.getNetworkableComponents().stream()
+                        .filter(Reference::isValid)
+                        .map(Reference::get)
+                        .flatMap(NetworkObjectSerializeTest::reflectiveSyncVars)
+                        .collect(Collectors.toCollection(ArrayList::new));
+
+        ArrayList<Boolean> mask =
+                vars.stream()
+                        .map(s -> forceUpdate || s.isDirty(netId))
+                        .collect(Collectors.toCollection(ArrayList::new));
+
+        if (!mask.contains(true)) {
+            return;
+        }
+
+        byte[] maskBytes = NetworkMessage.convertCollectionMaskToBytes(mask);
+
+        stream.writeByte(NetworkConfig.Codes.MESSAGE_UPDATE_OBJECT);
+        stream.writeInt(obj.getNetworkObjectId());
+        stream.writeByte((byte) maskBytes.length);
+        stream.write(maskBytes);
+
+        for (int i = 0; i < vars.size(); i++) {
+            if (!mask.get(i)) continue;
+            vars.get(i).serialize(stream, netId);
+            vars.get(i).resetDirtyFlag(netId);
+        }
+    }
+
+    /**
+     * Read syncvars of a component through reflection.
+     *
+     * @param nc component to read.
+     * @return stream of syncvars.
+     */
+    private static Stream<ISyncVar> reflectiveSyncVars(NetworkableComponent nc) {
+        Field[] fields = SyncLayout.get(nc.getClass()).getSyncFields();
+
+        return Arrays.stream(fields)
+                .map(
+                        f -> {
+                            try {
+                                return (ISyncVar) f.get(nc);
+                            } catch (IllegalAccessException e) {
+                                return null;
+                            }
+                        });
+    }
+
+    /**
+     * Create an initialised network object with two test components.
+     *
+     * @param id network ID of the object.
+     * @return the network object.
+     */
+    static NetworkObject createObject(int id) {
+        GameObject go = new GameObject("serialize_test");
+        NetworkObject obj = new NetworkObject(id, -1, true, null);
+        go.addComponent(obj);
+        go.addComponent(new SerializeTestComponent());
+        go.addComponent(new SerializeTestComponent());
+        obj.networkInitialize();
+        return obj;
+    }
+
+    /**
+     * Get networkable components of an object.
+     *
+     * @param obj network object.
+     * @return array of its networkable components.
+     */
+    private static NetworkableComponent[] components(NetworkObject obj) {
+        return obj.getNetworkableComponents().stream()
+                .map(Reference::get)
+                .toArray(NetworkableComponent[]::new);
+    }
+}
@@ -0,0 +1,63 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.network.components;
+
+import lombok.extern.java.Log;
+import org.dragonskulle.network.ServerClient;
+import org.junit.Test;
+
+/**
+ * Benchmark of sharing encoded object updates between clients.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Runs the server's late network update loop for 500 objects, and measures the time per
+ *     tick with and without shared encoding, as the number of clients grows. Only run with the
+ *     {@code benchmark} profile.
+ */
+@Log
+public class SharedEncodingBenchmark {
+    /** Number of objects updated every tick. */
+    private static final int OBJECT_COUNT = 500;
+    /** Client counts to benchmark with. */
+    private static final int[] CLIENT_COUNTS = {1, 2, 4, 8, 16, 32};
+    /** Number of warmup ticks. */
+    private static final int WARMUP_TICKS = 300;
+    /** Number of measured ticks. */
+    private static final int TICKS = 300;
+
+    /** Measure the cost of a tick with and without shared encoding. */
+    @Test
+    public void benchmarkTick() {
+        for (int clientCount : CLIENT_COUNTS) {
+            long perClient = measure(clientCount, false);
+            long shared = measure(clientCount, true);
+
+            log.info(
+                    String.format(
+                            "%d objects, %2d clients: %8.1f us per tick per client encoding, %8.1f"
+                                    + " us per tick shared encoding",
+                            OBJECT_COUNT,
+                            clientCount,
+                            perClient / 1000.0 / TICKS,
+                            shared / 1000.0 / TICKS));
+        }
+    }
+
+    /**
+     * Measure the time of a number of ticks.
+     *
+     * @param clientCount number of clients to update.
+     * @param shared whether to use shared encoding.
+     * @return total time of measured ticks, in nanoseconds.
+     */
+    private static long measure(int clientCount, boolean shared) {
+        NetworkObject[] objects = SharedEncodingTest.createObjects(OBJECT_COUNT);
+        ServerClient[] clients = SharedEncodingTest.createClients(clientCount, null);
+        SharedUpdateBuffer buffer = shared ? new SharedUpdateBuffer() : null;
+
+        SharedEncodingTest.runTicks(objects, clients, buffer, WARMUP_TICKS);
+
+        long start = System.nanoTime();
+        SharedEncodingTest.runTicks(objects, clients, buffer, TICKS);
+        return System.nanoTime() - start;
+    }
+}
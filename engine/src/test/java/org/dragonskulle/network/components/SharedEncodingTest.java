@@ -0,0 +1,239 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.network.components;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.OutputStream;
+import org.dragonskulle.core.GameObject;
+import org.dragonskulle.network.ServerClient;
+import org.dragonskulle.network.TestServerClients;
+import org.dragonskulle.network.components.NetworkObjectSerializeTest.SerializeTestComponent;
+import org.dragonskulle.network.components.sync.ISyncVar;
+import org.joml.Vector3f;
+import org.junit.Test;
+
+/**
+ * Tests for sharing encoded object updates between clients.
+ *
+ * @author Aurimas Blažulionis
+ */
+public class SharedEncodingTest {
+    /** Number of objects updated every tick. */
+    private static final int OBJECT_COUNT = 50;
+
+    /** Stream that discards everything written into it. */
+    private static final OutputStream NULL_OUTPUT =
+            new OutputStream() {
+                @Override
+                public void write(int b) {}
+
+                @Override
+                public void write(byte[] b, int off, int len) {}
+            };
+
+    /** Syncvar that is always dirty, and counts how many times it got serialized. */
+    private static class CountingSyncVar implements ISyncVar {
+        private final boolean mClientIndependent;
+        int mSerializeCount = 0;
+
+        CountingSyncVar(boolean clientIndependent) {
+            mClientIndependent = clientIndependent;
+        }
+
+        @Override
+        public boolean isDirty(int clientId) {
+            return true;
+        }
+
+        @Override
+        public boolean isClientIndependent() {
+            return mClientIndependent;
+        }
+
+        @Override
+        public void serialize(DataOutput stream, int clientId) throws IOException {
+            mSerializeCount++;
+            stream.writeInt(clientId);
+        }
+
+        @Override
+        public void deserialize(DataInput stream) throws IOException {
+            stream.readInt();
+        }
+    }
+
+    /** Component with a client independent syncvar. */
+    public static class SharedComponent extends NetworkableComponent {
+        private final CountingSyncVar mVar = new CountingSyncVar(true);
+
+        @Override
+        protected void onDestroy() {}
+    }
+
+    /** Component with a client dependent syncvar. */
+    public static class PerClientComponent extends NetworkableComponent {
+        private final CountingSyncVar mVar = new CountingSyncVar(false);
+
+        @Override
+        protected void onDestroy() {}
+    }
+
+    /** Test that client independent objects are serialized once per tick. */
+    @Test
+    public void testSharedSerializedOnce() {
+        SharedComponent shared = new SharedComponent();
+        NetworkObject sharedObj = createObject(0, shared);
+
+        PerClientComponent perClient = new PerClientComponent();
+        NetworkObject perClientObj = createObject(1, perClient);
+
+        ServerClient[] clients = createClients(4, null);
+        SharedUpdateBuffer buffer = new SharedUpdateBuffer();
+
+        tick(new NetworkObject[] {sharedObj, perClientObj}, clients, buffer);
+
+        assertEquals(1, shared.mVar.mSerializeCount);
+        assertEquals(4, perClient.mVar.mSerializeCount);
+
+        tick(new NetworkObject[] {sharedObj, perClientObj}, clients, buffer);
+
+        assertEquals(2, shared.mVar.mSerializeCount);
+        assertEquals(8, perClient.mVar.mSerializeCount);
+    }
+
+    /** Test that clients receive the same bytes with and without shared encoding. */
+    @Test
+    public void testSharedOutputMatches() {
+        ByteArrayOutputStream[] sharedOut = new ByteArrayOutputStream[4];
+        ByteArrayOutputStream[] perClientOut = new ByteArrayOutputStream[4];
+
+        runTicks(
+                createObjects(OBJECT_COUNT),
+                createClients(4, sharedOut),
+                new SharedUpdateBuffer(),
+                3);
+        runTicks(createObjects(OBJECT_COUNT), createClients(4, perClientOut), null, 3);
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(sharedOut[i].size() > 0);
+            assertArrayEquals(perClientOut[i].toByteArray(), sharedOut[i].toByteArray());
+        }
+    }
+
+    /**
+     * Dirty all objects, and run a number of ticks.
+     *
+     * @param objects objects to update.
+     * @param clients clients to send the updates to.
+     * @param buffer shared update buffer, or {@code null} to encode per client.
+     * @param ticks number of ticks to run.
+     */
+    static void runTicks(
+            NetworkObject[] objects,
+            ServerClient[] clients,
+            SharedUpdateBuffer buffer,
+            int ticks) {
+        Vector3f position = new Vector3f();
+
+        for (int t = 0; t < ticks; t++) {
+            position.set(t, t, t);
+
+            for (NetworkObject obj : objects) {
+                SerializeTestComponent comp =
+                        (SerializeTestComponent) obj.getNetworkableComponents().get(0).get();
+                comp.mHealth.set(t);
+                comp.mPosition.set(position);
+            }
+
+            tick(objects, clients, buffer);
+        }
+    }
+
+    /**
+     * Run a single tick the way {@link ServerNetworkManager} does.
+     *
+     * @param objects objects to update.
+     * @param clients clients to send the updates to.
+     * @param buffer shared update buffer, or {@code null} to encode per client.
+     */
+    private static void tick(
+            NetworkObject[] objects, ServerClient[] clients, SharedUpdateBuffer buffer) {
+        if (buffer != null) {
+            buffer.nextTick();
+        }
+
+        for (ServerClient client : clients) {
+            client.beginBatch();
+            for (NetworkObject obj : objects) {
+                obj.sendUpdate(client, false, buffer);
+            }
+            client.endBatch();
+        }
+
+        for (NetworkObject obj : objects) {
+            obj.resetUpdateMask();
+        }
+    }
+
+    /**
+     * Create clients writing into byte streams.
+     *
+     * @param count number of clients.
+     * @param outputs array to store the streams in, or {@code null} to discard the output.
+     * @return the clients.
+     */
+    static ServerClient[] createClients(int count, ByteArrayOutputStream[] outputs) {
+        ServerClient[] clients = new ServerClient[count];
+
+        for (int i = 0; i < count; i++) {
+            OutputStream out = NULL_OUTPUT;
+
+            if (outputs != null) {
+                outputs[i] = new ByteArrayOutputStream();
+                out = outputs[i];
+            }
+
+            clients[i] = TestServerClients.create(i, out);
+        }
+
+        return clients;
+    }
+
+    /**
+     * Create objects with a typical mix of syncvars.
+     *
+     * @param count number of objects.
+     * @return initialised network objects.
+     */
+    static NetworkObject[] createObjects(int count) {
+        NetworkObject[] objects = new NetworkObject[count];
+
+        for (int i = 0; i < count; i++) {
+            objects[i] = createObject(i, new SerializeTestComponent());
+        }
+
+        return objects;
+    }
+
+    /**
+     * Create an initialised network object.
+     *
+     * @param id network ID of the object.
+     * @param component networkable component to attach.
+     * @return the network object.
+     */
+    private static NetworkObject createObject(int id, NetworkableComponent component) {
+        GameObject go = new GameObject("shared_encoding_test");
+        NetworkObject obj = new NetworkObject(id, -1, true, null);
+        go.addComponent(obj);
+        go.addComponent(component);
+        obj.networkInitialize();
+        return obj;
+    }
+}
@@ -0,0 +1,46 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.network.components;
+
+import static org.dragonskulle.network.components.SyncVarBandwidthTest.PLAYER_COUNT;
+
+import java.io.IOException;
+import lombok.extern.java.Log;
+import org.dragonskulle.network.components.SyncVarBandwidthTest.Match;
+import org.junit.Test;
+
+/**
+ * Bandwidth report of packed syncvars over a long scripted 8 player match.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Runs the match of {@link SyncVarBandwidthTest} with plain and packed syncvars. Only run
+ *     with the {@code benchmark} profile.
+ */
+@Log
+public class SyncVarBandwidthBenchmark {
+    /** Number of network ticks in the match. */
+    private static final int TICKS = 3000;
+
+    /** Run the match with plain and packed syncvars, and compare the traffic. */
+    @Test
+    public void benchmarkMatchBandwidth() throws IOException {
+        Match plain = SyncVarBandwidthTest.runMatch(false, TICKS);
+        Match packed = SyncVarBandwidthTest.runMatch(true, TICKS);
+
+        long plainBytes = plain.totalBytes();
+        long packedBytes = packed.totalBytes();
+
+        log.info(
+                String.format(
+                        "%d player match, %d ticks, %d objects: plain %d bytes (%.1f per client"
+                                + " per tick), packed %d bytes (%.1f per client per tick), %.1f%%"
+                                + " saved",
+                        PLAYER_COUNT,
+                        TICKS,
+                        packed.mObjects.size(),
+                        plainBytes,
+                        plainBytes / (double) PLAYER_COUNT / TICKS,
+                        packedBytes,
+                        packedBytes / (double) PLAYER_COUNT / TICKS,
+                        100.0 * (plainBytes - packedBytes) / plainBytes));
+    }
+}
@@ -0,0 +1,350 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.network.components;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.dragonskulle.core.GameObject;
+import org.dragonskulle.network.NetworkConfig;
+import org.dragonskulle.network.ServerClient;
+import org.dragonskulle.network.TestServerClients;
+import org.dragonskulle.network.components.sync.SyncBool;
+import org.dragonskulle.network.components.sync.SyncDeltaInt;
+import org.dragonskulle.network.components.sync.SyncFloat;
+import org.dragonskulle.network.components.sync.SyncInt;
+import org.dragonskulle.network.components.sync.SyncQuantizedVector3;
+import org.dragonskulle.network.components.sync.SyncVarInt;
+import org.dragonskulle.network.components.sync.SyncVector3;
+import org.joml.Vector3f;
+import org.junit.Test;
+
+/**
+ * Tests of packed syncvars over a scripted 8 player match.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>The match mirrors the syncvars of players and buildings. Players earn tokens, place
+ *     buildings, upgrade their stats and attack, driven by a fixed seed, so both runs go through
+ *     the exact same changes. One run uses plain syncvars, the other uses variable length stats,
+ *     delta encoded tokens and quantized positions, the way the game does. Every update is
+ *     also applied on a replica of the first client, to check that nothing gets lost.
+ */
+public class SyncVarBandwidthTest {
+    /** Number of players, and clients, in the match. */
+    static final int PLAYER_COUNT = 8;
+    /** Number of network ticks in the match. */
+    private static final int TICKS = 300;
+    /** Seed of the match script. */
+    private static final long SEED = 8;
+    /** Most buildings a player may own. */
+    private static final int MAX_BUILDINGS = 40;
+    /** Cost of a building. */
+    private static final int BUILDING_COST = 10;
+
+    /** Stream that counts the bytes written into it. */
+    private static class CountingOutputStream extends OutputStream {
+        long mCount = 0;
+
+        @Override
+        public void write(int b) {
+            mCount++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            mCount += len;
+        }
+    }
+
+    /** Mirror of the player's syncvars. */
+    public static class MatchPlayer extends NetworkableComponent {
+        final SyncInt mTokens;
+        final SyncFloat mLastAttack = new SyncFloat(-10f);
+        final SyncFloat mInflation = new SyncFloat(0f);
+        final SyncBool mOwnsCapital = new SyncBool(true);
+        final SyncVector3 mColour = new SyncVector3();
+
+        MatchPlayer(boolean packed) {
+            mTokens = packed ? new SyncDeltaInt(0) : new SyncInt(0);
+        }
+
+        @Override
+        protected void onDestroy() {}
+    }
+
+    /** Mirror of the syncvars of a building, and its transform. */
+    public static class MatchBuilding extends NetworkableComponent {
+        final SyncVector3 mPosition;
+        final SyncInt[] mStats = new SyncInt[6];
+        final SyncInt mAttack;
+        final SyncInt mDefence;
+        final SyncInt mTokenGeneration;
+        final SyncInt mViewDistance;
+        final SyncInt mAttackDistance;
+        final SyncInt mBuildDistance;
+        final SyncInt mSellPrice;
+        final SyncFloat mActionLockTime = new SyncFloat();
+        final SyncBool mIsCapital = new SyncBool(false);
+
+        MatchBuilding(boolean packed) {
+            mPosition =
+                    packed
+                            ? new SyncQuantizedVector3(
+                                    -128f, -128f + 65535 / 256f, 16, new Vector3f())
+                            : new SyncVector3(new Vector3f());
+
+            for (int i = 0; i < mStats.length; i++) {
+                mStats[i] = packed ? new SyncVarInt(1) : new SyncInt(1);
+            }
+
+            mAttack = mStats[0];
+            mDefence = mStats[1];
+            mTokenGeneration = mStats[2];
+            mViewDistance = mStats[3];
+            mAttackDistance = mStats[4];
+            mBuildDistance = mStats[5];
+            mSellPrice = packed ? new SyncVarInt(2) : new SyncInt(2);
+        }
+
+        @Override
+        protected void onDestroy() {}
+    }
+
+    /** State of a single match run. */
+    static class Match {
+        final boolean mPacked;
+        final Random mRand = new Random(SEED);
+        final ServerClient[] mClients = new ServerClient[PLAYER_COUNT];
+        final CountingOutputStream[] mCounters = new CountingOutputStream[PLAYER_COUNT];
+        final ByteArrayOutputStream mReplicaOutput = new ByteArrayOutputStream();
+        final SharedUpdateBuffer mShared = new SharedUpdateBuffer();
+        final List<NetworkObject> mObjects = new ArrayList<>();
+        final Map<Integer, NetworkObject> mReplicas = new HashMap<>();
+        final MatchPlayer[] mPlayers = new MatchPlayer[PLAYER_COUNT];
+        final List<List<MatchBuilding>> mBuildings = new ArrayList<>();
+        int mSpawnedUpTo = 0;
+
+        Match(boolean packed) {
+            mPacked = packed;
+
+            for (int i = 0; i < PLAYER_COUNT; i++) {
+                mCounters[i] = new CountingOutputStream();
+                OutputStream out = i == 0 ? mReplicaOutput : mCounters[i];
+                mClients[i] = TestServerClients.create(i, out);
+                mPlayers[i] = spawn(new MatchPlayer(packed), new MatchPlayer(packed));
+                mPlayers[i].mColour.set(new Vector3f(i / 8f, 1f - i / 8f, 0.5f));
+                mBuildings.add(new ArrayList<>());
+            }
+        }
+
+        /**
+         * Spawn an object on the server, and on the replica.
+         *
+         * @param server component of the server object.
+         * @param replica component of the replica.
+         * @return the server component.
+         */
+        <T extends NetworkableComponent> T spawn(T server, T replica) {
+            int id = mObjects.size();
+            mObjects.add(createObject(id, server));
+            mReplicas.put(id, createObject(id, replica));
+            return server;
+        }
+
+        /**
+         * Run a single tick of the match script.
+         *
+         * @param tick index of the tick.
+         */
+        void script(int tick) {
+            float time = tick * 0.1f;
+
+            for (int p = 0; p < PLAYER_COUNT; p++) {
+                MatchPlayer player = mPlayers[p];
+                List<MatchBuilding> buildings = mBuildings.get(p);
+
+                if (tick % 20 == 0) {
+                    player.mTokens.add(1 + buildings.size() / 2);
+                }
+
+                if (player.mTokens.get() >= BUILDING_COST && buildings.size() < MAX_BUILDINGS) {
+                    MatchBuilding building =
+                            spawn(new MatchBuilding(mPacked), new MatchBuilding(mPacked));
+                    building.mPosition.set(
+                            new Vector3f(
+                                    mRand.nextInt(51) - 25,
+                                    mRand.nextInt(51) - 25,
+                                    mRand.nextFloat() * 2f));
+                    building.mAttack.set(1 + mRand.nextInt(3));
+                    building.mDefence.set(1 + mRand.nextInt(3));
+                    building.mSellPrice.set(BUILDING_COST / 2);
+                    building.mIsCapital.set(buildings.isEmpty());
+                    buildings.add(building);
+                    player.mTokens.subtract(BUILDING_COST);
+                }
+
+                if (!buildings.isEmpty() && mRand.nextFloat() < 0.02f) {
+                    MatchBuilding building = buildings.get(mRand.nextInt(buildings.size()));
+                    SyncInt stat = building.mStats[mRand.nextInt(building.mStats.length)];
+
+                    if (stat.get() < 10) {
+                        stat.add(1);
+                        building.mSellPrice.add(1);
+                        player.mTokens.subtract(stat.get());
+                    }
+                }
+
+                if (!buildings.isEmpty() && mRand.nextFloat() < 0.01f) {
+                    MatchBuilding building = buildings.get(mRand.nextInt(buildings.size()));
+                    player.mLastAttack.set(time);
+                    building.mActionLockTime.set(time + 5f);
+
+                    List<MatchBuilding> targets = mBuildings.get(mRand.nextInt(PLAYER_COUNT));
+                    if (!targets.isEmpty()) {
+                        MatchBuilding target = targets.get(mRand.nextInt(targets.size()));
+                        target.mDefence.set(Math.max(1, target.mDefence.get() - 1));
+                    }
+                }
+
+                if (tick % 100 == 0) {
+                    player.mInflation.set(mRand.nextFloat());
+                }
+            }
+        }
+
+        /** Send out the updates of a tick, the way {@link ServerNetworkManager} does. */
+        void send() throws IOException {
+            mShared.nextTick();
+
+            for (ServerClient client : mClients) {
+                client.beginBatch();
+                for (int i = 0; i < mObjects.size(); i++) {
+                    mObjects.get(i).sendUpdate(client, i >= mSpawnedUpTo, mShared);
+                }
+                client.endBatch();
+            }
+
+            for (NetworkObject obj : mObjects) {
+                obj.resetUpdateMask();
+            }
+
+            mSpawnedUpTo = mObjects.size();
+
+            applyToReplica();
+        }
+
+        /** Apply the messages received by the first client on its replica. */
+        void applyToReplica() throws IOException {
+            DataInputStream in =
+                    new DataInputStream(new ByteArrayInputStream(mReplicaOutput.toByteArray()));
+            mCounters[0].mCount += mReplicaOutput.size();
+            mReplicaOutput.reset();
+
+            while (in.available() > 0) {
+                in.readShort();
+                assertEquals(NetworkConfig.Codes.MESSAGE_UPDATE_OBJECT, in.readByte());
+                NetworkObject replica = mReplicas.get(in.readInt());
+                replica.updateFromBytes(in);
+            }
+        }
+
+        /**
+         * Get the total number of bytes sent to all clients.
+         *
+         * @return number of bytes
+         */
+        long totalBytes() {
+            long total = 0;
+            for (CountingOutputStream counter : mCounters) {
+                total += counter.mCount;
+            }
+            return total;
+        }
+    }
+
+    /** Test that packed syncvars send less, and that the replica receives every change. */
+    @Test
+    public void testPackedMatch() throws IOException {
+        Match plain = runMatch(false, TICKS);
+        Match packed = runMatch(true, TICKS);
+
+        assertEquals(plain.mObjects.size(), packed.mObjects.size());
+        assertTrue(packed.totalBytes() < plain.totalBytes());
+
+        assertReplicaMatches(plain);
+        assertReplicaMatches(packed);
+    }
+
+    /**
+     * Run a whole match.
+     *
+     * @param packed whether to use packed syncvars.
+     * @param ticks number of network ticks in the match.
+     * @return the finished match.
+     */
+    static Match runMatch(boolean packed, int ticks) throws IOException {
+        Match match = new Match(packed);
+
+        for (int t = 0; t < ticks; t++) {
+            match.script(t);
+            match.send();
+        }
+
+        return match;
+    }
+
+    /**
+     * Check that the first client's replica ended up with the server's values.
+     *
+     * @param match the finished match.
+     */
+    private static void assertReplicaMatches(Match match) {
+        for (int id = 0; id < match.mObjects.size(); id++) {
+            NetworkObject server = match.mObjects.get(id);
+            NetworkObject replica = match.mReplicas.get(id);
+
+            NetworkableComponent serverComp = server.getNetworkableComponents().get(0).get();
+            NetworkableComponent replicaComp = replica.getNetworkableComponents().get(0).get();
+
+            if (serverComp instanceof MatchPlayer) {
+                MatchPlayer s = (MatchPlayer) serverComp;
+                MatchPlayer r = (MatchPlayer) replicaComp;
+                assertEquals(s.mTokens.get(), r.mTokens.get());
+                assertEquals(s.mLastAttack.get(), r.mLastAttack.get(), 0f);
+            } else {
+                MatchBuilding s = (MatchBuilding) serverComp;
+                MatchBuilding r = (MatchBuilding) replicaComp;
+                assertEquals(s.mPosition.get(), r.mPosition.get());
+                for (int i = 0; i < s.mStats.length; i++) {
+                    assertEquals(s.mStats[i].get(), r.mStats[i].get());
+                }
+                assertEquals(s.mSellPrice.get(), r.mSellPrice.get());
+            }
+        }
+    }
+
+    /**
+     * Create an initialised network object.
+     *
+     * @param id network ID of the object.
+     * @param component networkable component to attach.
+     * @return the network object.
+     */
+    private static NetworkObject createObject(int id, NetworkableComponent component) {
+        GameObject go = new GameObject("bandwidth_test");
+        NetworkObject obj = new NetworkObject(id, -1, true, null);
+        go.addComponent(obj);
+        go.addComponent(component);
+        obj.networkInitialize();
+        return obj;
+    }
+}
@@ -0,0 +1,197 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.network.components.sync;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import org.joml.Vector3f;
+import org.junit.Test;
+
+/**
+ * Tests for quantized, variable length and delta encoded syncvars.
+ *
+ * @author Aurimas Blažulionis
+ */
+public class PackedSyncVarTest {
+    /** Bit counts to test quantized floats with. */
+    private static final int[] BIT_COUNTS = {1, 4, 8, 12, 16};
+
+    /** Test that every representable value round trips exactly. */
+    @Test
+    public void testQuantizedFloatExactRoundTrip() throws IOException {
+        for (int bits : BIT_COUNTS) {
+            SyncQuantizedFloat server = new SyncQuantizedFloat(-10f, 30f, bits);
+            SyncQuantizedFloat client = new SyncQuantizedFloat(-10f, 30f, bits);
+            Quantization quantization = new Quantization(-10f, 30f, bits);
+
+            for (int step = 0; step < (1 << bits); step++) {
+                server.set(quantization.dequantize(step));
+                byte[] bytes = serialize(server, 0);
+
+                assertEquals((bits + 7) / 8, bytes.length);
+
+                client.deserialize(input(bytes));
+                assertEquals(server.get(), client.get(), 0f);
+            }
+        }
+    }
+
+    /** Test that arbitrary values are rounded to the configured precision. */
+    @Test
+    public void testQuantizedFloatPrecision() throws IOException {
+        Random rand = new Random(1234);
+
+        for (int bits : BIT_COUNTS) {
+            SyncQuantizedFloat server = new SyncQuantizedFloat(-10f, 30f, bits);
+            SyncQuantizedFloat client = new SyncQuantizedFloat(-10f, 30f, bits);
+            float maxError = server.getPrecision() / 2 + 1e-5f;
+
+            for (int i = 0; i < 1000; i++) {
+                float value = -10f + rand.nextFloat() * 40f;
+                server.set(value);
+                client.deserialize(input(serialize(server, 0)));
+
+                assertEquals(value, client.get(), maxError);
+                assertEquals(server.get(), client.get(), 0f);
+            }
+        }
+    }
+
+    /** Test that out of range values are clamped. */
+    @Test
+    public void testQuantizedFloatClamps() {
+        SyncQuantizedFloat var = new SyncQuantizedFloat(0f, 1f, 8, 5f);
+        assertEquals(1f, var.get(), 0f);
+        var.set(-3f);
+        assertEquals(0f, var.get(), 0f);
+        var.set(Float.NaN);
+        assertEquals(0f, var.get(), 0f);
+    }
+
+    /** Test that quantized vectors are packed, and round trip exactly. */
+    @Test
+    public void testQuantizedVectorRoundTrip() throws IOException {
+        SyncQuantizedVector3 server = new SyncQuantizedVector3(-64f, 64f, 10);
+        SyncQuantizedVector3 client = new SyncQuantizedVector3(-64f, 64f, 10);
+        Random rand = new Random(4321);
+        float maxError = server.getPrecision() / 2 + 1e-5f;
+
+        for (int i = 0; i < 1000; i++) {
+            Vector3f value =
+                    new Vector3f(rand.nextFloat(), rand.nextFloat(), rand.nextFloat())
+                            .mul(128f)
+                            .sub(64f, 64f, 64f);
+            server.set(value);
+            byte[] bytes = serialize(server, 0);
+
+            // 3 * 10 bits fit in 4 bytes
+            assertEquals(4, bytes.length);
+
+            client.deserialize(input(bytes));
+            assertEquals(server.get(), client.get());
+            assertTrue(value.distance(client.get()) <= maxError * (float) Math.sqrt(3));
+        }
+    }
+
+    /** Test that variable length ints round trip, and small ones take a single byte. */
+    @Test
+    public void testVarIntRoundTrip() throws IOException {
+        SyncVarInt server = new SyncVarInt(0);
+        SyncVarInt client = new SyncVarInt();
+
+        for (int value : new int[] {0, 5, -5, 63, 1000, -100000, Integer.MAX_VALUE}) {
+            server.set(value);
+            client.deserialize(input(serialize(server, 0)));
+            assertEquals(value, client.get());
+        }
+
+        server.set(10);
+        assertEquals(1, serialize(server, 0).length);
+    }
+
+    /** Test that delta ints track a baseline per client. */
+    @Test
+    public void testDeltaIntPerClientBaselines() throws IOException {
+        SyncDeltaInt server = new SyncDeltaInt(100);
+        SyncDeltaInt client1 = new SyncDeltaInt(100);
+        SyncDeltaInt client2 = new SyncDeltaInt(100);
+
+        assertFalse(server.isDirty(1));
+        assertFalse(server.isClientIndependent());
+
+        server.set(5000);
+        assertTrue(server.isDirty(1));
+        assertTrue(server.isDirty(2));
+
+        client1.deserialize(input(serialize(server, 1)));
+        assertEquals(5000, client1.get());
+        assertFalse(server.isDirty(1));
+        assertTrue(server.isDirty(2));
+
+        // Client 1 only receives a small change
+        server.add(3);
+        byte[] bytes = serialize(server, 1);
+        assertEquals(1, bytes.length);
+        client1.deserialize(input(bytes));
+        assertEquals(5003, client1.get());
+
+        // Client 2 catches up on everything at once
+        client2.deserialize(input(serialize(server, 2)));
+        assertEquals(5003, client2.get());
+
+        // Forced updates without changes send an empty delta
+        client2.deserialize(input(serialize(server, 2)));
+        assertEquals(5003, client2.get());
+
+        // Clients that connect later start from the initial value
+        SyncDeltaInt client40 = new SyncDeltaInt(100);
+        client40.deserialize(input(serialize(server, 40)));
+        assertEquals(5003, client40.get());
+    }
+
+    /** Test that a reused client ID starts from the initial value after its client was removed. */
+    @Test
+    public void testDeltaIntRemovedClient() throws IOException {
+        SyncDeltaInt server = new SyncDeltaInt(100);
+        server.set(250);
+        new SyncDeltaInt(100).deserialize(input(serialize(server, 3)));
+        assertFalse(server.isDirty(3));
+
+        server.removeClient(3);
+        assertTrue(server.isDirty(3));
+
+        SyncDeltaInt rejoined = new SyncDeltaInt(100);
+        rejoined.deserialize(input(serialize(server, 3)));
+        assertEquals(250, rejoined.get());
+    }
+
+    /**
+     * Serialize a syncvar for a client.
+     *
+     * @param var syncvar to serialize.
+     * @param clientId ID of the client.
+     * @return the serialized bytes.
+     */
+    private static byte[] serialize(ISyncVar var, int clientId) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        var.serialize(new DataOutputStream(bytes), clientId);
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Create an input stream over bytes.
+     *
+     * @param bytes bytes to read.
+     * @return the stream.
+     */
+    private static DataInputStream input(byte[] bytes) {
+        return new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+}
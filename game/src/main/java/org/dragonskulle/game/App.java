@@ -3,6 +3,7 @@ package org.dragonskulle.game;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 import lombok.extern.java.Log;
 import org.dragonskulle.assets.GLTF;
 import org.dragonskulle.audio.AudioManager;
@@ -25,11 +26,16 @@ import org.dragonskulle.game.camera.ScrollTranslate;
 import org.dragonskulle.game.camera.TargetMovement;
 import org.dragonskulle.game.camera.ZoomTilt;
 import org.dragonskulle.game.input.GameBindings;
+import org.dragonskulle.game.lobby.HeadlessHost;
 import org.dragonskulle.game.lobby.Lobby;
 import org.dragonskulle.game.map.MapEffects;
 import org.dragonskulle.game.misc.Temperature;
+import org.dragonskulle.game.player.ai.AiPlayer;
+import org.dragonskulle.game.player.ai.AimerAi;
+import org.dragonskulle.game.player.ai.ProbabilisticAiPlayer;
 import org.dragonskulle.game.player.ui.UIPauseMenu;
 import org.dragonskulle.game.player.ui.UISettingsMenu;
+import org.dragonskulle.game.simulation.MatchSimulator;
 import org.dragonskulle.network.components.NetworkManager;
 import org.dragonskulle.renderer.components.Camera;
 import org.dragonskulle.renderer.components.Light;
@@ -62,6 +68,9 @@ public class App implements NativeResource {
 
     public static final Resource<GLTF> TEMPLATES = GLTF.getResource("templates");
 
+    /** Seconds a dedicated server waits for more players after the first one joins. */
+    private static final float HOST_START_DELAY = 30f;
+
     /**
      * Adds the debug overlay, this is enabled by pressing F3.
      *
@@ -309,7 +318,7 @@ public class App implements NativeResource {
      * @return a new template manager containing all networked templates from network templates glTF
      *     file.
      */
-    TemplateManager createTemplateManager() {
+    public TemplateManager createTemplateManager() {
         TemplateManager templates = new TemplateManager();
 
         for (GameObject obj : mNetworkTemplatesGltf.get().getDefaultScene().getGameObjects()) {
@@ -461,6 +470,42 @@ public class App implements NativeResource {
      * @param args the input arguments
      */
     public static void main(String[] args) {
+        LaunchOptions options;
+
+        try {
+            options = LaunchOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LaunchOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        if (options.getMatches() > 0) {
+            String configPath = options.getConfigPath();
+            GameConfig config =
+                    configPath != null
+                            ? GameConfig.fromFile(configPath)
+                            : GameConfig.getDefaultConfig();
+
+            if (config == null) {
+                log.severe("Failed to load config " + configPath);
+                System.exit(1);
+            }
+
+            try (App app = new App()) {
+                app.runSimulation(
+                        config, options.getMatches(), options.getThreads(), options.getTimeLimit());
+            }
+            System.exit(0);
+        }
+
+        if (options.isHeadless()) {
+            try (App app = new App()) {
+                app.runHeadless(options.getTickRate());
+            }
+            System.exit(0);
+        }
 
         GameUIAppearance.initialise();
 
@@ -487,6 +532,57 @@ public class App implements NativeResource {
         Engine.getInstance().start("Hex Wars", new GameBindings(), mSettings);
     }
 
+    /**
+     * Run a dedicated server, without a window, or audio.
+     *
+     * @param tickRate number of fixed updates per second.
+     */
+    private void runHeadless(int tickRate) {
+        Scene serverScene = new Scene("server");
+
+        // The server never presents its game scene, so it does not need any cameras, or UI
+        Reference<NetworkManager> networkManager =
+                new NetworkManager(createTemplateManager(), (__, ___) -> new Scene("game"))
+                        .getReference(NetworkManager.class);
+
+        serverScene.addRootObject(
+                new GameObject(
+                        "serverNetworkManager",
+                        (handle) -> {
+                            handle.addComponent(networkManager.get());
+                            handle.addComponent(new HeadlessHost(networkManager, HOST_START_DELAY));
+                        }));
+
+        Engine engine = Engine.getInstance();
+        engine.activateScene(serverScene);
+        engine.setUpdatesPerSecond(tickRate);
+        engine.startHeadless();
+    }
+
+    /**
+     * Simulate matches between AI players, without a window, and log their statistics.
+     *
+     * <p>Seats alternate between {@link AimerAi}, and {@link ProbabilisticAiPlayer}.
+     *
+     * @param config config to play the matches with.
+     * @param matches number of matches to play.
+     * @param threads number of matches to play at once.
+     * @param timeLimit game seconds after which a match ends without a winner.
+     */
+    private void runSimulation(GameConfig config, int matches, int threads, float timeLimit) {
+        List<Supplier<AiPlayer>> seats = new ArrayList<>();
+
+        for (int i = 0; i < Lobby.MAX_PLAYERS; i++) {
+            seats.add(i % 2 == 0 ? AimerAi::new : ProbabilisticAiPlayer::new);
+        }
+
+        MatchSimulator simulator = new MatchSimulator(config, seats, this::createTemplateManager);
+        simulator.setTimeLimit(timeLimit);
+
+        log.info("Simulating " + matches + " matches on " + threads + " threads");
+        log.info(simulator.run(matches, threads).toString());
+    }
+
     @Override
     public void free() {
         mMainMenuGltf.free();
@@ -41,9 +41,10 @@ public class GameConfig implements ISyncVar {
     private static final String OVERRIDE_CONFIG_PATH = "game_config_override.json";
     private static final String CACHED_CONFIG_PATH = "game_config_cache.json";
 
+    /** Default config. Replaced by the web request thread once the current config arrives. */
     @Accessors(prefix = "s")
     @Getter
-    private static GameConfig sDefaultConfig = new GameConfig();
+    private static volatile GameConfig sDefaultConfig = new GameConfig();
 
     /**
      * Queue an async refresh of the default config.
@@ -336,7 +337,7 @@ public class GameConfig implements ISyncVar {
     @Setter
     @Accessors(prefix = "m")
     public static class AiAimerConfig implements INetSerializable {
-        /** Whether to use the A* route. */
+        /** The chance to follow the aimed path, instead of playing probabilistically. */
         private float mPlayAStar;
         /** The number of attempts before it will always aim for a Capital. */
         private int mMaxAttempts;
@@ -346,7 +347,7 @@ public class GameConfig implements ISyncVar {
         /**
          * Constructor for {@link AiAimerConfig}.
          *
-         * @param playAStar probability of using AStar algorithm.
+         * @param playAStar probability of following the aimed path.
          * @param maxAttempts maximum attempts of aiming for enemy capital.
          * @param tries number of tries before resetting attempts.
          */
@@ -726,4 +727,9 @@ public class GameConfig implements ISyncVar {
         // Always false, because config is only meant to be synced once.
         return false;
     }
+
+    @Override
+    public boolean isClientIndependent() {
+        return true;
+    }
 }
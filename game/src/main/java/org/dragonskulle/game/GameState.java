@@ -155,6 +155,18 @@ public class GameState extends NetworkableComponent implements IOnAwake, IFixedU
     @Override
     public void onDestroy() {}
 
+    /**
+     * Play the game with a different config.
+     *
+     * <p>This only has an effect on the server, right after the game state is spawned, and before
+     * the map, and players are, since they read the config when they get initialised.
+     *
+     * @param config the config to use.
+     */
+    public void setConfig(GameConfig config) {
+        mConfig = config;
+    }
+
     /**
      * Register the game end listener.
      *
@@ -0,0 +1,116 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.game;
+
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import org.dragonskulle.core.Engine;
+import org.dragonskulle.game.simulation.MatchSimulator;
+
+/**
+ * Options the game was launched with.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Parsed from the command line arguments. Invalid arguments are rejected with a message,
+ *     which {@link App} prints along with {@link #USAGE}.
+ */
+@Accessors(prefix = "m")
+@Getter
+class LaunchOptions {
+    /** Description of the accepted arguments. */
+    static final String USAGE =
+            "Usage: game [options]\n"
+                    + "  --headless             host a dedicated server, without a window\n"
+                    + "  --tick-rate=N          fixed updates per second of the server\n"
+                    + "  --simulate=N           simulate N AI matches, and print the results\n"
+                    + "  --threads=N            number of matches to simulate at once\n"
+                    + "  --config=PATH          game config to simulate the matches with\n"
+                    + "  --time-limit=SECONDS   game time after which a match ends in a draw";
+
+    /** Whether to run a dedicated server. */
+    private boolean mHeadless = false;
+    /** Fixed updates per second of the dedicated server. */
+    private int mTickRate = Engine.DEFAULT_UPDATES_PER_SECOND;
+    /** Number of matches to simulate, 0 to not simulate any. */
+    private int mMatches = 0;
+    /** Number of matches to simulate at once. */
+    private int mThreads = Runtime.getRuntime().availableProcessors();
+    /** Path of the config to simulate with, or {@code null} to use the default one. */
+    private String mConfigPath = null;
+    /** Game seconds after which a simulated match ends without a winner. */
+    private float mTimeLimit = MatchSimulator.DEFAULT_TIME_LIMIT;
+
+    /**
+     * Parse command line arguments.
+     *
+     * @param args the arguments.
+     * @return parsed options.
+     * @throws IllegalArgumentException if an argument is unknown, or its value is invalid.
+     */
+    static LaunchOptions parse(String[] args) {
+        LaunchOptions options = new LaunchOptions();
+
+        for (String arg : args) {
+            if (arg.equals("--headless")) {
+                options.mHeadless = true;
+            } else if (arg.startsWith("--tick-rate=")) {
+                options.mTickRate = parsePositive(arg, "--tick-rate=");
+            } else if (arg.startsWith("--simulate=")) {
+                options.mMatches = parsePositive(arg, "--simulate=");
+            } else if (arg.startsWith("--threads=")) {
+                options.mThreads = parsePositive(arg, "--threads=");
+            } else if (arg.startsWith("--config=")) {
+                options.mConfigPath = arg.substring("--config=".length());
+            } else if (arg.startsWith("--time-limit=")) {
+                options.mTimeLimit = parseTime(arg, "--time-limit=");
+            } else {
+                throw new IllegalArgumentException("Unknown argument " + arg);
+            }
+        }
+
+        return options;
+    }
+
+    /**
+     * Parse the positive integer value of an argument.
+     *
+     * @param arg the whole argument.
+     * @param option option the argument starts with, including the equals sign.
+     * @return the value.
+     * @throws IllegalArgumentException if the value is not a positive integer.
+     */
+    private static int parsePositive(String arg, String option) {
+        try {
+            int value = Integer.parseInt(arg.substring(option.length()));
+
+            if (value > 0) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // Rejected below
+        }
+
+        throw new IllegalArgumentException(arg + ": expected a positive integer");
+    }
+
+    /**
+     * Parse the positive time value of an argument.
+     *
+     * @param arg the whole argument.
+     * @param option option the argument starts with, including the equals sign.
+     * @return the value, in seconds.
+     * @throws IllegalArgumentException if the value is not a positive number.
+     */
+    private static float parseTime(String arg, String option) {
+        try {
+            float value = Float.parseFloat(arg.substring(option.length()));
+
+            if (value > 0 && !Float.isInfinite(value)) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // Rejected below
+        }
+
+        throw new IllegalArgumentException(arg + ": expected a positive number of seconds");
+    }
+}
@@ -27,6 +27,7 @@ import org.dragonskulle.components.Transform3D;
 import org.dragonskulle.components.TransformHex;
 import org.dragonskulle.core.Engine;
 import org.dragonskulle.core.GameObject;
+import org.dragonskulle.core.GameObjectPool;
 import org.dragonskulle.core.Reference;
 import org.dragonskulle.core.Resource;
 import org.dragonskulle.core.SingletonStore;
@@ -51,6 +52,7 @@ import org.dragonskulle.network.components.requests.ServerEvent;
 import org.dragonskulle.network.components.sync.SyncBool;
 import org.dragonskulle.network.components.sync.SyncFloat;
 import org.dragonskulle.network.components.sync.SyncInt;
+import org.dragonskulle.network.components.sync.SyncVarInt;
 import org.joml.Vector2f;
 import org.joml.Vector3f;
 import org.joml.Vector3i;
@@ -150,7 +152,7 @@ public class Building extends NetworkableComponent implements IOnAwake, IOnStart
     private static final int NEIGHBOUR_BOUND = 5;
 
     /** The reimbursement from selling a {@link Building}. */
-    private SyncInt mSellPrice = new SyncInt(2);
+    private SyncInt mSellPrice = new SyncVarInt(2);
 
     /**
      * The base price for upgrading a stat. Automatically added to {@link SyncStat#getCost()}.
@@ -403,9 +405,16 @@ public class Building extends NetworkableComponent implements IOnAwake, IOnStart
 
         mPaths.clear();
 
+        // Fireballs are shared by all buildings of the network manager, which never leave its scene
+        NetworkManager manager = getNetworkManager();
+        GameObjectPool pool =
+                manager != null
+                        ? manager.getSpawnableTemplates().getPool(FIREBALL_TEMPLATE)
+                        : new GameObjectPool(FIREBALL_TEMPLATE);
+
         for (int i = 0; i < numFireballs; i++) {
             ArcPath path = new ArcPath();
-            path.setTemplate(FIREBALL_TEMPLATE);
+            path.setPool(pool);
             getGameObject().addComponent(path);
             mPaths.add(path.getReference(ArcPath.class));
         }
@@ -500,7 +509,6 @@ public class Building extends NetworkableComponent implements IOnAwake, IOnStart
     /** Generate the stored lists of {@link HexagonTile}s. */
     private void generateTileLists() {
         generateNeighboringTiles();
-        generateAttackableTiles();
         generatePlaceableTiles();
     }
 
@@ -538,59 +546,55 @@ public class Building extends NetworkableComponent implements IOnAwake, IOnStart
 
             HexagonTile tile = getTile();
 
-            List<HexagonTile> tiles = map.getTilesInRadius(tile, distance, true, new ArrayList<>());
-
             mClaimedTiles.clear();
 
-            for (HexagonTile hexagonTile : tiles) {
-                hexagonTile.setClaimedBy(this);
-            }
-
-            // Add props on the object.
-            ServerNetworkManager serverMan = getNetworkManager().getServerManager();
-
-            int ownerId = getNetworkObject().getOwnerId();
-            int objId = getNetworkObject().getId();
-
-            int propId = 0;
+            map.forEachInRadius(tile, 0, distance, t -> t.setClaimedBy(this));
 
             // Defence is always spawned on the tile.
-            Reference<NetworkObject> nob =
-                    serverMan.spawnNetworkObject(
-                            ownerId, getNetworkManager().findTemplateByName(PROPS[propId++]));
-            nob.get()
-                    .getGameObject()
-                    .getComponent(BuildingProps.class)
-                    .get()
-                    .getBuildingNetId()
-                    .set(objId);
-            nob.get()
-                    .getGameObject()
-                    .getTransform(TransformHex.class)
-                    .setPosition(tile.getQ(), tile.getR());
-
-            for (HexagonTile hexagonTile : tiles) {
-                if (propId >= PROPS.length) break;
-                if (hexagonTile == tile) continue;
-                if (hexagonTile.getTileType() != TileType.LAND) continue;
-                if (hexagonTile.getClaimedBy() != this) continue;
-                nob =
-                        serverMan.spawnNetworkObject(
-                                ownerId, getNetworkManager().findTemplateByName(PROPS[propId++]));
-                nob.get()
-                        .getGameObject()
-                        .getComponent(BuildingProps.class)
-                        .get()
-                        .getBuildingNetId()
-                        .set(objId);
-                nob.get()
-                        .getGameObject()
-                        .getTransform(TransformHex.class)
-                        .setPosition(hexagonTile.getQ(), hexagonTile.getR());
-            }
+            spawnProp(PROPS[0], tile);
+
+            // The rest go on the first claimed land tiles around it.
+            int[] propId = {1};
+
+            map.forEachInRadius(
+                    tile,
+                    1,
+                    distance,
+                    t -> {
+                        if (propId[0] < PROPS.length
+                                && t.getTileType() == TileType.LAND
+                                && t.getClaimedBy() == this) {
+                            spawnProp(PROPS[propId[0]++], t);
+                        }
+                    });
         }
     }
 
+    /**
+     * Spawn a prop of the building.
+     *
+     * @param prop name of the prop template.
+     * @param tile tile to place the prop on.
+     */
+    private void spawnProp(String prop, HexagonTile tile) {
+        ServerNetworkManager serverMan = getNetworkManager().getServerManager();
+        int ownerId = getNetworkObject().getOwnerId();
+
+        Reference<NetworkObject> nob =
+                serverMan.spawnNetworkObject(
+                        ownerId, getNetworkManager().findTemplateByName(prop));
+        nob.get()
+                .getGameObject()
+                .getComponent(BuildingProps.class)
+                .get()
+                .getBuildingNetId()
+                .set(getNetworkObject().getId());
+        nob.get()
+                .getGameObject()
+                .getTransform(TransformHex.class)
+                .setPosition(tile.getQ(), tile.getR());
+    }
+
     /**
      * The tiles the building claims, excluding the tile the building is currently on.
      *
@@ -620,8 +624,8 @@ public class Building extends NetworkableComponent implements IOnAwake, IOnStart
     }
 
     /**
-     * Store the tiles that can be attacked around the building, excluding the tile the building is
-     * on.
+     * Store the distances of tiles around the claimed tiles in {@link #mNeighboringTiles}, and the
+     * ones right next to them, which can be attacked, in {@link #mAttackableTiles}.
      */
     private void generateNeighboringTiles() {
         // Get the map.
@@ -631,48 +635,41 @@ public class Building extends NetworkableComponent implements IOnAwake, IOnStart
         }
 
         mNeighboringTiles.clear();
+        mAttackableTiles.clear();
 
-        Deque<HexagonTile> tilesToFill = new ArrayDeque<>();
+        Deque<HexagonTile> tilesToFill = new ArrayDeque<>(mClaimedTiles);
 
-        tilesToFill.addAll(mClaimedTiles);
+        while (!tilesToFill.isEmpty()) {
+            HexagonTile t = tilesToFill.removeFirst();
+            int val = mNeighboringTiles.getOrDefault(t, 0);
 
-        map.floodFill(
-                tilesToFill,
-                (__, t, neighbours, out) -> {
-                    Integer val = mNeighboringTiles.getOrDefault(t, 0);
+            if (val >= NEIGHBOUR_BOUND) {
+                continue;
+            }
 
-                    if (val >= NEIGHBOUR_BOUND) {
-                        return;
-                    }
+            int newVal = val + 1;
 
-                    Integer newVal = val + 1;
+            for (int d = 0; d < HexagonMap.NEIGHBOUR_COUNT; d++) {
+                HexagonTile n = map.getNeighbour(t, d);
 
-                    for (HexagonTile n : neighbours) {
-                        Integer nval = mNeighboringTiles.get(n);
+                if (n == null || n.getClaimedBy() == this) {
+                    continue;
+                }
 
-                        if ((nval == null || nval > newVal) && n.getClaimedBy() != this) {
-                            mNeighboringTiles.put(n, newVal);
-                            out.push(n);
-                        }
-                    }
-                },
-                1);
-    }
+                Integer nval = mNeighboringTiles.get(n);
 
-    /**
-     * Explores around the neighbouring tiles and stores those that are within an attacking range in
-     * {@link #mAttackableTiles}.
-     */
-    private void generateAttackableTiles() {
-        // Clear the current list of attackable tiles.
-        mAttackableTiles.clear();
+                if (nval == null || nval > newVal) {
+                    mNeighboringTiles.put(n, newVal);
+                    tilesToFill.push(n);
 
-        mNeighboringTiles.forEach(
-                (tile, val) -> {
-                    if (val == 1) {
-                        mAttackableTiles.add(tile);
+                    // Tiles right next to the claimed ones can be attacked. A tile only ever
+                    // drops to 1 once, so it is not added twice.
+                    if (newVal == 1) {
+                        mAttackableTiles.add(n);
                     }
-                });
+                }
+            }
+        }
     }
 
     /** Store the tiles that are suitable for placing a building on. */
@@ -1041,18 +1038,16 @@ public class Building extends NetworkableComponent implements IOnAwake, IOnStart
             generateTileLists();
         }
 
-        ArrayList<HexagonTile> tilesAround = new ArrayList<>();
-
         mPlaceableTiles.forEach(
                 (tile) -> {
                     if (tile.isClaimed() || tile.hasBuilding()) {
                         return;
                     }
 
-                    map.getTilesInRadius(tile, 1, false, tilesAround);
+                    for (int d = 0; d < HexagonMap.NEIGHBOUR_COUNT; d++) {
+                        HexagonTile tileAround = map.getNeighbour(tile, d);
 
-                    for (HexagonTile tileAround : tilesAround) {
-                        if (tileAround.hasBuilding()) {
+                        if (tileAround != null && tileAround.hasBuilding()) {
                             return;
                         }
                     }
@@ -17,19 +17,19 @@ import org.dragonskulle.game.GameState;
 import org.dragonskulle.game.building.Building;
 import org.dragonskulle.game.map.HexagonTile;
 import org.dragonskulle.game.map.HexagonTile.TileType;
-import org.dragonskulle.network.components.sync.SyncInt;
+import org.dragonskulle.network.components.sync.SyncVarInt;
 import org.dragonskulle.utils.MathUtils;
 
 /**
  * Stores a level and calculates the stat's value from this.
  *
- * <p>This level value is synchronised with the server.
+ * <p>This level value is synchronised with the server, as a variable length integer.
  *
  * @author Craig Wilbourne
  */
 @Accessors(prefix = "m")
 @Log
-public class SyncStat extends SyncInt {
+public class SyncStat extends SyncVarInt {
 
     /** The lowest level possible. */
     public static final int LEVEL_MIN = 1;
@@ -0,0 +1,120 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.game.lobby;
+
+import lombok.experimental.Accessors;
+import lombok.extern.java.Log;
+import org.dragonskulle.components.Component;
+import org.dragonskulle.components.IFixedUpdate;
+import org.dragonskulle.components.IOnStart;
+import org.dragonskulle.core.Engine;
+import org.dragonskulle.core.Reference;
+import org.dragonskulle.core.Scene;
+import org.dragonskulle.game.GameConfig;
+import org.dragonskulle.game.GameState;
+import org.dragonskulle.network.components.NetworkManager;
+import org.dragonskulle.network.components.ServerNetworkManager;
+
+/**
+ * Hosts a single match on a dedicated server.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>The lobby gets opened as soon as the component starts. The game starts once the lobby is
+ *     full, or a while after the first client joined, with AI filling the empty slots. When the
+ *     game ends, or every client leaves, the server is closed and the engine stopped, so that the
+ *     process can be restarted for the next match.
+ */
+@Log
+@Accessors(prefix = "m")
+public class HeadlessHost extends Component implements IOnStart, IFixedUpdate {
+    /** Seconds to keep the server open after the game ends, so clients receive the results. */
+    private static final float END_DELAY = 5f;
+
+    /** Network manager to host the lobby on. */
+    private final Reference<NetworkManager> mNetworkManager;
+    /** Seconds to wait for more clients after the first one joins. */
+    private final float mStartDelay;
+
+    /** Seconds the lobby has had clients in it, or since the game ended. */
+    private float mTimer = 0f;
+    /** Whether the game has been started. */
+    private boolean mGameStarted = false;
+
+    /**
+     * Constructor for {@link HeadlessHost}.
+     *
+     * @param networkManager network manager to host the lobby on.
+     * @param startDelay seconds to wait for more clients after the first one joins.
+     */
+    public HeadlessHost(Reference<NetworkManager> networkManager, float startDelay) {
+        mNetworkManager = networkManager;
+        mStartDelay = startDelay;
+    }
+
+    @Override
+    public void onStart() {
+        GameConfig.refreshConfig().schedule();
+
+        boolean created =
+                Lobby.createServer(
+                        mNetworkManager.get(),
+                        (__) -> {
+                            log.info("Server closed");
+                            Engine.getInstance().stop();
+                        });
+
+        if (created) {
+            log.info("Hosting lobby");
+        } else {
+            log.severe("Failed to host lobby");
+            Engine.getInstance().stop();
+        }
+    }
+
+    @Override
+    public void fixedUpdate(float deltaTime) {
+        if (!Reference.isValid(mNetworkManager)) {
+            return;
+        }
+
+        ServerNetworkManager serverManager = mNetworkManager.get().getServerManager();
+
+        if (serverManager == null) {
+            return;
+        }
+
+        int clients = serverManager.getClients().size();
+
+        if (!mGameStarted) {
+            mTimer = clients > 0 ? mTimer + deltaTime : 0f;
+
+            if (clients >= Lobby.MAX_PLAYERS || (clients > 0 && mTimer >= mStartDelay)) {
+                log.info("Starting game with " + clients + " clients");
+                serverManager.start(false);
+                mGameStarted = true;
+                mTimer = 0f;
+            }
+            return;
+        }
+
+        if (clients == 0) {
+            log.info("All clients left");
+            serverManager.destroy();
+            return;
+        }
+
+        Scene gameScene = mNetworkManager.get().getGameScene();
+        GameState gameState = gameScene != null ? gameScene.getSingleton(GameState.class) : null;
+
+        if (gameState != null && !gameState.getInGame().get()) {
+            mTimer += deltaTime;
+
+            if (mTimer >= END_DELAY) {
+                log.info("Game ended");
+                serverManager.destroy();
+            }
+        }
+    }
+
+    @Override
+    protected void onDestroy() {}
+}
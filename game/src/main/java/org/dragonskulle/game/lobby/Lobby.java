@@ -17,6 +17,7 @@ import org.dragonskulle.core.Scene;
 import org.dragonskulle.core.futures.ProducerFuture;
 import org.dragonskulle.game.GameConfig;
 import org.dragonskulle.game.GameState;
+import org.dragonskulle.game.player.FogInterestPolicy;
 import org.dragonskulle.game.player.HumanPlayer;
 import org.dragonskulle.game.player.ai.AimerAi;
 import org.dragonskulle.game.player.ui.UIPauseMenu;
@@ -449,13 +450,20 @@ public class Lobby extends Component implements IFrameUpdate {
      * @return {@code true} if server creation was successful.
      */
     public static boolean createServer(NetworkManager manager, IGameEndEvent endEvent) {
-        return manager.createServer(
-                PORT,
-                Lobby::onClientConnectionAttempt,
-                null,
-                Lobby::onClientLoaded,
-                Lobby::onGameStarted,
-                endEvent);
+        boolean created =
+                manager.createServer(
+                        PORT,
+                        Lobby::onClientConnectionAttempt,
+                        null,
+                        Lobby::onClientLoaded,
+                        Lobby::onGameStarted,
+                        endEvent);
+
+        if (created) {
+            manager.getServerManager().setInterestPolicy(new FogInterestPolicy(manager));
+        }
+
+        return created;
     }
 
     /** Builds the "Join" section of the UI. */
@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.Deque;
 import java.util.List;
 import java.util.Random;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 import lombok.Getter;
 import lombok.Setter;
@@ -18,6 +19,7 @@ import org.dragonskulle.game.GameConfig;
 import org.dragonskulle.game.GameConfig.StatConfig;
 import org.dragonskulle.game.GameState;
 import org.dragonskulle.game.map.HexagonTile.TileType;
+import org.dragonskulle.game.player.ai.algorithms.graphs.NavigationGraph;
 import org.dragonskulle.input.Actions;
 import org.dragonskulle.input.Cursor;
 import org.dragonskulle.network.components.NetworkableComponent;
@@ -60,6 +62,23 @@ public class HexagonMap extends NetworkableComponent implements IOnAwake {
                 Deque<HexagonTile> tilesToFill);
     }
 
+    /** Number of neighbours every tile has. */
+    public static final int NEIGHBOUR_COUNT = 6;
+
+    /**
+     * Neighbour directions in the order {@link #getTilesInRadius(HexagonTile, int, boolean, List)}
+     * returns the tiles at radius 1.
+     */
+    private static final int[] RADIUS_ORDER = {3, 4, 2, 5, 1, 0};
+
+    /**
+     * Largest supported map size.
+     *
+     * <p>Clients that view the whole map, such as spectators, receive every tile in a single
+     * update, which has to fit into one network message.
+     */
+    public static final int MAX_SIZE = 57;
+
     /** The size that is used to create the map. */
     @Getter @Setter private int mSize = 51;
 
@@ -72,6 +91,9 @@ public class HexagonMap extends NetworkableComponent implements IOnAwake {
     /** This will store what the next land mass number is. */
     private int mLandMass = 0;
 
+    /** Graph of walkable tiles, shared by all AI players. Built on first use. */
+    private NavigationGraph mNavigationGraph;
+
     /** This will go through all the tiles and find all islands. */
     private void checkIslands() {
 
@@ -151,7 +173,22 @@ public class HexagonMap extends NetworkableComponent implements IOnAwake {
 
         while (tiles.size() != 0) {
             HexagonTile tileToUse = tiles.removeFirst();
-            getTilesInRadius(tileToUse, radius, false, neighbours);
+
+            if (radius == 1) {
+                neighbours.clear();
+
+                // Same order as the radius lookup, so visitors see no difference
+                for (int d : RADIUS_ORDER) {
+                    HexagonTile neighbour = getNeighbour(tileToUse, d);
+
+                    if (neighbour != null) {
+                        neighbours.add(neighbour);
+                    }
+                }
+            } else {
+                getTilesInRadius(tileToUse, radius, false, neighbours);
+            }
+
             visitor.onVisit(this, tileToUse, neighbours, tiles);
         }
     }
@@ -176,6 +213,51 @@ public class HexagonMap extends NetworkableComponent implements IOnAwake {
         return mTiles.getAllTiles();
     }
 
+    /**
+     * Get the number of tile indices.
+     *
+     * <p>Tile indices are dense, and can be used to store per-tile data in arrays. Not every index
+     * has a tile.
+     *
+     * @return number of tile indices.
+     */
+    public int getTileCount() {
+        return mTiles.getTileCount();
+    }
+
+    /**
+     * Get the index of a tile.
+     *
+     * @param tile tile of this map.
+     * @return index of the tile, in range {@code [0, getTileCount())}.
+     */
+    public int getTileIndex(HexagonTile tile) {
+        return mTiles.getIndex(tile);
+    }
+
+    /**
+     * Get a tile by its index.
+     *
+     * @param index index of the tile, in range {@code [0, getTileCount())}.
+     * @return the tile, or {@code null} if there is no tile at the index.
+     */
+    public HexagonTile getTileByIndex(int index) {
+        return mTiles.getTileByIndex(index);
+    }
+
+    /**
+     * Get the index of a neighbouring tile.
+     *
+     * <p>This allows to walk through neighbours without allocating any lists.
+     *
+     * @param index index of the tile.
+     * @param direction direction of the neighbour, in range {@code [0, NEIGHBOUR_COUNT)}.
+     * @return index of the neighbour, or -1 if there is no neighbouring tile.
+     */
+    public int getNeighbourIndex(int index, int direction) {
+        return mTiles.getNeighbourIndices()[index * NEIGHBOUR_COUNT + direction];
+    }
+
     /**
      * Get all of the {@link HexagonTile}s in a radius around the selected tile. If {@code
      * includeTile} is {@code true}, the selected tile will be included in the list.
@@ -230,43 +312,106 @@ public class HexagonMap extends NetworkableComponent implements IOnAwake {
     private List<HexagonTile> getTilesInRadius(
             int tileQ, int tileR, int min, int max, List<HexagonTile> tilesOut) {
         tilesOut.clear();
-        for (int q = -max; q <= max; q++) {
-            // Only generate valid tile coordinates.
-            int lower = Math.max(-max, -q - max);
-            int upper = Math.min(max, -q + max);
-            for (int r = lower; r <= upper; r++) {
-                int s = -q - r;
-
-                // Ensure tile isn't within the minimum.
-                int distance = getDistance(q, r, s);
-                if (distance < min) {
-                    continue;
-                }
 
-                // Attempt to get the desired tile, and check if it exists.
-                HexagonTile selectedTile = getTile(tileQ + q, tileR + r);
-                if (selectedTile == null) {
-                    continue;
-                }
+        if (max < 0) {
+            return tilesOut;
+        }
 
-                // Add the tile to the list.
-                tilesOut.add(selectedTile);
+        int[] offsets = RadiusOffsets.get(max).getOffsets();
+
+        for (int i = 0; i < offsets.length; i += RadiusOffsets.STRIDE) {
+            // Ensure tile isn't within the minimum.
+            if (offsets[i + 2] < min) {
+                continue;
+            }
+
+            // Attempt to get the desired tile, and check if it exists.
+            HexagonTile selectedTile = getTile(tileQ + offsets[i], tileR + offsets[i + 1]);
+            if (selectedTile == null) {
+                continue;
             }
+
+            // Add the tile to the list.
+            tilesOut.add(selectedTile);
         }
 
         return tilesOut;
     }
 
     /**
-     * Calculate the distance from the centre (0, 0, 0).
+     * Visit the tiles within a minimum and maximum radius of the target tile.
+     *
+     * <p>Tiles are visited in the same order {@link #getTilesInRadius(HexagonTile, int, int,
+     * List)} returns them in, but without filling any list.
      *
-     * @param q the q coordinate
-     * @param r the r coordinate
-     * @param s the s coordinate
-     * @return distance
+     * @param tile The target tile.
+     * @param min The minimum radius of tiles to visit.
+     * @param max The maximum radius of tiles to visit.
+     * @param visitor visitor to invoke on every tile within the radius.
      */
-    private int getDistance(int q, int r, int s) {
-        return Math.max(Math.max(Math.abs(q), Math.abs(r)), Math.abs(s));
+    public void forEachInRadius(HexagonTile tile, int min, int max, Consumer<HexagonTile> visitor) {
+        if (tile == null || max < 0) {
+            return;
+        }
+
+        int[] offsets = RadiusOffsets.get(max).getOffsets();
+        int tileQ = tile.getQ();
+        int tileR = tile.getR();
+
+        for (int i = 0; i < offsets.length; i += RadiusOffsets.STRIDE) {
+            if (offsets[i + 2] < min) {
+                continue;
+            }
+
+            HexagonTile selectedTile = getTile(tileQ + offsets[i], tileR + offsets[i + 1]);
+
+            if (selectedTile != null) {
+                visitor.accept(selectedTile);
+            }
+        }
+    }
+
+    /**
+     * Visit the tiles within a minimum and maximum radius of the target tile, ring by ring.
+     *
+     * <p>Closer tiles are visited first, which allows nearest-first searches to stop early.
+     *
+     * @param tile The target tile.
+     * @param min The minimum radius of tiles to visit.
+     * @param max The maximum radius of tiles to visit.
+     * @param visitor visitor to invoke on every tile within the radius.
+     */
+    public void forEachInRing(HexagonTile tile, int min, int max, Consumer<HexagonTile> visitor) {
+        if (tile == null || max < 0 || min > max) {
+            return;
+        }
+
+        RadiusOffsets table = RadiusOffsets.get(max);
+        int[] offsets = table.getRingOffsets();
+        int tileQ = tile.getQ();
+        int tileR = tile.getR();
+
+        for (int i = table.getRingStart(Math.max(min, 0));
+                i < offsets.length;
+                i += RadiusOffsets.STRIDE) {
+            HexagonTile selectedTile = getTile(tileQ + offsets[i], tileR + offsets[i + 1]);
+
+            if (selectedTile != null) {
+                visitor.accept(selectedTile);
+            }
+        }
+    }
+
+    /**
+     * Get a neighbour of a tile.
+     *
+     * @param tile tile to get the neighbour of.
+     * @param direction direction of the neighbour, in range {@code [0, NEIGHBOUR_COUNT)}.
+     * @return the neighbouring tile, or {@code null} if there is none.
+     */
+    public HexagonTile getNeighbour(HexagonTile tile, int direction) {
+        int index = getNeighbourIndex(getTileIndex(tile), direction);
+        return index < 0 ? null : getTileByIndex(index);
     }
 
     /**
@@ -416,10 +561,16 @@ public class HexagonMap extends NetworkableComponent implements IOnAwake {
 
         if (gameState != null) {
             mSize = gameState.getConfig().getGlobal().getMapSize();
+
+            if (mSize > MAX_SIZE) {
+                log.warning("Map size " + mSize + " is too large, using " + MAX_SIZE);
+                mSize = MAX_SIZE;
+            }
         }
 
         Random rand = new Random();
         mTiles = new HexagonTileStore(mSize, rand.nextInt(), this);
+        mNavigationGraph = null;
         checkIslands();
     }
 
@@ -438,6 +589,33 @@ public class HexagonMap extends NetworkableComponent implements IOnAwake {
         Scene.getActiveScene().registerSingleton(this);
     }
 
+    /**
+     * Get the graph of walkable tiles of the map.
+     *
+     * <p>The graph is built once, and kept up to date as tile types change, so it can be shared by
+     * every AI player.
+     *
+     * @return navigation graph of the map.
+     */
+    public NavigationGraph getNavigationGraph() {
+        if (mNavigationGraph == null) {
+            mNavigationGraph = new NavigationGraph(this);
+        }
+
+        return mNavigationGraph;
+    }
+
+    /**
+     * Update the navigation graph after the type of a tile changed.
+     *
+     * @param tile hexagon tile that changed.
+     */
+    void updateTileType(HexagonTile tile) {
+        if (mNavigationGraph != null) {
+            mNavigationGraph.updateTile(tile);
+        }
+    }
+
     /**
      * Update the visual game object of the tile.
      *
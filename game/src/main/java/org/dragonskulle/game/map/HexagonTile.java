@@ -418,6 +418,7 @@ public class HexagonTile implements INetSerializable {
             mHeight = height;
             mTileType = newType;
             buildGameObject();
+            mHandler.updateType(this);
         } else {
             mHeight = height;
             updateHeight(true, true);
@@ -5,6 +5,7 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
@@ -33,13 +34,39 @@ class HexagonTileStore implements ISyncVar {
     private HexagonTile[][] mTiles;
     private final int mCoordShift;
     private final int mSeed;
-    private final Map<Integer, boolean[][]> mViewedTileMask;
-    private final Map<Integer, boolean[][]> mTileMask;
-    private final Map<Integer, boolean[]> mTileRowMask;
-    private final Map<Integer, boolean[]> mDirty;
+    /** Synchronization state of every client, keyed by network ID. */
+    private final Map<Integer, ClientState> mClientStates;
+    /** Indices of all tiles that exist. */
+    private final BitSet mExistingTiles;
     private final HexagonMap mMap;
     private final TileToStoreActions mHandler = new TileToStoreActions();
 
+    /** Axial (q, r) offsets of the neighbours of a tile. */
+    private static final int[][] NEIGHBOUR_OFFSETS = {
+        {1, 0}, {1, -1}, {0, -1}, {-1, 0}, {-1, 1}, {0, 1}
+    };
+    /**
+     * Tile indices of the neighbours of every tile, {@link HexagonMap#NEIGHBOUR_COUNT} per tile,
+     * or -1 where there is no neighbour. Built on first use.
+     */
+    private int[] mNeighbours;
+
+    /**
+     * Synchronization state of the map for a single client.
+     *
+     * <p>Tiles are indexed as {@code q * size + r}, in the internal coordinates.
+     */
+    private static class ClientState {
+        /** Tiles the client is known to view. */
+        final BitSet mViewed = new BitSet();
+        /** Tiles that need to be sent to the client. */
+        final BitSet mDirtyTiles = new BitSet();
+        /** Player whose viewability changes are applied. {@code null} if nothing is tracked. */
+        Player mTrackedPlayer;
+        /** Whether the client views the whole map. */
+        boolean mViewsAll = false;
+    }
+
     /** Actions a {@link HexagonTile} can invoke on the tile store. */
     class TileToStoreActions {
         /**
@@ -48,9 +75,6 @@ class HexagonTileStore implements ISyncVar {
          * @param tile which tile updated.
          */
         void update(HexagonTile tile) {
-            int q = tile.getQ() + mCoordShift;
-            int r = tile.getR() + mCoordShift;
-
             ServerNetworkManager serverManager = mMap.getNetworkManager().getServerManager();
 
             if (serverManager == null) return;
@@ -59,6 +83,8 @@ class HexagonTileStore implements ISyncVar {
 
             if (clients == null) return;
 
+            int idx = getIndex(tile);
+
             for (ServerClient c : clients) {
 
                 if (!c.isInGame()) {
@@ -69,11 +95,9 @@ class HexagonTileStore implements ISyncVar {
                 Player p = serverManager.getIdSingletons(id).get(Player.class);
 
                 // Spectators (non-players) can view all tiles
-                if (p != null && !p.gameEnd() && !p.isTileViewable(mTiles[q][r])) continue;
+                if (p != null && !p.gameEnd() && !p.isTileViewable(tile)) continue;
 
-                getTileMask(id)[q][r] = true;
-                getTileRowMask(id)[q] = true;
-                getDirty(id)[0] = true;
+                getClientState(id).mDirtyTiles.set(idx);
             }
         }
 
@@ -94,157 +118,133 @@ class HexagonTileStore implements ISyncVar {
         void updateGameObject(HexagonTile tile) {
             mMap.updateTileGameObject(tile);
         }
+
+        /**
+         * Update anything that depends on the type of the tile.
+         *
+         * @param tile which tile's type changed.
+         */
+        void updateType(HexagonTile tile) {
+            mMap.updateTileType(tile);
+        }
     }
 
     @Override
     public boolean isDirty(int clientId) {
+        ClientState state = getClientState(clientId);
 
-        Integer id = clientId;
-
-        dirtyViewableTiles(id);
-
-        boolean[] dirty = mDirty.get(id);
+        updateViewedTiles(clientId, state);
 
-        if (dirty == null) {
-            dirty = new boolean[1];
-            mDirty.put(id, dirty);
-        }
-
-        return dirty[0];
+        return !state.mDirtyTiles.isEmpty();
     }
 
     /**
-     * Get the viewed tiles mask for particular player.
+     * Get the synchronization state of a client.
      *
-     * @param id integer ID for the player in question.
-     * @return mask for the player.
+     * @param id network ID of the client.
+     * @return state of the client.
      */
-    boolean[][] getViewedTileMask(Integer id) {
-        boolean[][] viewedTileMask = mViewedTileMask.get(id);
+    private ClientState getClientState(Integer id) {
+        ClientState state = mClientStates.get(id);
 
-        if (viewedTileMask == null) {
-            viewedTileMask = new boolean[mTiles.length][mTiles.length];
-            mViewedTileMask.put(id, viewedTileMask);
+        if (state == null) {
+            state = new ClientState();
+            mClientStates.put(id, state);
         }
 
-        return viewedTileMask;
+        return state;
     }
 
     /**
-     * Get the tile dirty mask for particular player.
+     * Mark tiles that became viewable for a client as dirty.
+     *
+     * <p>Only the tiles the client's {@link Player} reports as changed are checked. The whole map
+     * is only checked when the player changes, or starts, or stops viewing the whole map.
      *
-     * @param id integer ID for the player in question.
-     * @return mask for the player.
+     * @param id network ID of the client.
+     * @param state state of the client.
      */
-    private boolean[][] getTileMask(Integer id) {
-        boolean[][] tileMask = mTileMask.get(id);
+    private void updateViewedTiles(Integer id, ClientState state) {
+        Player p = mMap.getNetworkManager().getIdSingletons(id).get(Player.class);
+
+        if (p != null && p.gameEnd()) p = null;
 
-        if (tileMask == null) {
-            tileMask = new boolean[mTiles.length][mTiles.length];
-            mTileMask.put(id, tileMask);
+        if (p == null) {
+            if (!state.mViewsAll) {
+                state.mViewsAll = true;
+                state.mTrackedPlayer = null;
+
+                // Send every tile that was not viewed yet
+                BitSet newTiles = (BitSet) mExistingTiles.clone();
+                newTiles.andNot(state.mViewed);
+                state.mDirtyTiles.or(newTiles);
+                state.mViewed.or(mExistingTiles);
+            }
+            return;
         }
 
-        return tileMask;
+        final Player player = p;
+
+        if (state.mViewsAll || state.mTrackedPlayer != player) {
+            state.mViewsAll = false;
+            state.mTrackedPlayer = player;
+            player.pollViewabilityChanges(__ -> {});
+            updateAllViewedTiles(state, player);
+        } else if (!player.pollViewabilityChanges(t -> updateViewedTile(state, player, t))) {
+            updateAllViewedTiles(state, player);
+        }
     }
 
     /**
-     * Get the updated rows mask for particular player.
+     * Check every tile for viewability changes.
      *
-     * @param id integer ID for the player in question.
-     * @return mask for the player.
+     * @param state state of the client.
+     * @param player player of the client.
      */
-    private boolean[] getTileRowMask(Integer id) {
-        boolean[] tileRowMask = mTileRowMask.get(id);
-
-        if (tileRowMask == null) {
-            tileRowMask = new boolean[mTiles.length];
-            mTileRowMask.put(id, tileRowMask);
+    private void updateAllViewedTiles(ClientState state, Player player) {
+        for (int i = mExistingTiles.nextSetBit(0); i >= 0; i = mExistingTiles.nextSetBit(i + 1)) {
+            updateViewedTile(state, player, mTiles[i / mTiles.length][i % mTiles.length]);
         }
-
-        return tileRowMask;
     }
 
     /**
-     * Get the dirty mask for particular player.
+     * Check a tile for viewability changes, and mark it dirty if it became viewable.
      *
-     * @param id integer ID for the player in question.
-     * @return mask for the player. Size of 1.
+     * @param state state of the client.
+     * @param player player of the client.
+     * @param tile tile to check.
      */
-    private boolean[] getDirty(Integer id) {
-        boolean[] dirty = mDirty.get(id);
-
-        if (dirty == null) {
-            dirty = new boolean[1];
-            mDirty.put(id, dirty);
+    private void updateViewedTile(ClientState state, Player player, HexagonTile tile) {
+        int idx = getIndex(tile);
+        boolean viewable = player.isTileViewable(tile);
+
+        if (viewable && !state.mViewed.get(idx)) {
+            state.mViewed.set(idx);
+            state.mDirtyTiles.set(idx);
+        } else if (!viewable) {
+            state.mViewed.clear(idx);
         }
-
-        return dirty;
     }
 
     /**
-     * Dirty viewable tiles for particular player.
+     * Get the bitmap index of a tile.
      *
-     * @param id integer ID for the player in question.
+     * @param tile tile to get the index of.
+     * @return index of the tile in client state bitmaps.
      */
-    private void dirtyViewableTiles(Integer id) {
-        Player p = mMap.getNetworkManager().getIdSingletons(id).get(Player.class);
-
-        boolean[][] viewedTileMask = getViewedTileMask(id);
-        boolean[][] tileMask = getTileMask(id);
-        boolean[] tileRowMask = getTileRowMask(id);
-        boolean[] dirty = getDirty(id);
-
-        if (p != null && p.hasLost()) p = null;
-        if (p == null || p.gameEnd()) p = null;
+    int getIndex(HexagonTile tile) {
+        return (tile.getQ() + mCoordShift) * mTiles.length + tile.getR() + mCoordShift;
+    }
 
-        for (int q = 0; q < viewedTileMask.length; q++) {
-            for (int r = 0; r < viewedTileMask.length; r++) {
-                HexagonTile tile = mTiles[q][r];
-                boolean viewable = p == null || p.isTileViewable(tile);
-                if (!viewedTileMask[q][r] && viewable) {
-                    viewedTileMask[q][r] = true;
-                    tileMask[q][r] = true;
-                    tileRowMask[q] = true;
-                    dirty[0] = true;
-                } else if (viewedTileMask[q][r] && !viewable) {
-                    viewedTileMask[q][r] = false;
-                }
-            }
-        }
+    @Override
+    public void removeClient(int clientId) {
+        // The ID may be given to a new client, which has not received any tiles yet
+        mClientStates.remove(clientId);
     }
 
     @Override
     public void resetDirtyFlag(int clientId) {
-        Integer id = clientId;
-
-        boolean[][] tileMask = mTileMask.get(id);
-
-        if (tileMask == null) {
-            tileMask = new boolean[mTiles.length][mTiles.length];
-            mTileMask.put(id, tileMask);
-        }
-
-        for (boolean[] mask : tileMask) {
-            Arrays.fill(mask, false);
-        }
-
-        boolean[] tileRowMask = mTileRowMask.get(id);
-
-        if (tileRowMask == null) {
-            tileRowMask = new boolean[mTiles.length];
-            mTileRowMask.put(id, tileRowMask);
-        }
-
-        Arrays.fill(tileRowMask, false);
-
-        boolean[] dirty = mDirty.get(id);
-
-        if (dirty == null) {
-            dirty = new boolean[1];
-            mDirty.put(clientId, dirty);
-        }
-
-        dirty[0] = false;
+        getClientState(clientId).mDirtyTiles.clear();
     }
 
     @Override
@@ -273,35 +273,38 @@ class HexagonTileStore implements ISyncVar {
 
     @Override
     public void serialize(DataOutput stream, int clientId) throws IOException {
-        Integer id = clientId;
-
-        boolean[][] tileMask = mTileMask.get(id);
-
-        if (tileMask == null) {
-            tileMask = new boolean[mTiles.length][mTiles.length];
-            mTileMask.put(id, tileMask);
-        }
-
-        boolean[] tileRowMask = mTileRowMask.get(id);
+        BitSet dirty = getClientState(clientId).mDirtyTiles;
+        int size = mTiles.length;
+        byte[] mask = new byte[NetworkMessage.maskSizeInBytes(size)];
 
-        if (tileRowMask == null) {
-            tileRowMask = new boolean[mTiles.length];
-            mTileRowMask.put(id, tileRowMask);
+        for (int q = 0; q < size; q++) {
+            int next = dirty.nextSetBit(q * size);
+            if (next >= 0 && next < (q + 1) * size) {
+                mask[q / 8] |= 1 << (q % 8);
+            }
         }
 
-        stream.write(NetworkMessage.convertBoolArrayToBytes(tileRowMask));
+        stream.write(mask);
 
-        for (int q = 0; q < tileRowMask.length; q++) {
-            if (!tileRowMask[q]) continue;
+        for (int q = 0; q < size; q++) {
+            if ((mask[q / 8] & (1 << (q % 8))) == 0) continue;
 
-            boolean[] mask = tileMask[q];
+            byte[] rowMask = new byte[mask.length];
+            int rowStart = q * size;
 
-            stream.write(NetworkMessage.convertBoolArrayToBytes(mask));
+            for (int i = dirty.nextSetBit(rowStart);
+                    i >= 0 && i < rowStart + size;
+                    i = dirty.nextSetBit(i + 1)) {
+                int r = i - rowStart;
+                rowMask[r / 8] |= 1 << (r % 8);
+            }
 
-            for (int r = 0; r < mask.length; r++) {
-                if (!mask[r]) continue;
+            stream.write(rowMask);
 
-                HexagonTile tile = mTiles[q][r];
+            for (int i = dirty.nextSetBit(rowStart);
+                    i >= 0 && i < rowStart + size;
+                    i = dirty.nextSetBit(i + 1)) {
+                HexagonTile tile = mTiles[q][i - rowStart];
 
                 if (tile == null) continue;
 
@@ -321,10 +324,8 @@ class HexagonTileStore implements ISyncVar {
      */
     public HexagonTileStore(int size, int seed, HexagonMap map) {
         mTiles = new HexagonTile[size][size];
-        mViewedTileMask = new HashMap<>();
-        mTileMask = new HashMap<>();
-        mTileRowMask = new HashMap<>();
-        mDirty = new HashMap<>();
+        mClientStates = new HashMap<>();
+        mExistingTiles = new BitSet(size * size);
         mSeed = seed;
         mCoordShift = size / 2;
         mMap = map;
@@ -408,6 +409,59 @@ class HexagonTileStore implements ISyncVar {
         return Arrays.stream(mTiles).flatMap(Arrays::stream).filter(x -> x != null);
     }
 
+    /**
+     * Get the number of tile indices.
+     *
+     * @return number of tile indices, including the ones without tiles.
+     */
+    int getTileCount() {
+        return mTiles.length * mTiles.length;
+    }
+
+    /**
+     * Get a tile by its index.
+     *
+     * @param index index of the tile.
+     * @return tile at the index, or {@code null} if there is none.
+     */
+    HexagonTile getTileByIndex(int index) {
+        return mTiles[index / mTiles.length][index % mTiles.length];
+    }
+
+    /**
+     * Get the neighbour table of all tiles.
+     *
+     * @return indices of neighbours, {@link HexagonMap#NEIGHBOUR_COUNT} per tile index, -1 where
+     *     there is no tile.
+     */
+    int[] getNeighbourIndices() {
+        if (mNeighbours != null) {
+            return mNeighbours;
+        }
+
+        int size = mTiles.length;
+        int[] neighbours = new int[size * size * NEIGHBOUR_OFFSETS.length];
+
+        for (int q = 0; q < size; q++) {
+            for (int r = 0; r < size; r++) {
+                int base = (q * size + r) * NEIGHBOUR_OFFSETS.length;
+
+                for (int i = 0; i < NEIGHBOUR_OFFSETS.length; i++) {
+                    int nq = q + NEIGHBOUR_OFFSETS[i][0];
+                    int nr = r + NEIGHBOUR_OFFSETS[i][1];
+
+                    boolean exists =
+                            nq >= 0 && nr >= 0 && nq < size && nr < size && mTiles[nq][nr] != null;
+
+                    neighbours[base + i] = exists ? nq * size + nr : -1;
+                }
+            }
+        }
+
+        mNeighbours = neighbours;
+        return neighbours;
+    }
+
     /**
      * Set a tile in the internal list.
      *
@@ -417,6 +471,7 @@ class HexagonTileStore implements ISyncVar {
         int q = tile.getQ() + mCoordShift;
         int r = tile.getR() + mCoordShift;
         mTiles[q][r] = tile;
+        mExistingTiles.set(getIndex(tile));
     }
 
     /**
@@ -0,0 +1,127 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.game.map;
+
+import java.util.Arrays;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+/**
+ * Cached axial offsets of all tiles within a radius.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Offsets are stored as flat {@code (q, r, distance)} triples, so that iterating over a
+ *     neighbourhood does not need to compute any distances, or allocate anything. Tables are
+ *     built once per radius, and shared between all maps.
+ */
+@Accessors(prefix = "m")
+final class RadiusOffsets {
+    /** Number of integers per offset. */
+    static final int STRIDE = 3;
+
+    /** Cached tables, indexed by radius. */
+    private static volatile RadiusOffsets[] sTables = new RadiusOffsets[0];
+
+    /**
+     * Offsets in q-major, then r order, which is the order {@link
+     * HexagonMap#getTilesInRadius(HexagonTile, int, int, java.util.List)} returns tiles in.
+     */
+    @Getter private final int[] mOffsets;
+
+    /** Offsets ordered by distance, ring by ring, closest first. */
+    @Getter private final int[] mRingOffsets;
+
+    /** Index into {@link #mRingOffsets} of the first offset of every ring, and the end. */
+    private final int[] mRingStarts;
+
+    /**
+     * Build the offset tables of a radius.
+     *
+     * @param radius radius to build the tables for.
+     */
+    private RadiusOffsets(int radius) {
+        int count = 1 + 3 * radius * (radius + 1);
+        mOffsets = new int[count * STRIDE];
+        mRingOffsets = new int[count * STRIDE];
+        mRingStarts = new int[radius + 2];
+
+        int[] ringCounts = new int[radius + 1];
+        int i = 0;
+
+        for (int q = -radius; q <= radius; q++) {
+            int lower = Math.max(-radius, -q - radius);
+            int upper = Math.min(radius, -q + radius);
+
+            for (int r = lower; r <= upper; r++) {
+                int s = -q - r;
+                int distance = Math.max(Math.max(Math.abs(q), Math.abs(r)), Math.abs(s));
+
+                mOffsets[i++] = q;
+                mOffsets[i++] = r;
+                mOffsets[i++] = distance;
+                ringCounts[distance]++;
+            }
+        }
+
+        for (int d = 0; d <= radius; d++) {
+            mRingStarts[d + 1] = mRingStarts[d] + ringCounts[d] * STRIDE;
+        }
+
+        int[] cursors = Arrays.copyOf(mRingStarts, radius + 1);
+
+        for (int o = 0; o < mOffsets.length; o += STRIDE) {
+            int distance = mOffsets[o + 2];
+            System.arraycopy(mOffsets, o, mRingOffsets, cursors[distance], STRIDE);
+            cursors[distance] += STRIDE;
+        }
+    }
+
+    /**
+     * Get the index into {@link #getRingOffsets()} where a ring starts.
+     *
+     * @param distance distance of the ring. Passing {@code radius + 1} gives the end of the table.
+     * @return index of the first offset of the ring.
+     */
+    int getRingStart(int distance) {
+        return mRingStarts[distance];
+    }
+
+    /**
+     * Get the offset tables of a radius.
+     *
+     * @param radius radius of the neighbourhood, must not be negative.
+     * @return cached offset tables.
+     */
+    static RadiusOffsets get(int radius) {
+        RadiusOffsets[] tables = sTables;
+
+        if (radius < tables.length && tables[radius] != null) {
+            return tables[radius];
+        }
+
+        return build(radius);
+    }
+
+    /**
+     * Build, and cache the tables of a radius.
+     *
+     * @param radius radius of the neighbourhood.
+     * @return cached offset tables.
+     */
+    private static synchronized RadiusOffsets build(int radius) {
+        RadiusOffsets[] tables = sTables;
+
+        if (radius >= tables.length) {
+            tables = Arrays.copyOf(tables, radius + 1);
+        } else if (tables[radius] != null) {
+            return tables[radius];
+        } else {
+            tables = tables.clone();
+        }
+
+        RadiusOffsets table = new RadiusOffsets(radius);
+        tables[radius] = table;
+        sTables = tables;
+
+        return table;
+    }
+}
@@ -10,6 +10,7 @@ import org.dragonskulle.components.Component;
 import org.dragonskulle.components.IFrameUpdate;
 import org.dragonskulle.components.Transform3D;
 import org.dragonskulle.core.GameObject;
+import org.dragonskulle.core.GameObjectPool;
 import org.dragonskulle.core.Reference;
 import org.joml.Vector3f;
 import org.joml.Vector3fc;
@@ -121,8 +122,8 @@ public class ArcPath extends Component implements IFrameUpdate {
     /** Minimum object gap to avoid infinite loops. */
     private static final float MIN_OBJ_GAP = 0.001f;
 
-    /** Template to spawn. */
-    @Getter private GameObject mTemplate;
+    /** Pool of the template to spawn. */
+    @Getter private GameObjectPool mPool;
 
     /** Currently spawned objects. */
     private final List<SpawnedEntry> mSpawnedObjects = new ArrayList<>();
@@ -160,13 +161,34 @@ public class ArcPath extends Component implements IFrameUpdate {
     /**
      * Set the object template used.
      *
+     * <p>The path gets its own pool of the template. Use {@link #setPool} to share instances
+     * between multiple paths.
+     *
      * @param template new template to use.
      */
     public void setTemplate(GameObject template) {
-        mTemplate = template;
+        setPool(new GameObjectPool(template));
+    }
+
+    /**
+     * Set the pool objects are spawned from.
+     *
+     * @param pool new pool to use.
+     */
+    public void setPool(GameObjectPool pool) {
+        mPool = pool;
         setDirty();
     }
 
+    /**
+     * Get the object template used.
+     *
+     * @return template that gets spawned, {@code null} if not set.
+     */
+    public GameObject getTemplate() {
+        return mPool != null ? mPool.getTemplate() : null;
+    }
+
     /**
      * Set the object gap used.
      *
@@ -220,9 +242,9 @@ public class ArcPath extends Component implements IFrameUpdate {
             mSpawnedObjects.stream().forEach(SpawnedEntry::destroy);
             mSpawnedObjects.clear();
 
-            if (Reference.isValid(mUpdater)) {
+            if (Reference.isValid(mUpdater) && mPool != null) {
                 for (float off = mSpawnStart; off < mSpawnEnd; off += mObjGap) {
-                    GameObject go = GameObject.instantiate(mTemplate, new Transform3D());
+                    GameObject go = mPool.obtain();
                     mGameObject.addChild(go);
                     mSpawnedObjects.add(new SpawnedEntry(go, off));
                 }
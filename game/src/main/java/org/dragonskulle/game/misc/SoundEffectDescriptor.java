@@ -5,6 +5,7 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
 import org.dragonskulle.components.Component;
+import org.dragonskulle.components.IPoolable;
 
 /**
  * Simple descriptor for a sound effect to play.
@@ -12,10 +13,13 @@ import org.dragonskulle.components.Component;
  * @author Aurimas Blažulionis
  */
 @Accessors(prefix = "m")
-public class SoundEffectDescriptor extends Component {
+public class SoundEffectDescriptor extends Component implements IPoolable {
     /** Name of the sound to play. */
     @Getter @Setter private String mSoundName = "";
 
+    @Override
+    public void onReturnToPool() {}
+
     @Override
     protected void onDestroy() {}
 }
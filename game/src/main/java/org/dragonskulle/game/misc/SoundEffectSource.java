@@ -10,6 +10,7 @@ import org.dragonskulle.audio.components.AudioSource;
 import org.dragonskulle.components.Component;
 import org.dragonskulle.components.IFrameUpdate;
 import org.dragonskulle.components.IOnStart;
+import org.dragonskulle.components.IPoolable;
 import org.dragonskulle.core.Reference;
 
 /**
@@ -18,7 +19,7 @@ import org.dragonskulle.core.Reference;
  * @author Aurimas Blažulionis
  */
 @Accessors(prefix = "m")
-public class SoundEffectSource extends Component implements IOnStart, IFrameUpdate {
+public class SoundEffectSource extends Component implements IOnStart, IFrameUpdate, IPoolable {
 
     /** List of sound effect descriptors to choose from. */
     private List<Reference<SoundEffectDescriptor>> mEffects = new ArrayList<>();
@@ -49,6 +50,16 @@ public class SoundEffectSource extends Component implements IOnStart, IFrameUpda
         mSource = source.getReference(AudioSource.class);
     }
 
+    @Override
+    public void onReturnToPool() {
+        mPlayed = false;
+
+        // The old references were invalidated, and the started audio source stays on the object
+        mEffects.clear();
+        getGameObject().getComponents(SoundEffectDescriptor.class, mEffects);
+        mSource = getGameObject().getComponent(AudioSource.class);
+    }
+
     @Override
     public void frameUpdate(float deltaTime) {
         if (!Reference.isValid(mSource) || mEffects.size() == 0) {
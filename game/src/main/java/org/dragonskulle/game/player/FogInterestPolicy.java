@@ -0,0 +1,69 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.game.player;
+
+import org.dragonskulle.core.Reference;
+import org.dragonskulle.core.SingletonStore;
+import org.dragonskulle.game.building.Building;
+import org.dragonskulle.game.map.HexagonTile;
+import org.dragonskulle.network.ServerClient;
+import org.dragonskulle.network.components.IInterestPolicy;
+import org.dragonskulle.network.components.NetworkManager;
+import org.dragonskulle.network.components.NetworkObject;
+
+/**
+ * Holds back updates of buildings that are hidden in a client's fog of war.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>A client is interested in its own buildings, and any building standing on a tile its
+ *     {@link Player} can view. All other objects, and every object for players that have no player
+ *     yet, or whose game has ended, are always updated.
+ */
+public class FogInterestPolicy implements IInterestPolicy {
+    /** Server network manager the policy is installed on. */
+    private final NetworkManager mNetworkManager;
+    /** Player of the client currently being updated. */
+    private Player mPlayer;
+
+    /**
+     * Constructor for {@link FogInterestPolicy}.
+     *
+     * @param networkManager server network manager to look players up on.
+     */
+    public FogInterestPolicy(NetworkManager networkManager) {
+        mNetworkManager = networkManager;
+    }
+
+    @Override
+    public void beginUpdate(ServerClient client) {
+        SingletonStore singletons = mNetworkManager.getIdSingletons(client.getNetworkID());
+        mPlayer = singletons == null ? null : singletons.get(Player.class);
+    }
+
+    @Override
+    public Object describe(NetworkObject object) {
+        return object.getGameObject().getComponent(Building.class);
+    }
+
+    @Override
+    public boolean isInterested(ServerClient client, NetworkObject object, Object data) {
+        Player player = mPlayer;
+
+        if (player == null || player.gameEnd()) {
+            return true;
+        }
+
+        if (object.getOwnerId() == client.getNetworkID()) {
+            return true;
+        }
+
+        Reference<?> building = (Reference<?>) data;
+
+        if (!Reference.isValid(building)) {
+            return true;
+        }
+
+        HexagonTile tile = ((Building) building.get()).getTile();
+
+        return tile == null || player.isTileViewable(tile);
+    }
+}
@@ -3,13 +3,14 @@ package org.dragonskulle.game.player;
 
 import static org.dragonskulle.game.GameUIAppearance.AudioFiles;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.Getter;
@@ -70,12 +71,24 @@ public class Player extends NetworkableComponent implements IOnStart, IFixedUpda
     private SyncFloat mBuildingInflationBonus = new SyncFloat(0);
 
     /**
-     * A set tiles around the player.
+     * How viewable the tiles around the player are.
      *
      * <p>Positive values indicate the tile is viewable, 0, or lower mean tile is not viewable by
      * the player.
      */
-    private final Map<HexagonTile, Integer> mTilesAround = new HashMap<>();
+    private ViewabilityGrid mViewability;
+    /** Whether {@link #mViewability} holds the viewability of every owned building. */
+    private boolean mViewabilityValid = false;
+
+    /**
+     * Tiles whose viewability may have changed since the last {@link #pollViewabilityChanges}
+     * call. Only recorded once something started polling them.
+     */
+    private Set<HexagonTile> mViewabilityChanges = new HashSet<>();
+    /** Set that {@link #mViewabilityChanges} gets swapped with when polled. */
+    private Set<HexagonTile> mPolledViewabilityChanges = new HashSet<>();
+    /** Whether viewability changes are being recorded. */
+    private boolean mTrackViewability = false;
 
     /** Link to the current capital. */
     private Reference<Building> mCapital = null;
@@ -108,7 +121,7 @@ public class Player extends NetworkableComponent implements IOnStart, IFixedUpda
     /** The total amount of time passed since the last time tokens where added. */
     private float mCumulativeTokenTime = 0f;
 
-    /** Controls how deep into unviewable tiles we go for mTilesAround. */
+    /** Controls how deep into unviewable tiles we go for mViewability. */
     private static final int VIEWABILITY_LOWER_BOUND = -5;
 
     /** Used by the client to request that a building be placed by the server. */
@@ -206,18 +219,27 @@ public class Player extends NetworkableComponent implements IOnStart, IFixedUpda
         updateTokens(cfg != null ? cfg.getTokenTime() : 1);
     }
 
-    /** Used as a queue for tiles to be flood filled. */
-    private final Deque<HexagonTile> mFillTiles = new ArrayDeque<>();
-
     /**
      * Adds building's viewable tiles to player's viewable tile list.
      *
      * @param building The building whose visible tiles should be made viewable.
      */
     public void updateViewableTiles(Building building) {
+        // Invalid viewability will be rebuilt with every building anyway
+        if (!mViewabilityValid) {
+            return;
+        }
+
+        ViewabilityGrid grid = getViewabilityGrid();
+
+        if (grid == null) {
+            return;
+        }
+
+        int viewDistance = building.getViewDistance().getValue();
+
         for (HexagonTile tile : building.getClaimedTiles()) {
-            mFillTiles.push(tile);
-            mTilesAround.put(tile, building.getViewDistance().getValue());
+            grid.addSource(tile, viewDistance);
         }
     }
 
@@ -573,10 +595,19 @@ public class Player extends NetworkableComponent implements IOnStart, IFixedUpda
         HexagonTile tile = building.getTile();
         if (tile == null) return false;
 
-        // We clear viewable tiles in this case, because they can be invalid
-        mTilesAround.clear();
-
         Reference<Building> removed = mOwnedBuildings.remove(tile);
+
+        ViewabilityGrid grid = mViewabilityValid ? getViewabilityGrid() : null;
+
+        // Only the area the building could see gets recalculated
+        if (grid != null && mViewabilityValid) {
+            grid.removeSources(building.getClaimedTiles());
+            getOwnedBuildingsAsStream()
+                    .filter(Reference::isValid)
+                    .map(Reference::get)
+                    .forEach(this::updateViewableTiles);
+        }
+
         return (removed != null);
     }
 
@@ -587,11 +618,9 @@ public class Player extends NetworkableComponent implements IOnStart, IFixedUpda
      * @return {@code true} if the tile is viewable, {@code false} otherwise.
      */
     public boolean isTileViewable(HexagonTile tile) {
-        ensureViewableTilesAreValid();
+        ViewabilityGrid grid = ensureViewableTilesAreValid();
 
-        Integer val = mTilesAround.get(tile);
-
-        return val != null && val > 0;
+        return grid != null && grid.isViewable(tile);
     }
 
     /**
@@ -601,8 +630,8 @@ public class Player extends NetworkableComponent implements IOnStart, IFixedUpda
      * @return integer value for tile viewability. Only positive values mean viewable.
      */
     public int getTileViewability(HexagonTile tile) {
-        ensureViewableTilesAreValid();
-        return mTilesAround.getOrDefault(tile, VIEWABILITY_LOWER_BOUND);
+        ViewabilityGrid grid = ensureViewableTilesAreValid();
+        return grid != null ? grid.get(tile) : VIEWABILITY_LOWER_BOUND;
     }
 
     /**
@@ -613,8 +642,8 @@ public class Player extends NetworkableComponent implements IOnStart, IFixedUpda
      * @return stream of viewable tiles
      */
     public Stream<HexagonTile> getViewableTiles() {
-        ensureViewableTilesAreValid();
-        return mTilesAround.entrySet().stream().filter(e -> e.getValue() > 0).map(e -> e.getKey());
+        ViewabilityGrid grid = ensureViewableTilesAreValid();
+        return grid != null ? grid.getViewableTiles() : Stream.empty();
     }
 
     /**
@@ -624,48 +653,107 @@ public class Player extends NetworkableComponent implements IOnStart, IFixedUpda
      * @param building the building which is on the tile if it exists
      */
     public void onClaimTile(HexagonTile tile, Building building) {
-        mTilesAround.put(tile, building.getViewDistance().getValue());
-        mFillTiles.push(tile);
+        ViewabilityGrid grid = mViewabilityValid ? getViewabilityGrid() : null;
+
+        if (grid != null) {
+            grid.addSource(tile, building.getViewDistance().getValue());
+        }
     }
 
-    /** Filters all viewable tiles by {@link Reference#isValid(Reference)}. */
-    private void ensureViewableTilesAreValid() {
-        if (mTilesAround.isEmpty()) {
-            mTilesAround.clear();
-            mFillTiles.clear();
-            getOwnedBuildingsAsStream()
-                    .filter(Reference::isValid)
-                    .map(Reference::get)
-                    .forEach(this::updateViewableTiles);
+    /**
+     * Pass on tiles whose viewability may have changed since the last call.
+     *
+     * <p>This lets the map send newly viewable tiles without checking the whole map every tick.
+     * Changes are only recorded after the first call, so the first call passes on nothing, and
+     * returns {@code false}. The caller should then check every tile once.
+     *
+     * <p>Only a single consumer should poll the changes.
+     *
+     * @param consumer consumer of the tiles. The tiles may, or may not be viewable.
+     * @return {@code true} if changes have been tracked since the last call, {@code false} if all
+     *     tiles need to be checked
+     */
+    public boolean pollViewabilityChanges(Consumer<HexagonTile> consumer) {
+        ensureViewableTilesAreValid();
+
+        if (!mTrackViewability) {
+            mTrackViewability = true;
+            mViewabilityChanges.clear();
+            return false;
         }
 
-        if (!Reference.isValid(mMap)) {
-            return;
+        Set<HexagonTile> changes = mViewabilityChanges;
+        mViewabilityChanges = mPolledViewabilityChanges;
+        mPolledViewabilityChanges = changes;
+
+        changes.forEach(consumer);
+        changes.clear();
+
+        return true;
+    }
+
+    /**
+     * Record a tile whose viewable state changed, if changes are being tracked.
+     *
+     * @param tile tile that became viewable, or stopped being viewable
+     */
+    private void onViewabilityChange(HexagonTile tile) {
+        if (mTrackViewability) {
+            mViewabilityChanges.add(tile);
         }
+    }
 
-        HexagonMap map = mMap.get();
+    /**
+     * Get the viewability grid of the current map, creating it if needed.
+     *
+     * <p>A newly created grid is not valid until {@link #ensureViewableTilesAreValid} gets called.
+     *
+     * @return viewability grid, or {@code null} if there is no map.
+     */
+    private ViewabilityGrid getViewabilityGrid() {
+        HexagonMap map = getMap();
 
-        map.floodFill(
-                mFillTiles,
-                (__, t, neighbours, out) -> {
-                    Integer val = mTilesAround.get(t);
+        if (map == null) {
+            return null;
+        }
+
+        if (mViewability == null || mViewability.getMap() != map) {
+            if (mViewability != null) {
+                mViewability.getViewableTiles().forEach(this::onViewabilityChange);
+            }
+
+            mViewability = new ViewabilityGrid(map, VIEWABILITY_LOWER_BOUND);
+            mViewability.setChangeListener(this::onViewabilityChange);
+            mViewabilityValid = false;
+        }
+
+        return mViewability;
+    }
+
+    /**
+     * Rebuild the viewable tiles if they are invalid, and spread any pending viewability.
+     *
+     * @return up to date viewability grid, or {@code null} if there is no map.
+     */
+    private ViewabilityGrid ensureViewableTilesAreValid() {
+        ViewabilityGrid grid = getViewabilityGrid();
 
-                    if (val == null || val <= VIEWABILITY_LOWER_BOUND) {
-                        return;
-                    }
+        if (grid == null) {
+            return null;
+        }
 
-                    Integer newVal = val - 1;
+        if (!mViewabilityValid) {
+            mViewabilityValid = true;
+            grid.clear();
+            getOwnedBuildingsAsStream()
+                    .filter(Reference::isValid)
+                    .map(Reference::get)
+                    .forEach(this::updateViewableTiles);
+        }
 
-                    for (HexagonTile n : neighbours) {
-                        Integer nval = mTilesAround.get(n);
+        grid.update();
 
-                        if (nval == null || nval < newVal) {
-                            mTilesAround.put(n, newVal);
-                            mFillTiles.push(n);
-                        }
-                    }
-                },
-                1);
+        return grid;
     }
 
     /**
@@ -0,0 +1,291 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.game.player;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import org.dragonskulle.game.map.HexagonMap;
+import org.dragonskulle.game.map.HexagonTile;
+
+/**
+ * Dense grid of how viewable every tile of a map is.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Values are stored per tile index of the {@link HexagonMap}. Viewability spreads out of
+ *     source tiles, dropping by 1 with every tile travelled, and never below the lower bound. Only
+ *     positive values mean the tile is viewable.
+ */
+@Accessors(prefix = "m")
+class ViewabilityGrid {
+    /** Map the grid is for. */
+    @Getter private final HexagonMap mMap;
+    /** Lowest viewability value. Spreading stops there. */
+    private final int mLowerBound;
+    /** Viewability of every tile index. */
+    private final int[] mValues;
+    /** Remaining reach + 1 of tiles marked for removal, 0 for unmarked tiles. */
+    private final int[] mRemovalReach;
+    /** Tiles to spread viewability out of. */
+    private final IntQueue mPending = new IntQueue();
+    /** Tiles being marked for removal. */
+    private final IntQueue mRemovalQueue = new IntQueue();
+    /** Tiles marked for removal. */
+    private final IntQueue mRemovalRegion = new IntQueue();
+
+    /** Listener that gets invoked whenever a tile becomes viewable, or stops being viewable. */
+    @Setter private Consumer<HexagonTile> mChangeListener;
+
+    /** Growable FIFO queue of tile indices. */
+    private static class IntQueue {
+        private int[] mData = new int[64];
+        private int mHead = 0;
+        private int mSize = 0;
+
+        /**
+         * Add an index to the back of the queue.
+         *
+         * @param value index to add.
+         */
+        void push(int value) {
+            if (mSize == mData.length) {
+                int[] data = new int[mData.length * 2];
+                int firstPart = mData.length - mHead;
+                System.arraycopy(mData, mHead, data, 0, firstPart);
+                System.arraycopy(mData, 0, data, firstPart, mHead);
+                mData = data;
+                mHead = 0;
+            }
+
+            mData[(mHead + mSize) & (mData.length - 1)] = value;
+            mSize++;
+        }
+
+        /**
+         * Remove an index from the front of the queue.
+         *
+         * @return the removed index.
+         */
+        int pop() {
+            int value = mData[mHead];
+            mHead = (mHead + 1) & (mData.length - 1);
+            mSize--;
+            return value;
+        }
+
+        /**
+         * Get an index without removing it.
+         *
+         * @param i position in the queue.
+         * @return index at the position.
+         */
+        int get(int i) {
+            return mData[(mHead + i) & (mData.length - 1)];
+        }
+
+        /**
+         * Get the number of queued indices.
+         *
+         * @return number of queued indices.
+         */
+        int size() {
+            return mSize;
+        }
+
+        /** Remove all indices. */
+        void clear() {
+            mHead = 0;
+            mSize = 0;
+        }
+    }
+
+    /**
+     * Constructor for {@link ViewabilityGrid}.
+     *
+     * @param map map the grid is for.
+     * @param lowerBound lowest viewability value.
+     */
+    ViewabilityGrid(HexagonMap map, int lowerBound) {
+        mMap = map;
+        mLowerBound = lowerBound;
+        mValues = new int[map.getTileCount()];
+        mRemovalReach = new int[mValues.length];
+        Arrays.fill(mValues, lowerBound);
+    }
+
+    /**
+     * Get how viewable a tile is.
+     *
+     * <p>This does not spread pending viewability, call {@link #update()} for that.
+     *
+     * @param tile tile to check.
+     * @return viewability of the tile. Only positive values mean viewable.
+     */
+    int get(HexagonTile tile) {
+        return mValues[mMap.getTileIndex(tile)];
+    }
+
+    /**
+     * Check whether a tile is viewable.
+     *
+     * @param tile tile to check.
+     * @return {@code true} if the tile is viewable.
+     */
+    boolean isViewable(HexagonTile tile) {
+        return mValues[mMap.getTileIndex(tile)] > 0;
+    }
+
+    /**
+     * Get all viewable tiles.
+     *
+     * @return stream of viewable tiles.
+     */
+    Stream<HexagonTile> getViewableTiles() {
+        return IntStream.range(0, mValues.length)
+                .filter(i -> mValues[i] > 0)
+                .mapToObj(mMap::getTileByIndex);
+    }
+
+    /**
+     * Add a tile viewability spreads out of.
+     *
+     * <p>Viewability of the tile only ever gets raised. It will spread on the next {@link
+     * #update()} call.
+     *
+     * @param tile source tile.
+     * @param value viewability of the tile.
+     */
+    void addSource(HexagonTile tile, int value) {
+        int idx = mMap.getTileIndex(tile);
+
+        if (mValues[idx] < value) {
+            setValue(idx, value);
+        }
+
+        mPending.push(idx);
+    }
+
+    /**
+     * Remove viewability that spread out of a set of source tiles.
+     *
+     * <p>Every tile the sources could reach gets reset, and viewability of the tiles surrounding
+     * that region is queued to spread back in. Any remaining sources within the region need to be
+     * added again with {@link #addSource}.
+     *
+     * @param sources tiles to remove the viewability of.
+     */
+    void removeSources(Iterable<HexagonTile> sources) {
+        for (HexagonTile tile : sources) {
+            int idx = mMap.getTileIndex(tile);
+            markForRemoval(idx, mValues[idx] - mLowerBound + 1);
+        }
+
+        while (mRemovalQueue.size() > 0) {
+            int idx = mRemovalQueue.pop();
+            int reach = mRemovalReach[idx] - 1;
+
+            for (int d = 0; d < HexagonMap.NEIGHBOUR_COUNT; d++) {
+                int n = mMap.getNeighbourIndex(idx, d);
+
+                if (n >= 0) {
+                    markForRemoval(n, reach);
+                }
+            }
+        }
+
+        for (int i = 0; i < mRemovalRegion.size(); i++) {
+            setValue(mRemovalRegion.get(i), mLowerBound);
+        }
+
+        // The tiles around the region are intact, spread their viewability back in
+        for (int i = 0; i < mRemovalRegion.size(); i++) {
+            int idx = mRemovalRegion.get(i);
+
+            for (int d = 0; d < HexagonMap.NEIGHBOUR_COUNT; d++) {
+                int n = mMap.getNeighbourIndex(idx, d);
+
+                if (n >= 0 && mRemovalReach[n] == 0 && mValues[n] > mLowerBound + 1) {
+                    mPending.push(n);
+                }
+            }
+        }
+
+        for (int i = 0; i < mRemovalRegion.size(); i++) {
+            mRemovalReach[mRemovalRegion.get(i)] = 0;
+        }
+
+        mRemovalRegion.clear();
+    }
+
+    /**
+     * Mark a tile for removal, if it is not marked with a greater reach yet.
+     *
+     * @param idx index of the tile.
+     * @param reach reach + 1 left at the tile.
+     */
+    private void markForRemoval(int idx, int reach) {
+        if (reach <= mRemovalReach[idx]) {
+            return;
+        }
+
+        if (mRemovalReach[idx] == 0) {
+            mRemovalRegion.push(idx);
+        }
+
+        mRemovalReach[idx] = reach;
+
+        if (reach > 1) {
+            mRemovalQueue.push(idx);
+        }
+    }
+
+    /** Spread all pending viewability. */
+    void update() {
+        while (mPending.size() > 0) {
+            int idx = mPending.pop();
+            int value = mValues[idx];
+
+            if (value <= mLowerBound) {
+                continue;
+            }
+
+            int newValue = value - 1;
+
+            for (int d = 0; d < HexagonMap.NEIGHBOUR_COUNT; d++) {
+                int n = mMap.getNeighbourIndex(idx, d);
+
+                if (n >= 0 && mValues[n] < newValue) {
+                    setValue(n, newValue);
+                    mPending.push(n);
+                }
+            }
+        }
+    }
+
+    /** Reset every tile to the lower bound, and drop any pending viewability. */
+    void clear() {
+        mPending.clear();
+
+        for (int i = 0; i < mValues.length; i++) {
+            setValue(i, mLowerBound);
+        }
+    }
+
+    /**
+     * Set viewability of a tile, and notify the listener if the tile's viewable state flipped.
+     *
+     * @param idx index of the tile.
+     * @param value new viewability.
+     */
+    private void setValue(int idx, int value) {
+        int oldValue = mValues[idx];
+        mValues[idx] = value;
+
+        if (mChangeListener != null && (oldValue > 0) != (value > 0)) {
+            mChangeListener.accept(mMap.getTileByIndex(idx));
+        }
+    }
+}
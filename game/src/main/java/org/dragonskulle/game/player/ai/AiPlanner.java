@@ -0,0 +1,104 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.game.player.ai;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+import org.dragonskulle.game.player.ai.algorithms.DistanceField;
+import org.dragonskulle.game.player.ai.algorithms.graphs.ISearchGraph;
+import org.dragonskulle.game.player.ai.algorithms.graphs.NavigationGraph;
+
+/**
+ * Runs AI searches off the game's fixed update.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Only the searches are computed off the update, on a pool of worker threads, from immutable
+ *     snapshots of the map, see {@link NavigationGraph#getSnapshot()}, taken when the search is
+ *     requested. The AI player polls the returned {@link Future} on later ticks, and only then
+ *     acts on the result, through the usual client requests of its player, on the thread updating
+ *     its scene. Its decisions read the live state of the game, so they stay on the update.
+ */
+public class AiPlanner {
+    /** Planner shared by all AI players. Only accessed through {@link #getShared()}. */
+    private static AiPlanner sShared;
+
+    /** Workers running the plans, or {@code null} to plan on the calling thread. */
+    private final ExecutorService mExecutor;
+
+    /**
+     * Create a planner.
+     *
+     * @param threads number of worker threads. With 0 threads, plans are computed immediately, on
+     *     the thread requesting them.
+     */
+    public AiPlanner(int threads) {
+        if (threads <= 0) {
+            mExecutor = null;
+            return;
+        }
+
+        AtomicInteger count = new AtomicInteger();
+
+        mExecutor =
+                Executors.newFixedThreadPool(
+                        threads,
+                        (runnable) -> {
+                            Thread thread = new Thread(runnable);
+                            thread.setName("AI planner " + count.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+    }
+
+    /**
+     * Get the planner shared by all AI players.
+     *
+     * <p>It uses all cores, except for the one running the main loop.
+     *
+     * @return shared planner.
+     */
+    public static synchronized AiPlanner getShared() {
+        if (sShared == null) {
+            sShared = new AiPlanner(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+        }
+
+        return sShared;
+    }
+
+    /**
+     * Compute the distances to the nearest of several targets.
+     *
+     * @param graph immutable graph to search, that will not be changed while the search runs.
+     * @param targets indices of the target nodes. It must not be changed after the call.
+     * @param allowed bits of the nodes the paths may go through, indexed by node, or {@code null}
+     *     to allow all nodes. It must not be changed after the call.
+     * @return future which completes with the {@link DistanceField} of the targets.
+     */
+    public Future<DistanceField> findDistances(
+            ISearchGraph graph, int[] targets, long[] allowed) {
+        IntPredicate filter = toFilter(allowed);
+
+        if (mExecutor == null) {
+            return CompletableFuture.completedFuture(new DistanceField(graph, targets, filter));
+        }
+
+        return mExecutor.submit(() -> new DistanceField(graph, targets, filter));
+    }
+
+    /**
+     * Turn bits of allowed nodes into a filter.
+     *
+     * @param allowed bits of the allowed nodes, or {@code null}.
+     * @return filter of the allowed nodes, or {@code null} to allow all.
+     */
+    private static IntPredicate toFilter(long[] allowed) {
+        if (allowed == null) {
+            return null;
+        }
+
+        return (node) -> (allowed[node >>> 6] & (1L << node)) != 0;
+    }
+}
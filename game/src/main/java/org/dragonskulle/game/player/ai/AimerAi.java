@@ -2,53 +2,61 @@
 package org.dragonskulle.game.player.ai;
 
 import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Deque;
 import java.util.List;
+import java.util.Objects;
 import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.stream.Stream;
 import lombok.extern.java.Log;
 import org.dragonskulle.core.Reference;
 import org.dragonskulle.game.GameConfig.AiAimerConfig;
 import org.dragonskulle.game.building.Building;
+import org.dragonskulle.game.map.HexagonMap;
 import org.dragonskulle.game.map.HexagonTile;
 import org.dragonskulle.game.player.BuildingDescriptor;
 import org.dragonskulle.game.player.Player;
 import org.dragonskulle.game.player.PredefinedBuildings;
-import org.dragonskulle.game.player.ai.algorithms.AStar;
-import org.dragonskulle.game.player.ai.algorithms.graphs.Graph;
-import org.dragonskulle.game.player.ai.algorithms.graphs.Node;
+import org.dragonskulle.game.player.ai.algorithms.DistanceField;
+import org.dragonskulle.game.player.ai.algorithms.graphs.ISearchGraph;
+import org.dragonskulle.game.player.ai.algorithms.graphs.NavigationGraph;
 
 /**
- * An AI player which will aim for a {@link Building} of a player when viewed. This is done using
- * the A* Algorithm.
+ * An AI player which will aim for a {@link Building} of a player when viewed. This is done by
+ * following the distances to the nearest reachable building, from a {@link DistanceField}.
  *
  * @author Dragonskulle
  */
 @Log
 public class AimerAi extends ProbabilisticAiPlayer {
 
-    /**
-     * A Class which holds the Goal Node and Start Node.
-     *
-     * @author DragonSkulle
-     */
-    private class ImportantNodes {
-
-        /** This will be the goal node. */
-        private Node mGoalNode;
-
-        /** This will be the start node. */
-        private Node mStartNode;
-    }
-
     /** This will hold the path to go. */
     private Deque<Integer> mPath = new ArrayDeque<Integer>();
 
     /** This will hold where we have gone. */
     private Deque<Integer> mGone;
 
-    /** This is the graph to traverse. */
-    private Graph mGraph;
+    /** This is the graph to traverse, shared with the other AI players of the map. */
+    private NavigationGraph mGraph;
+
+    /** The distances being computed on the {@link AiPlanner}, or {@code null}. */
+    private Future<DistanceField> mPendingField;
+
+    /** The distances to the targets last aimed for, or {@code null}. */
+    private DistanceField mField;
+
+    /** The graph snapshot {@link #mField} is of. */
+    private ISearchGraph mFieldGraph;
+
+    /** The nodes {@link #mField} leads to, in ascending order. */
+    private int[] mFieldTargets;
+
+    /** The nodes {@link #mField} may go through, or {@code null} if it may go anywhere. */
+    private long[] mFieldAllowed;
 
     /** Random Creator. */
     private Random mRandom = new Random();
@@ -60,36 +68,69 @@ public class AimerAi extends ProbabilisticAiPlayer {
     private int mAttempts = 0;
 
     /** The node we previously were on. */
-    private Node mNodePreviouslyOn = null;
+    private int mNodePreviouslyOn = -1;
 
     /** The chance to aim at a capital. */
     private float mAimAtCapital = 0.0f;
 
-    /** The number of times we've attempted A*. */
-    private int mAStarAttempts = 0;
+    /** The number of times we've picked a new target. */
+    private int mRetargetAttempts = 0;
 
     /** Basic Constructor. */
     public AimerAi() {}
 
+    @Override
+    public void fixedUpdate(float deltaTime) {
+        // Take the path as soon as it is found, so it is ready for the next move
+        if (mPendingField != null && mPendingField.isDone()) {
+            applyPendingField();
+        }
+
+        super.fixedUpdate(deltaTime);
+    }
+
+    @Override
+    protected void onDestroy() {
+        if (mPendingField != null) {
+            mPendingField.cancel(false);
+            mPendingField = null;
+        }
+    }
+
+    /**
+     * Get the planner to search for paths on.
+     *
+     * @return The {@link AiPlanner} to use.
+     */
+    protected AiPlanner getPlanner() {
+        return AiPlanner.getShared();
+    }
+
     @Override
     protected void simulateInput() {
 
         Player player = getPlayer();
         if (player == null) return;
 
+        // Whilst the path is being searched for play probabilistically
+        if (mPendingField != null) {
+            super.simulateInput();
+            return;
+        }
+
         // Checks if we have reached the capital
         if (mPath.size() == 0) {
 
-            // Will perform all necessary checks for A*
-            aStar();
+            // Will pick an opponent, and start computing the distances to its buildings
+            retarget();
 
             // Increase the chance that next time we aim for the capital.
-            mAStarAttempts += 1;
+            mRetargetAttempts += 1;
             mAimAtCapital =
                     (float)
                             (Math.pow(
                                             2,
-                                            ((float) mAStarAttempts
+                                            ((float) mRetargetAttempts
                                                     / getConfig().getAiAimer().getMaxAttempts()))
                                     - 1);
 
@@ -109,7 +150,7 @@ public class AimerAi extends ProbabilisticAiPlayer {
 
         AiAimerConfig cfg = getConfig().getAiAimer();
 
-        // This will choose whether to play as an A* player or as a Probablistic Player
+        // This will choose whether to follow the path or to play as a Probablistic Player
         if (mRandom.nextFloat() < cfg.getPlayAStar()) {
 
             moveBackwards();
@@ -120,18 +161,18 @@ public class AimerAi extends ProbabilisticAiPlayer {
                 return;
             }
 
-            if (!Reference.isValid(mGraph.getNode(nextNode).getHexTile())) {
+            if (getTile(nextNode) == null) {
                 mPath = new ArrayDeque<Integer>();
                 return;
             }
 
-            HexagonTile nextTile = mGraph.getNode(nextNode).getHexTile().get();
+            HexagonTile nextTile = getTile(nextNode);
             // If the AI wants to attack, then try to ensure its not in cooldown.
             if (nextTile.isClaimed() && player.inCooldown()) {
                 return;
             }
 
-            if (mGraph.getNode(nextNode) == mNodePreviouslyOn) {
+            if (nextNode == mNodePreviouslyOn) {
                 mAttempts++;
             } else {
                 mAttempts = 0;
@@ -143,7 +184,7 @@ public class AimerAi extends ProbabilisticAiPlayer {
                 mPath = new ArrayDeque<Integer>();
                 return;
             }
-            mNodePreviouslyOn = mGraph.getNode(nextNode);
+            mNodePreviouslyOn = nextNode;
             // Checks whether to build or to attack
             if (nextTile.isClaimed()) {
                 attack(nextTile, nextNode);
@@ -162,10 +203,10 @@ public class AimerAi extends ProbabilisticAiPlayer {
      * This will attack the next building.
      *
      * @param nextTile The next {@link HexagonTile} to aim for.
-     * @param nextNode The {@link Node} number for the next {@link HexagonTile}.
+     * @param nextNode The node number for the next {@link HexagonTile}.
      */
     private void attack(HexagonTile nextTile, int nextNode) {
-        log.fine("A* Attacking");
+        log.fine("Aimer attacking");
         Player nextTilePlayer = nextTile.getClaimant();
 
         // ATTACK
@@ -176,11 +217,11 @@ public class AimerAi extends ProbabilisticAiPlayer {
                 return;
             }
             nextNode = mPath.pop();
-            if (!Reference.isValid(mGraph.getNode(nextNode).getHexTile())) {
+            if (getTile(nextNode) == null) {
                 mPath.push(nextNode);
                 return;
             }
-            nextTile = mGraph.getNode(nextNode).getHexTile().get();
+            nextTile = getTile(nextNode);
             nextTilePlayer = nextTile.getClaimant();
         }
 
@@ -210,14 +251,14 @@ public class AimerAi extends ProbabilisticAiPlayer {
                 }
                 nextNode = mGone.pop();
 
-                if (!Reference.isValid(mGraph.getNode(nextNode).getHexTile())) {
+                if (getTile(nextNode) == null) {
                     // Something is wrong so reset everything
                     mPath = new ArrayDeque<Integer>();
                     return;
                 }
 
                 // Get the tile and building
-                nextTile = mGraph.getNode(nextNode).getHexTile().get();
+                nextTile = getTile(nextNode);
                 nextTilePlayer = nextTile.getClaimant();
                 building = nextTile.getBuilding();
             }
@@ -262,10 +303,10 @@ public class AimerAi extends ProbabilisticAiPlayer {
      * This will build the next building.
      *
      * @param tileToBuildOn The next {@link HexagonTile} to aim for.
-     * @param nextNode The {@link Node} number for the next {@link HexagonTile}.
+     * @param nextNode The node number for the next {@link HexagonTile}.
      */
     private void build(HexagonTile tileToBuildOn, int nextNode) {
-        log.fine("A* Building");
+        log.fine("Aimer building");
 
         // Get a building type that they can afford.
         BuildingDescriptor option = getRandomBuildingType();
@@ -289,11 +330,11 @@ public class AimerAi extends ProbabilisticAiPlayer {
             return Integer.MAX_VALUE;
         }
         int nextNode = mPath.pop();
-        if (!Reference.isValid(mGraph.getNode(nextNode).getHexTile())) {
+        if (getTile(nextNode) == null) {
             mPath = new ArrayDeque<Integer>();
             return Integer.MAX_VALUE;
         }
-        HexagonTile nextTile = mGraph.getNode(nextNode).getHexTile().get();
+        HexagonTile nextTile = getTile(nextNode);
         Player nextTilePlayer = nextTile.getClaimant();
         while (nextTilePlayer != null
                 && nextTilePlayer.getNetworkObject().getOwnerId()
@@ -303,11 +344,11 @@ public class AimerAi extends ProbabilisticAiPlayer {
                 return Integer.MAX_VALUE;
             }
             nextNode = mPath.pop();
-            if (!Reference.isValid(mGraph.getNode(nextNode).getHexTile())) {
+            if (getTile(nextNode) == null) {
                 return Integer.MAX_VALUE;
             }
 
-            nextTile = mGraph.getNode(nextNode).getHexTile().get();
+            nextTile = getTile(nextNode);
             nextTilePlayer = nextTile.getClaimant();
         }
 
@@ -327,21 +368,21 @@ public class AimerAi extends ProbabilisticAiPlayer {
         boolean onYourNode = false;
         while (!onYourNode) {
 
-            Reference<HexagonTile> hexagonTile = mGraph.getNode(previousNode).getHexTile();
+            HexagonTile hexagonTile = getTile(previousNode);
 
-            if (!Reference.isValid(hexagonTile)) {
+            if (hexagonTile == null) {
                 mPath.push(previousNode);
                 return;
             }
 
-            if (!hexagonTile.get().isClaimed()) {
+            if (!hexagonTile.isClaimed()) {
                 mPath.push(previousNode);
                 if (mGone.size() == 0) {
                     mPath = new ArrayDeque<Integer>();
                     return;
                 }
                 previousNode = mGone.pop();
-            } else if (!getPlayer().hasClaimedTile(hexagonTile.get())) {
+            } else if (!getPlayer().hasClaimedTile(hexagonTile)) {
                 mPath.push(previousNode);
                 if (mGone.size() == 0) {
                     mPath = new ArrayDeque<Integer>();
@@ -372,14 +413,14 @@ public class AimerAi extends ProbabilisticAiPlayer {
             return;
         }
         int firstElement = mPath.pop();
-        if (!Reference.isValid(mGraph.getNode(firstElement).getHexTile())) {
+        if (getTile(firstElement) == null) {
             mPath.push(firstElement);
             return;
         }
-        if (getPlayer().hasClaimedTile(mGraph.getNode(firstElement).getHexTile().get())) {
+        if (getPlayer().hasClaimedTile(getTile(firstElement))) {
 
             mGone.push(firstElement);
-            mNodePreviouslyOn = mGraph.getNode(firstElement);
+            mNodePreviouslyOn = firstElement;
 
         } else {
             log.fine("Cannot do the first move");
@@ -428,8 +469,8 @@ public class AimerAi extends ProbabilisticAiPlayer {
         }
     }
 
-    /** This will perform the A* Search and all related operations to it. */
-    private void aStar() {
+    /** This will pick an opponent to aim for, and start finding the path to its buildings. */
+    private void retarget() {
 
         // Will find the opponent to attack
         Player opponentPlayer = findOpponent();
@@ -443,110 +484,171 @@ public class AimerAi extends ProbabilisticAiPlayer {
     }
 
     /**
-     * This will aim for a building.
+     * This will aim for the nearest reachable building of a player.
+     *
+     * <p>The distances to all the targets are computed at once, by a {@link DistanceField}, which
+     * is kept, and followed again, until the map or the targets change.
      *
      * @param opponentPlayer The {@link Player} to aim for.
      */
     private void aimBuilding(Player opponentPlayer) {
+        mPath = new ArrayDeque<Integer>();
+
         if (opponentPlayer == null) {
-            mPath = new ArrayDeque<Integer>();
             return;
         }
 
         mCapitalAimer = mRandom.nextFloat() <= mAimAtCapital;
 
-        // Will find the tile to attack
-        HexagonTile tileToAim = getTileBuilding(opponentPlayer);
+        HexagonMap map = getPlayer().getMap();
 
-        if (tileToAim == null) {
-            mPath = new ArrayDeque<Integer>();
+        if (map == null) {
             return;
         }
 
-        if (!mCapitalAimer) {
+        mGraph = map.getNavigationGraph();
 
-            // Creates a graph
-            mGraph =
-                    new Graph(
-                            getPlayer().getMap(), // TODO Change to stream
-                            tileToAim,
-                            this);
-        } else {
-            mGraph = new Graph(getPlayer().getMap(), tileToAim);
+        // Will find the tiles to attack, which can be walked to from our buildings
+        int[] targets = findTargets(map, opponentPlayer, getLandMasses(getStartNodes(map)));
+
+        if (targets.length == 0) {
+            log.fine("Cannot find a tile to aim for");
+            return;
         }
-        // Finds the buildings
-        ImportantNodes buildings = findBuilding(mGraph, opponentPlayer, tileToAim);
 
-        Node startNode = buildings.mStartNode;
-        Node endNode = buildings.mGoalNode;
+        // Unless aiming for the capital, only go through the tiles we can see
+        long[] allowed = mCapitalAimer ? null : getViewableNodes(map);
 
-        if (startNode == null || endNode == null) {
+        ISearchGraph snapshot = mGraph.getSnapshot();
 
-            // Null pointer check to try and not destroy the server
-            mPath = new ArrayDeque<Integer>();
+        // Nothing changed since the last search, so its distances still hold
+        if (mField != null
+                && mFieldGraph == snapshot
+                && Arrays.equals(mFieldTargets, targets)
+                && Arrays.equals(mFieldAllowed, allowed)) {
+            followField();
             return;
         }
-        // Performs A* Search
-        AStar aStar = new AStar(mGraph, startNode.getNodeId(), endNode.getNodeId());
 
-        mPath = aStar.getPath();
+        // Starts the search, which finishes on a later tick
+        mField = null;
+        mFieldGraph = snapshot;
+        mFieldTargets = targets;
+        mFieldAllowed = allowed;
+        mPendingField = getPlanner().findDistances(snapshot, targets, allowed);
+
+        if (mPendingField.isDone()) {
+            applyPendingField();
+        }
+    }
+
+    /** This will take the distances computed by the {@link AiPlanner}, and start following them. */
+    private void applyPendingField() {
+        try {
+            mField = mPendingField.get();
+        } catch (InterruptedException | ExecutionException | CancellationException e) {
+            log.warning("Failed to find a path: " + e);
+            mField = null;
+        }
+
+        mPendingField = null;
+
+        if (mField != null) {
+            followField();
+        }
+    }
+
+    /** This will set the path from our building nearest to a target, to the target. */
+    private void followField() {
+        mPath = new ArrayDeque<Integer>();
         mGone = new ArrayDeque<Integer>();
-        mNodePreviouslyOn = startNode;
         mAttempts = 0;
+
+        if (getPlayer() == null || mGraph == null) {
+            return;
+        }
+
+        int startNode = mField.findNearest(getStartNodes(mGraph.getMap()));
+
+        if (startNode == -1) {
+            log.fine("Cannot reach any tile to aim for");
+            return;
+        }
+
+        for (int node = startNode; node != -1; node = mField.getNext(node)) {
+            mPath.add(node);
+        }
+
+        mNodePreviouslyOn = startNode;
     }
 
     /**
-     * Get a tile to aim for.
+     * Get the nodes the player can currently see.
      *
+     * @param map The {@link HexagonMap} the nodes are tiles of.
+     * @return Bits of the viewable nodes, indexed by node.
+     */
+    private long[] getViewableNodes(HexagonMap map) {
+        long[] nodes = new long[(map.getTileCount() + 63) >>> 6];
+
+        getViewableTiles()
+                .forEach(
+                        tile -> {
+                            int node = map.getTileIndex(tile);
+                            nodes[node >>> 6] |= 1L << node;
+                        });
+
+        return nodes;
+    }
+
+    /**
+     * Get the tiles to aim for.
+     *
+     * <p>This is the capital when aiming for it. Otherwise it is the capital if it can be seen, or
+     * else all the buildings of the player that can be seen.
+     *
+     * @param map The {@link HexagonMap} the nodes are tiles of.
      * @param opponentPlayer The {@link Player} to aim for.
-     * @return The {@link HexagonTile} to aim for.
+     * @param landMasses The land masses the targets have to be on.
+     * @return The nodes to aim for, in ascending order.
      */
-    private HexagonTile getTileBuilding(Player opponentPlayer) {
+    private int[] findTargets(HexagonMap map, Player opponentPlayer, BitSet landMasses) {
 
         if (mCapitalAimer) {
             if (opponentPlayer.getCapital() == null) {
-                return null;
+                return new int[0];
             }
-            return opponentPlayer.getCapital().getTile();
+            int capital = map.getTileIndex(opponentPlayer.getCapital().getTile());
+
+            if (!isOnLandMass(capital, landMasses)) {
+                return new int[0];
+            }
+            return new int[] {capital};
         }
 
-        HexagonTile[] tileToAim = new HexagonTile[1];
-        // This checks if any of the buildings are the capital
-        boolean foundTile =
+        int[] capital = {-1};
+
+        // This goes through the buildings once, and prefers the capital if there is one
+        int[] targets =
                 getViewableTiles()
-                        .anyMatch(
+                        .filter(tile -> tile.hasBuilding() && opponentPlayer.hasClaimedTile(tile))
+                        .mapToInt(
                                 tile -> {
-                                    if (tile.hasBuilding()
-                                            && tile.getBuilding().isCapital()
-                                            && opponentPlayer.hasClaimedTile(tile)) {
-                                        tileToAim[0] = tile;
-                                        return true;
-                                    } else {
-                                        return false;
+                                    int node = map.getTileIndex(tile);
+                                    if (tile.getBuilding().isCapital()) {
+                                        capital[0] = node;
                                     }
-                                });
-
-        // If no capitals are found just select a random building to attack
-        if (!foundTile) {
-            foundTile =
-                    getViewableTiles()
-                            .anyMatch(
-                                    tile -> {
-                                        if (tile.hasBuilding()
-                                                && opponentPlayer.hasClaimedTile(tile)) {
-                                            tileToAim[0] = tile;
-                                            return true;
-                                        } else {
-                                            return false;
-                                        }
-                                    });
-        }
-        if (!foundTile) {
-            log.fine("Cannot find a tile to aim for");
-            return null;
-        } else {
-            return tileToAim[0];
+                                    return node;
+                                })
+                        .filter(node -> isOnLandMass(node, landMasses))
+                        .sorted()
+                        .toArray();
+
+        if (capital[0] != -1 && Arrays.binarySearch(targets, capital[0]) >= 0) {
+            return new int[] {capital[0]};
         }
+
+        return targets;
     }
 
     /**
@@ -560,65 +662,62 @@ public class AimerAi extends ProbabilisticAiPlayer {
     }
 
     /**
-     * This will find the Building node for both your opponent and the capital for you.
+     * Get the tile of a node.
      *
-     * @param graph The {@link Graph} to use.
-     * @param opponentPlayer The {@link Player} to aim for.
-     * @param target The target {@link HexagonTile} to aim for.
-     * @return An {@link ImportantNodes} which have the {@link Node} to start from and go to.
+     * @param node The node number.
+     * @return The {@link HexagonTile} of the node, or {@code null} if there is none.
      */
-    private ImportantNodes findBuilding(Graph graph, Player opponentPlayer, HexagonTile target) {
-
-        ImportantNodes buildings = new ImportantNodes();
-        // Go through all nodes to find the capital
-
-        buildings.mGoalNode = mGraph.getNode(target);
-
-        HexagonTile startHex = getStartHex();
-        if (startHex == null) {
-            buildings.mStartNode = null;
-
-        } else {
-
-            buildings.mStartNode = mGraph.getNode(startHex);
+    private HexagonTile getTile(int node) {
+        if (mGraph == null || node < 0 || node >= mGraph.getNodeCount()) {
+            return null;
         }
-
-        return buildings;
+        return mGraph.getMap().getTileByIndex(node);
     }
 
     /**
-     * This will choose randomly the HexagonTile to start from.
+     * Get the nodes of all our buildings, which are the nodes paths start from.
      *
-     * @return The {@link HexagonTile} to start be the start node.
+     * @param map The {@link HexagonMap} the nodes are tiles of.
+     * @return The nodes of our buildings.
      */
-    private HexagonTile getStartHex() {
-        List<Reference<Building>> ownedBuildings = getPlayer().getOwnedBuildings();
-        if (ownedBuildings.size() == 0) {
-            // This has already been checked but hey ho
-            return null;
-        }
-        int index = mRandom.nextInt(ownedBuildings.size());
-        final int end = index;
+    private int[] getStartNodes(HexagonMap map) {
+        return getPlayer().getOwnedBuildings().stream()
+                .filter(Reference::isValid)
+                .map(Reference::get)
+                .map(Building::getTile)
+                .filter(Objects::nonNull)
+                .mapToInt(map::getTileIndex)
+                .toArray();
+    }
 
-        // Goes through the ownedBuildings
-        while (true) {
-            Reference<Building> buildingReference = ownedBuildings.get(index);
+    /**
+     * Get the land masses of nodes.
+     *
+     * @param nodes The nodes to check.
+     * @return The bits of the land masses the nodes are on.
+     */
+    private BitSet getLandMasses(int[] nodes) {
+        BitSet landMasses = new BitSet();
 
-            // Checks the building is valid
-            if (Reference.isValid(buildingReference)) {
-                return buildingReference.get().getTile();
+        for (int node : nodes) {
+            int landMass = mGraph.getLandMass(node);
+            if (landMass != -1) {
+                landMasses.set(landMass);
             }
-            index++;
+        }
 
-            // If gone over start at 0
-            if (index >= ownedBuildings.size()) {
-                index = 0;
-            }
+        return landMasses;
+    }
 
-            // Checks if we've gone through the whole list
-            if (index == end) {
-                return null;
-            }
-        }
+    /**
+     * Check whether a node is on one of some land masses.
+     *
+     * @param node The node to check.
+     * @param landMasses The bits of the land masses.
+     * @return {@code true} if the node is on one of the land masses.
+     */
+    private boolean isOnLandMass(int node, BitSet landMasses) {
+        int landMass = mGraph.getLandMass(node);
+        return landMass != -1 && landMasses.get(landMass);
     }
 }
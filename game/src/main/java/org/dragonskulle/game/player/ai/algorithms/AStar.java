@@ -1,231 +1,316 @@
 /* (C) 2021 DragonSkulle */
 package org.dragonskulle.game.player.ai.algorithms;
 
-import java.util.ArrayDeque;
-import java.util.ArrayList;
-import java.util.Deque;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
 import lombok.Getter;
 import lombok.experimental.Accessors;
-import org.dragonskulle.game.player.ai.algorithms.graphs.Connection;
-import org.dragonskulle.game.player.ai.algorithms.graphs.Graph;
+import org.dragonskulle.game.player.ai.algorithms.graphs.ISearchGraph;
 
 /**
  * Class which performs the A* Algorithm. This has been adapted from Nathaniel Lowis's (one of our
  * group members) repository: https://github.com/low101043/aiProjectComputer.
  *
+ * <p>The open nodes are kept in an indexed binary heap, which allows to lower the cost of a node
+ * already in the heap. All per-node state lives in primitive arrays, which are kept between
+ * searches, so a single {@link AStar} can be reused without allocating.
+ *
+ * <p>AI players walk a {@link DistanceField} instead. The search is kept as the point to point
+ * reference that distance fields are tested and benchmarked against.
+ *
  * @author DragonSkulle
  */
 @Accessors(prefix = "m")
 public class AStar {
 
-    /** This will hold the nodes to be visited with the nodeId being the key. */
-    private HashMap<Integer, Frontier> mFrontier = new HashMap<Integer, Frontier>();
+    /** Bits of the nodes which have been reached by the search. */
+    private long[] mOpened = new long[0];
 
-    /**
-     * A class which holds the variables for a node in the frontier.
-     *
-     * @author DragonSkulle
-     */
-    private class Frontier {
-
-        /** The child node. */
-        private int mChild;
-
-        /** The cost of getting to the child node. */
-        private int mFNode;
-
-        /** The weight of the connection. */
-        private int mWeight;
-
-        /** The parent node. */
-        private int mParent;
-
-        /**
-         * Simple constructor.
-         *
-         * @param child The child node.
-         * @param fNode The cost of getting to the child node.
-         * @param weight The weight from parent to child.
-         * @param currentNode The parent node.
-         */
-        public Frontier(int child, int fNode, int weight, int currentNode) {
-            mChild = child;
-            mFNode = fNode;
-            mWeight = weight;
-            mParent = currentNode;
-        }
-    }
+    /** Bits of the nodes which have been visited. */
+    private long[] mClosed = new long[0];
 
-    /**
-     * Holds the details of the connections.
-     *
-     * @author DragonSkulle
-     */
-    private class ConnectionIds {
-
-        /** The parent node. */
-        private int mCurrentNode;
-
-        /** The child node. */
-        private int mChildNode;
-
-        /**
-         * Simple constructor.
-         *
-         * @param currentNode The parent node.
-         * @param childNode the child node.
-         */
-        private ConnectionIds(int currentNode, int childNode) {
-            mCurrentNode = currentNode;
-            mChildNode = childNode;
-        }
-    }
+    /** The cost of the cheapest known way to get to every reached node. */
+    private int[] mCosts = new int[0];
+
+    /** The heuristic of every reached node. */
+    private int[] mHeuristics = new int[0];
+
+    /** The node preceding every reached node on its cheapest known way. */
+    private int[] mParents = new int[0];
+
+    /** The binary heap of nodes to be visited, ordered by their estimated total cost. */
+    private int[] mHeap = new int[0];
 
-    /** This will hold the node ids which has been visited. */
-    private Set<Integer> mVisited = new HashSet<Integer>();
+    /** The position of every node to be visited in {@link #mHeap}. */
+    private int[] mHeapPositions = new int[0];
 
-    /** This will hold the Graph being processed. */
-    private Graph mGraph;
+    /** The number of nodes in {@link #mHeap}. */
+    private int mHeapSize = 0;
 
-    /** This hold the solution of which nodes to visit. */
-    @Getter private Deque<Integer> mPath = new ArrayDeque<Integer>();
+    /** The node indices of the last found path, from the start to the goal. */
+    private int[] mPathNodes = new int[0];
+
+    /** The number of nodes in the last found path, 0 if no path was found. */
+    @Getter private int mPathLength = 0;
 
     /**
-     * The constructor which allows you to make the object.
+     * This will perform the A* Search.
+     *
+     * <p>The found path can be read through {@link #getPathLength()} and {@link
+     * #getPathNode(int)}, until the next search.
      *
-     * @param graph The {@link Graph} to use A* on.
-     * @param currentNode The start {@code Node}'s nodeId.
-     * @param endNode The end {@code Node}'s nodeId.
+     * @param graph The {@link ISearchGraph} to search.
+     * @param start The index of the node to start from.
+     * @param goal The index of the goal node.
+     * @return {@code true} if a path was found.
      */
-    public AStar(Graph graph, int currentNode, int endNode) {
-        this.mGraph = graph;
-        aStarAlgorithm(currentNode, endNode);
+    public boolean search(ISearchGraph graph, int start, int goal) {
+        return search(graph, start, goal, null);
     }
 
     /**
-     * This will perform the A* Search.
+     * This will perform the A* Search, only going through some of the nodes.
+     *
+     * <p>This allows to search a part of a shared graph, without building a separate one.
      *
-     * @param currentNode The {@link Node}'s nodeId to start from.
-     * @param endNode The goal node's nodeId.
+     * @param graph The {@link ISearchGraph} to search.
+     * @param start The index of the node to start from.
+     * @param goal The index of the goal node.
+     * @param allowed Checks whether a node can be walked through, or {@code null} to allow all.
+     *     It is called at most once per node.
+     * @return {@code true} if a path was found.
      */
-    private void aStarAlgorithm(int currentNode, int endNode) {
+    public boolean search(ISearchGraph graph, int start, int goal, IntPredicate allowed) {
+        reset(graph.getNodeCount());
 
-        boolean finished = false; // This checks if it finished
-        int oldFNode = 0; // This is what the previous f node value was
-        ArrayList<ConnectionIds> connectionsFinal =
-                new ArrayList<ConnectionIds>(); // This will hold the route
+        open(start, 0, graph.getHeuristic(start, goal), -1);
 
-        while (!finished) {
-            ArrayList<Connection> connections =
-                    mGraph.getConnection(currentNode); // Gets all the connections needed
+        while (mHeapSize > 0) {
+            int node = pop();
 
-            mVisited.add(currentNode); // Adds the current node to the mVisited stack
+            if (node == goal) {
+                buildPath(goal);
+                return true;
+            }
+
+            mClosed[node >>> 6] |= 1L << node;
 
-            checkConnections(currentNode, connections, oldFNode);
+            int cost = mCosts[node];
+            int end = graph.getEdgeEnd(node);
 
-            int nextNodeIndex = nextNode();
+            for (int edge = graph.getEdgeStart(node); edge < end; edge++) {
+                int child = graph.getEdgeTarget(edge);
 
-            if (nextNodeIndex != -1) { // As long as the mFrontier is not empty
-                Frontier nextNode =
-                        mFrontier.remove(
-                                nextNodeIndex); // Removes the element with the smallest fNode
-                ConnectionIds connectionHere = new ConnectionIds(nextNode.mParent, nextNode.mChild);
+                if (isSet(mClosed, child)) {
+                    continue;
+                }
+
+                if (allowed != null && !isSet(mOpened, child) && !allowed.test(child)) {
+                    mClosed[child >>> 6] |= 1L << child;
+                    continue;
+                }
 
-                connectionsFinal.add(connectionHere); // Add it to the final connections
-                if (nextNode.mChild == endNode) { // If it ends at the final node
-                    finished = true; // Finish the loop
-                    currentNode = nextNode.mChild; // Set the current node to the next node
+                int childCost = cost + graph.getEdgeWeight(edge);
 
-                } else { // If it is not the end
-                    oldFNode = nextNode.mWeight; // Gets the weight
-                    currentNode = nextNode.mChild; // Set the current node to the next node
+                if (!isSet(mOpened, child)) {
+                    open(child, childCost, graph.getHeuristic(child, goal), node);
+                } else if (childCost < mCosts[child]) {
+                    mCosts[child] = childCost;
+                    mParents[child] = node;
+                    siftUp(mHeapPositions[child]);
                 }
-            } else { // If the mFrontier is empty
-                finished = true; // Finish the loop
             }
         }
 
-        if (currentNode == endNode) { // If we have reached the end
-            mPath.push(endNode); // Push the end Node
+        return false;
+    }
+
+    /**
+     * Get a node of the last found path.
+     *
+     * @param index The position on the path, in range {@code [0, getPathLength())}.
+     * @return The index of the node, the start node being at position 0.
+     */
+    public int getPathNode(int index) {
+        return mPathNodes[index];
+    }
 
-            for (int i = connectionsFinal.size() - 1;
-                    i >= 0;
-                    i--) { // Keeps pushing the next node on
+    /**
+     * Clear the state of the previous search, and make sure it fits the graph.
+     *
+     * @param nodeCount The number of nodes in the graph.
+     */
+    private void reset(int nodeCount) {
+        if (mCosts.length < nodeCount) {
+            mCosts = new int[nodeCount];
+            mHeuristics = new int[nodeCount];
+            mParents = new int[nodeCount];
+            mHeap = new int[nodeCount];
+            mHeapPositions = new int[nodeCount];
+        }
 
-                // If the node on this connection is the right one
-                if (connectionsFinal.get(i).mChildNode == currentNode) {
+        int words = (nodeCount + 63) >>> 6;
 
-                    mPath.push(connectionsFinal.get(i).mCurrentNode);
-                    currentNode = connectionsFinal.get(i).mCurrentNode;
-                }
-            }
+        if (mOpened.length < words) {
+            mOpened = new long[words];
+            mClosed = new long[words];
+        } else {
+            Arrays.fill(mOpened, 0, words, 0);
+            Arrays.fill(mClosed, 0, words, 0);
         }
+
+        mHeapSize = 0;
+        mPathLength = 0;
     }
 
     /**
-     * This will check through all the connections and add to the frontier.
+     * Check whether a node's bit is set.
      *
-     * @param currentNode The current node we are at.
-     * @param connections An {@link ArrayList} of {@link Connections}'s which come off the current
-     *     node.
-     * @param oldFNode The weight to get to the currentNode.
+     * @param bits The bits of all nodes.
+     * @param node The node to check.
+     * @return {@code true} if the bit is set.
      */
-    private void checkConnections(
-            int currentNode, ArrayList<Connection> connections, int oldFNode) {
+    private static boolean isSet(long[] bits, int node) {
+        return (bits[node >>> 6] & (1L << node)) != 0;
+    }
 
-        for (Connection connection : connections) { // Go through each connection
+    /**
+     * Add a newly reached node to the heap.
+     *
+     * @param node The node reached.
+     * @param cost The cost of getting to the node.
+     * @param heuristic The heuristic of the node.
+     * @param parent The node it was reached from, or -1.
+     */
+    private void open(int node, int cost, int heuristic, int parent) {
+        mOpened[node >>> 6] |= 1L << node;
+        mCosts[node] = cost;
+        mHeuristics[node] = heuristic;
+        mParents[node] = parent;
+
+        int position = mHeapSize++;
+        mHeap[position] = node;
+        mHeapPositions[node] = position;
+        siftUp(position);
+    }
 
-            int child = connection.getDestinationNode(); // Gets the destination node
-            int heurusticInfo = mGraph.getNodeHeuristic(child); // Gets the heuristic info
-            int weight =
-                    connection.getWeight()
-                            + oldFNode; // Gets the weight of the node and add the old
-            // weights known
+    /**
+     * Remove the node with the lowest estimated total cost from the heap.
+     *
+     * @return The removed node.
+     */
+    private int pop() {
+        int top = mHeap[0];
+        mHeapSize--;
+
+        if (mHeapSize > 0) {
+            int last = mHeap[mHeapSize];
+            mHeap[0] = last;
+            mHeapPositions[last] = 0;
+            siftDown(0);
+        }
 
-            int fNode = heurusticInfo + weight; // This is the fnode known
+        return top;
+    }
 
-            if (!mVisited.contains(child)) { // If the child is not already mVisited
-                if (!mFrontier.containsKey(child)) { // If it is not in the mFrontier
+    /**
+     * Check whether a node should be visited before another one.
+     *
+     * <p>Nodes with the same estimated total cost are ordered by their heuristic, so nodes closer
+     * to the goal are visited first.
+     *
+     * @param a The first node.
+     * @param b The second node.
+     * @return {@code true} if {@code a} should be visited first.
+     */
+    private boolean isBefore(int a, int b) {
+        int totalA = mCosts[a] + mHeuristics[a];
+        int totalB = mCosts[b] + mHeuristics[b];
+        return totalA < totalB || (totalA == totalB && mHeuristics[a] < mHeuristics[b]);
+    }
 
-                    // Info to be added
-                    Frontier toAdd = new Frontier(child, fNode, weight, currentNode);
+    /**
+     * Move a node up the heap, until its parent is visited before it.
+     *
+     * @param position The position of the node in the heap.
+     */
+    private void siftUp(int position) {
+        int node = mHeap[position];
 
-                    mFrontier.put(child, toAdd); // Added to mFrontier
+        while (position > 0) {
+            int parentPosition = (position - 1) >>> 1;
+            int parent = mHeap[parentPosition];
 
-                } else {
-                    Frontier oldInfo = mFrontier.get(child); // Get the info
+            if (!isBefore(node, parent)) {
+                break;
+            }
 
-                    if (oldInfo.mFNode > fNode) { // If the new info is smaller than the old info
+            mHeap[position] = parent;
+            mHeapPositions[parent] = position;
+            position = parentPosition;
+        }
 
-                        Frontier toAdd = new Frontier(child, fNode, weight, currentNode);
+        mHeap[position] = node;
+        mHeapPositions[node] = position;
+    }
 
-                        mFrontier.remove(child); // Remove the current data
-                        mFrontier.put(child, toAdd); // Add the new data
-                    }
-                }
+    /**
+     * Move a node down the heap, until it is visited before both of its children.
+     *
+     * @param position The position of the node in the heap.
+     */
+    private void siftDown(int position) {
+        int node = mHeap[position];
+
+        while (true) {
+            int childPosition = position * 2 + 1;
+
+            if (childPosition >= mHeapSize) {
+                break;
+            }
+
+            int child = mHeap[childPosition];
+
+            if (childPosition + 1 < mHeapSize && isBefore(mHeap[childPosition + 1], child)) {
+                childPosition++;
+                child = mHeap[childPosition];
+            }
+
+            if (!isBefore(child, node)) {
+                break;
             }
+
+            mHeap[position] = child;
+            mHeapPositions[child] = position;
+            position = childPosition;
         }
+
+        mHeap[position] = node;
+        mHeapPositions[node] = position;
     }
 
     /**
-     * This will go through mFrontier and will find the next node to expand by checking what the
-     * fNode is.
+     * Walk the parents back from the goal, and store the path.
      *
-     * @return the index of the next node to check or -1 if the list is empty.
+     * @param goal The goal node.
      */
-    private int nextNode() {
-        int smallest = Integer.MAX_VALUE;
-        int index = -1;
-        for (Frontier node : mFrontier.values()) {
-            if (node.mFNode < smallest) {
-                smallest = node.mFNode;
-                index = node.mChild;
-            }
+    private void buildPath(int goal) {
+        int length = 0;
+
+        for (int node = goal; node != -1; node = mParents[node]) {
+            length++;
+        }
+
+        if (mPathNodes.length < length) {
+            mPathNodes = new int[Math.max(length, mPathNodes.length * 2)];
+        }
+
+        int position = length;
+
+        for (int node = goal; node != -1; node = mParents[node]) {
+            mPathNodes[--position] = node;
         }
 
-        return index;
+        mPathLength = length;
     }
 }
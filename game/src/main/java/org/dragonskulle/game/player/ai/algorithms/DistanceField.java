@@ -0,0 +1,201 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.game.player.ai.algorithms;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+import org.dragonskulle.game.player.ai.algorithms.graphs.ISearchGraph;
+
+/**
+ * Distances from every node of a graph to the nearest of a set of targets.
+ *
+ * <p>It is computed by a single multi-source Dijkstra search, started from all targets at once.
+ * This answers which of many starts is closest to any of the targets, and the path from it, in one
+ * pass, instead of one A* search per start and target pair. The field never changes once
+ * computed, so it can be kept, and read again, for as long as the graph and targets stay the same.
+ *
+ * <p>Edges are walked backwards from the targets, so the graph should be undirected, like the
+ * {@link org.dragonskulle.game.player.ai.algorithms.graphs.NavigationGraph}.
+ *
+ * @author Aurimas Blažulionis
+ */
+public class DistanceField {
+
+    /** The distance of nodes which cannot reach any target. */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    /** The distance of every node to its nearest target. */
+    private final int[] mDistances;
+
+    /** The next node on the way to the nearest target, or -1 for targets and unreached nodes. */
+    private final int[] mNext;
+
+    /**
+     * Compute the distances of a graph.
+     *
+     * @param graph The {@link ISearchGraph} to compute the distances in.
+     * @param targets The indices of the target nodes.
+     * @param allowed Checks whether a node can be walked through, or {@code null} to allow all.
+     *     Targets are always allowed.
+     */
+    public DistanceField(ISearchGraph graph, int[] targets, IntPredicate allowed) {
+        int nodeCount = graph.getNodeCount();
+
+        mDistances = new int[nodeCount];
+        mNext = new int[nodeCount];
+
+        Arrays.fill(mDistances, UNREACHABLE);
+        Arrays.fill(mNext, -1);
+
+        // Entries pack the distance in the upper, and the node in the lower 32 bits, so they are
+        // ordered by distance. Stale entries are skipped when popped.
+        long[] heap = new long[Math.max(16, targets.length)];
+        int heapSize = 0;
+
+        for (int target : targets) {
+            if (mDistances[target] != 0) {
+                mDistances[target] = 0;
+                heap[heapSize] = target;
+                siftUp(heap, heapSize++);
+            }
+        }
+
+        while (heapSize > 0) {
+            long top = heap[0];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize, 0);
+
+            int node = (int) top;
+            int distance = (int) (top >>> 32);
+
+            if (distance != mDistances[node]) {
+                continue;
+            }
+
+            int end = graph.getEdgeEnd(node);
+
+            for (int edge = graph.getEdgeStart(node); edge < end; edge++) {
+                int child = graph.getEdgeTarget(edge);
+                int childDistance = distance + graph.getEdgeWeight(edge);
+
+                if (childDistance >= mDistances[child]) {
+                    continue;
+                }
+
+                if (allowed != null && mDistances[child] == UNREACHABLE && !allowed.test(child)) {
+                    continue;
+                }
+
+                mDistances[child] = childDistance;
+                mNext[child] = node;
+
+                if (heapSize == heap.length) {
+                    heap = Arrays.copyOf(heap, heap.length * 2);
+                }
+
+                heap[heapSize] = ((long) childDistance << 32) | child;
+                siftUp(heap, heapSize++);
+            }
+        }
+    }
+
+    /**
+     * Get the distance of a node to its nearest target.
+     *
+     * @param node The index of the node.
+     * @return The distance, or {@link #UNREACHABLE}.
+     */
+    public int getDistance(int node) {
+        return mDistances[node];
+    }
+
+    /**
+     * Get the next node on the shortest way from a node to its nearest target.
+     *
+     * @param node The index of the node.
+     * @return The index of the next node, or -1 if the node is a target, or cannot reach one.
+     */
+    public int getNext(int node) {
+        return mNext[node];
+    }
+
+    /**
+     * Find the node closest to any of the targets.
+     *
+     * @param nodes The indices of the nodes to choose from.
+     * @return The index of the closest node, or -1 if none of them can reach a target.
+     */
+    public int findNearest(int[] nodes) {
+        int nearest = -1;
+
+        for (int node : nodes) {
+            if (mDistances[node] == UNREACHABLE) {
+                continue;
+            }
+
+            if (nearest == -1 || mDistances[node] < mDistances[nearest]) {
+                nearest = node;
+            }
+        }
+
+        return nearest;
+    }
+
+    /**
+     * Move a heap entry up, until its parent is not larger.
+     *
+     * @param heap The heap.
+     * @param position The position of the entry.
+     */
+    private static void siftUp(long[] heap, int position) {
+        long entry = heap[position];
+
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+
+            if (heap[parent] <= entry) {
+                break;
+            }
+
+            heap[position] = heap[parent];
+            position = parent;
+        }
+
+        heap[position] = entry;
+    }
+
+    /**
+     * Move a heap entry down, until none of its children are smaller.
+     *
+     * @param heap The heap.
+     * @param size The number of entries in the heap.
+     * @param position The position of the entry.
+     */
+    private static void siftDown(long[] heap, int size, int position) {
+        if (position >= size) {
+            return;
+        }
+
+        long entry = heap[position];
+
+        while (true) {
+            int child = position * 2 + 1;
+
+            if (child >= size) {
+                break;
+            }
+
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+
+            if (heap[child] >= entry) {
+                break;
+            }
+
+            heap[position] = heap[child];
+            position = child;
+        }
+
+        heap[position] = entry;
+    }
+}
@@ -0,0 +1,60 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.game.player.ai.algorithms.graphs;
+
+/**
+ * A directed graph that can be searched without allocating.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Nodes are dense indices in range {@code [0, getNodeCount())}, and the edges of every node
+ *     are a contiguous range of edge indices, like in a compressed sparse row matrix. This lets the
+ *     search keep all of its state in primitive arrays indexed by node.
+ */
+public interface ISearchGraph {
+    /**
+     * Get the number of nodes in the graph.
+     *
+     * @return number of nodes. Node indices are in range {@code [0, getNodeCount())}.
+     */
+    int getNodeCount();
+
+    /**
+     * Get the first edge of a node.
+     *
+     * @param node index of the node.
+     * @return index of the first edge going out of the node.
+     */
+    int getEdgeStart(int node);
+
+    /**
+     * Get the end of the edges of a node.
+     *
+     * @param node index of the node.
+     * @return index after the last edge going out of the node.
+     */
+    int getEdgeEnd(int node);
+
+    /**
+     * Get the node an edge leads to.
+     *
+     * @param edge index of the edge.
+     * @return index of the destination node.
+     */
+    int getEdgeTarget(int edge);
+
+    /**
+     * Get the cost of walking over an edge.
+     *
+     * @param edge index of the edge.
+     * @return non-negative weight of the edge.
+     */
+    int getEdgeWeight(int edge);
+
+    /**
+     * Get the estimated cost of reaching a goal from a node.
+     *
+     * @param node index of the node.
+     * @param goal index of the goal node.
+     * @return estimated cost, which should never be larger than the real cost.
+     */
+    int getHeuristic(int node, int goal);
+}
@@ -0,0 +1,251 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.game.player.ai.algorithms.graphs;
+
+import java.util.Arrays;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import org.dragonskulle.game.map.HexagonMap;
+import org.dragonskulle.game.map.HexagonTile;
+import org.dragonskulle.game.map.HexagonTile.TileType;
+
+/**
+ * Graph of walkable tiles of a {@link HexagonMap}, shared by all AI players of the map.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Nodes are the tile indices of the map, and there is an edge of weight 1 between every two
+ *     neighbouring land tiles. Every tile has {@link HexagonMap#NEIGHBOUR_COUNT} edge slots, of
+ *     which the used ones are at the front, so the edges of a node are still a contiguous range,
+ *     but a single tile can be patched without touching the rest of the graph.
+ *     <p>The heuristic is the tile distance to the goal, computed when needed, so the same graph
+ *     can be searched towards any target.
+ *     <p>Tiles are also labelled by the land mass they are on, which is a set of tiles connected by
+ *     walking. Two tiles can only be reached from each other if they are on the same land mass, so
+ *     unreachable targets can be ruled out without a search.
+ *     <p>The graph is updated on the main thread. Searches on other threads use a {@link
+ *     #getSnapshot() snapshot} instead, which never changes.
+ */
+@Accessors(prefix = "m")
+public class NavigationGraph implements ISearchGraph {
+    /** The map the graph is of. */
+    @Getter private final HexagonMap mMap;
+
+    /** The Q coordinate of every tile index. */
+    private final int[] mQ;
+
+    /** The R coordinate of every tile index. */
+    private final int[] mR;
+
+    /** The neighbouring land tiles of every tile, {@link HexagonMap#NEIGHBOUR_COUNT} per tile. */
+    private final int[] mEdgeTargets;
+
+    /** The number of used edge slots of every tile. */
+    private final int[] mEdgeCounts;
+
+    /**
+     * The land mass of every tile, -1 for tiles that are not walkable, or {@code null} if the
+     * graph changed since they were labelled.
+     */
+    private int[] mLandMasses;
+
+    /** Immutable copy of the graph, or {@code null} if the graph changed since the last one. */
+    private NavigationGraph mSnapshot;
+
+    /**
+     * Build the graph of a map.
+     *
+     * @param map The {@link HexagonMap} to build the graph of.
+     */
+    public NavigationGraph(HexagonMap map) {
+        mMap = map;
+
+        int tileCount = map.getTileCount();
+
+        mQ = new int[tileCount];
+        mR = new int[tileCount];
+        mEdgeTargets = new int[tileCount * HexagonMap.NEIGHBOUR_COUNT];
+        mEdgeCounts = new int[tileCount];
+
+        for (int i = 0; i < tileCount; i++) {
+            HexagonTile tile = map.getTileByIndex(i);
+
+            if (tile != null) {
+                mQ[i] = tile.getQ();
+                mR[i] = tile.getR();
+            }
+
+            updateEdges(i);
+        }
+    }
+
+    /**
+     * Copy a graph.
+     *
+     * @param graph The {@link NavigationGraph} to copy the edges of.
+     */
+    private NavigationGraph(NavigationGraph graph) {
+        mMap = graph.mMap;
+        mQ = graph.mQ;
+        mR = graph.mR;
+        mEdgeTargets = graph.mEdgeTargets.clone();
+        mEdgeCounts = graph.mEdgeCounts.clone();
+    }
+
+    /**
+     * Get an immutable copy of the graph, which can be searched from any thread.
+     *
+     * <p>The copy is only made again after the graph changes.
+     *
+     * @return snapshot of the current state of the graph.
+     */
+    public ISearchGraph getSnapshot() {
+        if (mSnapshot == null) {
+            mSnapshot = new NavigationGraph(this);
+        }
+
+        return mSnapshot;
+    }
+
+    /**
+     * Update the edges around a tile, after its type has changed.
+     *
+     * @param tile The {@link HexagonTile} whose type changed.
+     */
+    public void updateTile(HexagonTile tile) {
+        int index = mMap.getTileIndex(tile);
+
+        mSnapshot = null;
+        mLandMasses = null;
+        updateEdges(index);
+
+        for (int d = 0; d < HexagonMap.NEIGHBOUR_COUNT; d++) {
+            int neighbour = mMap.getNeighbourIndex(index, d);
+
+            if (neighbour >= 0) {
+                updateEdges(neighbour);
+            }
+        }
+    }
+
+    /**
+     * Check whether a tile can be walked on.
+     *
+     * @param index The index of the tile.
+     * @return {@code true} if there is a land tile at the index.
+     */
+    public boolean isWalkable(int index) {
+        HexagonTile tile = mMap.getTileByIndex(index);
+        return tile != null && tile.getTileType() == TileType.LAND;
+    }
+
+    /**
+     * Get the land mass of a tile.
+     *
+     * <p>Unlike the land masses of the {@link HexagonMap}, which treat land within view distance
+     * as connected, tiles are only on the same land mass if there is a path between them.
+     *
+     * @param index The index of the tile.
+     * @return The number of the land mass, or -1 if the tile is not walkable.
+     */
+    public int getLandMass(int index) {
+        if (mLandMasses == null) {
+            labelLandMasses();
+        }
+
+        return mLandMasses[index];
+    }
+
+    /** Label the land mass of every tile, by flood filling over the edges. */
+    private void labelLandMasses() {
+        int tileCount = mEdgeCounts.length;
+        int[] landMasses = new int[tileCount];
+        int[] queue = new int[tileCount];
+        int landMass = 0;
+
+        Arrays.fill(landMasses, -1);
+
+        for (int i = 0; i < tileCount; i++) {
+            if (landMasses[i] != -1 || !isWalkable(i)) {
+                continue;
+            }
+
+            int head = 0;
+            int tail = 0;
+
+            landMasses[i] = landMass;
+            queue[tail++] = i;
+
+            while (head < tail) {
+                int node = queue[head++];
+                int end = getEdgeEnd(node);
+
+                for (int edge = getEdgeStart(node); edge < end; edge++) {
+                    int neighbour = mEdgeTargets[edge];
+
+                    if (landMasses[neighbour] == -1) {
+                        landMasses[neighbour] = landMass;
+                        queue[tail++] = neighbour;
+                    }
+                }
+            }
+
+            landMass++;
+        }
+
+        mLandMasses = landMasses;
+    }
+
+    /**
+     * Rebuild the edges going out of a single tile.
+     *
+     * @param index The index of the tile.
+     */
+    private void updateEdges(int index) {
+        int start = index * HexagonMap.NEIGHBOUR_COUNT;
+        int count = 0;
+
+        if (isWalkable(index)) {
+            for (int d = 0; d < HexagonMap.NEIGHBOUR_COUNT; d++) {
+                int neighbour = mMap.getNeighbourIndex(index, d);
+
+                if (neighbour >= 0 && isWalkable(neighbour)) {
+                    mEdgeTargets[start + count] = neighbour;
+                    count++;
+                }
+            }
+        }
+
+        mEdgeCounts[index] = count;
+    }
+
+    @Override
+    public int getNodeCount() {
+        return mEdgeCounts.length;
+    }
+
+    @Override
+    public int getEdgeStart(int node) {
+        return node * HexagonMap.NEIGHBOUR_COUNT;
+    }
+
+    @Override
+    public int getEdgeEnd(int node) {
+        return node * HexagonMap.NEIGHBOUR_COUNT + mEdgeCounts[node];
+    }
+
+    @Override
+    public int getEdgeTarget(int edge) {
+        return mEdgeTargets[edge];
+    }
+
+    @Override
+    public int getEdgeWeight(int edge) {
+        return 1;
+    }
+
+    @Override
+    public int getHeuristic(int node, int goal) {
+        int q = mQ[node] - mQ[goal];
+        int r = mR[node] - mR[goal];
+        return (Math.abs(q) + Math.abs(r) + Math.abs(q + r)) / 2;
+    }
+}
@@ -0,0 +1,86 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.game.simulation;
+
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+/**
+ * Outcome of a single simulated match.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Players are referred to by their seat, which is the order they were spawned in. The seat
+ *     of a player with owner ID {@code -n} is {@code n - 1}.
+ */
+@Accessors(prefix = "m")
+public class MatchResult {
+    /** Name of the AI playing in every seat. */
+    @Getter private final String[] mSeatNames;
+
+    /** Seat of the winner, or -1 if the match hit the time limit, or nobody won. */
+    @Getter private final int mWinner;
+
+    /** Length of the match, in game seconds. */
+    @Getter private final float mLength;
+
+    /** Game seconds between two token samples. */
+    @Getter private final float mSampleInterval;
+
+    /** Tokens of every seat, sampled every {@link #mSampleInterval} from the start. */
+    private final int[][] mTokens;
+
+    /**
+     * Constructor for {@link MatchResult}.
+     *
+     * @param seatNames name of the AI in every seat.
+     * @param winner seat of the winner, or -1.
+     * @param length length of the match, in game seconds.
+     * @param sampleInterval game seconds between two token samples.
+     * @param tokens tokens of every seat, indexed by seat, then by sample.
+     */
+    public MatchResult(
+            String[] seatNames, int winner, float length, float sampleInterval, int[][] tokens) {
+        mSeatNames = seatNames;
+        mWinner = winner;
+        mLength = length;
+        mSampleInterval = sampleInterval;
+        mTokens = tokens;
+    }
+
+    /**
+     * Get the number of seats in the match.
+     *
+     * @return number of players.
+     */
+    public int getSeatCount() {
+        return mSeatNames.length;
+    }
+
+    /**
+     * Get the number of token samples of every seat.
+     *
+     * @return number of samples.
+     */
+    public int getSampleCount() {
+        return mTokens.length > 0 ? mTokens[0].length : 0;
+    }
+
+    /**
+     * Get the tokens a seat had at a sample.
+     *
+     * @param seat seat of the player.
+     * @param sample index of the sample.
+     * @return number of tokens.
+     */
+    public int getTokens(int seat, int sample) {
+        return mTokens[seat][sample];
+    }
+
+    /**
+     * Check whether the match ended without a winner.
+     *
+     * @return {@code true} if nobody won the match.
+     */
+    public boolean isDraw() {
+        return mWinner < 0;
+    }
+}
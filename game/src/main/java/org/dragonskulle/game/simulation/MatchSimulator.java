@@ -0,0 +1,183 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.game.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import lombok.extern.java.Log;
+import org.dragonskulle.core.Engine;
+import org.dragonskulle.core.GameObject;
+import org.dragonskulle.core.Reference;
+import org.dragonskulle.core.Scene;
+import org.dragonskulle.core.TemplateManager;
+import org.dragonskulle.game.GameConfig;
+import org.dragonskulle.game.player.ai.AiPlayer;
+import org.dragonskulle.network.components.NetworkManager;
+
+/**
+ * Plays many matches between AI players, as fast as possible, and aggregates their results.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Matches run on offline servers, so no sockets are opened, on an engine which advances the
+ *     time by a whole fixed update every iteration, instead of waiting for real time to pass, see
+ *     {@link Engine#startSimulation()}.
+ *     <p>Every match is a single scene, holding both its network manager, and the game. Several of
+ *     them are active at once, and the engine updates active scenes in parallel, so matches are
+ *     spread over the cores, while each match stays on one thread. When a match ends, its scene
+ *     is unloaded, and the next match takes its place.
+ *     <p>The seats are rotated between matches, so that every AI gets to play from every starting
+ *     position.
+ */
+@Log
+@Accessors(prefix = "m")
+public class MatchSimulator {
+    /** Default game seconds after which a match ends without a winner. */
+    public static final float DEFAULT_TIME_LIMIT = 1200f;
+    /** Default game seconds between two token samples. */
+    public static final float DEFAULT_SAMPLE_INTERVAL = 10f;
+
+    /** Config to play the matches with. */
+    private final GameConfig mConfig;
+    /** Creates the AI of every seat, before rotating. */
+    private final List<Supplier<AiPlayer>> mSeats;
+    /** Creates the templates of every match, since their object pools can not be shared. */
+    private final Supplier<TemplateManager> mTemplates;
+
+    /** Game seconds after which a match ends without a winner. */
+    @Getter @Setter private float mTimeLimit = DEFAULT_TIME_LIMIT;
+    /** Game seconds between two token samples. */
+    @Getter @Setter private float mSampleInterval = DEFAULT_SAMPLE_INTERVAL;
+
+    /** Results of the finished matches. */
+    private final List<MatchResult> mResults = new ArrayList<>();
+    /** Number of matches to play. */
+    private int mMatches;
+    /** Number of matches started so far. */
+    private int mStarted;
+
+    /**
+     * Constructor for {@link MatchSimulator}.
+     *
+     * @param config config to play the matches with.
+     * @param seats creates the AI of every seat.
+     * @param templates creates the network templates of a match.
+     */
+    public MatchSimulator(
+            GameConfig config,
+            List<Supplier<AiPlayer>> seats,
+            Supplier<TemplateManager> templates) {
+        mConfig = config;
+        mSeats = new ArrayList<>(seats);
+        mTemplates = templates;
+    }
+
+    /**
+     * Play matches, and wait until all of them are done.
+     *
+     * <p>This runs the engine on the calling thread, so it can not be called while the engine is
+     * running already.
+     *
+     * @param matches number of matches to play.
+     * @param threads number of matches to play at once, each on its own thread.
+     * @return statistics of the matches.
+     */
+    public SimulationReport run(int matches, int threads) {
+        Engine engine = Engine.getInstance();
+        int parallelism = engine.getScheduler().getParallelism();
+
+        mResults.clear();
+        mMatches = matches;
+        mStarted = 0;
+
+        long start = System.nanoTime();
+
+        if (matches > 0) {
+            for (int i = 0; i < Math.min(matches, Math.max(threads, 1)); i++) {
+                startMatch();
+            }
+
+            engine.setParallelism(threads);
+            engine.startSimulation();
+            engine.setParallelism(parallelism);
+        }
+
+        double wallTime = (System.nanoTime() - start) / 1e9;
+
+        synchronized (mResults) {
+            return new SimulationReport(mResults, wallTime);
+        }
+    }
+
+    /** Create, and activate the scene of the next match. */
+    private void startMatch() {
+        int match = mStarted++;
+        Scene scene = new Scene("simulation " + match);
+
+        // Seat i of match m plays the AI of seat i + m
+        List<Supplier<AiPlayer>> seats = new ArrayList<>(mSeats.size());
+        for (int i = 0; i < mSeats.size(); i++) {
+            seats.add(mSeats.get((i + match) % mSeats.size()));
+        }
+
+        Reference<NetworkManager> networkManager =
+                new NetworkManager(mTemplates.get(), (__, ___) -> scene)
+                        .getReference(NetworkManager.class);
+
+        SimulatedMatch simulatedMatch =
+                new SimulatedMatch(
+                        networkManager,
+                        mConfig,
+                        seats,
+                        mTimeLimit,
+                        mSampleInterval,
+                        (result) -> onMatchEnd(scene, result));
+
+        scene.addRootObject(
+                new GameObject(
+                        "simulation",
+                        (handle) -> {
+                            handle.addComponent(networkManager.get());
+                            handle.addComponent(simulatedMatch);
+                        }));
+
+        Engine.getInstance().activateScene(scene);
+    }
+
+    /**
+     * Record the result of a match, and replace it with the next one.
+     *
+     * <p>This is called from the thread updating the match, so the scenes are only changed at the
+     * end of the loop, on the main thread.
+     *
+     * @param scene scene of the match.
+     * @param result result of the match.
+     */
+    private void onMatchEnd(Scene scene, MatchResult result) {
+        int finished;
+
+        synchronized (mResults) {
+            mResults.add(result);
+            finished = mResults.size();
+        }
+
+        log.fine(
+                String.format(
+                        "Match %d/%d ended after %.0f s", finished, mMatches, result.getLength()));
+
+        Engine engine = Engine.getInstance();
+
+        engine.scheduleEndOfLoopEvent(
+                () -> {
+                    engine.unloadScene(scene);
+
+                    if (mStarted < mMatches) {
+                        startMatch();
+                    } else if (finished == mMatches) {
+                        engine.stop();
+                    }
+                });
+    }
+}
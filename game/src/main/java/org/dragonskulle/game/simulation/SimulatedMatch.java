@@ -0,0 +1,205 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.game.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import lombok.experimental.Accessors;
+import lombok.extern.java.Log;
+import org.dragonskulle.components.Component;
+import org.dragonskulle.components.IFixedUpdate;
+import org.dragonskulle.components.IOnStart;
+import org.dragonskulle.core.GameObject;
+import org.dragonskulle.core.Reference;
+import org.dragonskulle.game.GameConfig;
+import org.dragonskulle.game.GameState;
+import org.dragonskulle.game.player.Player;
+import org.dragonskulle.game.player.ai.AiPlayer;
+import org.dragonskulle.network.components.NetworkManager;
+import org.dragonskulle.network.components.NetworkObject;
+import org.dragonskulle.network.components.ServerNetworkManager;
+
+/**
+ * Plays a single match between AI players, without any clients.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>The component starts an offline server on its network manager, which lives in the same
+ *     scene as the game itself, so that everything of the match is updated together. Tokens of
+ *     every player are sampled while the game runs. Once a player wins, or the time limit is hit,
+ *     the result is reported, and the server destroyed.
+ */
+@Log
+@Accessors(prefix = "m")
+public class SimulatedMatch extends Component implements IOnStart, IFixedUpdate {
+    /** Handler for the end of a simulated match. */
+    public interface IMatchEndEvent {
+        /**
+         * Handle the end of the match.
+         *
+         * @param result result of the match.
+         */
+        void handle(MatchResult result);
+    }
+
+    /** Network manager to run the match on. */
+    private final Reference<NetworkManager> mNetworkManager;
+    /** Config to play the match with. */
+    private final GameConfig mConfig;
+    /** Creates the AI of every seat. */
+    private final List<Supplier<AiPlayer>> mSeats;
+    /** Game seconds after which the match is stopped without a winner. */
+    private final float mTimeLimit;
+    /** Game seconds between two token samples. */
+    private final float mSampleInterval;
+    /** Called when the match ends. */
+    private final IMatchEndEvent mEndEvent;
+
+    /** Name of the AI in every seat. */
+    private final String[] mSeatNames;
+    /** Player of every seat. */
+    private final List<Reference<Player>> mPlayers = new ArrayList<>();
+    /** Tokens of every seat at every sample so far. */
+    private final List<int[]> mSamples = new ArrayList<>();
+
+    /** The game state of the match, once it started. */
+    private Reference<GameState> mGameState;
+    /** Game seconds since the match started. */
+    private float mTime = 0f;
+    /** Owner ID of the winner, once the game ended. */
+    private Integer mWinnerId;
+    /** Whether the result has been reported. */
+    private boolean mFinished = false;
+
+    /**
+     * Constructor for {@link SimulatedMatch}.
+     *
+     * @param networkManager network manager to run the match on.
+     * @param config config to play the match with.
+     * @param seats creates the AI of every seat.
+     * @param timeLimit game seconds after which the match is stopped without a winner.
+     * @param sampleInterval game seconds between two token samples.
+     * @param endEvent called with the result when the match ends.
+     */
+    public SimulatedMatch(
+            Reference<NetworkManager> networkManager,
+            GameConfig config,
+            List<Supplier<AiPlayer>> seats,
+            float timeLimit,
+            float sampleInterval,
+            IMatchEndEvent endEvent) {
+        mNetworkManager = networkManager;
+        mConfig = config;
+        mSeats = seats;
+        mTimeLimit = timeLimit;
+        mSampleInterval = sampleInterval;
+        mEndEvent = endEvent;
+        mSeatNames = new String[seats.size()];
+    }
+
+    @Override
+    public void onStart() {
+        NetworkManager manager = mNetworkManager.get();
+
+        if (!manager.createOfflineServer(this::onGameStarted, null)) {
+            log.severe("Failed to create the match server");
+            finish();
+            return;
+        }
+
+        manager.getServerManager().start(false);
+    }
+
+    /**
+     * Spawn the game, and the AI players, like {@link
+     * org.dragonskulle.game.lobby.Lobby#onGameStarted}.
+     *
+     * @param manager network manager of the match.
+     */
+    private void onGameStarted(NetworkManager manager) {
+        ServerNetworkManager serverManager = manager.getServerManager();
+
+        Reference<NetworkObject> state =
+                serverManager.spawnNetworkObject(-10000, manager.findTemplateByName("game_state"));
+
+        mGameState = state.get().getGameObject().getComponent(GameState.class);
+
+        GameState gameState = mGameState.get();
+        gameState.setConfig(mConfig);
+        gameState.getNumPlayers().set(mSeats.size());
+        gameState.registerGameEndListener(new Reference<>((winnerId) -> mWinnerId = winnerId));
+
+        serverManager.spawnNetworkObject(-10000, manager.findTemplateByName("map"));
+
+        for (int seat = 0; seat < mSeats.size(); seat++) {
+            Reference<NetworkObject> player =
+                    serverManager.spawnNetworkObject(
+                            -(seat + 1), manager.findTemplateByName("player"));
+            GameObject playerObj = player.get().getGameObject();
+
+            AiPlayer ai = mSeats.get(seat).get();
+            mSeatNames[seat] = ai.getClass().getSimpleName();
+            playerObj.addComponent(ai);
+
+            mPlayers.add(playerObj.getComponent(Player.class));
+        }
+    }
+
+    @Override
+    public void fixedUpdate(float deltaTime) {
+        if (mFinished || !Reference.isValid(mGameState)) {
+            return;
+        }
+
+        if (mTime >= mSamples.size() * mSampleInterval) {
+            sampleTokens();
+        }
+
+        mTime += deltaTime;
+
+        if (mWinnerId != null || mTime >= mTimeLimit) {
+            finish();
+        }
+    }
+
+    /** Record the tokens of every seat. */
+    private void sampleTokens() {
+        int[] tokens = new int[mPlayers.size()];
+
+        for (int seat = 0; seat < tokens.length; seat++) {
+            Reference<Player> player = mPlayers.get(seat);
+            tokens[seat] = Reference.isValid(player) ? player.get().getTokens().get() : 0;
+        }
+
+        mSamples.add(tokens);
+    }
+
+    /** Report the result, and close the server. */
+    private void finish() {
+        mFinished = true;
+
+        int winner = -1;
+        if (mWinnerId != null && mWinnerId < 0 && -mWinnerId <= mSeats.size()) {
+            winner = -mWinnerId - 1;
+        }
+
+        int[][] tokens = new int[mPlayers.size()][mSamples.size()];
+        for (int sample = 0; sample < mSamples.size(); sample++) {
+            for (int seat = 0; seat < tokens.length; seat++) {
+                tokens[seat][sample] = mSamples.get(sample)[seat];
+            }
+        }
+
+        mEndEvent.handle(new MatchResult(mSeatNames, winner, mTime, mSampleInterval, tokens));
+
+        if (Reference.isValid(mNetworkManager)) {
+            ServerNetworkManager serverManager = mNetworkManager.get().getServerManager();
+
+            if (serverManager != null) {
+                serverManager.destroy();
+            }
+        }
+    }
+
+    @Override
+    protected void onDestroy() {}
+}
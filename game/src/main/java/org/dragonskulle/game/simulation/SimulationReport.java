@@ -0,0 +1,231 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.game.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+/**
+ * Aggregate statistics of a batch of simulated matches.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Win rates and token curves are kept per AI, by the name of the AI, across all the seats
+ *     it played in. Wins are also counted per seat, to show whether the starting position matters.
+ */
+@Accessors(prefix = "m")
+public class SimulationReport {
+    /** Maximum number of points of a token curve printed by {@link #toString()}. */
+    private static final int PRINTED_SAMPLES = 8;
+
+    /** Statistics of a single AI. */
+    private static class AiStats {
+        /** Number of seats the AI played in. */
+        private int mPlayed;
+        /** Number of matches the AI won. */
+        private int mWins;
+        /** Sum of tokens at every sample, over all seats still playing at the sample. */
+        private final List<Long> mTokenSums = new ArrayList<>();
+        /** Number of seats still playing at every sample. */
+        private final List<Integer> mTokenCounts = new ArrayList<>();
+    }
+
+    /** The results of the matches. */
+    @Getter private final List<MatchResult> mResults;
+
+    /** Wall clock seconds the simulation took. */
+    @Getter private final double mWallTime;
+
+    /** Number of matches that hit the time limit, or had no winner. */
+    @Getter private int mDraws;
+
+    /** Length of the shortest match, in game seconds. */
+    @Getter private float mMinLength;
+
+    /** Length of the longest match, in game seconds. */
+    @Getter private float mMaxLength;
+
+    /** Total length of all matches, in game seconds. */
+    @Getter private double mTotalLength;
+
+    /** Game seconds between two token samples. */
+    @Getter private float mSampleInterval;
+
+    /** Number of wins of every seat. */
+    private int[] mSeatWins = new int[0];
+
+    /** Statistics of every AI, in the order they first appeared. */
+    private final Map<String, AiStats> mStats = new LinkedHashMap<>();
+
+    /**
+     * Aggregate the results of matches.
+     *
+     * @param results results of the matches.
+     * @param wallTime wall clock seconds it took to simulate them.
+     */
+    public SimulationReport(List<MatchResult> results, double wallTime) {
+        mResults = Collections.unmodifiableList(new ArrayList<>(results));
+        mWallTime = wallTime;
+        mMinLength = mResults.isEmpty() ? 0 : Float.MAX_VALUE;
+
+        for (MatchResult result : mResults) {
+            add(result);
+        }
+    }
+
+    /**
+     * Add a match to the statistics.
+     *
+     * @param result result of the match.
+     */
+    private void add(MatchResult result) {
+        mMinLength = Math.min(mMinLength, result.getLength());
+        mMaxLength = Math.max(mMaxLength, result.getLength());
+        mTotalLength += result.getLength();
+        mSampleInterval = result.getSampleInterval();
+
+        if (mSeatWins.length < result.getSeatCount()) {
+            mSeatWins = Arrays.copyOf(mSeatWins, result.getSeatCount());
+        }
+
+        if (result.isDraw()) {
+            mDraws++;
+        } else {
+            mSeatWins[result.getWinner()]++;
+        }
+
+        for (int seat = 0; seat < result.getSeatCount(); seat++) {
+            String name = result.getSeatNames()[seat];
+            AiStats stats = mStats.computeIfAbsent(name, (__) -> new AiStats());
+
+            stats.mPlayed++;
+            if (seat == result.getWinner()) {
+                stats.mWins++;
+            }
+
+            for (int sample = 0; sample < result.getSampleCount(); sample++) {
+                if (stats.mTokenSums.size() == sample) {
+                    stats.mTokenSums.add(0L);
+                    stats.mTokenCounts.add(0);
+                }
+                stats.mTokenSums.set(
+                        sample, stats.mTokenSums.get(sample) + result.getTokens(seat, sample));
+                stats.mTokenCounts.set(sample, stats.mTokenCounts.get(sample) + 1);
+            }
+        }
+    }
+
+    /**
+     * Get the number of simulated matches.
+     *
+     * @return number of matches.
+     */
+    public int getMatchCount() {
+        return mResults.size();
+    }
+
+    /**
+     * Get the mean length of the matches.
+     *
+     * @return mean length, in game seconds.
+     */
+    public float getMeanLength() {
+        return mResults.isEmpty() ? 0 : (float) (mTotalLength / mResults.size());
+    }
+
+    /**
+     * Get the names of the AI that played.
+     *
+     * @return names, in the order they first appeared.
+     */
+    public Set<String> getAiNames() {
+        return Collections.unmodifiableSet(mStats.keySet());
+    }
+
+    /**
+     * Get the share of seats an AI played in that it won.
+     *
+     * @param name name of the AI.
+     * @return win rate between 0 and 1.
+     */
+    public float getWinRate(String name) {
+        AiStats stats = mStats.get(name);
+        return stats == null || stats.mPlayed == 0 ? 0 : (float) stats.mWins / stats.mPlayed;
+    }
+
+    /**
+     * Get the number of matches won from a seat.
+     *
+     * @param seat seat of the players.
+     * @return number of wins.
+     */
+    public int getSeatWins(int seat) {
+        return seat < mSeatWins.length ? mSeatWins[seat] : 0;
+    }
+
+    /**
+     * Get the mean tokens of an AI over time.
+     *
+     * <p>Every sample is averaged over the matches which were still running at that time.
+     *
+     * @param name name of the AI.
+     * @return mean tokens at every sample, {@link #getSampleInterval()} apart.
+     */
+    public float[] getMeanTokens(String name) {
+        AiStats stats = mStats.get(name);
+
+        if (stats == null) {
+            return new float[0];
+        }
+
+        float[] tokens = new float[stats.mTokenSums.size()];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = (float) stats.mTokenSums.get(i) / stats.mTokenCounts.get(i);
+        }
+        return tokens;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+
+        builder.append(
+                String.format(
+                        "%d matches in %.1f s, %.0fx real time%n",
+                        getMatchCount(), mWallTime, mTotalLength / Math.max(mWallTime, 1e-9)));
+        builder.append(
+                String.format(
+                        "length mean %.1f s, min %.1f s, max %.1f s, draws %d%n",
+                        getMeanLength(), mMinLength, mMaxLength, mDraws));
+
+        for (String name : mStats.keySet()) {
+            float[] tokens = getMeanTokens(name);
+
+            builder.append(
+                    String.format(
+                            "%s: played %d, won %d, win rate %.1f%%, tokens",
+                            name,
+                            mStats.get(name).mPlayed,
+                            mStats.get(name).mWins,
+                            getWinRate(name) * 100));
+
+            int step = Math.max(1, tokens.length / PRINTED_SAMPLES);
+            for (int i = 0; i < tokens.length; i += step) {
+                builder.append(String.format(" %.0fs:%.0f", i * mSampleInterval, tokens[i]));
+            }
+            builder.append(System.lineSeparator());
+        }
+
+        builder.append("seat wins");
+        for (int seatWins : mSeatWins) {
+            builder.append(' ').append(seatWins);
+        }
+
+        return builder.toString();
+    }
+}
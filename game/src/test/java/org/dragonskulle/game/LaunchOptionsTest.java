@@ -0,0 +1,64 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.dragonskulle.core.Engine;
+import org.junit.Test;
+
+/**
+ * Tests for {@link LaunchOptions}.
+ *
+ * @author Aurimas Blažulionis
+ */
+public class LaunchOptionsTest {
+    /** Test that arguments are parsed, and missing ones keep their defaults. */
+    @Test
+    public void testParse() {
+        LaunchOptions defaults = LaunchOptions.parse(new String[0]);
+        assertFalse(defaults.isHeadless());
+        assertEquals(Engine.DEFAULT_UPDATES_PER_SECOND, defaults.getTickRate());
+        assertEquals(0, defaults.getMatches());
+
+        LaunchOptions options =
+                LaunchOptions.parse(
+                        new String[] {
+                            "--headless", "--tick-rate=20", "--simulate=4", "--threads=2",
+                            "--config=test.json", "--time-limit=90.5"
+                        });
+        assertTrue(options.isHeadless());
+        assertEquals(20, options.getTickRate());
+        assertEquals(4, options.getMatches());
+        assertEquals(2, options.getThreads());
+        assertEquals("test.json", options.getConfigPath());
+        assertEquals(90.5f, options.getTimeLimit(), 0);
+    }
+
+    /** Test that invalid values, and unknown arguments are rejected. */
+    @Test
+    public void testRejectInvalid() {
+        String[] invalid = {
+            "--tick-rate=0",
+            "--tick-rate=-5",
+            "--tick-rate=fast",
+            "--simulate=0",
+            "--threads=0",
+            "--threads=",
+            "--time-limit=0",
+            "--time-limit=NaN",
+            "--tickrate=20"
+        };
+
+        for (String arg : invalid) {
+            try {
+                LaunchOptions.parse(new String[] {arg});
+                fail(arg + " was accepted");
+            } catch (IllegalArgumentException e) {
+                assertTrue(e.getMessage().contains(arg));
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import lombok.extern.java.Log;
+import org.dragonskulle.game.player.Player;
+import org.dragonskulle.game.player.ai.AiPlayer;
+import org.dragonskulle.game.player.ai.AimerAi;
+import org.dragonskulle.game.player.ai.ProbabilisticAiPlayer;
+import org.dragonskulle.game.simulation.MatchResult;
+import org.dragonskulle.game.simulation.MatchSimulator;
+import org.dragonskulle.game.simulation.SimulationReport;
+import org.junit.Test;
+
+/**
+ * Tests for {@link MatchSimulator}.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Matches are kept short, so the test mostly checks that matches run unpaced, in
+ *     parallel, and get replaced until all of them are done. To have every match decided in that
+ *     time, the probabilistic AI resigns after a while, as if it lost its capital, so the aimer
+ *     wins every match.
+ */
+@Log
+public class MatchSimulatorTest {
+    /** Size of the map, as in a regular game. */
+    private static final int MAP_SIZE = 51;
+    /** Number of matches to play. */
+    private static final int MATCHES = 4;
+    /** Number of matches to play at once. */
+    private static final int THREADS = 2;
+    /** Game seconds after which a match ends. */
+    private static final float TIME_LIMIT = 60f;
+    /** Game seconds between two token samples. */
+    private static final float SAMPLE_INTERVAL = 5f;
+    /** Game seconds after which {@link ResigningAi} resigns. */
+    private static final float RESIGN_TIME = 30f;
+
+    /** Probabilistic AI, which gives up its capital after {@link #RESIGN_TIME}. */
+    private static class ResigningAi extends ProbabilisticAiPlayer {
+        /** Game seconds played so far. */
+        private float mTime = 0f;
+
+        @Override
+        public void fixedUpdate(float deltaTime) {
+            super.fixedUpdate(deltaTime);
+
+            mTime += deltaTime;
+            Player player = getPlayer();
+
+            if (mTime < RESIGN_TIME || player == null || player.hasLost()) {
+                return;
+            }
+
+            // Same as losing the capital to an attack
+            if (player.getCapital() != null) {
+                player.getCapital().setCapital(false);
+            }
+            player.setOwnsCapital(false);
+            getGameObject()
+                    .getScene()
+                    .getSingleton(GameState.class)
+                    .getNumCapitalsStanding()
+                    .add(-1);
+        }
+    }
+
+    /** Simulate a few short matches between the aimer, and a resigning AI. */
+    @Test
+    public void testSimulate() {
+        GameConfig config = new GameConfig();
+        config.getGlobal().setMapSize(MAP_SIZE);
+
+        List<Supplier<AiPlayer>> seats = new ArrayList<>();
+        seats.add(AimerAi::new);
+        seats.add(ResigningAi::new);
+
+        SimulationReport report;
+
+        try (App app = new App()) {
+            MatchSimulator simulator =
+                    new MatchSimulator(config, seats, app::createTemplateManager);
+            simulator.setTimeLimit(TIME_LIMIT);
+            simulator.setSampleInterval(SAMPLE_INTERVAL);
+
+            report = simulator.run(MATCHES, THREADS);
+        }
+
+        log.info(report.toString());
+
+        assertEquals(MATCHES, report.getMatchCount());
+        assertEquals(0, report.getDraws());
+        assertTrue(report.getMinLength() >= RESIGN_TIME);
+        assertTrue(report.getMaxLength() < RESIGN_TIME + 1f);
+
+        int aimerFirst = 0;
+
+        for (MatchResult result : report.getResults()) {
+            assertEquals(seats.size(), result.getSeatCount());
+            assertTrue(result.getSampleCount() > 0);
+            assertEquals("AimerAi", result.getSeatNames()[result.getWinner()]);
+
+            aimerFirst += result.getSeatNames()[0].equals("AimerAi") ? 1 : 0;
+        }
+
+        // Seats are rotated, so both AI start from the first seat equally often
+        assertEquals(MATCHES / 2, aimerFirst);
+        assertEquals(MATCHES / 2, report.getSeatWins(0));
+        assertEquals(MATCHES / 2, report.getSeatWins(1));
+
+        assertEquals(2, report.getAiNames().size());
+        assertEquals(1f, report.getWinRate("AimerAi"), 0f);
+        assertEquals(0f, report.getWinRate("ResigningAi"), 0f);
+    }
+}
@@ -0,0 +1,180 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.java.Log;
+import org.dragonskulle.components.Transform3D;
+import org.dragonskulle.core.Engine;
+import org.dragonskulle.core.GameObject;
+import org.dragonskulle.core.Reference;
+import org.dragonskulle.core.Scene;
+import org.dragonskulle.core.futures.Future;
+import org.dragonskulle.game.map.HexagonMap;
+import org.dragonskulle.game.map.TestMaps;
+import org.junit.Test;
+
+/**
+ * Benchmarks of destroying large game scenes.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>A game scene holds the map, whose tiles are children of a single object, and a large
+ *     number of root objects, like buildings, and effects. The benchmarks unload a whole scene,
+ *     and destroy half of the root objects of a scene that stays loaded.
+ *     <p>Only run with the {@code benchmark} profile.
+ */
+@Log
+public class SceneUnloadBenchmark {
+    /** Size of the map, as in a regular game. */
+    private static final int MAP_SIZE = 51;
+    /** Number of root objects besides the map. */
+    private static final int ROOT_OBJECTS = 5000;
+    /** Number of warmup runs. */
+    private static final int WARMUP_RUNS = 3;
+    /** Number of measured runs. */
+    private static final int RUNS = 5;
+
+    /** Measure unloading a full game scene. */
+    @Test
+    public void benchmarkUnload() {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            runUnload();
+        }
+
+        long nanos = 0;
+        for (int i = 0; i < RUNS; i++) {
+            nanos += runUnload();
+        }
+
+        log.info(
+                String.format(
+                        "unload map %d + %d roots: %.2f ms",
+                        MAP_SIZE, ROOT_OBJECTS, nanos / 1e6 / RUNS));
+    }
+
+    /** Measure destroying half of the root objects of a loaded scene. */
+    @Test
+    public void benchmarkDestroyRoots() {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            runDestroyRoots();
+        }
+
+        long nanos = 0;
+        for (int i = 0; i < RUNS; i++) {
+            nanos += runDestroyRoots();
+        }
+
+        log.info(
+                String.format(
+                        "destroy %d of %d roots: %.2f ms",
+                        ROOT_OBJECTS / 2, ROOT_OBJECTS, nanos / 1e6 / RUNS));
+    }
+
+    /**
+     * Build a game scene.
+     *
+     * @param roots list to fill with the root objects, besides the map.
+     * @return the scene.
+     */
+    private static Scene buildScene(List<GameObject> roots) {
+        Scene scene = new Scene("game");
+
+        // The map needs a network to be destroyed, so only its tiles are moved to the scene
+        HexagonMap map = TestMaps.create(MAP_SIZE);
+        GameObject tiles = new GameObject("map");
+        tiles.addChildren(map.getGameObject().getChildren());
+        scene.addRootObject(tiles);
+
+        GameObject template =
+                App.TEMPLATES.get().getDefaultScene().findRootObject("attack_ball");
+
+        for (int i = 0; i < ROOT_OBJECTS; i++) {
+            GameObject go = GameObject.instantiate(template, new Transform3D());
+            scene.addRootObject(go);
+            roots.add(go);
+        }
+
+        return scene;
+    }
+
+    /**
+     * Load a game scene, and unload it on the next frame.
+     *
+     * @return time from the unload request, until the scene got destroyed, in nanoseconds.
+     */
+    private static long runUnload() {
+        List<GameObject> roots = new ArrayList<>();
+        Scene scene = buildScene(roots);
+        Reference<GameObject> map = scene.getGameObjects().get(0).getReference();
+        long[] start = {0};
+
+        Engine.getInstance()
+                .startWithFutures(
+                        new Future()
+                                .then((__) -> Engine.getInstance().activateScene(scene))
+                                .then(
+                                        (__) -> {
+                                            start[0] = System.nanoTime();
+                                            Engine.getInstance().unloadScene(scene);
+                                        })
+                                .awaitUntil((__) -> !Reference.isValid(map)));
+
+        long nanos = System.nanoTime() - start[0];
+
+        assertFalse(Reference.isValid(roots.get(0).getReference()));
+        assertTrue(scene.getGameObjects().isEmpty());
+
+        return nanos;
+    }
+
+    /**
+     * Load a game scene, and destroy half of its root objects on the next frame.
+     *
+     * @return time from the destruction, until the objects got destroyed, in nanoseconds.
+     */
+    private static long runDestroyRoots() {
+        List<GameObject> roots = new ArrayList<>();
+        Scene scene = buildScene(roots);
+        Reference<GameObject> first = roots.get(0).getReference();
+        long[] times = {0, 0};
+
+        Engine.getInstance()
+                .startWithFutures(
+                        new Future()
+                                .then((__) -> Engine.getInstance().activateScene(scene))
+                                .then(
+                                        (__) -> {
+                                            times[0] = System.nanoTime();
+                                            for (int i = 0; i < roots.size(); i += 2) {
+                                                roots.get(i).destroy();
+                                            }
+                                        })
+                                .awaitUntil((__) -> !Reference.isValid(first))
+                                .then(
+                                        (__) -> {
+                                            times[1] = System.nanoTime();
+                                            assertEquals(
+                                                    ROOT_OBJECTS / 2 + 1, countValidRoots(scene));
+                                            Engine.getInstance().unloadScene(scene);
+                                        }));
+
+        return times[1] - times[0];
+    }
+
+    /**
+     * Count the root objects of a scene, checking that none of them have been destroyed.
+     *
+     * @param scene scene to count the roots of.
+     * @return number of root objects in the scene.
+     */
+    private static int countValidRoots(Scene scene) {
+        for (GameObject go : scene.getGameObjects()) {
+            assertTrue(Reference.isValid(go.getReference()));
+        }
+        return scene.getGameObjects().size();
+    }
+}
@@ -0,0 +1,277 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.rits.cloning.Cloner;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.extern.java.Log;
+import org.dragonskulle.assets.GLTF;
+import org.dragonskulle.components.Component;
+import org.dragonskulle.core.Engine;
+import org.dragonskulle.core.GameObject;
+import org.dragonskulle.core.NoClone;
+import org.dragonskulle.core.Reference;
+import org.dragonskulle.core.Resource;
+import org.dragonskulle.core.ShallowClone;
+import org.junit.Test;
+
+/**
+ * Parity tests of the generated component cloners against the reflective cloner.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Every template is cloned by the engine's cloner, and by a plain reflective one. Fields of
+ *     every component cloned by a generated cloner are then compared between the two clones.
+ *     References to objects, and components of the template must point to their counterparts in
+ *     the respective clone.
+ */
+@Log
+public class TemplateClonerParityTest {
+    /** Template files of the game. */
+    private static final String[] TEMPLATE_FILES = {
+        "templates", "network_templates", "building_templates"
+    };
+
+    /** Boxed primitive types, compared by value. */
+    private static final Set<Class<?>> BOXED_TYPES =
+            new HashSet<>(
+                    Arrays.asList(
+                            Boolean.class,
+                            Byte.class,
+                            Character.class,
+                            Short.class,
+                            Integer.class,
+                            Long.class,
+                            Float.class,
+                            Double.class));
+
+    /** Test that generated cloners produce the same components as the reflective cloner. */
+    @Test
+    public void testTemplateParity() {
+        Set<Class<?>> compared = new HashSet<>();
+
+        for (String file : TEMPLATE_FILES) {
+            try (Resource<GLTF> gltf = GLTF.getResource(file)) {
+                assertNotNull(file, gltf);
+
+                for (GameObject template : gltf.get().getDefaultScene().getGameObjects()) {
+                    compareTemplate(template, compared);
+                }
+            }
+        }
+
+        assertFalse(compared.isEmpty());
+
+        log.info(String.format("Compared %d generated component cloners", compared.size()));
+    }
+
+    /**
+     * Clone a template both ways, and compare its components.
+     *
+     * @param template template to clone.
+     * @param compared classes of components compared so far.
+     */
+    private static void compareTemplate(GameObject template, Set<Class<?>> compared) {
+        GameObject cloned = Engine.getCloner().deepClone(template);
+        GameObject reference = new Cloner().deepClone(template);
+
+        Map<Object, Object> clonedMap = new IdentityHashMap<>();
+        Map<Object, Object> referenceMap = new IdentityHashMap<>();
+        mapTree(template, cloned, clonedMap);
+        mapTree(template, reference, referenceMap);
+
+        for (Map.Entry<Object, Object> entry : clonedMap.entrySet()) {
+            Object original = entry.getKey();
+
+            if (!(original instanceof Component)
+                    || !Engine.getCloner().hasGeneratedCloner(original.getClass())) {
+                continue;
+            }
+
+            compared.add(original.getClass());
+
+            compareObjects(
+                    original.getClass().getName(),
+                    original,
+                    entry.getValue(),
+                    referenceMap.get(original),
+                    clonedMap,
+                    referenceMap,
+                    new IdentityHashMap<>());
+        }
+    }
+
+    /**
+     * Map objects, transforms, and components of a template to their clones.
+     *
+     * @param original original object.
+     * @param clone its clone.
+     * @param map map to fill.
+     */
+    private static void mapTree(GameObject original, GameObject clone, Map<Object, Object> map) {
+        map.put(original, clone);
+        map.put(original.getTransform(), clone.getTransform());
+
+        List<Reference<Component>> components = new ArrayList<>();
+        List<Reference<Component>> clonedComponents = new ArrayList<>();
+        original.getComponents(Component.class, components);
+        clone.getComponents(Component.class, clonedComponents);
+
+        assertEquals(components.size(), clonedComponents.size());
+
+        for (int i = 0; i < components.size(); i++) {
+            map.put(components.get(i).get(), clonedComponents.get(i).get());
+        }
+
+        List<GameObject> children = original.getChildren();
+        List<GameObject> clonedChildren = clone.getChildren();
+
+        assertEquals(children.size(), clonedChildren.size());
+
+        for (int i = 0; i < children.size(); i++) {
+            mapTree(children.get(i), clonedChildren.get(i), map);
+        }
+    }
+
+    /**
+     * Compare all fields of an object cloned both ways.
+     *
+     * @param path path to the object, for error messages.
+     * @param original original object.
+     * @param cloned object cloned by the engine's cloner.
+     * @param reference object cloned by the reflective cloner.
+     * @param clonedMap map from template objects to the engine's clones.
+     * @param referenceMap map from template objects to the reflective clones.
+     * @param visited objects compared so far.
+     */
+    private static void compareObjects(
+            String path,
+            Object original,
+            Object cloned,
+            Object reference,
+            Map<Object, Object> clonedMap,
+            Map<Object, Object> referenceMap,
+            Map<Object, Object> visited) {
+        if (visited.put(cloned, reference) != null) {
+            return;
+        }
+
+        assertSame(path, original.getClass(), cloned.getClass());
+        assertSame(path, original.getClass(), reference.getClass());
+
+        if (original.getClass().isArray()) {
+            int length = Array.getLength(original);
+            assertEquals(path, length, Array.getLength(cloned));
+
+            for (int i = 0; i < length; i++) {
+                compareValues(
+                        path + "[" + i + "]",
+                        Array.get(original, i),
+                        Array.get(cloned, i),
+                        Array.get(reference, i),
+                        clonedMap,
+                        referenceMap,
+                        visited);
+            }
+            return;
+        }
+
+        for (Class<?> c = original.getClass(); c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+
+                field.setAccessible(true);
+                String fieldPath = path + "." + field.getName();
+
+                try {
+                    if (field.isAnnotationPresent(NoClone.class)) {
+                        // Primitive fields are left at their default value
+                        Object empty =
+                                field.getType().isPrimitive()
+                                        ? Array.get(Array.newInstance(field.getType(), 1), 0)
+                                        : null;
+                        assertEquals(fieldPath, empty, field.get(cloned));
+                    } else if (field.isAnnotationPresent(ShallowClone.class)) {
+                        assertSame(fieldPath, field.get(original), field.get(cloned));
+                    } else {
+                        compareValues(
+                                fieldPath,
+                                field.get(original),
+                                field.get(cloned),
+                                field.get(reference),
+                                clonedMap,
+                                referenceMap,
+                                visited);
+                    }
+                } catch (IllegalAccessException e) {
+                    throw new AssertionError(fieldPath, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Compare a single value cloned both ways.
+     *
+     * @param path path to the value, for error messages.
+     * @param original original value.
+     * @param cloned value cloned by the engine's cloner.
+     * @param reference value cloned by the reflective cloner.
+     * @param clonedMap map from template objects to the engine's clones.
+     * @param referenceMap map from template objects to the reflective clones.
+     * @param visited objects compared so far.
+     */
+    private static void compareValues(
+            String path,
+            Object original,
+            Object cloned,
+            Object reference,
+            Map<Object, Object> clonedMap,
+            Map<Object, Object> referenceMap,
+            Map<Object, Object> visited) {
+        if (original == null) {
+            assertNull(path, cloned);
+            assertNull(path, reference);
+        } else if (clonedMap.containsKey(original)) {
+            assertSame(path, clonedMap.get(original), cloned);
+            assertSame(path, referenceMap.get(original), reference);
+        } else if (original == reference) {
+            // Immutable, or constant to the reflective cloner
+            assertSame(path, original, cloned);
+        } else if (BOXED_TYPES.contains(original.getClass())) {
+            assertEquals(path, original, cloned);
+        } else {
+            assertNotNull(path, cloned);
+            assertNotNull(path, reference);
+            assertNotSame(path, original, cloned);
+            assertSame(path, original.getClass(), cloned.getClass());
+
+            // Internals of collections depend on the identity hashes of their elements
+            if (original instanceof Collection) {
+                assertEquals(
+                        path, ((Collection<?>) original).size(), ((Collection<?>) cloned).size());
+            } else if (original instanceof Map) {
+                assertEquals(path, ((Map<?, ?>) original).size(), ((Map<?, ?>) cloned).size());
+            } else {
+                compareObjects(path, original, cloned, reference, clonedMap, referenceMap, visited);
+            }
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.game;
+
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import lombok.extern.java.Log;
+import org.dragonskulle.components.Transform3D;
+import org.dragonskulle.core.Engine;
+import org.dragonskulle.core.GameObject;
+import org.dragonskulle.core.GameObjectPool;
+import org.dragonskulle.core.TemplateManager;
+import org.dragonskulle.core.futures.Future;
+import org.junit.Test;
+
+/**
+ * Spawn rate, and garbage benchmarks of game templates.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Fireballs of attack paths get respawned every time a path changes. The benchmark spawns,
+ *     and destroys batches of them through the engine, both by cloning the template, as paths did
+ *     before, and through a pool.
+ *     <p>Buildings are networked, and their components do not support pooling, so every spawn
+ *     still clones the template. Their benchmark only tracks the cost of a spawn.
+ *     <p>Only run with the {@code benchmark} profile.
+ */
+@Log
+public class TemplateSpawnBenchmark {
+    /** Number of fireballs spawned per frame, about as many as a few attacks in flight. */
+    private static final int BATCH = 40;
+    /** Number of warmup frames. */
+    private static final int WARMUP_FRAMES = 200;
+    /** Number of measured frames. */
+    private static final int FRAMES = 500;
+    /** Number of warmup building spawns. */
+    private static final int WARMUP_BUILDINGS = 500;
+    /** Number of measured building spawns. */
+    private static final int BUILDINGS = 2000;
+
+    /** Results of a benchmark run. */
+    private static class Result {
+        long mNanos;
+        long mBytes;
+        long mCollections;
+        int mSpawns;
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "%.2f us, %.1f KiB per spawn, %d collections",
+                    mNanos / 1000.0 / mSpawns,
+                    mBytes / 1024.0 / mSpawns,
+                    mCollections);
+        }
+    }
+
+    /** Compare cloned, and pooled fireball spawns. */
+    @Test
+    public void benchmarkFireballs() {
+        GameObject template =
+                App.TEMPLATES.get().getDefaultScene().findRootObject("attack_ball");
+        GameObjectPool pool = new GameObjectPool(template);
+
+        assertTrue(pool.isPoolable());
+
+        Supplier<GameObject> clone = () -> GameObject.instantiate(template, new Transform3D());
+
+        runFrames(clone, WARMUP_FRAMES);
+        runFrames(pool::obtain, WARMUP_FRAMES);
+
+        Result cloned = runFrames(clone, FRAMES);
+
+        long misses = pool.getMisses();
+        Result pooled = runFrames(pool::obtain, FRAMES);
+
+        // Batches get spawned before the previous ones are recycled, so two batches are in use
+        // at a time, and only the second frame can miss
+        assertTrue(pool.getMisses() - misses <= BATCH);
+
+        log.info(String.format("fireball x%d: cloned %s; pooled %s", BATCH, cloned, pooled));
+    }
+
+    /** Measure building spawns through the template manager. */
+    @Test
+    public void benchmarkBuildings() {
+        try (App app = new App()) {
+            TemplateManager templates = app.createTemplateManager();
+            int id = templates.find("building");
+
+            measure(() -> templates.instantiate(id), WARMUP_BUILDINGS);
+            Result result = measure(() -> templates.instantiate(id), BUILDINGS);
+
+            log.info(String.format("building: %s", result));
+        }
+    }
+
+    /**
+     * Spawn, and destroy batches of objects on every engine frame.
+     *
+     * @param spawner spawns a single object.
+     * @param frames number of frames to run.
+     * @return measured results.
+     */
+    private static Result runFrames(Supplier<GameObject> spawner, int frames) {
+        int[] frame = {0};
+        GameObject parent = new GameObject("path");
+        List<GameObject> spawned = new ArrayList<>();
+
+        Result result =
+                measure(
+                        () -> {
+                            Engine.getInstance()
+                                    .startWithFutures(
+                                            new Future()
+                                                    .then((scene) -> scene.addRootObject(parent))
+                                                    .awaitUntil(
+                                                            (scene) -> {
+                                                                respawn(parent, spawner, spawned);
+                                                                return ++frame[0] >= frames;
+                                                            }));
+                            return null;
+                        },
+                        1);
+
+        result.mSpawns = frames * BATCH;
+        return result;
+    }
+
+    /**
+     * Destroy the previous batch of objects, and spawn a new one.
+     *
+     * @param parent object to spawn under.
+     * @param spawner spawns a single object.
+     * @param spawned objects of the previous batch, replaced with the new ones.
+     */
+    private static void respawn(
+            GameObject parent, Supplier<GameObject> spawner, List<GameObject> spawned) {
+        spawned.forEach(GameObject::destroy);
+        spawned.clear();
+
+        for (int i = 0; i < BATCH; i++) {
+            GameObject go = spawner.get();
+            parent.addChild(go);
+            spawned.add(go);
+        }
+    }
+
+    /**
+     * Measure time, allocations, and garbage collections of an action.
+     *
+     * @param action action to run.
+     * @param count number of times to run it.
+     * @return measured results, per {@code count} spawns.
+     */
+    private static Result measure(Supplier<?> action, int count) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        long bytes = threads.getThreadAllocatedBytes(thread);
+        long collections = getCollections();
+        long start = System.nanoTime();
+
+        for (int i = 0; i < count; i++) {
+            action.get();
+        }
+
+        Result result = new Result();
+        result.mNanos = System.nanoTime() - start;
+        result.mBytes = threads.getThreadAllocatedBytes(thread) - bytes;
+        result.mCollections = getCollections() - collections;
+        result.mSpawns = count;
+        return result;
+    }
+
+    /**
+     * Get the total number of garbage collections so far.
+     *
+     * @return number of collections across all collectors.
+     */
+    private static long getCollections() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(gc.getCollectionCount(), 0);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,81 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.game.map;
+
+import static org.dragonskulle.game.map.HexagonNeighbourhoodTest.referenceTilesInRadius;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.extern.java.Log;
+import org.junit.Test;
+
+/**
+ * Benchmark of neighbourhood queries of {@link HexagonMap}.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Compares the cached offset tables against computing distances for every offset on every
+ *     call. Only run with the {@code benchmark} profile.
+ */
+@Log
+public class HexagonNeighbourhoodBenchmark {
+    /** Map sizes to benchmark on. */
+    private static final int[] MAP_SIZES = {51, 201};
+    /** Largest radius to benchmark. */
+    private static final int MAX_RADIUS = 10;
+    /** Number of lookups per radius in warmup. */
+    private static final int WARMUP_LOOKUPS = 20000;
+    /** Number of measured lookups per radius. */
+    private static final int LOOKUPS = 20000;
+
+    /** Measure radius lookups on small and large maps. */
+    @Test
+    public void benchmarkRadius() {
+        for (int size : MAP_SIZES) {
+            HexagonMap map = TestMaps.create(size);
+            List<HexagonTile> tiles = map.getAllTiles().collect(Collectors.toList());
+            List<HexagonTile> out = new ArrayList<>();
+            int[] count = {0};
+
+            for (int radius = 1; radius <= MAX_RADIUS; radius++) {
+                for (int i = 0; i < WARMUP_LOOKUPS; i++) {
+                    HexagonTile tile = tiles.get(i % tiles.size());
+                    count[0] += referenceTilesInRadius(map, tile, 1, radius).size();
+                    count[0] += map.getTilesInRadius(tile, 1, radius, out).size();
+                    map.forEachInRadius(tile, 1, radius, t -> count[0]++);
+                }
+
+                long start = System.nanoTime();
+                for (int i = 0; i < LOOKUPS; i++) {
+                    HexagonTile tile = tiles.get(i % tiles.size());
+                    count[0] += referenceTilesInRadius(map, tile, 1, radius).size();
+                }
+                long reference = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                for (int i = 0; i < LOOKUPS; i++) {
+                    HexagonTile tile = tiles.get(i % tiles.size());
+                    count[0] += map.getTilesInRadius(tile, 1, radius, out).size();
+                }
+                long cached = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                for (int i = 0; i < LOOKUPS; i++) {
+                    HexagonTile tile = tiles.get(i % tiles.size());
+                    map.forEachInRadius(tile, 1, radius, t -> count[0]++);
+                }
+                long visitor = System.nanoTime() - start;
+
+                log.info(
+                        String.format(
+                                "map size %d, radius %2d: %8.1f ns computed offsets, %8.1f ns"
+                                        + " cached offsets, %8.1f ns forEachInRadius [%d]",
+                                size,
+                                radius,
+                                reference / (double) LOOKUPS,
+                                cached / (double) LOOKUPS,
+                                visitor / (double) LOOKUPS,
+                                count[0]));
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.game.map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+/**
+ * Tests for neighbourhood queries of {@link HexagonMap}.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Queries are compared against computing distances for every offset on every call, which
+ *     is how the map worked before caching offset tables, reimplemented here for reference.
+ */
+public class HexagonNeighbourhoodTest {
+    /** Test that radius queries return the same tiles in the same order as before. */
+    @Test
+    public void testRadiusMatchesReference() {
+        HexagonMap map = TestMaps.create(21);
+        List<HexagonTile> out = new ArrayList<>();
+        List<HexagonTile> visited = new ArrayList<>();
+
+        map.getAllTiles()
+                .forEach(
+                        tile -> {
+                            for (int max = 0; max <= 4; max++) {
+                                for (int min = 0; min <= max + 1; min++) {
+                                    List<HexagonTile> expected =
+                                            referenceTilesInRadius(map, tile, min, max);
+
+                                    assertEquals(
+                                            expected, map.getTilesInRadius(tile, min, max, out));
+
+                                    visited.clear();
+                                    map.forEachInRadius(tile, min, max, visited::add);
+                                    assertEquals(expected, visited);
+                                }
+                            }
+                        });
+    }
+
+    /** Test that ring queries visit the same tiles, closest first. */
+    @Test
+    public void testRingOrder() {
+        HexagonMap map = TestMaps.create(21);
+        List<HexagonTile> visited = new ArrayList<>();
+
+        map.getAllTiles()
+                .forEach(
+                        tile -> {
+                            for (int max = 0; max <= 4; max++) {
+                                for (int min = 0; min <= max; min++) {
+                                    visited.clear();
+                                    map.forEachInRing(tile, min, max, visited::add);
+
+                                    assertEquals(
+                                            new HashSet<>(
+                                                    referenceTilesInRadius(map, tile, min, max)),
+                                            new HashSet<>(visited));
+                                    assertEquals(
+                                            visited.size(), new HashSet<>(visited).size());
+
+                                    for (int i = 1; i < visited.size(); i++) {
+                                        assertTrue(
+                                                distance(tile, visited.get(i - 1))
+                                                        <= distance(tile, visited.get(i)));
+                                    }
+                                }
+                            }
+                        });
+    }
+
+    /** Test that neighbours are the tiles at radius 1. */
+    @Test
+    public void testNeighbours() {
+        HexagonMap map = TestMaps.create(21);
+
+        map.getAllTiles()
+                .forEach(
+                        tile -> {
+                            List<HexagonTile> neighbours = new ArrayList<>();
+
+                            for (int d = 0; d < HexagonMap.NEIGHBOUR_COUNT; d++) {
+                                HexagonTile n = map.getNeighbour(tile, d);
+
+                                if (n != null) {
+                                    neighbours.add(n);
+                                }
+                            }
+
+                            assertEquals(
+                                    new HashSet<>(referenceTilesInRadius(map, tile, 1, 1)),
+                                    new HashSet<>(neighbours));
+                        });
+    }
+
+    /** Test that flood fill passes neighbours in the same order as the radius lookup. */
+    @Test
+    public void testFloodFillOrder() {
+        HexagonMap map = TestMaps.create(21);
+        List<HexagonTile> out = new ArrayList<>();
+
+        for (int radius = 1; radius <= 2; radius++) {
+            final int r = radius;
+            Deque<HexagonTile> tiles =
+                    map.getAllTiles().collect(Collectors.toCollection(ArrayDeque::new));
+
+            map.floodFill(
+                    tiles,
+                    (__, tile, neighbours, ___) ->
+                            assertEquals(map.getTilesInRadius(tile, r, false, out), neighbours),
+                    radius);
+        }
+    }
+
+    /**
+     * Get tiles within a radius the way {@link HexagonMap} did before caching offset tables.
+     *
+     * @param map map to look the tiles up in.
+     * @param tile target tile.
+     * @param min minimum radius.
+     * @param max maximum radius.
+     * @return newly allocated list of tiles.
+     */
+    static List<HexagonTile> referenceTilesInRadius(
+            HexagonMap map, HexagonTile tile, int min, int max) {
+        List<HexagonTile> tilesOut = new ArrayList<>();
+
+        for (int q = -max; q <= max; q++) {
+            int lower = Math.max(-max, -q - max);
+            int upper = Math.min(max, -q + max);
+            for (int r = lower; r <= upper; r++) {
+                int s = -q - r;
+
+                int distance = Math.max(Math.max(Math.abs(q), Math.abs(r)), Math.abs(s));
+                if (distance < min) {
+                    continue;
+                }
+
+                HexagonTile selectedTile = map.getTile(tile.getQ() + q, tile.getR() + r);
+                if (selectedTile == null) {
+                    continue;
+                }
+
+                tilesOut.add(selectedTile);
+            }
+        }
+
+        return tilesOut;
+    }
+
+    /**
+     * Get the distance between two tiles.
+     *
+     * @param a first tile.
+     * @param b second tile.
+     * @return number of steps from one tile to the other.
+     */
+    private static int distance(HexagonTile a, HexagonTile b) {
+        int dq = Math.abs(a.getQ() - b.getQ());
+        int dr = Math.abs(a.getR() - b.getR());
+        int ds = Math.abs(a.getS() - b.getS());
+        return Math.max(dq, Math.max(dr, ds));
+    }
+}
@@ -2,12 +2,20 @@
 package org.dragonskulle.game.map;
 
 import static org.dragonskulle.network.testing.NetworkedTestContext.TIMEOUT;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import org.dragonskulle.game.App;
 import org.dragonskulle.game.AppTest;
 import org.dragonskulle.game.GameState;
 import org.dragonskulle.game.map.HexagonTile.TileType;
+import org.dragonskulle.network.NetworkMessage;
 import org.dragonskulle.network.testing.NetworkedTestContext;
 import org.junit.Test;
 
@@ -40,4 +48,82 @@ public class MapTest {
 
         ctx.execute();
     }
+
+    /** Tests that a client given the network ID of a removed one gets every viewed tile again. */
+    @Test
+    public void removedClientStartsFresh() {
+        App app = new App();
+        NetworkedTestContext ctx = AppTest.buildTestContext(app);
+
+        // An ID without a player, which views the whole map
+        final int clientId = 100;
+
+        ctx.getClient()
+                .awaitTimeout(
+                        TIMEOUT,
+                        (__) -> ctx.getServerScene().getSingleton(HexagonMap.class) != null)
+                .then(
+                        (__) -> {
+                            HexagonMap map = ctx.getServerScene().getSingleton(HexagonMap.class);
+                            HexagonTileStore store = new HexagonTileStore(map.getSize(), 0, map);
+
+                            byte[] first = sendUpdate(store, clientId);
+                            assertFalse(store.isDirty(clientId));
+
+                            store.removeClient(clientId);
+                            assertArrayEquals(first, sendUpdate(store, clientId));
+                        });
+
+        ctx.execute();
+    }
+
+    /** Tests that a full update of the largest map fits into a message, and a larger one does not. */
+    @Test
+    public void maxSizeFitsInMessage() throws IOException {
+        assertTrue(fullUpdateSize(HexagonMap.MAX_SIZE) <= Short.MAX_VALUE);
+        assertTrue(fullUpdateSize(HexagonMap.MAX_SIZE + 2) > Short.MAX_VALUE);
+    }
+
+    /**
+     * Calculate the size of an update message that carries every tile of a map.
+     *
+     * @param size size of the map.
+     * @return size of the message body in bytes.
+     * @throws IOException if serializing a tile fails.
+     */
+    private static int fullUpdateSize(int size) throws IOException {
+        HexagonMap map = TestMaps.create(size);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream stream = new DataOutputStream(bytes);
+
+        for (HexagonTile tile : (Iterable<HexagonTile>) map.getAllTiles()::iterator) {
+            tile.serialize(stream, 0);
+        }
+
+        // Message code, object ID, syncvar mask, and a tile mask of every row
+        int maskSize = NetworkMessage.maskSizeInBytes(size);
+        return 1 + 4 + 2 + maskSize * (size + 1) + bytes.size();
+    }
+
+    /**
+     * Send the dirty tiles of a tile store to a client.
+     *
+     * @param store store to send the tiles of.
+     * @param clientId network ID of the client.
+     * @return the serialized tiles.
+     */
+    private static byte[] sendUpdate(HexagonTileStore store, int clientId) {
+        assertTrue(store.isDirty(clientId));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try {
+            store.serialize(new DataOutputStream(bytes), clientId);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        store.resetDirtyFlag(clientId);
+        return bytes.toByteArray();
+    }
 }
@@ -0,0 +1,127 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.game.map;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import org.dragonskulle.core.GameObject;
+import org.dragonskulle.core.Scene;
+import org.dragonskulle.core.Scene.SceneOverride;
+import org.dragonskulle.game.map.HexagonTile.TileType;
+import org.dragonskulle.network.components.NetworkManager;
+import org.dragonskulle.network.components.NetworkObject;
+
+/**
+ * Creates maps for tests, without any network connection.
+ *
+ * @author Aurimas Blažulionis
+ */
+public class TestMaps {
+    /**
+     * Create a server side map outside of the network.
+     *
+     * @param size size of the map.
+     * @return generated map.
+     */
+    public static HexagonMap create(int size) {
+        try (SceneOverride __ = new SceneOverride(new Scene(""))) {
+            GameObject go = new GameObject("test_map");
+            HexagonMap map = new HexagonMap();
+            map.setSize(size);
+            NetworkObject obj = new NetworkObject(0, -1, true, new NetworkManager(null, null));
+            go.addComponent(obj);
+            go.addComponent(map);
+            map.initialise(obj, new ArrayList<>(), new ArrayList<>());
+            return map;
+        }
+    }
+
+    /**
+     * Get the tiles of the largest land mass of a map.
+     *
+     * <p>Only neighbouring land tiles are connected, so there is a path over land between any two
+     * of the returned tiles.
+     *
+     * @param map map to search.
+     * @return land tiles of the largest land mass.
+     */
+    public static List<HexagonTile> getLargestLandMass(HexagonMap map) {
+        boolean[] visited = new boolean[map.getTileCount()];
+        List<HexagonTile> largest = new ArrayList<>();
+
+        for (int i = 0; i < visited.length; i++) {
+            if (visited[i] || !isLand(map, i)) {
+                continue;
+            }
+
+            List<HexagonTile> landMass = new ArrayList<>();
+            Deque<Integer> queue = new ArrayDeque<>();
+            visited[i] = true;
+            queue.add(i);
+
+            while (!queue.isEmpty()) {
+                int index = queue.removeFirst();
+                landMass.add(map.getTileByIndex(index));
+
+                for (int d = 0; d < HexagonMap.NEIGHBOUR_COUNT; d++) {
+                    int neighbour = map.getNeighbourIndex(index, d);
+
+                    if (neighbour >= 0 && !visited[neighbour] && isLand(map, neighbour)) {
+                        visited[neighbour] = true;
+                        queue.add(neighbour);
+                    }
+                }
+            }
+
+            if (landMass.size() > largest.size()) {
+                largest = landMass;
+            }
+        }
+
+        return largest;
+    }
+
+    /**
+     * Find the number of steps over land from a tile to every other tile.
+     *
+     * @param map map to walk.
+     * @param start index of the land tile to start from.
+     * @return distance of every tile, -1 for tiles that can not be reached over land.
+     */
+    public static int[] getLandDistances(HexagonMap map, int start) {
+        int[] distances = new int[map.getTileCount()];
+        Arrays.fill(distances, -1);
+        Deque<Integer> queue = new ArrayDeque<>();
+
+        distances[start] = 0;
+        queue.add(start);
+
+        while (!queue.isEmpty()) {
+            int last = queue.removeFirst();
+
+            for (int d = 0; d < HexagonMap.NEIGHBOUR_COUNT; d++) {
+                int neighbour = map.getNeighbourIndex(last, d);
+                if (neighbour >= 0 && distances[neighbour] == -1 && isLand(map, neighbour)) {
+                    distances[neighbour] = distances[last] + 1;
+                    queue.add(neighbour);
+                }
+            }
+        }
+
+        return distances;
+    }
+
+    /**
+     * Check whether a tile is land.
+     *
+     * @param map map of the tile.
+     * @param index index of the tile.
+     * @return {@code true} if there is a land tile at the index.
+     */
+    private static boolean isLand(HexagonMap map, int index) {
+        HexagonTile tile = map.getTileByIndex(index);
+        return tile != null && tile.getTileType() == TileType.LAND;
+    }
+}
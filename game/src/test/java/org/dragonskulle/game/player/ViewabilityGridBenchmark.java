@@ -0,0 +1,198 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.game.player;
+
+import static org.dragonskulle.game.player.ViewabilityGridTest.LOWER_BOUND;
+import static org.dragonskulle.game.player.ViewabilityGridTest.addBuilding;
+import static org.dragonskulle.game.player.ViewabilityGridTest.createBuildings;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import lombok.extern.java.Log;
+import org.dragonskulle.game.GameConfig.GlobalConfig;
+import org.dragonskulle.game.map.HexagonMap;
+import org.dragonskulle.game.map.HexagonTile;
+import org.dragonskulle.game.map.TestMaps;
+import org.dragonskulle.game.player.ViewabilityGridTest.FakeBuilding;
+import org.junit.Test;
+
+/**
+ * Benchmark of {@link ViewabilityGrid}.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Compares the grid against the tile to value hash map {@link Player} used before, which is
+ *     reimplemented here for reference. Only run with the {@code benchmark} profile.
+ */
+@Log
+public class ViewabilityGridBenchmark {
+    /** Map sizes to benchmark on, the default one, and the largest supported one. */
+    private static final int[] MAP_SIZES = {
+        new GlobalConfig().getMapSize(), HexagonMap.MAX_SIZE
+    };
+    /** Number of buildings to place in the benchmark. */
+    private static final int BUILDING_COUNT = 40;
+    /** Number of warmup iterations. */
+    private static final int WARMUP_ITERATIONS = 200;
+    /** Number of measured iterations. */
+    private static final int ITERATIONS = 200;
+
+    /** Measure the cost of a full recompute, and of viewability lookups. */
+    @Test
+    public void benchmarkViewability() {
+        for (int size : MAP_SIZES) {
+            HexagonMap map = TestMaps.create(size);
+            List<FakeBuilding> buildings = createBuildings(map, new Random(42), BUILDING_COUNT);
+            List<HexagonTile> tiles = map.getAllTiles().collect(Collectors.toList());
+
+            ViewabilityGrid grid = new ViewabilityGrid(map, LOWER_BOUND);
+            Map<HexagonTile, Integer> hashMap = new HashMap<>();
+
+            int viewableCount = 0;
+
+            for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                recomputeGrid(grid, buildings);
+                recomputeHashMap(map, hashMap, buildings);
+                viewableCount += countGrid(grid, tiles) + countHashMap(hashMap, tiles);
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                recomputeHashMap(map, hashMap, buildings);
+            }
+            long hashRecompute = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                recomputeGrid(grid, buildings);
+            }
+            long gridRecompute = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                viewableCount += countHashMap(hashMap, tiles);
+            }
+            long hashLookup = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                viewableCount += countGrid(grid, tiles);
+            }
+            long gridLookup = System.nanoTime() - start;
+
+            double lookups = (double) ITERATIONS * tiles.size();
+
+            log.info(
+                    String.format(
+                            "map size %d, %d tiles, %d buildings: recompute %.1f us (hash map),"
+                                    + " %.1f us (grid); isTileViewable %.2f ns (hash map), %.2f"
+                                    + " ns (grid) [%d]",
+                            size,
+                            tiles.size(),
+                            BUILDING_COUNT,
+                            hashRecompute / 1000.0 / ITERATIONS,
+                            gridRecompute / 1000.0 / ITERATIONS,
+                            hashLookup / lookups,
+                            gridLookup / lookups,
+                            viewableCount));
+        }
+    }
+
+    /**
+     * Recompute the grid from scratch.
+     *
+     * @param grid grid to recompute.
+     * @param buildings buildings to add.
+     */
+    private static void recomputeGrid(ViewabilityGrid grid, List<FakeBuilding> buildings) {
+        grid.clear();
+        buildings.forEach(b -> addBuilding(grid, b));
+        grid.update();
+    }
+
+    /**
+     * Recompute viewability the way {@link Player} did before using {@link ViewabilityGrid}.
+     *
+     * @param map map the tiles are on.
+     * @param values map of tile viewability to fill.
+     * @param buildings buildings to add.
+     */
+    private static void recomputeHashMap(
+            HexagonMap map, Map<HexagonTile, Integer> values, List<FakeBuilding> buildings) {
+        values.clear();
+
+        Deque<HexagonTile> fillTiles = new ArrayDeque<>();
+
+        for (FakeBuilding b : buildings) {
+            for (HexagonTile tile : b.mClaimedTiles) {
+                fillTiles.push(tile);
+                values.put(tile, b.mViewDistance);
+            }
+        }
+
+        map.floodFill(
+                fillTiles,
+                (__, t, neighbours, out) -> {
+                    Integer val = values.get(t);
+
+                    if (val == null || val <= LOWER_BOUND) {
+                        return;
+                    }
+
+                    Integer newVal = val - 1;
+
+                    for (HexagonTile n : neighbours) {
+                        Integer nval = values.get(n);
+
+                        if (nval == null || nval < newVal) {
+                            values.put(n, newVal);
+                            fillTiles.push(n);
+                        }
+                    }
+                },
+                1);
+    }
+
+    /**
+     * Count viewable tiles in the grid.
+     *
+     * @param grid grid to check.
+     * @param tiles tiles to check.
+     * @return number of viewable tiles.
+     */
+    private static int countGrid(ViewabilityGrid grid, List<HexagonTile> tiles) {
+        int count = 0;
+
+        for (HexagonTile tile : tiles) {
+            if (grid.isViewable(tile)) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Count viewable tiles in the hash map.
+     *
+     * @param values map of tile viewability.
+     * @param tiles tiles to check.
+     * @return number of viewable tiles.
+     */
+    private static int countHashMap(Map<HexagonTile, Integer> values, List<HexagonTile> tiles) {
+        int count = 0;
+
+        for (HexagonTile tile : tiles) {
+            Integer val = values.get(tile);
+
+            if (val != null && val > 0) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,153 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.game.player;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.dragonskulle.game.map.HexagonMap;
+import org.dragonskulle.game.map.HexagonTile;
+import org.dragonskulle.game.map.TestMaps;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ViewabilityGrid}.
+ *
+ * @author Aurimas Blažulionis
+ */
+public class ViewabilityGridTest {
+    /** Lower bound of viewability, same as the player's. */
+    static final int LOWER_BOUND = -5;
+    /** A fake building, that claims tiles around itself. */
+    static class FakeBuilding {
+        final List<HexagonTile> mClaimedTiles;
+        final int mViewDistance;
+
+        FakeBuilding(List<HexagonTile> claimedTiles, int viewDistance) {
+            mClaimedTiles = claimedTiles;
+            mViewDistance = viewDistance;
+        }
+    }
+
+    /** Test that spreading, and removing sources gives the same result as a full recompute. */
+    @Test
+    public void testMatchesRecompute() {
+        HexagonMap map = TestMaps.create(31);
+        Random rand = new Random(1234);
+        List<FakeBuilding> buildings = createBuildings(map, rand, 12);
+
+        ViewabilityGrid grid = new ViewabilityGrid(map, LOWER_BOUND);
+
+        for (FakeBuilding b : buildings) {
+            addBuilding(grid, b);
+            grid.update();
+            assertMatches(map, buildings.subList(0, buildings.indexOf(b) + 1), grid);
+        }
+
+        while (!buildings.isEmpty()) {
+            FakeBuilding removed = buildings.remove(rand.nextInt(buildings.size()));
+
+            grid.removeSources(removed.mClaimedTiles);
+            buildings.forEach(b -> addBuilding(grid, b));
+            grid.update();
+
+            assertMatches(map, buildings, grid);
+        }
+    }
+
+    /** Test that the listener is told about every tile that flips its viewable state. */
+    @Test
+    public void testChangeListener() {
+        HexagonMap map = TestMaps.create(31);
+        List<FakeBuilding> buildings = createBuildings(map, new Random(4321), 4);
+        ViewabilityGrid grid = new ViewabilityGrid(map, LOWER_BOUND);
+
+        Map<HexagonTile, Boolean> viewable = new HashMap<>();
+        grid.setChangeListener(t -> viewable.merge(t, true, (a, b) -> !a));
+
+        buildings.forEach(b -> addBuilding(grid, b));
+        grid.update();
+        grid.removeSources(buildings.get(0).mClaimedTiles);
+        buildings.subList(1, buildings.size()).forEach(b -> addBuilding(grid, b));
+        grid.update();
+
+        map.getAllTiles()
+                .forEach(t -> assertEquals(grid.isViewable(t), viewable.getOrDefault(t, false)));
+    }
+
+    /**
+     * Add claimed tiles of a building to the grid.
+     *
+     * @param grid grid to add to.
+     * @param building building to add.
+     */
+    static void addBuilding(ViewabilityGrid grid, FakeBuilding building) {
+        for (HexagonTile tile : building.mClaimedTiles) {
+            grid.addSource(tile, building.mViewDistance);
+        }
+    }
+
+    /**
+     * Assert that the grid holds the expected viewability of every tile.
+     *
+     * @param map map the grid is for.
+     * @param buildings buildings on the map.
+     * @param grid grid to check.
+     */
+    private static void assertMatches(
+            HexagonMap map, List<FakeBuilding> buildings, ViewabilityGrid grid) {
+        map.getAllTiles()
+                .forEach(
+                        tile -> {
+                            int expected = LOWER_BOUND;
+
+                            for (FakeBuilding b : buildings) {
+                                for (HexagonTile c : b.mClaimedTiles) {
+                                    int value = b.mViewDistance - distance(tile, c);
+                                    expected = Math.max(expected, value);
+                                }
+                            }
+
+                            assertEquals(tile.toString(), expected, grid.get(tile));
+                        });
+    }
+
+    /**
+     * Get the distance between two tiles.
+     *
+     * @param a first tile.
+     * @param b second tile.
+     * @return number of steps from one tile to the other.
+     */
+    private static int distance(HexagonTile a, HexagonTile b) {
+        int dq = Math.abs(a.getQ() - b.getQ());
+        int dr = Math.abs(a.getR() - b.getR());
+        int ds = Math.abs(a.getS() - b.getS());
+        return Math.max(dq, Math.max(dr, ds));
+    }
+
+    /**
+     * Create buildings on random tiles of the map.
+     *
+     * @param map map to place buildings on.
+     * @param rand random number generator.
+     * @param count number of buildings.
+     * @return the buildings.
+     */
+    static List<FakeBuilding> createBuildings(HexagonMap map, Random rand, int count) {
+        List<HexagonTile> tiles = map.getAllTiles().collect(Collectors.toList());
+        List<FakeBuilding> buildings = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            HexagonTile tile = tiles.get(rand.nextInt(tiles.size()));
+            List<HexagonTile> claimed = map.getTilesInRadius(tile, 1, true, new ArrayList<>());
+            buildings.add(new FakeBuilding(claimed, 2 + rand.nextInt(4)));
+        }
+
+        return buildings;
+    }
+}
@@ -0,0 +1,139 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.game.player.ai;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import lombok.extern.java.Log;
+import org.dragonskulle.game.App;
+import org.dragonskulle.game.GameConfig;
+import org.dragonskulle.game.lobby.Lobby;
+import org.dragonskulle.game.map.HexagonMap;
+import org.dragonskulle.game.simulation.MatchSimulator;
+import org.dragonskulle.game.simulation.SimulationReport;
+import org.junit.Test;
+
+/**
+ * Benchmarks of the fixed update latency of {@link AimerAi} players.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>A full lobby of AI players plays a simulated match, and the time of every fixed update
+ *     of every AI player is measured. The match is played once with the searches computed on the
+ *     updating thread, and once on the workers of the shared {@link AiPlanner}.
+ *     <p>The simulation is not paced, so searches on the workers take more fixed updates to
+ *     arrive than they would in a real game. This only delays the AI, and not the update.
+ *     <p>Only run with the {@code benchmark} profile.
+ */
+@Log
+public class AiPlannerBenchmark {
+    /** Game seconds after which a match ends. */
+    private static final float TIME_LIMIT = 300f;
+
+    /** Planner that searches on the calling thread. */
+    private static final AiPlanner SYNCHRONOUS = new AiPlanner(0);
+
+    /** Time of every fixed update of every AI player in the current match, in nanoseconds. */
+    private static final List<Long> sUpdateNanos = new ArrayList<>();
+
+    /** Aimer that measures its fixed updates. */
+    private static class TimedAimerAi extends AimerAi {
+        @Override
+        public void fixedUpdate(float deltaTime) {
+            long start = System.nanoTime();
+            super.fixedUpdate(deltaTime);
+            long nanos = System.nanoTime() - start;
+
+            synchronized (sUpdateNanos) {
+                sUpdateNanos.add(nanos);
+            }
+        }
+    }
+
+    /** Timed aimer that searches on the calling thread. */
+    private static class SynchronousAimerAi extends TimedAimerAi {
+        @Override
+        protected AiPlanner getPlanner() {
+            return SYNCHRONOUS;
+        }
+    }
+
+    /** Measure fixed update latency of AI players on a regular sized map. */
+    @Test
+    public void benchmarkLatencyMap51() {
+        benchmarkLatency(51);
+    }
+
+    /** Measure fixed update latency of AI players on the largest map. */
+    @Test
+    public void benchmarkLatencyMaxMap() {
+        benchmarkLatency(HexagonMap.MAX_SIZE);
+    }
+
+    /**
+     * Measure fixed update latency of AI players, searching synchronously, and on workers.
+     *
+     * @param size size of the map.
+     */
+    private static void benchmarkLatency(int size) {
+        playMatch(size, "synchronous", SynchronousAimerAi::new);
+        playMatch(size, "workers", TimedAimerAi::new);
+    }
+
+    /**
+     * Play a match between AI players, and log the time of their fixed updates.
+     *
+     * @param size size of the map.
+     * @param name name of the measurement.
+     * @param ai creates the AI of every seat.
+     */
+    private static void playMatch(int size, String name, Supplier<AiPlayer> ai) {
+        GameConfig config = new GameConfig();
+        config.getGlobal().setMapSize(size);
+
+        List<Supplier<AiPlayer>> seats = new ArrayList<>();
+        for (int i = 0; i < Lobby.MAX_PLAYERS; i++) {
+            seats.add(ai);
+        }
+
+        sUpdateNanos.clear();
+
+        SimulationReport report;
+
+        try (App app = new App()) {
+            MatchSimulator simulator =
+                    new MatchSimulator(config, seats, app::createTemplateManager);
+            simulator.setTimeLimit(TIME_LIMIT);
+
+            report = simulator.run(1, 1);
+        }
+
+        assertEquals(1, report.getMatchCount());
+
+        long[] updates;
+        synchronized (sUpdateNanos) {
+            updates = sUpdateNanos.stream().mapToLong(Long::longValue).sorted().toArray();
+        }
+
+        assertTrue(updates.length > 0);
+
+        long total = 0;
+        for (long update : updates) {
+            total += update;
+        }
+
+        log.info(
+                String.format(
+                        "map %d, %d AI, %s, match of %.0f s: fixed update mean %.3f ms,"
+                                + " p99 %.3f ms, max %.3f ms",
+                        size,
+                        seats.size(),
+                        name,
+                        report.getMaxLength(),
+                        total / 1e6 / updates.length,
+                        updates[updates.length * 99 / 100] / 1e6,
+                        updates[updates.length - 1] / 1e6));
+    }
+}
@@ -0,0 +1,75 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.game.player.ai;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.IntPredicate;
+import org.dragonskulle.game.map.HexagonMap;
+import org.dragonskulle.game.map.HexagonTile;
+import org.dragonskulle.game.map.TestMaps;
+import org.dragonskulle.game.player.ai.algorithms.DistanceField;
+import org.dragonskulle.game.player.ai.algorithms.graphs.ISearchGraph;
+import org.junit.Test;
+
+/**
+ * Tests for {@link AiPlanner}.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Latency of the fixed updates of AI players is measured by {@link AiPlannerBenchmark}.
+ */
+public class AiPlannerTest {
+
+    /** Test that distances from workers are the same as those computed on the calling thread. */
+    @Test
+    public void testMatchesDistanceField() throws InterruptedException, ExecutionException {
+        HexagonMap map = TestMaps.create(31);
+        ISearchGraph graph = map.getNavigationGraph().getSnapshot();
+        List<HexagonTile> land = TestMaps.getLargestLandMass(map);
+
+        AiPlanner planner = new AiPlanner(2);
+        Random random = new Random(3);
+        long[] allowed = new long[(map.getTileCount() + 63) >>> 6];
+
+        for (HexagonTile tile : land) {
+            int index = map.getTileIndex(tile);
+            if (random.nextFloat() < 0.8f) {
+                allowed[index >>> 6] |= 1L << index;
+            }
+        }
+
+        IntPredicate filter = (n) -> (allowed[n >>> 6] & (1L << n)) != 0;
+
+        for (int i = 0; i < 20; i++) {
+            int[] targets = {
+                map.getTileIndex(land.get(random.nextInt(land.size()))),
+                map.getTileIndex(land.get(random.nextInt(land.size())))
+            };
+
+            Future<DistanceField> field = planner.findDistances(graph, targets, null);
+            Future<DistanceField> filtered = planner.findDistances(graph, targets, allowed);
+
+            assertSameDistances(graph, new DistanceField(graph, targets, null), field.get());
+            assertSameDistances(
+                    graph, new DistanceField(graph, targets, filter), filtered.get());
+        }
+    }
+
+    /**
+     * Check that two distance fields are the same.
+     *
+     * @param graph graph of the distance fields.
+     * @param expected expected distances.
+     * @param actual actual distances.
+     */
+    private static void assertSameDistances(
+            ISearchGraph graph, DistanceField expected, DistanceField actual) {
+        for (int node = 0; node < graph.getNodeCount(); node++) {
+            assertEquals(expected.getDistance(node), actual.getDistance(node));
+            assertEquals(expected.getNext(node), actual.getNext(node));
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.game.player.ai.algorithms.graphs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Comparator;
+import java.util.List;
+import lombok.extern.java.Log;
+import org.dragonskulle.components.TransformHex;
+import org.dragonskulle.game.lobby.Lobby;
+import org.dragonskulle.game.map.HexagonMap;
+import org.dragonskulle.game.map.HexagonTile;
+import org.dragonskulle.game.map.TestMaps;
+import org.dragonskulle.game.player.Player;
+import org.dragonskulle.game.player.ai.algorithms.AStar;
+import org.dragonskulle.utils.MathUtils;
+import org.joml.Matrix2f;
+import org.joml.Vector2f;
+import org.joml.Vector3f;
+import org.junit.Test;
+
+/**
+ * Benchmarks of {@link AStar} searches between capitals.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Capitals are placed the way players place them, in evenly spread slices of a circle around
+ *     the centre of the map, at the furthest distance allowed. The two capitals are in opposite
+ *     slices of a full lobby, which is the longest path between capitals an AI player searches
+ *     for. A capital that lands on water, or an island, is moved to the closest tile of the
+ *     largest land mass, as capitals can not be placed on islands.
+ *     <p>Only run with the {@code benchmark} profile.
+ */
+@Log
+public class AStarBenchmark {
+    /** Number of warmup searches. */
+    private static final int WARMUP_RUNS = 3;
+    /** Number of measured searches. */
+    private static final int RUNS = 10;
+    /** Number of players capitals are spread between. */
+    private static final int PLAYERS = Lobby.MAX_PLAYERS;
+
+    /** Measure capital to capital searches on a regular sized map. */
+    @Test
+    public void benchmarkMap51() {
+        benchmark(51);
+    }
+
+    /** Measure capital to capital searches on a large map. */
+    @Test
+    public void benchmarkMap201() {
+        benchmark(201);
+    }
+
+    /**
+     * Measure capital to capital searches on a map.
+     *
+     * @param size size of the map.
+     */
+    private static void benchmark(int size) {
+        HexagonMap map = TestMaps.create(size);
+
+        List<HexagonTile> land = TestMaps.getLargestLandMass(map);
+        HexagonTile startTile = placeCapital(map, land, 0);
+        HexagonTile endTile = placeCapital(map, land, PLAYERS / 2);
+
+        int start = map.getTileIndex(startTile);
+        int end = map.getTileIndex(endTile);
+
+        int length = TestMaps.getLandDistances(map, end)[start] + 1;
+
+        long buildStart = System.nanoTime();
+        NavigationGraph navigation = new NavigationGraph(map);
+        long buildNanos = System.nanoTime() - buildStart;
+
+        AStar search = new AStar();
+
+        // The path is one of the shortest ones
+        assertTrue(search.search(navigation, start, end));
+        assertEquals(length, search.getPathLength());
+        assertEquals(start, search.getPathNode(0));
+        assertEquals(end, search.getPathNode(length - 1));
+
+        double nanos = timeSearches(search, navigation, start, end);
+
+        log.info(
+                String.format(
+                        "map %d, %d land tiles, path of %d: graph %.2f ms, search %.3f ms",
+                        size, land.size(), length, buildNanos / 1e6, nanos / 1e6));
+    }
+
+    /**
+     * Measure searches between two nodes.
+     *
+     * @param search search to reuse.
+     * @param graph graph to search.
+     * @param start start node.
+     * @param goal goal node.
+     * @return average time of a search, in nanoseconds.
+     */
+    private static double timeSearches(AStar search, ISearchGraph graph, int start, int goal) {
+        int length = search.getPathLength();
+
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            search.search(graph, start, goal);
+        }
+
+        long nanos = 0;
+        for (int i = 0; i < RUNS; i++) {
+            long searchStart = System.nanoTime();
+            assertTrue(search.search(graph, start, goal));
+            nanos += System.nanoTime() - searchStart;
+            assertEquals(length, search.getPathLength());
+        }
+
+        return (double) nanos / RUNS;
+    }
+
+    /**
+     * Place the capital of a player, like {@link Player} does.
+     *
+     * <p>The capital is placed in the middle of the player's slice, at the furthest distance from
+     * the centre that a player may place it at.
+     *
+     * @param map map to place the capital on.
+     * @param land tiles of the largest land mass.
+     * @param player index of the player.
+     * @return tile of the capital.
+     */
+    private static HexagonTile placeCapital(HexagonMap map, List<HexagonTile> land, int player) {
+        float angleOfCircle = 360f / (PLAYERS + 1);
+        float angleBetween = (360 - (angleOfCircle * PLAYERS)) / PLAYERS;
+        float angle = player * (angleOfCircle + angleBetween) + angleOfCircle / 2;
+
+        Matrix2f rotation = new Matrix2f().rotate(angle * MathUtils.DEG_TO_RAD);
+        Vector2f direction = new Vector2f(0f, 1f).mul(rotation);
+
+        float radius = (map.getSize() / 2);
+        radius = (float) Math.sqrt(radius * radius * 0.75f);
+        direction.mul(radius).mul(TransformHex.HEX_WIDTH);
+
+        Vector2f axial = new Vector2f();
+        TransformHex.cartesianToAxial(new Vector3f(direction.x, direction.y, 0f), axial);
+        int q = (int) axial.x;
+        int r = (int) axial.y;
+
+        return land.stream().min(Comparator.comparingInt(t -> t.distTo(q, r))).get();
+    }
+}
@@ -2,8 +2,10 @@
 package org.dragonskulle.game.player.ai.algorithms.graphs;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
-import java.util.Deque;
+import java.util.ArrayList;
+import java.util.List;
 import org.dragonskulle.game.player.ai.algorithms.AStar;
 import org.junit.Test;
 
@@ -18,52 +20,44 @@ public class AStarTest {
     @Test
     public void aStar() {
 
-        Graph graph = basicGraph();
+        TestGraph graph = basicGraph();
 
-        AStar aStar = new AStar(graph, 4, 5);
+        AStar aStar = new AStar();
 
-        Deque<Integer> answers = aStar.getPath();
-        assertEquals(3, answers.size());
+        assertTrue(aStar.search(graph, 4, 5));
+        assertEquals(3, aStar.getPathLength());
 
-        assertEquals(4, (int) answers.pop());
-        assertEquals(2, (int) answers.pop());
-        assertEquals(5, (int) answers.pop());
+        assertEquals(4, aStar.getPathNode(0));
+        assertEquals(2, aStar.getPathNode(1));
+        assertEquals(5, aStar.getPathNode(2));
     }
 
-    /** A Test which tests the A* algorithm on a larger {@link Graph} */
+    /** A Test which tests the A* algorithm on a larger graph */
     @Test
     public void advancedAStar() {
 
-        Graph graph = advancedGraph();
+        TestGraph graph = advancedGraph();
 
-        AStar aStar = new AStar(graph, 1, 10);
+        AStar aStar = new AStar();
 
-        Deque<Integer> answers = aStar.getPath();
+        assertTrue(aStar.search(graph, 1, 10));
+        assertEquals(5, aStar.getPathLength());
 
-        assertEquals(5, answers.size());
-
-        assertEquals(1, (int) answers.pop());
-        assertEquals(6, (int) answers.pop());
-        assertEquals(7, (int) answers.pop());
-        assertEquals(9, (int) answers.pop());
-        assertEquals(10, (int) answers.pop());
+        assertEquals(1, aStar.getPathNode(0));
+        assertEquals(6, aStar.getPathNode(1));
+        assertEquals(7, aStar.getPathNode(2));
+        assertEquals(9, aStar.getPathNode(3));
+        assertEquals(10, aStar.getPathNode(4));
     }
 
     /**
      * A Basic Constructor which is used for testing Creates a Graph from A* lecture by Dr Miqing Li
      *
-     * @return The {@code Graph} to test
+     * @return The graph to test
      */
-    public Graph basicGraph() {
-
-        Graph graph = new Graph();
+    public TestGraph basicGraph() {
 
-        graph.addNode(0, null);
-        graph.addNode(1, null);
-        graph.addNode(2, null);
-        graph.addNode(3, null);
-        graph.addNode(4, null);
-        graph.addNode(5, null);
+        TestGraph graph = new TestGraph(6);
 
         graph.setNodeHeuristic(0, 10);
         graph.addConnection(0, 1, 4);
@@ -89,18 +83,16 @@ public class AStarTest {
     }
 
     /**
-     * This will create a more complex {@link Graph}. Graph taken from
+     * This will create a more complex graph. Graph taken from
      * https://www.gatevidyalay.com/a-algorithm-a-algorithm-example-in-ai/
      *
-     * @return The {@link Graph}
+     * <p>The graph numbers its nodes from 1, so node 0 is left unconnected.
+     *
+     * @return The graph
      */
-    public Graph advancedGraph() {
+    public TestGraph advancedGraph() {
 
-        Graph graph = new Graph();
-
-        for (int i = 1; i <= 10; i++) {
-            graph.addNode(i, null);
-        }
+        TestGraph graph = new TestGraph(11);
 
         graph.setNodeHeuristic(1, 10);
         graph.addConnection(1, 6, 3);
@@ -152,4 +144,88 @@ public class AStarTest {
 
         return graph;
     }
+
+    /** A small graph with a fixed heuristic per node, built one connection at a time. */
+    private static class TestGraph implements ISearchGraph {
+        /** The heuristic of every node, towards the only goal the tests use. */
+        private final int[] mHeuristics;
+        /** The connections of every node, as pairs of the destination and weight. */
+        private final List<List<int[]>> mConnections = new ArrayList<>();
+        /** The connection of every edge index, rebuilt whenever a connection is added. */
+        private final List<int[]> mEdges = new ArrayList<>();
+        /** The first edge of every node. */
+        private final int[] mEdgeStarts;
+
+        /**
+         * Create a graph without any connections.
+         *
+         * @param nodeCount The number of nodes.
+         */
+        TestGraph(int nodeCount) {
+            mHeuristics = new int[nodeCount];
+            mEdgeStarts = new int[nodeCount + 1];
+
+            for (int i = 0; i < nodeCount; i++) {
+                mConnections.add(new ArrayList<>());
+            }
+        }
+
+        /**
+         * Set the heuristic of a node.
+         *
+         * @param node The node.
+         * @param heuristic The estimated cost of reaching the goal from the node.
+         */
+        void setNodeHeuristic(int node, int heuristic) {
+            mHeuristics[node] = heuristic;
+        }
+
+        /**
+         * Add a directed connection between two nodes.
+         *
+         * @param origin The node the connection goes out of.
+         * @param destination The node the connection leads to.
+         * @param weight The cost of the connection.
+         */
+        void addConnection(int origin, int destination, int weight) {
+            mConnections.get(origin).add(new int[] {destination, weight});
+
+            mEdges.clear();
+            for (int node = 0; node < mHeuristics.length; node++) {
+                mEdgeStarts[node] = mEdges.size();
+                mEdges.addAll(mConnections.get(node));
+            }
+            mEdgeStarts[mHeuristics.length] = mEdges.size();
+        }
+
+        @Override
+        public int getNodeCount() {
+            return mHeuristics.length;
+        }
+
+        @Override
+        public int getEdgeStart(int node) {
+            return mEdgeStarts[node];
+        }
+
+        @Override
+        public int getEdgeEnd(int node) {
+            return mEdgeStarts[node + 1];
+        }
+
+        @Override
+        public int getEdgeTarget(int edge) {
+            return mEdges.get(edge)[0];
+        }
+
+        @Override
+        public int getEdgeWeight(int edge) {
+            return mEdges.get(edge)[1];
+        }
+
+        @Override
+        public int getHeuristic(int node, int goal) {
+            return mHeuristics[node];
+        }
+    }
 }
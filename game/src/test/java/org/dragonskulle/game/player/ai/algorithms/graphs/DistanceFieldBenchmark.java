@@ -0,0 +1,77 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.game.player.ai.algorithms.graphs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+import lombok.extern.java.Log;
+import org.dragonskulle.game.map.HexagonMap;
+import org.dragonskulle.game.map.HexagonTile;
+import org.dragonskulle.game.map.TestMaps;
+import org.dragonskulle.game.player.ai.algorithms.AStar;
+import org.dragonskulle.game.player.ai.algorithms.DistanceField;
+import org.junit.Test;
+
+/**
+ * Benchmark of {@link DistanceField} against {@link AStar} searches.
+ *
+ * @author Aurimas Blažulionis
+ *     <p>Only run with the {@code benchmark} profile.
+ */
+@Log
+public class DistanceFieldBenchmark {
+    /** Number of targets, like the buildings of a player. */
+    private static final int TARGETS = 12;
+
+    /** Number of starts, like the buildings of the player aiming. */
+    private static final int STARTS = 12;
+
+    /** Measure finding the nearest of many targets, with A* searches, and with a field. */
+    @Test
+    public void benchmarkNearestTarget() {
+        HexagonMap map = TestMaps.create(201);
+        NavigationGraph graph = map.getNavigationGraph();
+        Random random = new Random(19);
+        AStar search = new AStar();
+
+        List<HexagonTile> land = TestMaps.getLargestLandMass(map);
+        int[] targets = new int[TARGETS];
+        int[] starts = new int[STARTS];
+
+        for (int i = 0; i < TARGETS; i++) {
+            targets[i] = map.getTileIndex(land.get(random.nextInt(land.size())));
+        }
+        for (int i = 0; i < STARTS; i++) {
+            starts[i] = map.getTileIndex(land.get(random.nextInt(land.size())));
+        }
+
+        // Warm up
+        new DistanceField(graph, targets, null);
+        search.search(graph, starts[0], targets[0]);
+
+        long searchStart = System.nanoTime();
+        int best = Integer.MAX_VALUE;
+        for (int start : starts) {
+            for (int target : targets) {
+                assertTrue(search.search(graph, start, target));
+                best = Math.min(best, search.getPathLength() - 1);
+            }
+        }
+        long searchNanos = System.nanoTime() - searchStart;
+
+        long fieldStart = System.nanoTime();
+        DistanceField field = new DistanceField(graph, targets, null);
+        int nearest = field.findNearest(starts);
+        long fieldNanos = System.nanoTime() - fieldStart;
+
+        assertEquals(best, field.getDistance(nearest));
+
+        log.info(
+                String.format(
+                        "map 201, nearest of %d targets from %d starts: "
+                                + "A* %.2f ms, distance field %.2f ms",
+                        TARGETS, STARTS, searchNanos / 1e6, fieldNanos / 1e6));
+    }
+}
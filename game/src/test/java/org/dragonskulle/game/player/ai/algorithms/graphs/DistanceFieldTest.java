@@ -0,0 +1,145 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.game.player.ai.algorithms.graphs;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import java.util.function.IntPredicate;
+import org.dragonskulle.game.map.HexagonMap;
+import org.dragonskulle.game.map.HexagonTile;
+import org.dragonskulle.game.map.TestMaps;
+import org.dragonskulle.game.player.ai.algorithms.AStar;
+import org.dragonskulle.game.player.ai.algorithms.DistanceField;
+import org.junit.Test;
+
+/**
+ * Tests for {@link DistanceField}.
+ *
+ * @author Aurimas Blažulionis
+ */
+public class DistanceFieldTest {
+    /** Test that distances are the shortest path to the nearest target. */
+    @Test
+    public void testMatchesAStar() {
+        HexagonMap map = TestMaps.create(31);
+        NavigationGraph graph = map.getNavigationGraph();
+        Random random = new Random(11);
+
+        int[] targets = pickLand(map, random, 5);
+        DistanceField field = new DistanceField(graph, targets, null);
+
+        checkField(map, graph, field, targets, pickLand(map, random, 30), null);
+    }
+
+    /** Test that distances only go through allowed nodes. */
+    @Test
+    public void testAllowed() {
+        HexagonMap map = TestMaps.create(31);
+        NavigationGraph graph = map.getNavigationGraph();
+        Random random = new Random(13);
+
+        long[] bits = new long[(graph.getNodeCount() + 63) >>> 6];
+        for (int i = 0; i < graph.getNodeCount(); i++) {
+            if (random.nextFloat() < 0.8f) {
+                bits[i >>> 6] |= 1L << i;
+            }
+        }
+        IntPredicate allowed = (n) -> (bits[n >>> 6] & (1L << n)) != 0;
+
+        int[] targets = pickLand(map, random, 5);
+        DistanceField field = new DistanceField(graph, targets, allowed);
+
+        checkField(map, graph, field, targets, pickLand(map, random, 30), allowed);
+    }
+
+    /** Test that unreachable targets are ruled out by land masses. */
+    @Test
+    public void testLandMasses() {
+        HexagonMap map = TestMaps.create(31);
+        NavigationGraph graph = map.getNavigationGraph();
+        Random random = new Random(17);
+        AStar search = new AStar();
+
+        int[] nodes = pickLand(map, random, 40);
+
+        for (int i = 1; i < nodes.length; i++) {
+            boolean sameLandMass = graph.getLandMass(nodes[i - 1]) == graph.getLandMass(nodes[i]);
+            assertEquals(sameLandMass, search.search(graph, nodes[i - 1], nodes[i]));
+        }
+    }
+
+    /**
+     * Check the distances and paths of a field against A* searches to every target.
+     *
+     * @param map map of the graph.
+     * @param graph graph of the field.
+     * @param field field to check.
+     * @param targets targets of the field.
+     * @param starts nodes to check the distances of.
+     * @param allowed nodes the paths may go through, or {@code null}.
+     */
+    private static void checkField(
+            HexagonMap map,
+            NavigationGraph graph,
+            DistanceField field,
+            int[] targets,
+            int[] starts,
+            IntPredicate allowed) {
+        AStar search = new AStar();
+
+        for (int start : starts) {
+            int expected = DistanceField.UNREACHABLE;
+
+            for (int target : targets) {
+                IntPredicate filter =
+                        allowed == null ? null : (n) -> n == target || allowed.test(n);
+                if (search.search(graph, start, target, filter)) {
+                    expected = Math.min(expected, search.getPathLength() - 1);
+                }
+            }
+
+            // The start itself is walked through, unless it is a target
+            if (allowed != null && !allowed.test(start) && expected != 0) {
+                continue;
+            }
+
+            assertEquals(expected, field.getDistance(start));
+
+            if (expected == DistanceField.UNREACHABLE) {
+                continue;
+            }
+
+            int steps = 0;
+            for (int node = start; field.getNext(node) != -1; node = field.getNext(node)) {
+                HexagonTile from = map.getTileByIndex(node);
+                HexagonTile to = map.getTileByIndex(field.getNext(node));
+                assertEquals(1, from.distTo(to.getQ(), to.getR()));
+                steps++;
+            }
+            assertEquals(expected, steps);
+        }
+    }
+
+    /**
+     * Pick random walkable tiles.
+     *
+     * @param map map to pick from.
+     * @param random random numbers to pick with.
+     * @param count number of tiles.
+     * @return indices of the tiles.
+     */
+    private static int[] pickLand(HexagonMap map, Random random, int count) {
+        NavigationGraph graph = map.getNavigationGraph();
+        int[] nodes = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            int node;
+            do {
+                node = random.nextInt(graph.getNodeCount());
+            } while (!graph.isWalkable(node));
+            nodes[i] = node;
+        }
+
+        return nodes;
+    }
+}
@@ -0,0 +1,142 @@
+/* (C) 2021 DragonSkulle */
+package org.dragonskulle.game.player.ai.algorithms.graphs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.dragonskulle.game.map.HexagonMap;
+import org.dragonskulle.game.map.HexagonTile;
+import org.dragonskulle.game.map.HexagonTile.TileType;
+import org.dragonskulle.game.map.TestMaps;
+import org.dragonskulle.game.player.ai.algorithms.AStar;
+import org.junit.Test;
+
+/**
+ * Tests for {@link NavigationGraph}.
+ *
+ * @author Aurimas Blažulionis
+ */
+public class NavigationGraphTest {
+
+    /** Test that paths through the shared graph are the shortest ones over land. */
+    @Test
+    public void testShortestPaths() {
+        HexagonMap map = TestMaps.create(31);
+        NavigationGraph navigation = map.getNavigationGraph();
+
+        assertSame(navigation, map.getNavigationGraph());
+
+        List<HexagonTile> land =
+                map.getAllTiles()
+                        .filter(t -> t.getTileType() == TileType.LAND)
+                        .collect(Collectors.toList());
+
+        Random random = new Random(7);
+        AStar search = new AStar();
+
+        for (int i = 0; i < 50; i++) {
+            HexagonTile start = land.get(random.nextInt(land.size()));
+            HexagonTile end = land.get(random.nextInt(land.size()));
+
+            // Unreachable tiles are at distance -1, which gives an empty path
+            int expected =
+                    TestMaps.getLandDistances(map, map.getTileIndex(end))[map.getTileIndex(start)]
+                            + 1;
+
+            boolean found =
+                    search.search(navigation, map.getTileIndex(start), map.getTileIndex(end));
+
+            assertEquals(expected != 0, found);
+            assertEquals(expected, search.getPathLength());
+
+            for (int j = 1; j < search.getPathLength(); j++) {
+                HexagonTile from = map.getTileByIndex(search.getPathNode(j - 1));
+                HexagonTile to = map.getTileByIndex(search.getPathNode(j));
+                assertEquals(1, from.distTo(to.getQ(), to.getR()));
+                assertEquals(TileType.LAND, to.getTileType());
+            }
+        }
+    }
+
+    /** Test that changing a tile's type patches the edges around it. */
+    @Test
+    public void testUpdateTile() throws IOException {
+        HexagonMap map = TestMaps.create(31);
+        NavigationGraph navigation = map.getNavigationGraph();
+
+        HexagonTile water =
+                map.getAllTiles()
+                        .filter(t -> t.getTileType() == TileType.WATER)
+                        .filter(t -> landNeighbours(map, t) > 0)
+                        .findFirst()
+                        .orElse(null);
+        HexagonTile land =
+                map.getAllTiles()
+                        .filter(t -> t.getTileType() == TileType.LAND)
+                        .findFirst()
+                        .orElse(null);
+
+        assertNotNull(water);
+        assertNotNull(land);
+
+        int index = map.getTileIndex(water);
+        assertEquals(0, navigation.getEdgeEnd(index) - navigation.getEdgeStart(index));
+
+        // Turn the water tile into land, the same way a client receives it
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        land.serialize(new DataOutputStream(bytes), 0);
+        water.deserialize(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(TileType.LAND, water.getTileType());
+        assertEquals(
+                landNeighbours(map, water),
+                navigation.getEdgeEnd(index) - navigation.getEdgeStart(index));
+
+        for (int d = 0; d < HexagonMap.NEIGHBOUR_COUNT; d++) {
+            int neighbour = map.getNeighbourIndex(index, d);
+
+            if (neighbour < 0 || !navigation.isWalkable(neighbour)) {
+                continue;
+            }
+
+            boolean connected = false;
+            for (int e = navigation.getEdgeStart(neighbour);
+                    e < navigation.getEdgeEnd(neighbour);
+                    e++) {
+                connected |= navigation.getEdgeTarget(e) == index;
+            }
+            assertTrue(connected);
+        }
+    }
+
+    /**
+     * Count the land neighbours of a tile.
+     *
+     * @param map map of the tile.
+     * @param tile tile to check.
+     * @return number of neighbouring land tiles.
+     */
+    private static int landNeighbours(HexagonMap map, HexagonTile tile) {
+        int count = 0;
+
+        for (int d = 0; d < HexagonMap.NEIGHBOUR_COUNT; d++) {
+            HexagonTile neighbour = map.getNeighbour(tile, d);
+
+            if (neighbour != null && neighbour.getTileType() == TileType.LAND) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+}